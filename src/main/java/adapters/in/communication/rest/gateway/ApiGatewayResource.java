@@ -3,7 +3,12 @@ package adapters.in.communication.rest.gateway;
 import application.dtos.gateway.GatewayRequest;
 import application.dtos.gateway.GatewayResponse;
 import application.dtos.gateway.GatewayStreamResponse;
+import configurations.gateway.GatewayConfig;
+import io.quarkus.arc.properties.IfBuildProperty;
 import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
@@ -14,249 +19,193 @@ import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
-import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import jakarta.ws.rs.core.StreamingOutput;
 import jakarta.ws.rs.core.UriInfo;
 import lombok.extern.slf4j.Slf4j;
+import org.jboss.resteasy.reactive.RestMulti;
 import ports.in.gateway.ProxyRequestUseCase;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Locale;
-import java.util.Map;
 
+/**
+ * Proxies every request on the worker pool. Streamed responses are opened there and their bodies relayed by the
+ * {@link StreamLane}, so the worker is released as soon as the downstream answered.
+ * <p>
+ * Live streams ({@link GatewayJaxRsMapper#isStreamingRequest}) are streamed from the start. Any other response is
+ * streamed when its head shows a body larger than the route's {@code streaming.buffer-threshold} or of unknown length,
+ * and written from memory otherwise.
+ */
 @Path("")
 @Blocking
 @Slf4j
 @Consumes(MediaType.WILDCARD)
-@Produces(MediaType.WILDCARD)
+// No @Produces: a wildcard would make the streamed GET bodies SSE streams; the Content-Type comes from the downstream.
+@IfBuildProperty(name = "gateway.execution-mode", stringValue = "worker", enableIfMissing = true)
 public class ApiGatewayResource {
 
     private final ProxyRequestUseCase proxyRequestUseCase;
+    private final StreamLane streamLane;
+    private final long bufferThreshold;
 
-    public ApiGatewayResource(ProxyRequestUseCase proxyRequestUseCase) {
+    public ApiGatewayResource(ProxyRequestUseCase proxyRequestUseCase, StreamLane streamLane, GatewayConfig gatewayConfig) {
         this.proxyRequestUseCase = proxyRequestUseCase;
+        this.streamLane = streamLane;
+        this.bufferThreshold = gatewayConfig.requestBody().bufferThreshold();
     }
 
     @GET
     @Path("{proxyPath:.*}")
-    public Response get(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
-        return proxy("GET", proxyPath, uriInfo, headers, null);
+    public RestMulti<Buffer> get(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+        return proxyGet(proxyPath, uriInfo, headers);
     }
 
     @HEAD
     @Path("{proxyPath:.*}")
     public Response head(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
-        return proxy("HEAD", proxyPath, uriInfo, headers, null);
+        return proxyHead(proxyPath, uriInfo, headers);
     }
 
     @DELETE
     @Path("{proxyPath:.*}")
-    public Response delete(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+    public RestMulti<Buffer> delete(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
         return proxy("DELETE", proxyPath, uriInfo, headers, null);
     }
 
     @OPTIONS
     @Path("{proxyPath:.*}")
-    public Response options(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+    public RestMulti<Buffer> options(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
         return proxy("OPTIONS", proxyPath, uriInfo, headers, null);
     }
 
     @POST
     @Path("{proxyPath:.*}")
-    public Response post(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers, byte[] body) {
+    public RestMulti<Buffer> post(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers, InputStream body) {
         return proxy("POST", proxyPath, uriInfo, headers, body);
     }
 
     @PUT
     @Path("{proxyPath:.*}")
-    public Response put(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers, byte[] body) {
+    public RestMulti<Buffer> put(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers, InputStream body) {
         return proxy("PUT", proxyPath, uriInfo, headers, body);
     }
 
     @PATCH
     @Path("{proxyPath:.*}")
-    public Response patch(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers, byte[] body) {
+    public RestMulti<Buffer> patch(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers, InputStream body) {
         return proxy("PATCH", proxyPath, uriInfo, headers, body);
     }
 
-    private Response proxy(String method, String proxyPath, UriInfo uriInfo, HttpHeaders headers, byte[] body) {
-        String normalizedProxyPath = proxyPath == null ? "" : proxyPath;
-        if (normalizedProxyPath.isBlank()) {
-            normalizedProxyPath = "/";
-        } else if (!normalizedProxyPath.startsWith("/")) {
-            normalizedProxyPath = "/" + normalizedProxyPath;
+    /**
+     * Live streams are relayed on the {@link StreamLane} as soon as they are opened; other {@code GET}s are answered
+     * like any other method.
+     */
+    RestMulti<Buffer> proxyGet(String proxyPath, UriInfo uriInfo, HttpHeaders headers) {
+        GatewayRequest request = received("GET", proxyPath, uriInfo, headers, null);
+        if (GatewayJaxRsMapper.isStreamingRequest("GET", headers, request.path())) {
+            return proxyStream(request);
         }
-        String rawQuery = uriInfo.getRequestUri().getRawQuery();
-
-        log.info("Gateway received {} {}{}", method, normalizedProxyPath, rawQuery == null ? "" : ("?" + rawQuery));
-
-        Map<String, List<String>> headerMap = new HashMap<>();
-        headers.getRequestHeaders().forEach((k, v) -> headerMap.put(k, new ArrayList<>(v)));
-
-        GatewayRequest request = new GatewayRequest(method, normalizedProxyPath, rawQuery, headerMap, body);
-
-        if (isStreamingRequest(method, headers, normalizedProxyPath)) {
-            GatewayStreamResponse gatewayResponse = proxyRequestUseCase.proxyStream(request);
-            log.info("Gateway responding (stream) with status {} for {} {}", gatewayResponse.status(), method, normalizedProxyPath);
-            log.debug("Gateway response (stream) headers={}", gatewayResponse.headers());
-            return toJaxRsStreamingResponse(gatewayResponse);
-        }
-
-        GatewayResponse gatewayResponse = proxyRequestUseCase.proxy(request);
-        log.info("Gateway responding with status {} for {} {}", gatewayResponse.status(), method, normalizedProxyPath);
-        log.info("Gateway response headers={} bodyBytes={}",
-                gatewayResponse.headers(),
-                gatewayResponse.body() == null ? 0 : gatewayResponse.body().length);
-        return toJaxRsResponse(gatewayResponse);
+        return respond(request);
     }
 
-    private static boolean isStreamingRequest(String method, HttpHeaders headers, String normalizedProxyPath) {
-        if (method == null || !method.equalsIgnoreCase("GET")) {
-            return false;
-        }
-
-        if (normalizedProxyPath != null) {
-            String p = normalizedProxyPath.toLowerCase(Locale.ROOT);
-            if (p.contains("/streaming/hls/")
-                    || p.endsWith(".m3u8")
-                    || p.endsWith(".ts")
-                    || p.endsWith(".m4s")
-                    || p.endsWith(".key")) {
-                return true;
-            }
-        }
-
-        if (normalizedProxyPath != null && normalizedProxyPath.endsWith("/stream")) {
-            return true;
-        }
-
-        if (headers == null) {
-            return false;
-        }
+    RestMulti<Buffer> proxy(String method, String proxyPath, UriInfo uriInfo, HttpHeaders headers, InputStream body) {
+        return respond(received(method, proxyPath, uriInfo, headers, body));
+    }
 
-        List<String> accepts = headers.getRequestHeader("Accept");
-        if (accepts == null || accepts.isEmpty()) {
-            return false;
-        }
+    Response proxyHead(String proxyPath, UriInfo uriInfo, HttpHeaders headers) {
+        return GatewayJaxRsMapper.toJaxRsResponse(proxyResponse(received("HEAD", proxyPath, uriInfo, headers, null)));
+    }
 
-        for (String accept : accepts) {
-            if (accept == null) {
-                continue;
-            }
-            String a = accept.toLowerCase(Locale.ROOT);
-            if (a.contains("multipart/x-mixed-replace")) {
-                return true;
-            }
+    /**
+     * Writes a buffered body as a single chunk, and relays a body the downstream answer left streamed on the
+     * {@link StreamLane}.
+     */
+    private RestMulti<Buffer> respond(GatewayRequest request) {
+        GatewayResponse gatewayResponse = proxyResponse(request);
+
+        Multi<Buffer> body;
+        if (gatewayResponse.bodyStream() != null) {
+            body = relay(gatewayResponse);
+        } else if (gatewayResponse.body() == null || gatewayResponse.body().length == 0) {
+            body = Multi.createFrom().empty();
+        } else {
+            body = Multi.createFrom().item(Buffer.buffer(gatewayResponse.body()));
         }
-
-        return false;
+        return RestMulti.fromUniResponse(Uni.createFrom().item(gatewayResponse),
+                response -> body,
+                response -> GatewayJaxRsMapper.responseHeaders(response.headers(), false),
+                GatewayResponse::status);
     }
 
-    private static Response toJaxRsResponse(GatewayResponse gatewayResponse) {
-        Response.ResponseBuilder builder = Response.status(gatewayResponse.status());
-
-        String contentType = null;
-        if (gatewayResponse.headers() != null) {
-            for (Map.Entry<String, List<String>> entry : gatewayResponse.headers().entrySet()) {
-                String k = entry.getKey();
-                List<String> values = entry.getValue();
-                if (k == null || values == null) {
-                    continue;
-                }
-
-                if (k.regionMatches(true, 0, "Access-Control-", 0, "Access-Control-".length())) {
-                    continue;
-                }
-
-                if (k.equalsIgnoreCase("Content-Type") && !values.isEmpty()) {
-                    contentType = values.getFirst();
-                    continue;
-                }
-
-                for (String value : values) {
-                    if (value != null) {
-                        builder.header(k, value);
-                    }
-                }
+    private Multi<Buffer> relay(GatewayResponse gatewayResponse) {
+        InputStream bodyStream = gatewayResponse.bodyStream();
+        StreamLane.Slot slot;
+        try {
+            slot = streamLane.admit();
+        } catch (RuntimeException e) {
+            try {
+                bodyStream.close();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
             }
+            throw e;
         }
-
-        if (contentType != null && !contentType.isBlank()) {
-            builder.type(contentType);
-        }
-
-        if (gatewayResponse.body() != null) {
-            byte[] body = gatewayResponse.body();
-            builder.entity((StreamingOutput) output -> output.write(body));
-        }
-        return builder.build();
+        return GatewayJaxRsMapper.isLiveStream(gatewayResponse.headers())
+                ? slot.relayLive(bodyStream)
+                : slot.relay(bodyStream);
     }
 
-    private static Response toJaxRsStreamingResponse(GatewayStreamResponse gatewayResponse) {
-        Response.ResponseBuilder builder = Response.status(gatewayResponse.status());
-
-        String contentType = null;
-        if (gatewayResponse.headers() != null) {
-            for (Map.Entry<String, List<String>> entry : gatewayResponse.headers().entrySet()) {
-                String k = entry.getKey();
-                List<String> values = entry.getValue();
-                if (k == null || values == null) {
-                    continue;
-                }
-
-                if (k.regionMatches(true, 0, "Access-Control-", 0, "Access-Control-".length())) {
-                    continue;
-                }
-
-                if (k.equalsIgnoreCase("Content-Type") && !values.isEmpty()) {
-                    contentType = values.getFirst();
-                    continue;
-                }
+    private GatewayRequest received(String method, String proxyPath, UriInfo uriInfo, HttpHeaders headers, InputStream body) {
+        GatewayRequest request = GatewayJaxRsMapper.toGatewayRequest(method, proxyPath, uriInfo, headers, body, bufferThreshold);
+        String rawQuery = request.rawQuery();
+        log.info("Gateway received {} {}{}", method, request.path(), rawQuery == null ? "" : ("?" + rawQuery));
+        return request;
+    }
 
-                for (String value : values) {
-                    if (value != null) {
-                        builder.header(k, value);
-                    }
-                }
-            }
-        }
+    private GatewayResponse proxyResponse(GatewayRequest request) {
+        GatewayResponse gatewayResponse = proxyRequestUseCase.proxy(request);
+        log.info("Gateway responding with status {} for {} {}", gatewayResponse.status(), request.method(), request.path());
+        log.info("Gateway response headers={} bodyBytes={}",
+                gatewayResponse.headers(),
+                gatewayResponse.bodyStream() != null ? "streamed"
+                        : gatewayResponse.body() == null ? 0 : gatewayResponse.body().length);
+        return gatewayResponse;
+    }
 
-        if (contentType != null && !contentType.isBlank()) {
-            builder.type(contentType);
+    /**
+     * Opens the stream on the calling thread, which carries the request context, and leaves its body to the lane.
+     */
+    private RestMulti<Buffer> proxyStream(GatewayRequest request) {
+        StreamLane.Slot slot = streamLane.admit();
+        GatewayStreamResponse gatewayResponse;
+        try {
+            gatewayResponse = proxyRequestUseCase.proxyStream(request);
+        } catch (RuntimeException e) {
+            slot.release();
+            throw e;
         }
-
-        // Helpful when running behind certain reverse proxies.
-        builder.header("Cache-Control", "no-cache");
-        builder.header("Pragma", "no-cache");
-        builder.header("X-Accel-Buffering", "no");
-
-        InputStream body = gatewayResponse.body();
-        if (body != null) {
-            builder.entity((StreamingOutput) output -> {
-                byte[] buffer = new byte[16 * 1024];
-                try (InputStream in = body) {
-                    int read;
-                    while ((read = in.read(buffer)) >= 0) {
-                        if (read == 0) {
-                            continue;
-                        }
-                        output.write(buffer, 0, read);
-                        output.flush();
-                    }
-                } catch (IOException ignored) {
-                    // client disconnected / downstream closed; treat as normal for streaming endpoints
-                }
-            });
+        log.info("Gateway responding (stream) with status {} for {} {}", gatewayResponse.status(), request.method(), request.path());
+        log.debug("Gateway response (stream) headers={}", gatewayResponse.headers());
+
+        Multi<Buffer> body;
+        if (gatewayResponse.bodyFile() != null) {
+            // Written from the page cache by the event loop, no lane thread needed.
+            slot.release();
+            body = GatewayJaxRsMapper.mappedFile(gatewayResponse.bodyFile());
+        } else if (gatewayResponse.body() == null) {
+            slot.release();
+            body = Multi.createFrom().empty();
+        } else if (GatewayJaxRsMapper.isLiveStream(gatewayResponse.headers())) {
+            body = slot.relayLive(gatewayResponse.body());
+        } else {
+            body = slot.relay(gatewayResponse.body());
         }
-
-        return builder.build();
+        return RestMulti.fromUniResponse(Uni.createFrom().item(gatewayResponse),
+                response -> body,
+                response -> GatewayJaxRsMapper.responseHeaders(response.headers(), true),
+                GatewayStreamResponse::status);
     }
 }
@@ -0,0 +1,242 @@
+package adapters.in.communication.rest.gateway;
+
+import application.dtos.gateway.GatewayRequest;
+import application.dtos.gateway.GatewayResponse;
+import application.dtos.gateway.StreamingBody;
+import domain.gateway.Headers;
+import io.netty.buffer.Unpooled;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.buffer.impl.BufferImpl;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpVersion;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Translation between JAX-RS requests/responses and gateway DTOs, shared by the gateway resources of every
+ * execution mode.
+ */
+final class GatewayJaxRsMapper {
+
+    private static final int MAPPED_CHUNK_BYTES = 64 * 1024;
+
+    private GatewayJaxRsMapper() {
+    }
+
+    static GatewayRequest toGatewayRequest(String method, String proxyPath, UriInfo uriInfo, HttpHeaders headers, byte[] body) {
+        return toGatewayRequest(method, proxyPath, uriInfo, headers, body, null);
+    }
+
+    /**
+     * Bodies up to {@code bufferThreshold} bytes (by Content-Length) are read into memory; larger or chunked bodies
+     * are left on the connection and relayed as a {@link StreamingBody}.
+     */
+    static GatewayRequest toGatewayRequest(String method, String proxyPath, UriInfo uriInfo, HttpHeaders headers,
+                                           InputStream body, long bufferThreshold) {
+        if (body == null) {
+            return toGatewayRequest(method, proxyPath, uriInfo, headers, null, null);
+        }
+
+        long contentLength = headers.getLength();
+        if (contentLength >= 0 && contentLength <= bufferThreshold) {
+            try {
+                return toGatewayRequest(method, proxyPath, uriInfo, headers, body.readAllBytes(), null);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return toGatewayRequest(method, proxyPath, uriInfo, headers, null, new StreamingBody(body, contentLength));
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #toGatewayRequest(String, String, UriInfo, HttpHeaders, InputStream, long)}
+     * for the event loop: a body within {@code bufferThreshold} is read into memory before the request is handed on,
+     * any other one is relayed as the {@link StreamingBody#chunks() chunks} of the connection, read as the downstream
+     * takes them. An HTTP/1.x request declaring neither a length nor a transfer encoding has no body.
+     */
+    static Uni<GatewayRequest> toGatewayRequest(String method, String proxyPath, UriInfo uriInfo, HttpHeaders headers,
+                                                HttpServerRequest body, long bufferThreshold) {
+        long contentLength = headers.getLength();
+        if (contentLength == 0 || contentLength < 0 && body.version() != HttpVersion.HTTP_2
+                && body.getHeader("Transfer-Encoding") == null) {
+            return Uni.createFrom().item(toGatewayRequest(method, proxyPath, uriInfo, headers, null, null));
+        }
+        // The request is left paused for the resource; the Multi reads it with fetch() as chunks are requested.
+        Multi<Buffer> chunks = io.vertx.mutiny.core.http.HttpServerRequest.newInstance(body).toMulti()
+                .map(io.vertx.mutiny.core.buffer.Buffer::getDelegate);
+        if (contentLength > 0 && contentLength <= bufferThreshold) {
+            return chunks.collect().in(() -> Buffer.buffer((int) contentLength), Buffer::appendBuffer)
+                    .map(buffered -> toGatewayRequest(method, proxyPath, uriInfo, headers, buffered.getBytes(), null));
+        }
+        return Uni.createFrom().item(toGatewayRequest(method, proxyPath, uriInfo, headers, null,
+                new StreamingBody(chunks, contentLength)));
+    }
+
+    private static GatewayRequest toGatewayRequest(String method, String proxyPath, UriInfo uriInfo, HttpHeaders headers,
+                                                   byte[] body, StreamingBody streamingBody) {
+        String normalizedProxyPath = proxyPath == null ? "" : proxyPath;
+        if (normalizedProxyPath.isBlank()) {
+            normalizedProxyPath = "/";
+        } else if (!normalizedProxyPath.startsWith("/")) {
+            normalizedProxyPath = "/" + normalizedProxyPath;
+        }
+        String rawQuery = uriInfo.getRequestUri().getRawQuery();
+
+        return new GatewayRequest(method, normalizedProxyPath, rawQuery, Headers.of(headers.getRequestHeaders()), body,
+                streamingBody);
+    }
+
+    static boolean isStreamingRequest(String method, HttpHeaders headers, String normalizedProxyPath) {
+        return isStreamingRequest(method, headers == null ? null : headers.getRequestHeader("Accept"), normalizedProxyPath);
+    }
+
+    static boolean isStreamingRequest(String method, List<String> accepts, String normalizedProxyPath) {
+        if (method == null || !method.equalsIgnoreCase("GET")) {
+            return false;
+        }
+
+        if (normalizedProxyPath != null) {
+            String p = normalizedProxyPath.toLowerCase(Locale.ROOT);
+            if (p.contains("/streaming/hls/")
+                    || p.endsWith(".m3u8")
+                    || p.endsWith(".ts")
+                    || p.endsWith(".m4s")
+                    || p.endsWith(".key")) {
+                return true;
+            }
+        }
+
+        if (normalizedProxyPath != null && normalizedProxyPath.endsWith("/stream")) {
+            return true;
+        }
+
+        return accepts(accepts, "multipart/x-mixed-replace") || isEventStreamRequest(method, accepts);
+    }
+
+    /**
+     * A server-sent events subscription: a {@code GET} accepting {@code text/event-stream}.
+     */
+    static boolean isEventStreamRequest(String method, List<String> accepts) {
+        return method != null && method.equalsIgnoreCase("GET") && accepts(accepts, "text/event-stream");
+    }
+
+    /**
+     * Whether a response with {@code headers} is a live stream, MJPEG or server-sent events, rather than a body with
+     * an end of its own.
+     */
+    static boolean isLiveStream(Map<String, List<String>> headers) {
+        String contentType = Headers.of(headers).first("Content-Type");
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.trim().toLowerCase(Locale.ROOT);
+        return type.startsWith("multipart/x-mixed-replace") || type.startsWith("text/event-stream");
+    }
+
+    private static boolean accepts(List<String> accepts, String mediaType) {
+        if (accepts == null || accepts.isEmpty()) {
+            return false;
+        }
+
+        for (String accept : accepts) {
+            if (accept == null) {
+                continue;
+            }
+            String a = accept.toLowerCase(Locale.ROOT);
+            if (a.contains(mediaType)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    static Response toJaxRsResponse(GatewayResponse gatewayResponse) {
+        Response.ResponseBuilder builder = Response.status(gatewayResponse.status());
+        copyHeaders(gatewayResponse.headers(), builder);
+
+        if (gatewayResponse.body() != null) {
+            byte[] body = gatewayResponse.body();
+            builder.entity((StreamingOutput) output -> output.write(body));
+        }
+        return builder.build();
+    }
+
+    /**
+     * A locally cached file as buffers over one read-only memory map, so its bytes reach the socket from the page
+     * cache without being copied onto the heap. The mapping outlives the channel and the file's deletion.
+     */
+    static Multi<Buffer> mappedFile(Path file) {
+        return Multi.createFrom().deferred(() -> {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size == 0) {
+                    return Multi.createFrom().empty();
+                }
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                List<Buffer> chunks = new ArrayList<>();
+                for (int offset = 0; offset < size; offset += MAPPED_CHUNK_BYTES) {
+                    int length = (int) Math.min(MAPPED_CHUNK_BYTES, size - offset);
+                    chunks.add(BufferImpl.buffer(Unpooled.wrappedBuffer(mapped.slice(offset, length))));
+                }
+                return Multi.createFrom().iterable(chunks);
+            } catch (IOException e) {
+                return Multi.createFrom().failure(e);
+            }
+        });
+    }
+
+    /**
+     * Response headers for responses written outside a {@link Response.ResponseBuilder} (e.g. {@code RestMulti}).
+     */
+    static Headers responseHeaders(Map<String, List<String>> headers, boolean streaming) {
+        Headers relayed = Headers.of(headers).without(GatewayJaxRsMapper::isCorsHeader);
+        if (!streaming) {
+            return relayed;
+        }
+        Headers.Builder result = Headers.builder(relayed.size() + 3);
+        relayed.forEachValue((name, value) -> {
+            if (!name.equalsIgnoreCase("Cache-Control") && !name.equalsIgnoreCase("Pragma")) {
+                result.add(name, value);
+            }
+        });
+        return result.add("Cache-Control", "no-cache")
+                .add("Pragma", "no-cache")
+                .add("X-Accel-Buffering", "no")
+                .build();
+    }
+
+    private static void copyHeaders(Map<String, List<String>> headers, Response.ResponseBuilder builder) {
+        Headers relayed = Headers.of(headers);
+        relayed.forEachValue((name, value) -> {
+            if (!isCorsHeader(name) && !name.equalsIgnoreCase("Content-Type")) {
+                builder.header(name, value);
+            }
+        });
+
+        String contentType = relayed.first("Content-Type");
+        if (contentType != null && !contentType.isBlank()) {
+            builder.type(contentType);
+        }
+    }
+
+    private static boolean isCorsHeader(String name) {
+        return name.regionMatches(true, 0, "Access-Control-", 0, "Access-Control-".length());
+    }
+}
@@ -0,0 +1,158 @@
+package adapters.in.communication.rest.gateway;
+
+import application.dtos.gateway.GatewayReactiveStreamResponse;
+import application.dtos.gateway.GatewayRequest;
+import application.dtos.gateway.GatewayResponse;
+import io.quarkus.arc.properties.IfBuildProperty;
+import configurations.gateway.GatewayConfig;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerRequest;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HEAD;
+import jakarta.ws.rs.OPTIONS;
+import jakarta.ws.rs.PATCH;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.UriInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.jboss.resteasy.reactive.RestMulti;
+import ports.in.gateway.ReactiveProxyRequestUseCase;
+
+/**
+ * Event-loop variant of {@link ApiGatewayResource}, enabled with {@code gateway.execution-mode=reactive}.
+ * <p>
+ * No worker thread is held while a request is in flight: buffered responses are written as a single chunk and
+ * streaming responses are relayed with back-pressure as the downstream produces data, as are the bodies of other
+ * responses above the route's {@code streaming.buffer-threshold} or of unknown length. Request bodies above
+ * {@code gateway.request-body.buffer-threshold}, or of unknown length, are likewise piped to the downstream as the
+ * client sends them.
+ */
+@Path("")
+@Slf4j
+@Consumes(MediaType.WILDCARD)
+// No @Produces: a wildcard would make the Multi an SSE stream; the Content-Type comes from the downstream headers.
+@IfBuildProperty(name = "gateway.execution-mode", stringValue = "reactive")
+public class ReactiveApiGatewayResource {
+
+    private final ReactiveProxyRequestUseCase proxyRequestUseCase;
+    private final long bufferThreshold;
+
+    public ReactiveApiGatewayResource(ReactiveProxyRequestUseCase proxyRequestUseCase, GatewayConfig gatewayConfig) {
+        this.proxyRequestUseCase = proxyRequestUseCase;
+        this.bufferThreshold = gatewayConfig.requestBody().bufferThreshold();
+    }
+
+    @GET
+    @Path("{proxyPath:.*}")
+    public RestMulti<Buffer> get(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+        return proxy("GET", proxyPath, uriInfo, headers);
+    }
+
+    @HEAD
+    @Path("{proxyPath:.*}")
+    public RestMulti<Buffer> head(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+        return proxy("HEAD", proxyPath, uriInfo, headers);
+    }
+
+    @DELETE
+    @Path("{proxyPath:.*}")
+    public RestMulti<Buffer> delete(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+        return proxy("DELETE", proxyPath, uriInfo, headers);
+    }
+
+    @OPTIONS
+    @Path("{proxyPath:.*}")
+    public RestMulti<Buffer> options(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+        return proxy("OPTIONS", proxyPath, uriInfo, headers);
+    }
+
+    @POST
+    @Path("{proxyPath:.*}")
+    public RestMulti<Buffer> post(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers, @Context HttpServerRequest httpRequest) {
+        return proxyWithBody("POST", proxyPath, uriInfo, headers, httpRequest);
+    }
+
+    @PUT
+    @Path("{proxyPath:.*}")
+    public RestMulti<Buffer> put(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers, @Context HttpServerRequest httpRequest) {
+        return proxyWithBody("PUT", proxyPath, uriInfo, headers, httpRequest);
+    }
+
+    @PATCH
+    @Path("{proxyPath:.*}")
+    public RestMulti<Buffer> patch(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers, @Context HttpServerRequest httpRequest) {
+        return proxyWithBody("PATCH", proxyPath, uriInfo, headers, httpRequest);
+    }
+
+    /**
+     * The body is not left to JAX-RS, which would buffer all of it: it is taken from the connection as the
+     * downstream takes it.
+     */
+    private RestMulti<Buffer> proxyWithBody(String method, String proxyPath, UriInfo uriInfo, HttpHeaders headers,
+                                            HttpServerRequest httpRequest) {
+        return RestMulti.fromUniResponse(
+                GatewayJaxRsMapper.toGatewayRequest(method, proxyPath, uriInfo, headers, httpRequest, bufferThreshold)
+                        .invoke(request -> log.info("Gateway received {} {}{}", method, request.path(),
+                                request.rawQuery() == null ? "" : ("?" + request.rawQuery())))
+                        .flatMap(this::proxyBuffered),
+                this::body,
+                response -> GatewayJaxRsMapper.responseHeaders(response.headers(), false),
+                GatewayResponse::status);
+    }
+
+    private RestMulti<Buffer> proxy(String method, String proxyPath, UriInfo uriInfo, HttpHeaders headers) {
+        GatewayRequest request = GatewayJaxRsMapper.toGatewayRequest(method, proxyPath, uriInfo, headers, null);
+        String normalizedProxyPath = request.path();
+        String rawQuery = request.rawQuery();
+
+        log.info("Gateway received {} {}{}", method, normalizedProxyPath, rawQuery == null ? "" : ("?" + rawQuery));
+
+        if (GatewayJaxRsMapper.isStreamingRequest(method, headers, normalizedProxyPath)) {
+            return RestMulti.fromUniResponse(
+                    proxyRequestUseCase.proxyStreamAsync(request)
+                            .invoke(response -> {
+                                log.info("Gateway responding (stream) with status {} for {} {}", response.status(), method, normalizedProxyPath);
+                                log.debug("Gateway response (stream) headers={}", response.headers());
+                            }),
+                    response -> response.bodyFile() != null
+                            ? GatewayJaxRsMapper.mappedFile(response.bodyFile())
+                            : response.body(),
+                    response -> GatewayJaxRsMapper.responseHeaders(response.headers(), true),
+                    GatewayReactiveStreamResponse::status);
+        }
+
+        return RestMulti.fromUniResponse(
+                proxyBuffered(request),
+                this::body,
+                response -> GatewayJaxRsMapper.responseHeaders(response.headers(), false),
+                GatewayResponse::status);
+    }
+
+    private Uni<GatewayResponse> proxyBuffered(GatewayRequest request) {
+        return proxyRequestUseCase.proxyAsync(request)
+                .invoke(response -> {
+                    log.info("Gateway responding with status {} for {} {}", response.status(), request.method(), request.path());
+                    log.info("Gateway response headers={} bodyBytes={}",
+                            response.headers(),
+                            response.body() == null ? 0 : response.body().length);
+                });
+    }
+
+    private Multi<Buffer> body(GatewayResponse response) {
+        if (response.bodyChunks() != null) {
+            return response.bodyChunks();
+        }
+        return response.body() == null || response.body().length == 0
+                ? Multi.createFrom().empty()
+                : Multi.createFrom().item(Buffer.buffer(response.body()));
+    }
+}
@@ -0,0 +1,75 @@
+package adapters.in.communication.rest.gateway;
+
+import application.dtos.gateway.RouteTableSummary;
+import domain.gateway.RouteDefinition;
+import domain.gateway.RouteTable;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import lombok.extern.slf4j.Slf4j;
+import ports.in.gateway.ReloadRoutesUseCase;
+
+/**
+ * Administrative view of the live route table. Takes precedence over the catch-all
+ * {@link ApiGatewayResource} because its path is more specific.
+ * <p>
+ * Only callers with the {@value #ADMIN_ROLE} role get in; the keycloak policy enforcer additionally guards
+ * {@code /_gateway/*} as a resource of its own, apart from the proxied API.
+ */
+@Path("/_gateway/routes")
+@Slf4j
+@Produces(MediaType.APPLICATION_JSON)
+@RolesAllowed(RouteAdminResource.ADMIN_ROLE)
+public class RouteAdminResource {
+
+    public static final String ADMIN_ROLE = "gateway-admin";
+
+    private final ReloadRoutesUseCase reloadRoutesUseCase;
+
+    public RouteAdminResource(ReloadRoutesUseCase reloadRoutesUseCase) {
+        this.reloadRoutesUseCase = reloadRoutesUseCase;
+    }
+
+    @GET
+    public RouteTableSummary current() {
+        return toSummary(reloadRoutesUseCase.currentRoutes());
+    }
+
+    @POST
+    @Path("reload")
+    public RouteTableSummary reload() {
+        log.info("Route table reload requested through admin endpoint");
+        return toSummary(reloadRoutesUseCase.reloadRoutes());
+    }
+
+    private static RouteTableSummary toSummary(RouteTable table) {
+        return new RouteTableSummary(
+                table.version(),
+                table.loadedAt(),
+                table.routes().stream()
+                        .map(RouteAdminResource::toSummary)
+                        .toList()
+        );
+    }
+
+    private static RouteTableSummary.RouteSummary toSummary(RouteDefinition route) {
+        return new RouteTableSummary.RouteSummary(
+                route.id(),
+                route.pathPrefixes(),
+                route.stripPrefix(),
+                route.target().baseUrl(),
+                route.target().loadBalancer().strategy().configValue(),
+                route.target().upstreams().stream()
+                        .map(upstream -> new RouteTableSummary.UpstreamSummary(
+                                upstream.baseUrl(),
+                                upstream.weight(),
+                                upstream.outstanding(),
+                                upstream.ewmaLatencyNanos() / 1_000_000.0
+                        ))
+                        .toList()
+        );
+    }
+}
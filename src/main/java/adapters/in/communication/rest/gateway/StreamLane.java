@@ -0,0 +1,265 @@
+package adapters.in.communication.rest.gateway;
+
+import application.exceptions.DownstreamUnavailableException;
+import configurations.gateway.GatewayConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Multi;
+import io.vertx.core.buffer.Buffer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relays the bodies of streamed responses on threads of their own, sized by {@code gateway.stream-lane.max-streams},
+ * so that long-lived streams hold neither the request threads nor the event loop.
+ * <p>
+ * A body is read only while its client asks for more: a stalled client parks its stream without holding a thread,
+ * and a stream that is not waiting on its downstream leaves its thread to the others. Platform threads are used in
+ * the {@code worker} mode, virtual threads in the {@code virtual-threads} mode.
+ */
+@ApplicationScoped
+@Slf4j
+public class StreamLane {
+
+    // Room for the reads a route's flush policy coalesces.
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    private final int maxStreams;
+    private final Semaphore slots;
+    private final ExecutorService executor;
+    // Null outside CDI.
+    private final MeterRegistry meterRegistry;
+
+    @Inject
+    public StreamLane(GatewayConfig gatewayConfig, MeterRegistry meterRegistry) {
+        this(gatewayConfig.streamLane().maxStreams(), "virtual-threads".equals(gatewayConfig.executionMode()),
+                meterRegistry);
+    }
+
+    StreamLane(int maxStreams, boolean virtualThreads) {
+        this(maxStreams, virtualThreads, null);
+    }
+
+    private StreamLane(int maxStreams, boolean virtualThreads, MeterRegistry meterRegistry) {
+        if (maxStreams < 1) {
+            throw new IllegalArgumentException("gateway.stream-lane.max-streams must be >= 1");
+        }
+        this.maxStreams = maxStreams;
+        this.meterRegistry = meterRegistry;
+        this.slots = new Semaphore(maxStreams);
+        if (virtualThreads) {
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("gateway-stream-", 0).factory());
+        } else {
+            // One thread per admitted stream at most; a stream resumed before its previous pass returned briefly queues.
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxStreams, maxStreams, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), daemonThreads());
+            pool.allowCoreThreadTimeOut(true);
+            this.executor = pool;
+        }
+    }
+
+    @PostConstruct
+    void registerMeters() {
+        Gauge.builder("gateway.stream_lane.active", this, StreamLane::active)
+                .description("Streamed responses relayed by the stream lane")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserves room for one more stream.
+     *
+     * @throws DownstreamUnavailableException if {@code max-streams} streams are relayed already
+     */
+    Slot admit() {
+        if (!slots.tryAcquire()) {
+            throw new DownstreamUnavailableException("Too many concurrent streams", null);
+        }
+        return new Slot();
+    }
+
+    int active() {
+        return maxStreams - slots.availablePermits();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "gateway-stream-" + sequence.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Room for one stream, given back once its body is relayed, failed or cancelled, or with {@link #release()} when
+     * the response turns out to need no relaying.
+     */
+    final class Slot {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                slots.release();
+            }
+        }
+
+        /**
+         * {@code body} as buffers read on the lane; it is closed, and the slot released, when the buffers end, fail or
+         * are cancelled. A read that fails fails the buffers, so a truncated body aborts the response instead of
+         * ending it as if it were whole. Only one subscription is supported.
+         */
+        Multi<Buffer> relay(InputStream body) {
+            return Multi.createFrom().publisher(new Relay(body, this, false));
+        }
+
+        /**
+         * Like {@link #relay(InputStream)}, for a live stream such as MJPEG or server-sent events, which has no whole
+         * to be truncated: a read that fails, for instance once the stream was closed as idle, ends the buffers.
+         */
+        Multi<Buffer> relayLive(InputStream body) {
+            return Multi.createFrom().publisher(new Relay(body, this, true));
+        }
+    }
+
+    private final class Relay implements Flow.Publisher<Buffer>, Flow.Subscription {
+
+        private final InputStream body;
+        private final Slot slot;
+        private final boolean live;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private Flow.Subscriber<? super Buffer> subscriber;
+
+        Relay(InputStream body, Slot slot, boolean live) {
+            this.body = body;
+            this.slot = slot;
+            this.live = live;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Buffer> subscriber) {
+            if (!subscribed.compareAndSet(false, true)) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(new IllegalStateException("A stream body can only be relayed once"));
+                return;
+            }
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Non-positive request " + n));
+                return;
+            }
+            demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::pump);
+                } catch (RejectedExecutionException e) {
+                    if (finish()) {
+                        subscriber.onError(e);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            // Also wakes up a read blocked on the downstream.
+            finish();
+        }
+
+        /**
+         * Reads and emits as many chunks as requested, then returns the thread unless more was requested meanwhile.
+         */
+        private void pump() {
+            byte[] chunk = new byte[CHUNK_BYTES];
+            int missed = 1;
+            do {
+                while (demand.get() > 0 && !finished.get()) {
+                    int read;
+                    try {
+                        read = body.read(chunk);
+                    } catch (IOException e) {
+                        // Cancelling closes the body, which fails the pending read: that failure is not reported.
+                        log.debug("Stream body failed with {}", e.toString());
+                        if (finish()) {
+                            if (live) {
+                                subscriber.onComplete();
+                            } else {
+                                subscriber.onError(e);
+                            }
+                        }
+                        return;
+                    }
+                    if (read < 0) {
+                        if (finish()) {
+                            subscriber.onComplete();
+                        }
+                        return;
+                    }
+                    if (read > 0) {
+                        demand.decrementAndGet();
+                        subscriber.onNext(Buffer.buffer(read).appendBytes(chunk, 0, read));
+                    }
+                }
+                if (finished.get()) {
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private boolean finish() {
+            if (!finished.compareAndSet(false, true)) {
+                return false;
+            }
+            try {
+                body.close();
+            } catch (IOException e) {
+                log.debug("Failed to close stream body", e);
+            } finally {
+                slot.release();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package adapters.in.communication.rest.gateway;
+
+import application.dtos.gateway.GatewayReactiveStreamResponse;
+import application.dtos.gateway.GatewayRequest;
+import application.exceptions.DownstreamRequestFailedException;
+import application.exceptions.DownstreamTimeoutException;
+import application.exceptions.DownstreamUnavailableException;
+import application.exceptions.RouteNotFoundException;
+import configurations.exceptions.dtos.WSExceptionDTO;
+import configurations.exceptions.exceptions.WSCredentialsException;
+import configurations.gateway.GatewayConfig;
+import domain.cache.HeaderValues;
+import domain.gateway.Headers;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.quarkus.vertx.http.runtime.CurrentVertxRequest;
+import io.quarkus.security.identity.CurrentIdentityAssociation;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.vertx.http.runtime.RouteConstants;
+import io.quarkus.vertx.http.runtime.security.QuarkusHttpUser;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.Json;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ports.in.gateway.ReactiveProxyRequestUseCase;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipes streamed {@code GET} responses from the downstream connection straight into the client connection when
+ * {@code gateway.stream-pipe.enabled}, and server-sent event subscriptions always, ahead of the JAX-RS resources.
+ * <p>
+ * The downstream body's buffers are written to the Vert.x response as they arrive, without being copied or read by a
+ * thread; once {@code write-queue-bytes} are queued for a slow client the downstream is paused, and it resumes when
+ * the queue drains. Files from the segment cache are sent with {@code sendfile(2)}. Requests that do not stream, and
+ * paths no route matches, are left to the resources.
+ * <p>
+ * An event stream that stayed quiet for {@code gateway.sse.heartbeat-interval} gets a comment line, written only
+ * between two events and only while the client keeps up.
+ */
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+public class StreamPipeRoutes {
+
+    private final GatewayConfig gatewayConfig;
+    private final ReactiveProxyRequestUseCase proxyRequestUseCase;
+    private final CurrentVertxRequest currentVertxRequest;
+    private final CurrentIdentityAssociation identityAssociation;
+
+    public void registerRoutes(@Observes Router router) {
+        GatewayConfig.StreamPipeConfig config = gatewayConfig.streamPipe();
+        long heartbeatMillis = gatewayConfig.sse().heartbeatInterval().toMillis();
+        // After authentication and CORS, before the JAX-RS resources.
+        router.route().order(RouteConstants.ROUTE_ORDER_BEFORE_DEFAULT)
+                .handler(ctx -> pipe(ctx, config.enabled(), new Pipe(config.writeQueueBytes(), heartbeatMillis)));
+    }
+
+    private void pipe(RoutingContext ctx, boolean enabled, Pipe settings) {
+        HttpServerRequest httpRequest = ctx.request();
+        String path = ctx.normalizedPath();
+        List<String> accepts = httpRequest.headers().getAll(HttpHeaders.ACCEPT);
+        boolean piped = httpRequest.method() == HttpMethod.GET
+                && (GatewayJaxRsMapper.isEventStreamRequest("GET", accepts)
+                || enabled && GatewayJaxRsMapper.isStreamingRequest("GET", accepts, path));
+        if (!piped) {
+            ctx.next();
+            return;
+        }
+
+        GatewayRequest request = toGatewayRequest(httpRequest, path);
+        log.info("Gateway received GET {}{} (pipe)", path, request.rawQuery() == null ? "" : ("?" + request.rawQuery()));
+
+        // The tenant comes from the request's identity, which is resolved here rather than awaited on the event loop.
+        QuarkusHttpUser.getSecurityIdentity(ctx, null).subscribe().with(
+                identity -> proxy(ctx, request, identity, settings),
+                failure -> fail(ctx, failure));
+    }
+
+    private void proxy(RoutingContext ctx, GatewayRequest request, SecurityIdentity identity, Pipe settings) {
+        String path = request.path();
+        Uni<GatewayReactiveStreamResponse> response = null;
+        ManagedContext requestContext = Arc.container().requestContext();
+        boolean activated = !requestContext.isActive();
+        if (activated) {
+            requestContext.activate();
+        }
+        try {
+            currentVertxRequest.setCurrent(ctx);
+            if (identity != null) {
+                identityAssociation.setIdentity(identity);
+            }
+            response = proxyRequestUseCase.proxyStreamAsync(request);
+        } catch (RouteNotFoundException e) {
+            log.debug("No route for {}, leaving it to the resources", path);
+        } catch (RuntimeException e) {
+            fail(ctx, e);
+            return;
+        } finally {
+            if (activated) {
+                requestContext.terminate();
+            }
+        }
+
+        if (response == null) {
+            ctx.next();
+            return;
+        }
+        response.subscribe().with(
+                streamed -> write(ctx, streamed, path, settings),
+                failure -> fail(ctx, failure));
+    }
+
+    private static void write(RoutingContext ctx, GatewayReactiveStreamResponse response, String path, Pipe settings) {
+        HttpServerResponse out = ctx.response();
+        log.info("Gateway responding (pipe) with status {} for GET {}", response.status(), path);
+        log.debug("Gateway response (pipe) headers={}", response.headers());
+
+        if (out.closed()) {
+            // The client left while the downstream answered: release the downstream connection.
+            if (response.body() != null) {
+                response.body().subscribe().with(buffer -> {
+                }).cancel();
+            }
+            return;
+        }
+
+        out.setStatusCode(response.status());
+        GatewayJaxRsMapper.responseHeaders(response.headers(), true).forEachValue(out.headers()::add);
+
+        if (response.bodyFile() != null) {
+            out.sendFile(response.bodyFile().toString()).onFailure(e -> out.reset());
+        } else if (response.body() == null) {
+            out.end();
+        } else {
+            out.setChunked(true);
+            out.setWriteQueueMaxSize(settings.writeQueueBytes());
+            ResponsePipe pipe = new ResponsePipe(out);
+            if (settings.heartbeatMillis() > 0
+                    && isEventStream(HeaderValues.first(response.headers(), "Content-Type"))) {
+                pipe.heartbeat(ctx.vertx(), settings.heartbeatMillis());
+            }
+            response.body().subscribe().withSubscriber(pipe);
+        }
+    }
+
+    /**
+     * Answers like {@link configurations.exceptions.ExceptionMapper} while nothing was written yet; a stream that
+     * fails after its head went out is aborted.
+     */
+    private static void fail(RoutingContext ctx, Throwable failure) {
+        HttpServerResponse out = ctx.response();
+        if (out.headWritten()) {
+            log.debug("Gateway stream (pipe) aborted: {}", failure.toString());
+            out.reset();
+            return;
+        }
+
+        int status;
+        WSExceptionDTO error;
+        if (failure instanceof DownstreamUnavailableException) {
+            log.warn("Downstream unavailable: {}", failure.getMessage());
+            status = 503;
+            error = new WSExceptionDTO("GATEWAY.DOWNSTREAM_UNAVAILABLE", failure.getMessage());
+        } else if (failure instanceof DownstreamTimeoutException) {
+            log.warn("Downstream timed out: {}", failure.getMessage());
+            status = 504;
+            error = new WSExceptionDTO("GATEWAY.DOWNSTREAM_TIMEOUT", failure.getMessage());
+        } else if (failure instanceof DownstreamRequestFailedException) {
+            log.error("Downstream request failed", failure);
+            status = 502;
+            error = new WSExceptionDTO("GATEWAY.DOWNSTREAM_ERROR", failure.getMessage());
+        } else if (failure instanceof WSCredentialsException credentials) {
+            status = 403;
+            error = new WSExceptionDTO(credentials.getTagException().getI18n(), credentials.getTagException().getDescription());
+        } else {
+            log.error("An unexpected error occurred", failure);
+            status = 500;
+            error = new WSExceptionDTO("GATEWAY.UNEXPECTED_ERROR", "Unexpected error");
+        }
+        out.setStatusCode(status)
+                .putHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .end(Json.encode(error));
+    }
+
+    private static boolean isEventStream(String contentType) {
+        return contentType != null && contentType.trim().toLowerCase(Locale.ROOT).startsWith("text/event-stream");
+    }
+
+    private static GatewayRequest toGatewayRequest(HttpServerRequest httpRequest, String path) {
+        Headers.Builder headers = Headers.builder(httpRequest.headers().size());
+        httpRequest.headers().forEach(headers::add);
+        return new GatewayRequest("GET", path, httpRequest.query(), headers.build(), null);
+    }
+
+    private record Pipe(int writeQueueBytes, long heartbeatMillis) {
+    }
+
+    /**
+     * Writes each buffer as it arrives and asks for the next one while the client's write queue has room; a full
+     * queue pauses the downstream until it drains.
+     */
+    private static final class ResponsePipe implements Flow.Subscriber<Buffer> {
+
+        private static final Buffer HEARTBEAT = Buffer.buffer(":\n\n");
+
+        private final HttpServerResponse out;
+        private Flow.Subscription subscription;
+
+        // Guarded by this: buffers arrive on the downstream's thread, heartbeats on the client's event loop.
+        private Vertx vertx;
+        private long timer = -1;
+        private long lastWriteNanos = System.nanoTime();
+        private boolean betweenEvents = true;
+        private boolean finished;
+
+        ResponsePipe(HttpServerResponse out) {
+            this.out = out;
+        }
+
+        /**
+         * Writes a comment line every time the stream stayed quiet for {@code intervalMillis} with its last event
+         * complete.
+         */
+        synchronized void heartbeat(Vertx vertx, long intervalMillis) {
+            this.vertx = vertx;
+            long intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+            timer = vertx.setPeriodic(intervalMillis, id -> {
+                synchronized (this) {
+                    if (finished || !betweenEvents || out.writeQueueFull()
+                            || System.nanoTime() - lastWriteNanos < intervalNanos) {
+                        return;
+                    }
+                    lastWriteNanos = System.nanoTime();
+                    out.write(HEARTBEAT);
+                }
+            });
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            out.closeHandler(v -> {
+                finish();
+                subscription.cancel();
+            });
+            out.drainHandler(v -> subscription.request(1));
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(Buffer buffer) {
+            boolean full;
+            synchronized (this) {
+                lastWriteNanos = System.nanoTime();
+                betweenEvents = endsEvent(buffer, betweenEvents);
+                out.write(buffer);
+                full = out.writeQueueFull();
+            }
+            if (!full) {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable failure) {
+            log.debug("Gateway stream (pipe) aborted: {}", failure.toString());
+            if (finish() && !out.ended() && !out.closed()) {
+                out.reset();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (finish() && !out.ended() && !out.closed()) {
+                out.end();
+            }
+        }
+
+        private synchronized boolean finish() {
+            if (finished) {
+                return false;
+            }
+            finished = true;
+            if (timer >= 0) {
+                vertx.cancelTimer(timer);
+            }
+            return true;
+        }
+
+        /**
+         * Whether the stream is between two events once {@code buffer} is written: it ends with a blank line, or
+         * arrived empty after one.
+         */
+        private static boolean endsEvent(Buffer buffer, boolean betweenEvents) {
+            int length = buffer.length();
+            if (length == 0) {
+                return betweenEvents;
+            }
+            if (length >= 2) {
+                byte last = buffer.getByte(length - 1);
+                byte previous = buffer.getByte(length - 2);
+                if (last == previous && (last == '\n' || last == '\r')) {
+                    return true;
+                }
+            }
+            return length >= 4 && buffer.getString(length - 4, length).equals("\r\n\r\n");
+        }
+    }
+}
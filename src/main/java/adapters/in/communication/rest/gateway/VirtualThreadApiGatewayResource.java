@@ -0,0 +1,94 @@
+package adapters.in.communication.rest.gateway;
+
+import configurations.gateway.GatewayConfig;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.vertx.core.buffer.Buffer;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HEAD;
+import jakarta.ws.rs.OPTIONS;
+import jakarta.ws.rs.PATCH;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.jboss.resteasy.reactive.RestMulti;
+import ports.in.gateway.ProxyRequestUseCase;
+
+import java.io.InputStream;
+
+/**
+ * {@link ApiGatewayResource} dispatched on one virtual thread per request instead of the bounded worker pool,
+ * enabled with {@code gateway.execution-mode=virtual-threads}.
+ * <p>
+ * The endpoints are redeclared because Quarkus REST picks the execution model from the declaring class. Blocking
+ * downstream calls park the virtual thread and release its carrier; pinned intervals are reported by
+ * {@link configurations.gateway.VirtualThreadPinningMonitor}.
+ */
+@Path("")
+@RunOnVirtualThread
+@Consumes(MediaType.WILDCARD)
+@IfBuildProperty(name = "gateway.execution-mode", stringValue = "virtual-threads")
+public class VirtualThreadApiGatewayResource extends ApiGatewayResource {
+
+    public VirtualThreadApiGatewayResource(ProxyRequestUseCase proxyRequestUseCase, StreamLane streamLane,
+                                           GatewayConfig gatewayConfig) {
+        super(proxyRequestUseCase, streamLane, gatewayConfig);
+    }
+
+    @GET
+    @Path("{proxyPath:.*}")
+    @Override
+    public RestMulti<Buffer> get(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+        return proxyGet(proxyPath, uriInfo, headers);
+    }
+
+    @HEAD
+    @Path("{proxyPath:.*}")
+    @Override
+    public Response head(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+        return proxyHead(proxyPath, uriInfo, headers);
+    }
+
+    @DELETE
+    @Path("{proxyPath:.*}")
+    @Override
+    public RestMulti<Buffer> delete(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+        return proxy("DELETE", proxyPath, uriInfo, headers, null);
+    }
+
+    @OPTIONS
+    @Path("{proxyPath:.*}")
+    @Override
+    public RestMulti<Buffer> options(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers) {
+        return proxy("OPTIONS", proxyPath, uriInfo, headers, null);
+    }
+
+    @POST
+    @Path("{proxyPath:.*}")
+    @Override
+    public RestMulti<Buffer> post(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers, InputStream body) {
+        return proxy("POST", proxyPath, uriInfo, headers, body);
+    }
+
+    @PUT
+    @Path("{proxyPath:.*}")
+    @Override
+    public RestMulti<Buffer> put(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers, InputStream body) {
+        return proxy("PUT", proxyPath, uriInfo, headers, body);
+    }
+
+    @PATCH
+    @Path("{proxyPath:.*}")
+    @Override
+    public RestMulti<Buffer> patch(@PathParam("proxyPath") String proxyPath, @Context UriInfo uriInfo, @Context HttpHeaders headers, InputStream body) {
+        return proxy("PATCH", proxyPath, uriInfo, headers, body);
+    }
+}
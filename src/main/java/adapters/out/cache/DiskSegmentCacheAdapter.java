@@ -0,0 +1,223 @@
+package adapters.out.cache;
+
+import configurations.gateway.GatewayConfig;
+import domain.cache.CacheKey;
+import domain.cache.CachedSegment;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import ports.out.gateway.SegmentCachePort;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link SegmentCachePort} on local disk: one file per segment under {@code gateway.segment-cache.directory}, indexed
+ * in memory in least-recently-used order and bounded by {@code max-bytes}.
+ * <p>
+ * Segments are written with {@link FileChannel#transferFrom} and read back by the gateway resources straight from
+ * the file (sendfile, or a memory map in reactive mode). An evicted or expired segment's file is only deleted after
+ * {@link #DELETE_GRACE_NANOS}, since responses that already picked it up may still be sending it; each fill writes a
+ * new file for the same reason. The index does not survive restarts, so a configured directory is emptied on startup.
+ */
+@ApplicationScoped
+@Slf4j
+public class DiskSegmentCacheAdapter implements SegmentCachePort {
+
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final long DELETE_GRACE_NANOS = 60_000_000_000L;
+
+    private static final String FILL_SUFFIX = ".fill";
+    private static final long TRANSFER_CHUNK = 64 * 1024;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long maxSegmentBytes;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<CacheKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Deque<Doomed> doomed = new ArrayDeque<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    // Changed under the lock only; read without it by the gauge.
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    @Inject
+    public DiskSegmentCacheAdapter(GatewayConfig gatewayConfig, MeterRegistry meterRegistry) {
+        this(gatewayConfig.segmentCache(), meterRegistry, System::nanoTime);
+    }
+
+    DiskSegmentCacheAdapter(GatewayConfig.SegmentCacheConfig config, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.directory = prepareDirectory(config.directory());
+        this.maxBytes = config.maxBytes();
+        this.maxSegmentBytes = Math.min(config.maxSegmentBytes(), config.maxBytes());
+        this.ttlNanos = config.ttl().toNanos();
+        this.nanoClock = nanoClock;
+
+        Gauge.builder("gateway.segment_cache.bytes", totalBytes, AtomicLong::get)
+                .description("Bytes of HLS segments stored on disk")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.segment_cache.hits", hits, AtomicLong::get)
+                .description("Segment requests served from disk")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.segment_cache.misses", misses, AtomicLong::get)
+                .description("Segment requests not found on disk")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<CachedSegment> get(CacheKey key) {
+        long now = nanoClock.getAsLong();
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.expiresAt() >= 0) {
+                entries.remove(key);
+                discard(entry, now);
+                entry = null;
+            }
+            (entry == null ? misses : hits).incrementAndGet();
+            return entry == null ? Optional.empty() : Optional.of(entry.segment());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<CachedSegment> put(CacheKey key, Map<String, List<String>> headers, InputStream body) {
+        Path fill = directory.resolve(sequence.incrementAndGet() + FILL_SUFFIX);
+        long size;
+        try (InputStream in = body;
+             ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel target = FileChannel.open(fill, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            size = 0;
+            long transferred;
+            while ((transferred = target.transferFrom(source, size, TRANSFER_CHUNK)) > 0) {
+                size += transferred;
+                if (size > maxSegmentBytes) {
+                    log.debug("Not caching segment {}: larger than {} bytes", key, maxSegmentBytes);
+                    deleteQuietly(fill);
+                    return Optional.empty();
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Could not store segment {} in {}: {}", key, directory, e.toString());
+            deleteQuietly(fill);
+            return Optional.empty();
+        }
+
+        Path file = fill.resolveSibling(sequence.incrementAndGet() + SEGMENT_SUFFIX);
+        try {
+            Files.move(fill, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not store segment {} in {}: {}", key, directory, e.toString());
+            deleteQuietly(fill);
+            return Optional.empty();
+        }
+
+        CachedSegment segment = new CachedSegment(file, size, headers);
+        long now = nanoClock.getAsLong();
+        lock.lock();
+        try {
+            Entry previous = entries.put(key, new Entry(segment, now + ttlNanos));
+            if (previous != null) {
+                discard(previous, now);
+            }
+            totalBytes.addAndGet(size);
+            Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+            while (totalBytes.get() > maxBytes && leastRecentlyUsed.hasNext()) {
+                Entry evicted = leastRecentlyUsed.next();
+                leastRecentlyUsed.remove();
+                discard(evicted, now);
+            }
+            deleteDoomed(now);
+        } finally {
+            lock.unlock();
+        }
+        return Optional.of(segment);
+    }
+
+    @Override
+    public long maxSegmentBytes() {
+        return maxSegmentBytes;
+    }
+
+    long totalBytes() {
+        return totalBytes.get();
+    }
+
+    private void discard(Entry entry, long now) {
+        totalBytes.addAndGet(-entry.segment().size());
+        doomed.addLast(new Doomed(entry.segment().file(), now + DELETE_GRACE_NANOS));
+    }
+
+    private void deleteDoomed(long now) {
+        while (!doomed.isEmpty() && now - doomed.peekFirst().deleteAt() >= 0) {
+            deleteQuietly(doomed.pollFirst().file());
+        }
+    }
+
+    /**
+     * A configured directory is emptied of a previous run's segments; without one, each process gets its own.
+     */
+    private static Path prepareDirectory(Optional<String> configured) {
+        if (configured.isEmpty()) {
+            try {
+                return Files.createTempDirectory("api-gateway-segments");
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create a segment cache directory", e);
+            }
+        }
+        Path directory = Path.of(configured.get());
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "*{" + SEGMENT_SUFFIX + "," + FILL_SUFFIX + "}")) {
+                for (Path leftover : leftovers) {
+                    deleteQuietly(leftover);
+                }
+            }
+            return directory;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot use segment cache directory " + directory, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete cached segment file {}: {}", file, e.toString());
+        }
+    }
+
+    private record Entry(CachedSegment segment, long expiresAt) {
+    }
+
+    private record Doomed(Path file, long deleteAt) {
+    }
+}
@@ -0,0 +1,66 @@
+package adapters.out.cache;
+
+import configurations.gateway.GatewayConfig;
+import domain.cache.CacheKey;
+import domain.cache.CachedVariants;
+import domain.cache.TinyLfuCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import ports.out.gateway.ResponseCachePort;
+
+import java.util.Optional;
+
+/**
+ * {@link ResponseCachePort} in heap memory, bounded by {@code gateway.response-cache.max-bytes} with W-TinyLFU
+ * eviction. Entries above {@code max-entry-bytes} are not stored.
+ */
+@ApplicationScoped
+public class InMemoryResponseCacheAdapter implements ResponseCachePort {
+
+    /**
+     * Only sizes the frequency sketch.
+     */
+    private static final long ASSUMED_AVERAGE_ENTRY_BYTES = 8 * 1024;
+
+    private final TinyLfuCache<CacheKey, CachedVariants> cache;
+    private final long maxEntryBytes;
+
+    public InMemoryResponseCacheAdapter(GatewayConfig gatewayConfig, MeterRegistry meterRegistry) {
+        GatewayConfig.ResponseCacheConfig config = gatewayConfig.responseCache();
+        this.maxEntryBytes = config.maxEntryBytes();
+        this.cache = new TinyLfuCache<>(config.maxBytes(),
+                (int) Math.min(Integer.MAX_VALUE, config.maxBytes() / ASSUMED_AVERAGE_ENTRY_BYTES),
+                CachedVariants::weight);
+
+        Gauge.builder("gateway.response_cache.bytes", cache, TinyLfuCache::weight)
+                .description("Approximate bytes held by the response cache")
+                .register(meterRegistry);
+        Gauge.builder("gateway.response_cache.entries", cache, TinyLfuCache::size)
+                .description("Cache keys held by the response cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.response_cache.evictions", cache, TinyLfuCache::evictions)
+                .description("Entries evicted or refused by the response cache to stay within its byte budget")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<CachedVariants> get(CacheKey key) {
+        return Optional.ofNullable(cache.get(key));
+    }
+
+    @Override
+    public void put(CacheKey key, CachedVariants variants) {
+        if (variants.weight() > maxEntryBytes) {
+            cache.remove(key);
+            return;
+        }
+        cache.put(key, variants);
+    }
+
+    @Override
+    public void invalidate(CacheKey key) {
+        cache.remove(key);
+    }
+}
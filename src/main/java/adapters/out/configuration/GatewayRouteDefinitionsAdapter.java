@@ -1,42 +1,219 @@
 package adapters.out.configuration;
 
 import configurations.gateway.GatewayConfig;
+import domain.gateway.CoalescingPolicy;
+import domain.gateway.FlushPolicy;
+import domain.gateway.HealthCheckDefinition;
+import domain.gateway.LoadBalancingStrategy;
+import domain.gateway.OutlierDetectionPolicy;
+import domain.gateway.ResiliencePolicy;
 import domain.gateway.RouteDefinition;
+import domain.gateway.RouteIndex;
+import domain.gateway.RouteTable;
+import domain.gateway.StreamingPolicy;
 import domain.gateway.TargetDefinition;
+import domain.gateway.Upstream;
+import io.quarkus.runtime.Startup;
+import io.quarkus.runtime.configuration.DurationConverter;
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfig;
+import io.smallrye.config.SmallRyeConfigBuilder;
+import io.smallrye.config.source.yaml.YamlConfigSource;
 import jakarta.enterprise.context.ApplicationScoped;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.spi.ConfigSource;
 import ports.out.gateway.RouteDefinitionsPort;
 
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 
+/**
+ * Serves the gateway routes as copy-on-write {@link RouteTable} snapshots.
+ * <p>
+ * Readers only pay a volatile read; {@link #reload()} compiles a complete new table off the hot path and publishes
+ * it with a single write. Routes come from {@code gateway.routes} unless {@code gateway.route-file.path} points to an
+ * existing file, in which case that file is authoritative.
+ * <p>
+ * Upstreams whose route, base URL, weight and outlier policy are unchanged are carried over to the new table, so a
+ * reload keeps their load statistics and health.
+ */
+@Startup
 @ApplicationScoped
-@RequiredArgsConstructor
+@Slf4j
 public class GatewayRouteDefinitionsAdapter implements RouteDefinitionsPort {
 
     private final GatewayConfig gatewayConfig;
+    private final Optional<Path> routeFile;
+
+    private volatile RouteTable routeTable;
+    private Map<UpstreamKey, Upstream> upstreams = new HashMap<>();
+
+    public GatewayRouteDefinitionsAdapter(GatewayConfig gatewayConfig) {
+        this.gatewayConfig = gatewayConfig;
+        this.routeFile = gatewayConfig.routeFile().path().map(Path::of);
+        this.routeTable = new RouteTable(1, Instant.now(), RouteIndex.of(loadRoutes()));
+    }
 
     @Override
     public List<RouteDefinition> listRoutes() {
+        return routeTable.routes();
+    }
+
+    @Override
+    public RouteIndex routeIndex() {
+        return routeTable.index();
+    }
+
+    @Override
+    public RouteTable routeTable() {
+        return routeTable;
+    }
+
+    @Override
+    public synchronized RouteTable reload() {
+        RouteIndex index = RouteIndex.of(loadRoutes());
+        RouteTable next = new RouteTable(routeTable.version() + 1, Instant.now(), index);
+        routeTable = next;
+        log.info("Published route table version={} routes={}", next.version(), next.routes().size());
+        return next;
+    }
+
+    private List<RouteDefinition> loadRoutes() {
+        if (routeFile.isPresent() && Files.isRegularFile(routeFile.get())) {
+            log.info("Loading gateway routes from {}", routeFile.get());
+            return buildRoutes(readRouteFile(routeFile.get()));
+        }
+        return buildRoutes(gatewayConfig.routes());
+    }
+
+    private static Map<String, GatewayConfig.RouteConfig> readRouteFile(Path file) {
+        try {
+            URL url = file.toUri().toURL();
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            ConfigSource source = name.endsWith(".properties")
+                    ? new PropertiesConfigSource(url)
+                    : new YamlConfigSource(url);
+
+            SmallRyeConfig config = new SmallRyeConfigBuilder()
+                    .addDefaultInterceptors()
+                    // The file alone: neither the environment nor the classpath may add routes to it.
+                    .withSources(source)
+                    .withConverter(Duration.class, 100, new DurationConverter())
+                    .withMapping(GatewayConfig.class)
+                    .withValidateUnknown(false)
+                    .build();
+
+            return config.getConfigMapping(GatewayConfig.class).routes();
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Invalid gateway route file " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private List<RouteDefinition> buildRoutes(Map<String, GatewayConfig.RouteConfig> routeConfigs) {
         List<RouteDefinition> routes = new ArrayList<>();
+        Map<UpstreamKey, Upstream> current = new HashMap<>();
 
-        for (Map.Entry<String, GatewayConfig.RouteConfig> entry : gatewayConfig.routes().entrySet()) {
+        for (Map.Entry<String, GatewayConfig.RouteConfig> entry : routeConfigs.entrySet()) {
             String id = entry.getKey();
             GatewayConfig.RouteConfig routeConfig = entry.getValue();
 
-            String baseUrl = resolveBaseUrl(routeConfig.target());
             routes.add(new RouteDefinition(
                     id,
                     routeConfig.pathPrefixes(),
                     routeConfig.stripPrefix(),
-                    new TargetDefinition(baseUrl)
+                    buildTarget(id, routeConfig.target(), current),
+                    resiliencePolicy(routeConfig.resilience()),
+                    routeConfig.cache().enabled(),
+                    routeConfig.cache().segments(),
+                    coalescingPolicy(routeConfig.coalescing()),
+                    streamingPolicy(routeConfig.streaming())
             ));
         }
 
+        // Only published once the whole table built, so a failed reload keeps the previous upstreams.
+        upstreams = current;
         return routes;
     }
 
+    private TargetDefinition buildTarget(String routeId, GatewayConfig.TargetConfig target, Map<UpstreamKey, Upstream> current) {
+        LoadBalancingStrategy strategy = LoadBalancingStrategy.fromConfig(target.loadBalancing());
+        OutlierDetectionPolicy policy = outlierDetectionPolicy(target.outlierDetection());
+        List<Upstream> targetUpstreams = target.instances()
+                .filter(instances -> !instances.isEmpty())
+                .map(instances -> instances.stream()
+                        .map(instance -> upstream(new UpstreamKey(routeId, normalizeBaseUrl(instance.baseUrl()), instance.weight(), policy), current))
+                        .toList())
+                .orElseGet(() -> List.of(upstream(new UpstreamKey(routeId, resolveBaseUrl(target), 1, policy), current)));
+        return new TargetDefinition(strategy, targetUpstreams, healthCheck(target.healthCheck()));
+    }
+
+    private Upstream upstream(UpstreamKey key, Map<UpstreamKey, Upstream> current) {
+        return current.computeIfAbsent(key, k -> {
+            Upstream existing = upstreams.get(k);
+            return existing != null ? existing : new Upstream(k.baseUrl(), k.weight(), k.policy());
+        });
+    }
+
+    private static ResiliencePolicy resiliencePolicy(GatewayConfig.ResilienceConfig config) {
+        GatewayConfig.CircuitBreakerConfig circuitBreaker = config.circuitBreaker();
+        return new ResiliencePolicy(
+                config.timeout(),
+                config.maxRetries(),
+                config.retryDelay(),
+                new ResiliencePolicy.CircuitBreakerPolicy(
+                        circuitBreaker.requestVolumeThreshold(),
+                        circuitBreaker.failureRatio(),
+                        circuitBreaker.delay(),
+                        circuitBreaker.successThreshold()
+                ),
+                config.maxConcurrentCalls(),
+                config.maxQueuedCalls()
+        );
+    }
+
+    private static CoalescingPolicy coalescingPolicy(GatewayConfig.CoalescingConfig config) {
+        return new CoalescingPolicy(config.enabled(), config.varyHeaders(), config.maxReplayBytes());
+    }
+
+    private static StreamingPolicy streamingPolicy(GatewayConfig.StreamingConfig config) {
+        GatewayConfig.FlushConfig flush = config.flush();
+        return new StreamingPolicy(config.mjpegRelay(), config.snapshots(), config.maxFrameBytes(), config.idleTimeout(),
+                new FlushPolicy(flush.immediateContentTypes(), flush.coalesceBytes(), flush.coalesceDelay()),
+                config.bufferThreshold(), config.webSocketFanOut());
+    }
+
+    private static OutlierDetectionPolicy outlierDetectionPolicy(GatewayConfig.OutlierDetectionConfig config) {
+        return new OutlierDetectionPolicy(
+                config.consecutiveFailures(),
+                config.baseEjectionTime(),
+                config.maxEjectionTime(),
+                config.readmissionWindow()
+        );
+    }
+
+    private static HealthCheckDefinition healthCheck(GatewayConfig.HealthCheckConfig config) {
+        return config.path()
+                .filter(path -> !path.isBlank())
+                .map(path -> new HealthCheckDefinition(
+                        path.startsWith("/") ? path : "/" + path,
+                        config.interval(),
+                        config.timeout(),
+                        config.unhealthyThreshold(),
+                        config.healthyThreshold()
+                ))
+                .orElse(null);
+    }
+
     private static String resolveBaseUrl(GatewayConfig.TargetConfig target) {
         if (target.baseUrl().isPresent()) {
             return normalizeBaseUrl(target.baseUrl().get());
@@ -59,4 +236,7 @@ public class GatewayRouteDefinitionsAdapter implements RouteDefinitionsPort {
         }
         return normalized;
     }
+
+    private record UpstreamKey(String routeId, String baseUrl, int weight, OutlierDetectionPolicy policy) {
+    }
 }
@@ -0,0 +1,35 @@
+package adapters.out.http;
+
+import domain.cache.HeaderValues;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Which response bodies {@link ports.out.gateway.DownstreamHttpPort#executeBounded} and
+ * {@link ports.out.gateway.DownstreamHttpPort#executeBoundedAsync} read into memory.
+ */
+final class BufferedBodies {
+
+    private BufferedBodies() {
+    }
+
+    /**
+     * Responses without a body, and bodies declaring a {@code Content-Length} of at most {@code maxBufferedBytes}.
+     */
+    static boolean fits(String method, int status, Map<String, List<String>> headers, long maxBufferedBytes) {
+        if ("HEAD".equalsIgnoreCase(method) || status < 200 || status == 204 || status == 304) {
+            return true;
+        }
+        String contentLength = HeaderValues.first(headers, "Content-Length");
+        if (contentLength == null) {
+            return false;
+        }
+        try {
+            long length = Long.parseLong(contentLength.trim());
+            return length >= 0 && length <= maxBufferedBytes;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
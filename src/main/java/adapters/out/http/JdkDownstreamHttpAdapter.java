@@ -1,36 +1,50 @@
 package adapters.out.http;
 
+import application.dtos.gateway.DownstreamReactiveStreamResponse;
 import application.dtos.gateway.DownstreamRequest;
 import application.dtos.gateway.DownstreamResponse;
 import application.dtos.gateway.DownstreamStreamResponse;
+import application.dtos.gateway.StreamingBody;
+import application.exceptions.DownstreamTimeoutException;
+import configurations.gateway.GatewayConfig;
+import domain.gateway.Headers;
+import io.netty.buffer.Unpooled;
+import io.quarkus.arc.properties.UnlessBuildProperty;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.buffer.impl.BufferImpl;
 import jakarta.enterprise.context.ApplicationScoped;
-import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
-import org.eclipse.microprofile.faulttolerance.Retry;
-import org.eclipse.microprofile.faulttolerance.Timeout;
 import ports.out.gateway.DownstreamHttpPort;
 
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Flow;
 
 @ApplicationScoped
+@UnlessBuildProperty(name = "gateway.downstream.client", stringValue = "vertx", enableIfMissing = true)
 public class JdkDownstreamHttpAdapter implements DownstreamHttpPort {
 
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(5))
-            .followRedirects(HttpClient.Redirect.NEVER)
-            .build();
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+
+    public JdkDownstreamHttpAdapter(GatewayConfig gatewayConfig) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(gatewayConfig.downstream().connectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.requestTimeout = gatewayConfig.downstream().requestTimeout();
+    }
 
     @Override
-    @Timeout(8000)
-    @Retry(maxRetries = 2, delay = 200)
-    @CircuitBreaker(requestVolumeThreshold = 8, failureRatio = 0.5, delay = 5000)
     public DownstreamResponse execute(DownstreamRequest request) {
-        HttpRequest.Builder builder = baseRequestBuilder(request, true);
+        HttpRequest.Builder builder = baseRequestBuilder(request, timeoutOf(request));
 
         try {
             HttpResponse<byte[]> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
@@ -39,6 +53,28 @@ public class JdkDownstreamHttpAdapter implements DownstreamHttpPort {
                     response.headers().map(),
                     response.body()
             );
+        } catch (HttpTimeoutException e) {
+            throw timedOut(request, e);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public DownstreamResponse executeBounded(DownstreamRequest request, long maxBufferedBytes) {
+        // The timeout covers the wait for the response head; a streamed body is not bounded by it.
+        HttpRequest.Builder builder = baseRequestBuilder(request, timeoutOf(request));
+        try {
+            HttpResponse<java.io.InputStream> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            Headers headers = Headers.of(response.headers().map());
+            if (!BufferedBodies.fits(request.method(), response.statusCode(), headers, maxBufferedBytes)) {
+                return new DownstreamResponse(response.statusCode(), headers, null, response.body());
+            }
+            try (java.io.InputStream body = response.body()) {
+                return new DownstreamResponse(response.statusCode(), headers, body.readAllBytes());
+            }
+        } catch (HttpTimeoutException e) {
+            throw timedOut(request, e);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -46,7 +82,7 @@ public class JdkDownstreamHttpAdapter implements DownstreamHttpPort {
 
     @Override
     public DownstreamStreamResponse executeStream(DownstreamRequest request) {
-        HttpRequest.Builder builder = baseRequestBuilder(request, false);
+        HttpRequest.Builder builder = baseRequestBuilder(request, null);
         try {
             HttpResponse<java.io.InputStream> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
             return new DownstreamStreamResponse(
@@ -59,30 +95,111 @@ public class JdkDownstreamHttpAdapter implements DownstreamHttpPort {
         }
     }
 
-    private static HttpRequest.Builder baseRequestBuilder(DownstreamRequest request, boolean applyShortTimeout) {
+    @Override
+    public DownstreamResponse executeUpload(DownstreamRequest request) {
+        // No request timeout: it would cover the whole upload, not just the wait for the response.
+        HttpRequest.Builder builder = baseRequestBuilder(request, null);
+        try {
+            HttpResponse<byte[]> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+            return new DownstreamResponse(
+                    response.statusCode(),
+                    response.headers().map(),
+                    response.body()
+            );
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public Uni<DownstreamResponse> executeAsync(DownstreamRequest request) {
+        HttpRequest httpRequest = baseRequestBuilder(request, timeoutOf(request)).build();
+        return Uni.createFrom()
+                .completionStage(() -> httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray()))
+                .map(response -> new DownstreamResponse(
+                        response.statusCode(),
+                        response.headers().map(),
+                        response.body()
+                ))
+                .onFailure(HttpTimeoutException.class).transform(e -> timedOut(request, e));
+    }
+
+    @Override
+    public Uni<DownstreamResponse> executeBoundedAsync(DownstreamRequest request, long maxBufferedBytes) {
+        // As for executeBounded, the timeout covers the wait for the response head.
+        HttpRequest httpRequest = baseRequestBuilder(request, timeoutOf(request)).build();
+        return Uni.createFrom()
+                .completionStage(() -> httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofPublisher()))
+                .onFailure(HttpTimeoutException.class).transform(e -> timedOut(request, e))
+                .flatMap(response -> {
+                    Headers headers = Headers.of(response.headers().map());
+                    Multi<Buffer> chunks = chunks(response.body());
+                    if (!BufferedBodies.fits(request.method(), response.statusCode(), headers, maxBufferedBytes)) {
+                        return Uni.createFrom().item(new DownstreamResponse(response.statusCode(), headers, null, null, chunks));
+                    }
+                    return chunks.collect().in(Buffer::buffer, Buffer::appendBuffer)
+                            .map(body -> new DownstreamResponse(response.statusCode(), headers, body.getBytes()));
+                });
+    }
+
+    @Override
+    public Uni<DownstreamResponse> executeUploadAsync(DownstreamRequest request) {
+        // No request timeout, as for executeUpload.
+        HttpRequest httpRequest = baseRequestBuilder(request, null).build();
+        return Uni.createFrom()
+                .completionStage(() -> httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray()))
+                .map(response -> new DownstreamResponse(
+                        response.statusCode(),
+                        response.headers().map(),
+                        response.body()
+                ));
+    }
+
+    @Override
+    public Uni<DownstreamReactiveStreamResponse> executeStreamAsync(DownstreamRequest request) {
+        HttpRequest httpRequest = baseRequestBuilder(request, null).build();
+        return Uni.createFrom()
+                .completionStage(() -> httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofPublisher()))
+                .map(response -> new DownstreamReactiveStreamResponse(
+                        response.statusCode(),
+                        response.headers().map(),
+                        chunks(response.body())
+                ));
+    }
+
+    private static Multi<Buffer> chunks(Flow.Publisher<List<ByteBuffer>> body) {
+        return Multi.createFrom().publisher(body)
+                .onItem().<ByteBuffer>transformToIterable(chunks -> chunks)
+                .map(chunk -> BufferImpl.buffer(Unpooled.wrappedBuffer(chunk)));
+    }
+
+    private Duration timeoutOf(DownstreamRequest request) {
+        return request.timeout() != null ? request.timeout() : requestTimeout;
+    }
+
+    /**
+     * A timeout of the client is one of the route: a 504 whether it or the route's guard gives up first.
+     */
+    private DownstreamTimeoutException timedOut(DownstreamRequest request, Throwable cause) {
+        return new DownstreamTimeoutException(request.url() + " did not answer within "
+                + timeoutOf(request).toMillis() + " ms", cause);
+    }
+
+    private static HttpRequest.Builder baseRequestBuilder(DownstreamRequest request, Duration timeout) {
         HttpRequest.Builder builder = HttpRequest.newBuilder()
                 .uri(URI.create(request.url()));
 
         // For standard (non-streaming) requests, keep a short timeout.
         // For streaming responses (e.g., MJPEG), do not set a request timeout.
-        if (applyShortTimeout) {
-            builder.timeout(Duration.ofSeconds(8));
+        if (timeout != null) {
+            builder.timeout(timeout);
         }
 
-        if (request.headers() != null) {
-            for (Map.Entry<String, List<String>> header : request.headers().entrySet()) {
-                if (header.getKey() == null || header.getValue() == null) {
-                    continue;
-                }
-                for (String value : header.getValue()) {
-                    if (value != null) {
-                        builder.header(header.getKey(), value);
-                    }
-                }
-            }
-        }
+        Headers.of(request.headers()).forEachValue(builder::header);
 
-        if (request.body() != null && request.body().length > 0) {
+        if (request.streamingBody() != null) {
+            builder.method(request.method(), streamingPublisher(request.streamingBody()));
+        } else if (request.body() != null && request.body().length > 0) {
             builder.method(request.method(), HttpRequest.BodyPublishers.ofByteArray(request.body()));
         } else {
             builder.method(request.method(), HttpRequest.BodyPublishers.noBody());
@@ -90,4 +207,22 @@ public class JdkDownstreamHttpAdapter implements DownstreamHttpPort {
 
         return builder;
     }
+
+    /**
+     * The client pulls the stream, or requests the chunks, in small amounts as the connection accepts them, so only
+     * a bounded amount of the body is in memory at any time.
+     */
+    private static HttpRequest.BodyPublisher streamingPublisher(StreamingBody body) {
+        HttpRequest.BodyPublisher publisher = body.stream() != null
+                ? HttpRequest.BodyPublishers.ofInputStream(body::stream)
+                : HttpRequest.BodyPublishers.fromPublisher(body.chunks().map(JdkDownstreamHttpAdapter::nioBuffer));
+        if (body.contentLength() > 0) {
+            return HttpRequest.BodyPublishers.fromPublisher(publisher, body.contentLength());
+        }
+        return publisher;
+    }
+
+    private static ByteBuffer nioBuffer(Buffer chunk) {
+        return chunk instanceof BufferImpl impl ? impl.byteBuf().nioBuffer() : ByteBuffer.wrap(chunk.getBytes());
+    }
 }
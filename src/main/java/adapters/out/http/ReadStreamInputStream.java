@@ -0,0 +1,175 @@
+package adapters.out.http;
+
+import io.vertx.core.Context;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.ReadStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Blocking {@link InputStream} view over a Vert.x {@link ReadStream}.
+ * <p>
+ * At most {@code highWaterMark} bytes are queued: the source is paused when the reader falls behind and resumed
+ * (on its own context) once the queue drains below half of that. Closing the stream runs {@code onClose}, which is
+ * expected to abort the underlying request.
+ * <p>
+ * Uses a {@link ReentrantLock} rather than a monitor so that a virtual thread blocked in {@link #read} unmounts
+ * instead of pinning its carrier thread.
+ */
+final class ReadStreamInputStream extends InputStream {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition readable = lock.newCondition();
+    private final ArrayDeque<Buffer> queue = new ArrayDeque<>();
+    private final ReadStream<Buffer> source;
+    private final Context context;
+    private final int highWaterMark;
+    private final Runnable onClose;
+
+    private Buffer current;
+    private int position;
+    private long queuedBytes;
+    private boolean paused;
+    private boolean ended;
+    private boolean closed;
+    private Throwable failure;
+
+    /**
+     * Must be called on the source's context so that no item is delivered before the handlers are in place.
+     */
+    ReadStreamInputStream(ReadStream<Buffer> source, Context context, int highWaterMark, Runnable onClose) {
+        this.source = source;
+        this.context = context;
+        this.highWaterMark = highWaterMark;
+        this.onClose = onClose;
+
+        source.handler(this::onBuffer);
+        source.endHandler(v -> onEnd(null));
+        source.exceptionHandler(this::onEnd);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        lock.lock();
+        try {
+            while (current == null) {
+                if (closed) {
+                    throw new IOException("Stream closed");
+                }
+                Buffer next = queue.poll();
+                if (next != null) {
+                    current = next;
+                    position = 0;
+                    queuedBytes -= next.length();
+                    resumeIfDrained();
+                    break;
+                }
+                if (failure != null) {
+                    throw failure instanceof IOException io ? io : new IOException(failure);
+                }
+                if (ended) {
+                    return -1;
+                }
+                try {
+                    readable.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for downstream data");
+                }
+            }
+
+            int count = Math.min(len, current.length() - position);
+            current.getBytes(position, position + count, b, off);
+            position += count;
+            if (position >= current.length()) {
+                current = null;
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int available() {
+        lock.lock();
+        try {
+            return current == null ? 0 : current.length() - position;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        boolean abort;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            abort = !ended;
+            queue.clear();
+            current = null;
+            readable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (abort) {
+            onClose.run();
+        }
+    }
+
+    private void onBuffer(Buffer buffer) {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            queue.add(buffer);
+            queuedBytes += buffer.length();
+            if (!paused && queuedBytes >= highWaterMark) {
+                paused = true;
+                source.pause();
+            }
+            readable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onEnd(Throwable error) {
+        lock.lock();
+        try {
+            ended = true;
+            failure = error;
+            readable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void resumeIfDrained() {
+        if (paused && queuedBytes <= highWaterMark / 2) {
+            paused = false;
+            context.runOnContext(v -> source.resume());
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package adapters.out.http;
+
+import application.dtos.gateway.DownstreamReactiveStreamResponse;
+import application.dtos.gateway.DownstreamRequest;
+import application.dtos.gateway.DownstreamResponse;
+import application.dtos.gateway.DownstreamStreamResponse;
+import application.dtos.gateway.StreamingBody;
+import application.exceptions.DownstreamTimeoutException;
+import configurations.gateway.GatewayConfig;
+import domain.gateway.Headers;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.http.RequestOptions;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+import ports.out.gateway.DownstreamHttpPort;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking {@link DownstreamHttpPort} on the Vert.x {@link HttpClient} embedded in Quarkus.
+ * <p>
+ * Every downstream target (scheme, host and port) gets its own long-lived client and therefore its own connection
+ * pool, tuned through {@code gateway.downstream.vertx.*}. Selected with {@code gateway.downstream.client=vertx}.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "gateway.downstream.client", stringValue = "vertx")
+@Slf4j
+public class VertxDownstreamHttpAdapter implements DownstreamHttpPort {
+
+    private static final int STREAM_HIGH_WATER_MARK = 256 * 1024;
+    private static final int UPLOAD_CHUNK_SIZE = 64 * 1024;
+    private static final int UPLOAD_HIGH_WATER_MARK = 256 * 1024;
+
+    private final Vertx vertx;
+    private final GatewayConfig.DownstreamConfig config;
+    private final Map<String, HttpClient> clients = new ConcurrentHashMap<>();
+
+    public VertxDownstreamHttpAdapter(Vertx vertx, GatewayConfig gatewayConfig) {
+        this.vertx = vertx;
+        this.config = gatewayConfig.downstream();
+    }
+
+    @Override
+    public DownstreamResponse execute(DownstreamRequest request) {
+        return executeAsync(request).await().indefinitely();
+    }
+
+    @Override
+    public DownstreamResponse executeBounded(DownstreamRequest request, long maxBufferedBytes) {
+        return Uni.createFrom().completionStage(() -> send(request, timeoutOf(request).toMillis())
+                        .compose(response -> {
+                            Headers headers = toHeaders(response.headers());
+                            if (BufferedBodies.fits(request.method(), response.statusCode(), headers, maxBufferedBytes)) {
+                                return response.body().map(body -> new DownstreamResponse(
+                                        response.statusCode(), headers, body.getBytes()));
+                            }
+                            // The request timeout bounded the wait for the head; a streamed body is not bounded by it.
+                            clearIdleTimeout(response);
+                            return Future.succeededFuture(new DownstreamResponse(response.statusCode(), headers, null,
+                                    new ReadStreamInputStream(response, vertx.getOrCreateContext(), STREAM_HIGH_WATER_MARK,
+                                            () -> response.request().reset())));
+                        })
+                        .toCompletionStage())
+                .onFailure(TimeoutException.class).transform(e -> timedOut(request, e))
+                .await().indefinitely();
+    }
+
+    @Override
+    public DownstreamStreamResponse executeStream(DownstreamRequest request) {
+        return Uni.createFrom().completionStage(() -> send(request, 0)
+                        .map(response -> new DownstreamStreamResponse(
+                                response.statusCode(),
+                                toHeaders(response.headers()),
+                                new ReadStreamInputStream(response, vertx.getOrCreateContext(), STREAM_HIGH_WATER_MARK,
+                                        () -> response.request().reset())
+                        ))
+                        .toCompletionStage())
+                .await().indefinitely();
+    }
+
+    @Override
+    public DownstreamResponse executeUpload(DownstreamRequest request) {
+        StreamingBody body = request.streamingBody();
+        if (body == null) {
+            return execute(request);
+        }
+
+        HttpClientRequest clientRequest = await(clientFor(request.url()).request(requestOptions(request, 0)));
+        Future<DownstreamResponse> response = clientRequest.response()
+                .compose(r -> r.body().map(responseBody -> new DownstreamResponse(
+                        r.statusCode(),
+                        toHeaders(r.headers()),
+                        responseBody.getBytes()
+                )));
+
+        try (InputStream in = body.stream()) {
+            pump(in, body.contentLength(), clientRequest, response);
+        } catch (IOException | RuntimeException e) {
+            clientRequest.reset(0, e);
+            throw new RuntimeException("Upload to " + request.url() + " failed", e);
+        }
+        return await(response);
+    }
+
+    @Override
+    public Uni<DownstreamResponse> executeAsync(DownstreamRequest request) {
+        return Uni.createFrom().completionStage(() -> send(request, timeoutOf(request).toMillis())
+                        .compose(response -> response.body().map(body -> new DownstreamResponse(
+                                response.statusCode(),
+                                toHeaders(response.headers()),
+                                body.getBytes()
+                        )))
+                        .toCompletionStage())
+                .onFailure(TimeoutException.class).transform(e -> timedOut(request, e));
+    }
+
+    @Override
+    public Uni<DownstreamResponse> executeBoundedAsync(DownstreamRequest request, long maxBufferedBytes) {
+        return Uni.createFrom().completionStage(() -> send(request, timeoutOf(request).toMillis())
+                        .compose(response -> {
+                            Headers headers = toHeaders(response.headers());
+                            if (BufferedBodies.fits(request.method(), response.statusCode(), headers, maxBufferedBytes)) {
+                                return response.body().map(body -> new DownstreamResponse(
+                                        response.statusCode(), headers, body.getBytes()));
+                            }
+                            // The request timeout bounded the wait for the head; a streamed body is not bounded by it.
+                            clearIdleTimeout(response);
+                            return Future.succeededFuture(new DownstreamResponse(response.statusCode(), headers, null,
+                                    null, chunks(response)));
+                        })
+                        .toCompletionStage())
+                .onFailure(TimeoutException.class).transform(e -> timedOut(request, e));
+    }
+
+    /**
+     * Pipes the chunks into the request, so a chunk is only taken from the client while the connection to the
+     * downstream can take it.
+     */
+    @Override
+    public Uni<DownstreamResponse> executeUploadAsync(DownstreamRequest request) {
+        StreamingBody body = request.streamingBody();
+        if (body == null || body.chunks() == null) {
+            return DownstreamHttpPort.super.executeUploadAsync(request);
+        }
+        return Uni.createFrom().completionStage(() -> clientFor(request.url()).request(requestOptions(request, 0)).toCompletionStage())
+                .flatMap(clientRequest -> {
+                    if (body.contentLength() > 0) {
+                        clientRequest.putHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(body.contentLength()));
+                    } else {
+                        clientRequest.setChunked(true);
+                    }
+                    clientRequest.setWriteQueueMaxSize(UPLOAD_HIGH_WATER_MARK);
+                    return io.vertx.mutiny.core.http.HttpClientRequest.newInstance(clientRequest)
+                            .send(body.chunks().map(io.vertx.mutiny.core.buffer.Buffer::newInstance));
+                })
+                .flatMap(response -> response.body().map(responseBody -> new DownstreamResponse(
+                        response.statusCode(),
+                        toHeaders(response.getDelegate().headers()),
+                        responseBody.getBytes()
+                )));
+    }
+
+    @Override
+    public Uni<DownstreamReactiveStreamResponse> executeStreamAsync(DownstreamRequest request) {
+        return Uni.createFrom().completionStage(() -> send(request, 0)
+                .map(response -> new DownstreamReactiveStreamResponse(
+                        response.statusCode(),
+                        toHeaders(response.headers()),
+                        chunks(response)
+                ))
+                .toCompletionStage());
+    }
+
+    /**
+     * Vert.x cannot clear an idle timeout, and rejects one of {@code 0}: the request gets one that never fires instead.
+     */
+    private static void clearIdleTimeout(HttpClientResponse response) {
+        response.request().idleTimeout(Long.MAX_VALUE);
+    }
+
+    /**
+     * The body, held until the gateway subscribes; the Multi then drives demand with fetch().
+     */
+    private static Multi<Buffer> chunks(HttpClientResponse response) {
+        response.pause();
+        return io.vertx.mutiny.core.http.HttpClientResponse.newInstance(response).toMulti()
+                .map(io.vertx.mutiny.core.buffer.Buffer::getDelegate)
+                .onCancellation().invoke(() -> response.request().reset());
+    }
+
+    private Duration timeoutOf(DownstreamRequest request) {
+        return request.timeout() != null ? request.timeout() : config.requestTimeout();
+    }
+
+    /**
+     * An idle timeout of the client is one of the route: a 504 whether it or the route's guard gives up first.
+     */
+    private DownstreamTimeoutException timedOut(DownstreamRequest request, Throwable cause) {
+        return new DownstreamTimeoutException(request.url() + " did not answer within "
+                + timeoutOf(request).toMillis() + " ms", cause);
+    }
+
+    @PreDestroy
+    void close() {
+        clients.values().forEach(HttpClient::close);
+        clients.clear();
+    }
+
+    /**
+     * Copies the body with at most one chunk plus {@link #UPLOAD_HIGH_WATER_MARK} bytes in flight, waiting for the
+     * connection to drain whenever the write queue is full. Stops early if the downstream has already answered.
+     */
+    private static void pump(InputStream in, long contentLength, HttpClientRequest clientRequest, Future<?> response) throws IOException {
+        if (contentLength > 0) {
+            clientRequest.putHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(contentLength));
+        } else {
+            clientRequest.setChunked(true);
+        }
+        clientRequest.setWriteQueueMaxSize(UPLOAD_HIGH_WATER_MARK);
+
+        byte[] chunk = new byte[UPLOAD_CHUNK_SIZE];
+        int read;
+        while (!response.isComplete() && (read = in.read(chunk)) >= 0) {
+            if (read == 0) {
+                continue;
+            }
+            awaitWritable(clientRequest, response);
+            clientRequest.write(Buffer.buffer(read).appendBytes(chunk, 0, read));
+        }
+
+        if (response.isComplete()) {
+            clientRequest.reset();
+        } else {
+            clientRequest.end();
+        }
+    }
+
+    private static void awaitWritable(HttpClientRequest clientRequest, Future<?> response) {
+        if (!clientRequest.writeQueueFull()) {
+            return;
+        }
+        CompletableFuture<Void> drained = new CompletableFuture<>();
+        clientRequest.drainHandler(v -> drained.complete(null));
+        if (!clientRequest.writeQueueFull()) {
+            return;
+        }
+        Uni.createFrom().completionStage(CompletableFuture.anyOf(drained, response.toCompletionStage().toCompletableFuture()))
+                .await().indefinitely();
+    }
+
+    private static <T> T await(Future<T> future) {
+        return Uni.createFrom().completionStage(future.toCompletionStage()).await().indefinitely();
+    }
+
+    private Future<HttpClientResponse> send(DownstreamRequest request, long idleTimeoutMillis) {
+        return clientFor(request.url())
+                .request(requestOptions(request, idleTimeoutMillis))
+                .compose(clientRequest -> sendBody(clientRequest, request.body()));
+    }
+
+    private static RequestOptions requestOptions(DownstreamRequest request, long idleTimeoutMillis) {
+        RequestOptions options = new RequestOptions()
+                .setAbsoluteURI(request.url())
+                .setMethod(HttpMethod.valueOf(request.method()))
+                .setFollowRedirects(false);
+        if (idleTimeoutMillis > 0) {
+            options.setIdleTimeout(idleTimeoutMillis);
+        }
+
+        Headers.of(request.headers()).forEachValue(options::addHeader);
+
+        return options;
+    }
+
+    private static Future<HttpClientResponse> sendBody(HttpClientRequest clientRequest, byte[] body) {
+        if (body != null && body.length > 0) {
+            return clientRequest.send(Buffer.buffer(body));
+        }
+        return clientRequest.send();
+    }
+
+    private HttpClient clientFor(String url) {
+        URI uri = URI.create(url);
+        boolean ssl = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : (ssl ? 443 : 80);
+        String origin = (ssl ? "https://" : "http://") + uri.getHost() + ":" + port;
+        return clients.computeIfAbsent(origin, key -> createClient(uri.getHost(), port, ssl));
+    }
+
+    private HttpClient createClient(String host, int port, boolean ssl) {
+        GatewayConfig.VertxClientConfig pool = config.vertx();
+
+        HttpClientOptions options = new HttpClientOptions()
+                .setDefaultHost(host)
+                .setDefaultPort(port)
+                .setSsl(ssl)
+                .setConnectTimeout((int) config.connectTimeout().toMillis())
+                .setKeepAlive(pool.keepAlive())
+                .setKeepAliveTimeout((int) pool.keepAliveTimeout().toSeconds())
+                .setPipelining(pool.pipelining())
+                .setPipeliningLimit(pool.pipeliningLimit());
+
+        if (pool.http2()) {
+            options.setProtocolVersion(HttpVersion.HTTP_2)
+                    .setUseAlpn(ssl)
+                    .setHttp2ClearTextUpgrade(false)
+                    .setHttp2MultiplexingLimit(pool.http2MultiplexingLimit())
+                    .setHttp2KeepAliveTimeout((int) pool.keepAliveTimeout().toSeconds());
+        }
+
+        PoolOptions poolOptions = new PoolOptions()
+                .setHttp1MaxSize(pool.maxPoolSize())
+                .setHttp2MaxSize(pool.http2MaxPoolSize())
+                .setMaxWaitQueueSize(pool.maxWaitQueueSize());
+
+        log.info("Creating downstream HTTP client for {}:{} (ssl={}, http2={}, maxPoolSize={})",
+                host, port, ssl, pool.http2(), pool.http2() ? pool.http2MaxPoolSize() : pool.maxPoolSize());
+        return vertx.createHttpClient(options, poolOptions);
+    }
+
+    private static Headers toHeaders(MultiMap headers) {
+        Headers.Builder builder = Headers.builder(headers.size());
+        headers.forEach(builder::add);
+        return builder.build();
+    }
+}
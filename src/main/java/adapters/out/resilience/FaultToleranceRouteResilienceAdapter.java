@@ -0,0 +1,215 @@
+package adapters.out.resilience;
+
+import application.dtos.gateway.StatusResponse;
+import application.exceptions.DownstreamTimeoutException;
+import application.exceptions.DownstreamUnavailableException;
+import domain.gateway.ResiliencePolicy;
+import domain.gateway.RouteDefinition;
+import domain.gateway.RouteTable;
+import io.smallrye.faulttolerance.api.Guard;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.util.TypeLiteral;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException;
+import ports.out.gateway.RouteResiliencePort;
+
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * {@link RouteResiliencePort} on SmallRye Fault Tolerance {@link Guard guards}, built lazily per route id.
+ * <p>
+ * Each route has two guards: one for buffered requests (timeout per attempt, retry, circuit breaker, bulkhead) and
+ * one for streams and streamed uploads (circuit breaker and bulkhead only), since a stream may legitimately outlive
+ * any timeout. A route reload that changes the policy replaces the guards; an unchanged policy keeps their state.
+ * Non-idempotent calls share the buffered guard but are never retried. A response whose status the policy counts as a
+ * failure is thrown through the guard so the breaker records it, then returned as is; it is not retried either.
+ * Guards of routes a reload removed are dropped.
+ */
+@ApplicationScoped
+@Slf4j
+public class FaultToleranceRouteResilienceAdapter implements RouteResiliencePort {
+
+    private static final TypeLiteral<Uni<Object>> UNI = new TypeLiteral<>() {
+    };
+
+    private final Map<String, RouteGuards> guards = new ConcurrentHashMap<>();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RouteDefinition route, boolean idempotent, Supplier<T> call) {
+        Supplier<Object> attempt = idempotent ? (Supplier<Object>) call : () -> {
+            try {
+                return call.get();
+            } catch (RuntimeException e) {
+                throw new NotRetryable(e);
+            }
+        };
+        try {
+            return (T) guardsFor(route).buffered().get(() -> failIfFailure(route, attempt.get()), Object.class);
+        } catch (FailedResponse failed) {
+            return (T) failed.response();
+        } catch (RuntimeException e) {
+            throw translate(route, e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T executeStream(RouteDefinition route, Supplier<T> call) {
+        try {
+            return (T) guardsFor(route).stream().get(() -> failIfFailure(route, call.get()), Object.class);
+        } catch (FailedResponse failed) {
+            return (T) failed.response();
+        } catch (RuntimeException e) {
+            throw translate(route, e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Uni<T> executeAsync(RouteDefinition route, boolean idempotent, Supplier<Uni<T>> call) {
+        Supplier<Uni<Object>> attempt = idempotent
+                ? () -> (Uni<Object>) call.get()
+                : () -> ((Uni<Object>) call.get()).onFailure().transform(NotRetryable::new);
+        return ((Uni<T>) guardsFor(route).buffered().get(() -> attempt.get().map(result -> failIfFailure(route, result)), UNI))
+                .onFailure(FailedResponse.class).recoverWithItem(failed -> (T) failed.response())
+                .onFailure().transform(e -> translate(route, e));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Uni<T> executeStreamAsync(RouteDefinition route, Supplier<Uni<T>> call) {
+        return ((Uni<T>) guardsFor(route).stream().get(() -> ((Uni<Object>) call.get()).map(result -> failIfFailure(route, result)), UNI))
+                .onFailure(FailedResponse.class).recoverWithItem(failed -> (T) failed.response())
+                .onFailure().transform(e -> translate(route, e));
+    }
+
+    @Override
+    public void retainRoutes(RouteTable table) {
+        Set<String> ids = table.routes().stream().map(RouteDefinition::id).collect(Collectors.toSet());
+        guards.keySet().removeIf(id -> {
+            boolean removed = !ids.contains(id);
+            if (removed) {
+                log.info("Dropping resilience guards of removed route {}", id);
+            }
+            return removed;
+        });
+    }
+
+    private static Object failIfFailure(RouteDefinition route, Object result) {
+        if (result instanceof StatusResponse response && route.resilience().isFailure(response.status())) {
+            throw new FailedResponse(response);
+        }
+        return result;
+    }
+
+    private RouteGuards guardsFor(RouteDefinition route) {
+        RouteGuards current = guards.get(route.id());
+        if (current != null && current.policy().equals(route.resilience())) {
+            return current;
+        }
+        return guards.compute(route.id(), (id, existing) ->
+                existing != null && existing.policy().equals(route.resilience())
+                        ? existing
+                        : RouteGuards.of(id, route.resilience()));
+    }
+
+    private static RuntimeException translate(RouteDefinition route, Throwable failure) {
+        Throwable cause = failure instanceof NotRetryable notRetryable ? notRetryable.getCause() : failure;
+        ResiliencePolicy policy = route.resilience();
+        if (cause instanceof CircuitBreakerOpenException) {
+            return new DownstreamUnavailableException("Circuit breaker of route " + route.id() + " is open", cause);
+        }
+        if (cause instanceof BulkheadException) {
+            return new DownstreamUnavailableException("Route " + route.id() + " is at its limit of "
+                    + policy.maxConcurrentCalls() + " concurrent calls", cause);
+        }
+        if (cause instanceof TimeoutException) {
+            return new DownstreamTimeoutException("Route " + route.id() + " did not answer within "
+                    + policy.timeout().toMillis() + " ms", cause);
+        }
+        return cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause);
+    }
+
+    private record RouteGuards(ResiliencePolicy policy, Guard buffered, Guard stream) {
+
+        static RouteGuards of(String routeId, ResiliencePolicy policy) {
+            log.info("Creating resilience guards for route {}: {}", routeId, policy);
+            Guard buffered = Guard.create()
+                    .withDescription("route " + routeId)
+                    .withThreadOffload(false)
+                    .withTimeout()
+                    .duration(policy.timeout().toMillis(), ChronoUnit.MILLIS)
+                    .done()
+                    .withRetry()
+                    .maxRetries(policy.maxRetries())
+                    .delay(policy.retryDelay().toMillis(), ChronoUnit.MILLIS)
+                    .abortOn(List.of(NotRetryable.class, FailedResponse.class, CircuitBreakerOpenException.class,
+                            BulkheadException.class))
+                    .done()
+                    .with(builder -> circuitBreaker(builder, routeId, "requests", policy))
+                    .with(builder -> bulkhead(builder, policy))
+                    .build();
+            Guard stream = Guard.create()
+                    .withDescription("route " + routeId + " streams")
+                    .withThreadOffload(false)
+                    .with(builder -> circuitBreaker(builder, routeId, "streams", policy))
+                    .with(builder -> bulkhead(builder, policy))
+                    .build();
+            return new RouteGuards(policy, buffered, stream);
+        }
+
+        private static void circuitBreaker(Guard.Builder builder, String routeId, String kind, ResiliencePolicy policy) {
+            ResiliencePolicy.CircuitBreakerPolicy circuitBreaker = policy.circuitBreaker();
+            builder.withCircuitBreaker()
+                    .requestVolumeThreshold(circuitBreaker.requestVolumeThreshold())
+                    .failureRatio(circuitBreaker.failureRatio())
+                    .delay(circuitBreaker.delay().toMillis(), ChronoUnit.MILLIS)
+                    .successThreshold(circuitBreaker.successThreshold())
+                    .onStateChange(state -> log.warn("Circuit breaker for {} of route {} is now {}", kind, routeId, state))
+                    .done();
+        }
+
+        private static void bulkhead(Guard.Builder builder, ResiliencePolicy policy) {
+            builder.withBulkhead()
+                    .limit(policy.maxConcurrentCalls())
+                    .queueSize(policy.maxQueuedCalls())
+                    .done();
+        }
+    }
+
+    /**
+     * Marks the failure of a non-idempotent call so the retry strategy gives up on it; unwrapped before it leaves.
+     */
+    private static final class NotRetryable extends RuntimeException {
+        NotRetryable(Throwable cause) {
+            super(cause.getMessage(), cause, false, false);
+        }
+    }
+
+    /**
+     * Carries a response the policy counts as a failure through the guard, so the breaker records it; unwrapped back
+     * to the response before it leaves.
+     */
+    private static final class FailedResponse extends RuntimeException {
+        private final transient StatusResponse response;
+
+        FailedResponse(StatusResponse response) {
+            super("Downstream answered " + response.status(), null, false, false);
+            this.response = response;
+        }
+
+        StatusResponse response() {
+            return response;
+        }
+    }
+}
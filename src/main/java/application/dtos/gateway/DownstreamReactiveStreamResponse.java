@@ -0,0 +1,22 @@
+package application.dtos.gateway;
+
+import domain.gateway.Headers;
+import io.smallrye.mutiny.Multi;
+import io.vertx.core.buffer.Buffer;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming downstream response whose body is consumed with back-pressure instead of a blocking {@code InputStream}.
+ */
+public record DownstreamReactiveStreamResponse(
+        int status,
+        Map<String, List<String>> headers,
+        Multi<Buffer> body
+) implements StatusResponse {
+
+    public DownstreamReactiveStreamResponse {
+        headers = Headers.of(headers);
+    }
+}
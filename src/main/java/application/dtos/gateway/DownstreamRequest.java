@@ -1,12 +1,35 @@
 package application.dtos.gateway;
 
+import domain.gateway.Headers;
+
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * @param timeout how long a buffered request waits for the downstream's answer, normally its route's resilience
+ *                timeout; {@code null} falls back to {@code gateway.downstream.request-timeout}. Streams and streamed
+ *                uploads ignore it.
+ */
 public record DownstreamRequest(
         String method,
         String url,
         Map<String, List<String>> headers,
-        byte[] body
+        byte[] body,
+        StreamingBody streamingBody,
+        Duration timeout
 ) {
+
+    public DownstreamRequest {
+        headers = Headers.of(headers);
+    }
+
+    public DownstreamRequest(String method, String url, Map<String, List<String>> headers, byte[] body,
+                             StreamingBody streamingBody) {
+        this(method, url, headers, body, streamingBody, null);
+    }
+
+    public DownstreamRequest(String method, String url, Map<String, List<String>> headers, byte[] body) {
+        this(method, url, headers, body, null, null);
+    }
 }
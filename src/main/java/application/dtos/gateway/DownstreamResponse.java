@@ -1,28 +1,54 @@
 package application.dtos.gateway;
 
+import domain.gateway.Headers;
+import io.smallrye.mutiny.Multi;
+import io.vertx.core.buffer.Buffer;
 import lombok.NonNull;
 
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+/**
+ * @param bodyStream when set, the body was too large or of unknown length to buffer and is still to be read from the
+ *                   downstream; {@code body} is then {@code null}
+ * @param bodyChunks the same for a response of the reactive execution mode, relayed with back-pressure; at most one of
+ *                   {@code body}, {@code bodyStream} and {@code bodyChunks} is set
+ */
 public record DownstreamResponse(
         int status,
         Map<String, List<String>> headers,
-        byte[] body
-) {
+        byte[] body,
+        InputStream bodyStream,
+        Multi<Buffer> bodyChunks
+) implements StatusResponse {
+
+    public DownstreamResponse {
+        headers = Headers.of(headers);
+    }
+
+    public DownstreamResponse(int status, Map<String, List<String>> headers, byte[] body) {
+        this(status, headers, body, null, null);
+    }
+
+    public DownstreamResponse(int status, Map<String, List<String>> headers, byte[] body, InputStream bodyStream) {
+        this(status, headers, body, bodyStream, null);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         DownstreamResponse that = (DownstreamResponse) obj;
-        return status == that.status && headers.equals(that.headers) && Arrays.equals(body, that.body);
+        return status == that.status && headers.equals(that.headers) && Arrays.equals(body, that.body)
+                && Objects.equals(bodyStream, that.bodyStream) && Objects.equals(bodyChunks, that.bodyChunks);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(status, headers, Arrays.hashCode(body));
+        return Objects.hash(status, headers, Arrays.hashCode(body), bodyStream, bodyChunks);
     }
 
     @Override
@@ -30,7 +56,7 @@ public record DownstreamResponse(
         return "DownstreamResponse{" +
                 "status=" + status +
                 ", headers=" + headers +
-                ", body=" + Arrays.toString(body) +
+                ", body=" + (bodyStream == null && bodyChunks == null ? Arrays.toString(body) : "<streamed>") +
                 '}';
     }
 }
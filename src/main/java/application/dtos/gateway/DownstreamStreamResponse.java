@@ -1,5 +1,7 @@
 package application.dtos.gateway;
 
+import domain.gateway.Headers;
+
 import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
@@ -8,5 +10,9 @@ public record DownstreamStreamResponse(
         int status,
         Map<String, List<String>> headers,
         InputStream body
-) {
+) implements StatusResponse {
+
+    public DownstreamStreamResponse {
+        headers = Headers.of(headers);
+    }
 }
@@ -0,0 +1,28 @@
+package application.dtos.gateway;
+
+import domain.gateway.Headers;
+import io.smallrye.mutiny.Multi;
+import io.vertx.core.buffer.Buffer;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @param bodyFile when set, the body is this whole file (served from a local cache) and {@code body} is {@code null}
+ */
+public record GatewayReactiveStreamResponse(
+        int status,
+        Map<String, List<String>> headers,
+        Multi<Buffer> body,
+        Path bodyFile
+) implements StatusResponse {
+
+    public GatewayReactiveStreamResponse {
+        headers = Headers.of(headers);
+    }
+
+    public GatewayReactiveStreamResponse(int status, Map<String, List<String>> headers, Multi<Buffer> body) {
+        this(status, headers, body, null);
+    }
+}
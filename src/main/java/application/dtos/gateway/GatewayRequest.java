@@ -1,5 +1,6 @@
 package application.dtos.gateway;
 
+import domain.gateway.Headers;
 import lombok.NonNull;
 
 import java.util.Arrays;
@@ -12,21 +13,31 @@ public record GatewayRequest(
         String path,
         String rawQuery,
         Map<String, List<String>> headers,
-        byte[] body
+        byte[] body,
+        StreamingBody streamingBody
 ) {
 
+    public GatewayRequest {
+        headers = Headers.of(headers);
+    }
+
+    public GatewayRequest(String method, String path, String rawQuery, Map<String, List<String>> headers, byte[] body) {
+        this(method, path, rawQuery, headers, body, null);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         GatewayRequest that = (GatewayRequest) obj;
         return method.equals(that.method) && path.equals(that.path) && rawQuery.equals(that.rawQuery)
-                && headers.equals(that.headers) && Arrays.equals(body, that.body);
+                && headers.equals(that.headers) && Arrays.equals(body, that.body)
+                && Objects.equals(streamingBody, that.streamingBody);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(method, path, rawQuery, headers, Arrays.hashCode(body));
+        return Objects.hash(method, path, rawQuery, headers, Arrays.hashCode(body), streamingBody);
     }
 
     @Override
@@ -37,6 +48,7 @@ public record GatewayRequest(
                 ", rawQuery='" + rawQuery + '\'' +
                 ", headers=" + headers +
                 ", body=" + Arrays.toString(body) +
+                ", streamingBody=" + streamingBody +
                 '}';
     }
 }
@@ -1,28 +1,54 @@
 package application.dtos.gateway;
 
+import domain.gateway.Headers;
+import io.smallrye.mutiny.Multi;
+import io.vertx.core.buffer.Buffer;
 import lombok.NonNull;
 
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+/**
+ * @param bodyStream when set, the body was too large or of unknown length to buffer and is relayed from this stream,
+ *                   which the caller must close; {@code body} is then {@code null}
+ * @param bodyChunks the same for a response of the reactive execution mode, relayed with back-pressure; at most one of
+ *                   {@code body}, {@code bodyStream} and {@code bodyChunks} is set
+ */
 public record GatewayResponse(
         int status,
         Map<String, List<String>> headers,
-        byte[] body
-) {
+        byte[] body,
+        InputStream bodyStream,
+        Multi<Buffer> bodyChunks
+) implements StatusResponse {
+
+    public GatewayResponse {
+        headers = Headers.of(headers);
+    }
+
+    public GatewayResponse(int status, Map<String, List<String>> headers, byte[] body) {
+        this(status, headers, body, null, null);
+    }
+
+    public GatewayResponse(int status, Map<String, List<String>> headers, byte[] body, InputStream bodyStream) {
+        this(status, headers, body, bodyStream, null);
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         GatewayResponse that = (GatewayResponse) obj;
-        return status == that.status && headers.equals(that.headers) && Arrays.equals(body, that.body);
+        return status == that.status && headers.equals(that.headers) && Arrays.equals(body, that.body)
+                && Objects.equals(bodyStream, that.bodyStream) && Objects.equals(bodyChunks, that.bodyChunks);
     }
 
     @Override
     public int hashCode() {
-        int result = Objects.hash(status, headers);
+        int result = Objects.hash(status, headers, bodyStream, bodyChunks);
         result = 31 * result + Arrays.hashCode(body);
         return result;
     }
@@ -32,7 +58,7 @@ public record GatewayResponse(
         return "GatewayResponse{" +
                 "status=" + status +
                 ", headers=" + headers +
-                ", body=" + Arrays.toString(body) +
+                ", body=" + (bodyStream == null && bodyChunks == null ? Arrays.toString(body) : "<streamed>") +
                 '}';
     }
 }
@@ -1,12 +1,27 @@
 package application.dtos.gateway;
 
+import domain.gateway.Headers;
+
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * @param bodyFile when set, the body is this whole file (served from a local cache) and {@code body} is {@code null}
+ */
 public record GatewayStreamResponse(
         int status,
         Map<String, List<String>> headers,
-        InputStream body
-) {
+        InputStream body,
+        Path bodyFile
+) implements StatusResponse {
+
+    public GatewayStreamResponse {
+        headers = Headers.of(headers);
+    }
+
+    public GatewayStreamResponse(int status, Map<String, List<String>> headers, InputStream body) {
+        this(status, headers, body, null);
+    }
 }
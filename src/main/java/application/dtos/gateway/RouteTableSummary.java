@@ -0,0 +1,28 @@
+package application.dtos.gateway;
+
+import java.time.Instant;
+import java.util.List;
+
+public record RouteTableSummary(
+        long version,
+        Instant loadedAt,
+        List<RouteSummary> routes
+) {
+    public record RouteSummary(
+            String id,
+            List<String> pathPrefixes,
+            boolean stripPrefix,
+            String baseUrl,
+            String loadBalancing,
+            List<UpstreamSummary> upstreams
+    ) {
+    }
+
+    public record UpstreamSummary(
+            String baseUrl,
+            int weight,
+            int outstanding,
+            double ewmaLatencyMillis
+    ) {
+    }
+}
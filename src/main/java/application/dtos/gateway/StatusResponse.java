@@ -0,0 +1,10 @@
+package application.dtos.gateway;
+
+/**
+ * A response of any kind, buffered or streamed, as far as its HTTP status goes; lets a route's resilience policy
+ * count the responses that failed along with the calls that did.
+ */
+public interface StatusResponse {
+
+    int status();
+}
@@ -0,0 +1,28 @@
+package application.dtos.gateway;
+
+import io.smallrye.mutiny.Multi;
+import io.vertx.core.buffer.Buffer;
+
+import java.io.InputStream;
+
+/**
+ * Request body relayed to the downstream as it is read from the client, instead of being buffered in memory: a
+ * {@code stream} read by the request's own thread, or, in the reactive execution mode, {@code chunks} taken from the
+ * client connection as the downstream asks for them. Exactly one of the two is set.
+ *
+ * @param contentLength declared length in bytes, or {@code -1} when unknown (sent chunked)
+ */
+public record StreamingBody(
+        InputStream stream,
+        Multi<Buffer> chunks,
+        long contentLength
+) {
+
+    public StreamingBody(InputStream stream, long contentLength) {
+        this(stream, null, contentLength);
+    }
+
+    public StreamingBody(Multi<Buffer> chunks, long contentLength) {
+        this(null, chunks, contentLength);
+    }
+}
@@ -0,0 +1,10 @@
+package application.exceptions;
+
+/**
+ * The route's circuit breaker is open or its bulkhead is full; the downstream was not called.
+ */
+public class DownstreamUnavailableException extends RuntimeException {
+    public DownstreamUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,215 @@
+package application.services.gateway;
+
+import application.dtos.gateway.GatewayReactiveStreamResponse;
+import application.dtos.gateway.GatewayResponse;
+import application.dtos.gateway.GatewayStreamResponse;
+import application.exceptions.DownstreamTimeoutException;
+import domain.gateway.RouteDefinition;
+import io.smallrye.mutiny.Multi;
+import io.vertx.core.buffer.Buffer;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The streamed responses being relayed, counted per route, and the idle-read watchdog that reclaims them.
+ * <p>
+ * A stream is idle while the gateway waits for data its downstream does not send: time a client spends not reading
+ * does not count. Blocking streams are checked by {@link #closeIdle()}, which a periodic timer calls; reactive streams
+ * fail on their own once no item arrived within the route's {@link domain.gateway.StreamingPolicy#idleTimeout()}.
+ */
+@ApplicationScoped
+@Slf4j
+public class ActiveStreams {
+
+    private final Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+    private final Set<WatchedStream> watched = ConcurrentHashMap.newKeySet();
+    private final LongAdder idleClosed = new LongAdder();
+
+    /**
+     * Counts {@code response} as active on {@code route} until its body is closed, and closes the body once a read waited
+     * longer than the route's idle timeout. Responses served from a file are not tracked.
+     */
+    public GatewayStreamResponse track(RouteDefinition route, GatewayStreamResponse response) {
+        if (response.body() == null) {
+            return response;
+        }
+        return new GatewayStreamResponse(response.status(), response.headers(), watch(route, response.body()));
+    }
+
+    /**
+     * Tracks the {@link GatewayResponse#bodyStream()} or {@link GatewayResponse#bodyChunks()} of {@code response} like
+     * the body of a blocking or reactive stream; buffered responses are returned as they are.
+     */
+    public GatewayResponse track(RouteDefinition route, GatewayResponse response) {
+        if (response.bodyChunks() != null) {
+            return new GatewayResponse(response.status(), response.headers(), null, null,
+                    watch(route, response.bodyChunks()));
+        }
+        if (response.bodyStream() == null) {
+            return response;
+        }
+        return new GatewayResponse(response.status(), response.headers(), null,
+                watch(route, response.bodyStream()));
+    }
+
+    /**
+     * Counts {@code response} as active on {@code route} while its body is subscribed, and fails the body once no item
+     * arrived for the route's idle timeout.
+     */
+    public GatewayReactiveStreamResponse track(RouteDefinition route, GatewayReactiveStreamResponse response) {
+        if (response.body() == null) {
+            return response;
+        }
+        return new GatewayReactiveStreamResponse(response.status(), response.headers(), watch(route, response.body()));
+    }
+
+    /**
+     * Closes the blocking streams whose current read has waited longer than their idle timeout, which fails that read.
+     */
+    public void closeIdle() {
+        long now = System.nanoTime();
+        for (WatchedStream stream : watched) {
+            if (stream.isIdle(now)) {
+                idleClosed.increment();
+                log.warn("Closing idle stream on route {}: no data from downstream for {}", stream.routeId, stream.idleTimeout);
+                stream.expire();
+            }
+        }
+    }
+
+    /**
+     * Streamed responses of {@code routeId} being relayed.
+     */
+    public int active(String routeId) {
+        AtomicInteger count = active.get(routeId);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Routes that relayed a stream since startup.
+     */
+    public Set<String> routeIds() {
+        return Set.copyOf(active.keySet());
+    }
+
+    public long idleClosed() {
+        return idleClosed.sum();
+    }
+
+    private Multi<Buffer> watch(RouteDefinition route, Multi<Buffer> body) {
+        String routeId = route.id();
+        Duration idleTimeout = route.streaming().idleTimeout();
+        return body
+                .ifNoItem().after(idleTimeout).failWith(() -> {
+                    idleClosed.increment();
+                    log.warn("Closing idle stream on route {}: no data from downstream for {}", routeId, idleTimeout);
+                    return new DownstreamTimeoutException("No data from downstream for " + idleTimeout, null);
+                })
+                .onSubscription().invoke(() -> counter(routeId).incrementAndGet())
+                .onTermination().invoke(() -> counter(routeId).decrementAndGet());
+    }
+
+    private WatchedStream watch(RouteDefinition route, InputStream body) {
+        WatchedStream watchedBody = new WatchedStream(route.id(), route.streaming().idleTimeout(), body);
+        counter(route.id()).incrementAndGet();
+        watched.add(watchedBody);
+        return watchedBody;
+    }
+
+    private AtomicInteger counter(String routeId) {
+        return active.computeIfAbsent(routeId, id -> new AtomicInteger());
+    }
+
+    private final class WatchedStream extends FilterInputStream {
+
+        private final String routeId;
+        private final Duration idleTimeout;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        // System.nanoTime() when the pending read started, 0 when no read is pending.
+        private volatile long readingSince;
+        private volatile boolean expired;
+
+        WatchedStream(String routeId, Duration idleTimeout, InputStream body) {
+            super(body);
+            this.routeId = routeId;
+            this.idleTimeout = idleTimeout;
+        }
+
+        @Override
+        public int read() throws IOException {
+            startRead();
+            try {
+                return super.read();
+            } catch (IOException e) {
+                throw failure(e);
+            } finally {
+                readingSince = 0;
+            }
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            startRead();
+            try {
+                return super.read(target, offset, length);
+            } catch (IOException e) {
+                throw failure(e);
+            } finally {
+                readingSince = 0;
+            }
+        }
+
+        boolean isIdle(long now) {
+            long since = readingSince;
+            return since != 0 && !expired && now - since > idleTimeout.toNanos();
+        }
+
+        void expire() {
+            expired = true;
+            try {
+                super.close();
+            } catch (IOException e) {
+                log.debug("Failed to close idle stream on route {}", routeId, e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed.compareAndSet(false, true)) {
+                watched.remove(this);
+                counter(routeId).decrementAndGet();
+                super.close();
+            }
+        }
+
+        private void startRead() throws IOException {
+            if (expired) {
+                throw new InterruptedIOException("No data from downstream for " + idleTimeout);
+            }
+            // Never 0, which means no pending read.
+            readingSince = System.nanoTime() | 1;
+        }
+
+        private IOException failure(IOException e) {
+            if (!expired) {
+                return e;
+            }
+            InterruptedIOException idle = new InterruptedIOException("No data from downstream for " + idleTimeout);
+            idle.initCause(e);
+            return idle;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package application.services.gateway;
+
+import domain.stream.MultipartFrame;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A viewer read by a blocking response writer: the frame it is writing, then the newest frame that arrived meanwhile,
+ * as an {@link InputStream}. Closing it leaves the channel.
+ */
+final class BlockingMjpegViewer extends InputStream implements MjpegViewer {
+
+    private final MjpegChannel channel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition arrived = lock.newCondition();
+
+    // Guarded by lock.
+    private MultipartFrame pending;
+    private boolean ended;
+    private Throwable failure;
+    private boolean closed;
+
+    // Only touched by the reading thread.
+    private byte[] current;
+    private int position;
+
+    BlockingMjpegViewer(MjpegChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public boolean offer(MultipartFrame frame) {
+        lock.lock();
+        try {
+            if (ended || closed) {
+                return false;
+            }
+            boolean skipped = pending != null;
+            pending = frame;
+            arrived.signal();
+            return skipped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void end(Throwable failure) {
+        lock.lock();
+        try {
+            if (!ended) {
+                ended = true;
+                this.failure = failure;
+                arrived.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read < 0 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (current == null || position == current.length) {
+            MultipartFrame next = next();
+            if (next == null) {
+                return -1;
+            }
+            current = next.encoded();
+            position = 0;
+        }
+        int count = Math.min(length, current.length - position);
+        System.arraycopy(current, position, target, offset, count);
+        position += count;
+        return count;
+    }
+
+    private MultipartFrame next() throws IOException {
+        lock.lock();
+        try {
+            while (pending == null && !ended && !closed) {
+                arrived.await();
+            }
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (pending != null) {
+                MultipartFrame next = pending;
+                pending = null;
+                return next;
+            }
+            if (failure != null) {
+                throw new IOException("MJPEG relay ended", failure);
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the next frame");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int available() {
+        return current == null ? 0 : current.length - position;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending = null;
+            arrived.signal();
+        } finally {
+            lock.unlock();
+        }
+        channel.leave(this);
+    }
+}
@@ -0,0 +1,300 @@
+package application.services.gateway;
+
+import application.dtos.gateway.GatewayReactiveStreamResponse;
+import application.dtos.gateway.GatewayRequest;
+import application.dtos.gateway.GatewayStreamResponse;
+import domain.cache.CacheControl;
+import domain.cache.CacheKey;
+import domain.cache.CachedSegment;
+import domain.cache.HeaderValues;
+import domain.gateway.Headers;
+import domain.gateway.RouteDefinition;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.core.buffer.Buffer;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ports.out.gateway.SegmentCachePort;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Second-tier cache for HLS media segments ({@code .ts}, {@code .m4s}) on routes with {@code cache.segments}, kept
+ * on local disk by {@link SegmentCachePort}.
+ * <p>
+ * Segment URIs never change content, so every {@code 200} without {@code no-store} or {@code private} is kept until
+ * the store expires or evicts it. Concurrent misses for one segment are coalesced: the first request fills the cache
+ * while its body is relayed to it, and the others wait for the fill, so a popular stream costs the origin one fetch
+ * per segment however many viewers it has. A waiter gives up after the route's resilience timeout and fetches the
+ * segment itself, as it does when the fill stored nothing. A segment above the store's limit is relayed to the first
+ * request uncached. Cached segments are returned as {@code bodyFile} responses with {@code X-Cache}. Playlists are
+ * never cached here, as they change with every segment.
+ */
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+public class HlsSegmentCache {
+
+    private static final List<String> SEGMENT_SUFFIXES = List.of(".ts", ".m4s");
+
+    private final SegmentCachePort store;
+    private final Map<CacheKey, CompletableFuture<Optional<CachedSegment>>> fills = new ConcurrentHashMap<>();
+
+    public boolean isCacheable(RouteDefinition route, GatewayRequest request) {
+        if (!route.segmentCache() || !"GET".equalsIgnoreCase(request.method())) {
+            return false;
+        }
+        String path = request.path().toLowerCase(Locale.ROOT);
+        return SEGMENT_SUFFIXES.stream().anyMatch(path::endsWith);
+    }
+
+    public GatewayStreamResponse fetch(RouteDefinition route, CacheKey key, Supplier<GatewayStreamResponse> downstream) {
+        Optional<CachedSegment> cached = store.get(key);
+        if (cached.isPresent()) {
+            return serve(cached.get(), "HIT");
+        }
+
+        CompletableFuture<Optional<CachedSegment>> fill = new CompletableFuture<>();
+        CompletableFuture<Optional<CachedSegment>> running = fills.putIfAbsent(key, fill);
+        if (running != null) {
+            return awaitFill(running, route.resilience().timeout())
+                    .map(segment -> serve(segment, "HIT"))
+                    .orElseGet(downstream);
+        }
+
+        GatewayStreamResponse response;
+        try {
+            response = downstream.get();
+        } catch (RuntimeException e) {
+            complete(key, fill, Optional.empty());
+            throw e;
+        }
+        if (!isStorable(response.status(), response.headers()) || response.body() == null) {
+            complete(key, fill, Optional.empty());
+            return response;
+        }
+        return new GatewayStreamResponse(response.status(), missHeaders(response.headers()),
+                new FillingStream(key, response.headers(), response.body(), fill));
+    }
+
+    public Uni<GatewayReactiveStreamResponse> fetchAsync(RouteDefinition route, CacheKey key,
+                                                         Supplier<Uni<GatewayReactiveStreamResponse>> downstream) {
+        Optional<CachedSegment> cached = store.get(key);
+        if (cached.isPresent()) {
+            return Uni.createFrom().item(serveAsync(cached.get(), "HIT"));
+        }
+
+        CompletableFuture<Optional<CachedSegment>> fill = new CompletableFuture<>();
+        CompletableFuture<Optional<CachedSegment>> running = fills.putIfAbsent(key, fill);
+        if (running != null) {
+            // A copy, so that a cancelled waiter does not cancel the fill for everyone else.
+            return Uni.createFrom().completionStage(running.copy())
+                    .ifNoItem().after(route.resilience().timeout()).recoverWithItem(Optional.empty())
+                    .onFailure().recoverWithItem(Optional.empty())
+                    .chain(filled -> filled.isPresent()
+                            ? Uni.createFrom().item(serveAsync(filled.get(), "HIT"))
+                            : downstream.get());
+        }
+
+        return downstream.get()
+                .map(response -> {
+                    if (!isStorable(response.status(), response.headers()) || response.body() == null) {
+                        complete(key, fill, Optional.empty());
+                        return response;
+                    }
+                    return new GatewayReactiveStreamResponse(response.status(), missHeaders(response.headers()),
+                            filling(key, response.headers(), response.body(), fill));
+                })
+                .onFailure().invoke(() -> complete(key, fill, Optional.empty()))
+                // A cancelled fill stores nothing; its waiters fetch the segment themselves.
+                .onCancellation().invoke(() -> complete(key, fill, Optional.empty()));
+    }
+
+    /**
+     * Relays {@code body} while keeping a copy of it, stored once the body is complete. A segment above the store's
+     * limit stops being copied but is still relayed; a body that fails or is cancelled stores nothing.
+     */
+    private Multi<Buffer> filling(CacheKey key, Map<String, List<String>> headers, Multi<Buffer> body,
+                                  CompletableFuture<Optional<CachedSegment>> fill) {
+        long limit = store.maxSegmentBytes();
+        AtomicReference<Buffer> copy = new AtomicReference<>(Buffer.buffer());
+        return body
+                .invoke(chunk -> {
+                    Buffer copied = copy.get();
+                    if (copied != null && copied.length() + chunk.length() > limit) {
+                        log.debug("Segment {} is above the {} byte limit; relaying it uncached", key, limit);
+                        copy.set(null);
+                    } else if (copied != null) {
+                        copied.appendBuffer(chunk);
+                    }
+                })
+                .onCompletion().call(() -> {
+                    Buffer copied = copy.get();
+                    if (copied == null) {
+                        complete(key, fill, Optional.empty());
+                        return Uni.createFrom().voidItem();
+                    }
+                    // Writing the file blocks; keep it off the event loop.
+                    return Uni.createFrom().item(() -> store.put(key, headers, new ByteArrayInputStream(copied.getBytes())))
+                            .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                            .onFailure().recoverWithItem(Optional.empty())
+                            .invoke(stored -> complete(key, fill, stored))
+                            .replaceWithVoid();
+                })
+                .onFailure().invoke(() -> complete(key, fill, Optional.empty()))
+                .onCancellation().invoke(() -> complete(key, fill, Optional.empty()));
+    }
+
+    private void complete(CacheKey key, CompletableFuture<Optional<CachedSegment>> fill, Optional<CachedSegment> stored) {
+        fill.complete(stored);
+        fills.remove(key, fill);
+    }
+
+    private static boolean isStorable(int status, Map<String, List<String>> headers) {
+        if (status != 200) {
+            return false;
+        }
+        CacheControl cacheControl = CacheControl.parse(HeaderValues.all(headers, "Cache-Control"));
+        return !cacheControl.noStore() && !cacheControl.isPrivate();
+    }
+
+    /**
+     * Waits for another request's fill; empty if it failed, did not store the segment or took longer than
+     * {@code timeout}.
+     */
+    private static Optional<CachedSegment> awaitFill(CompletableFuture<Optional<CachedSegment>> running, Duration timeout) {
+        try {
+            return running.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        } catch (ExecutionException | TimeoutException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static GatewayStreamResponse serve(CachedSegment segment, String cacheStatus) {
+        return new GatewayStreamResponse(200, headers(segment, cacheStatus), null, segment.file());
+    }
+
+    private static GatewayReactiveStreamResponse serveAsync(CachedSegment segment, String cacheStatus) {
+        return new GatewayReactiveStreamResponse(200, headers(segment, cacheStatus), null, segment.file());
+    }
+
+    private static Map<String, List<String>> headers(CachedSegment segment, String cacheStatus) {
+        return Headers.of(segment.headers()).with(HttpResponseCache.CACHE_STATUS_HEADER, cacheStatus);
+    }
+
+    private static Map<String, List<String>> missHeaders(Map<String, List<String>> headers) {
+        return Headers.of(headers).with(HttpResponseCache.CACHE_STATUS_HEADER, "MISS");
+    }
+
+    /**
+     * The blocking counterpart of {@link #filling}: the first request's body, copied as it is read and stored when
+     * it reaches its end.
+     */
+    private final class FillingStream extends FilterInputStream {
+
+        private final CacheKey key;
+        private final Map<String, List<String>> headers;
+        private final CompletableFuture<Optional<CachedSegment>> fill;
+        private final long limit = store.maxSegmentBytes();
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        private boolean done;
+
+        FillingStream(CacheKey key, Map<String, List<String>> headers, InputStream body,
+                      CompletableFuture<Optional<CachedSegment>> fill) {
+            super(body);
+            this.key = key;
+            this.headers = headers;
+            this.fill = fill;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read;
+            try {
+                read = super.read(b, off, len);
+            } catch (IOException | RuntimeException e) {
+                abandon();
+                throw e;
+            }
+            if (read < 0) {
+                store();
+            } else if (copy != null && copy.size() + read > limit) {
+                log.debug("Segment {} is above the {} byte limit; relaying it uncached", key, limit);
+                copy = null;
+            } else if (copy != null) {
+                copy.write(b, off, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes are not copied: the segment can no longer be stored.
+            copy = null;
+            return super.skip(n);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                abandon();
+            }
+        }
+
+        private void store() {
+            if (done) {
+                return;
+            }
+            done = true;
+            Optional<CachedSegment> stored = Optional.empty();
+            try {
+                if (copy != null) {
+                    stored = HlsSegmentCache.this.store.put(key, headers, new ByteArrayInputStream(copy.toByteArray()));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not store segment {}: {}", key, e.toString());
+            } finally {
+                copy = null;
+                complete(key, fill, stored);
+            }
+        }
+
+        private void abandon() {
+            if (!done) {
+                done = true;
+                copy = null;
+                complete(key, fill, Optional.empty());
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package application.services.gateway;
+
+import application.dtos.gateway.DownstreamResponse;
+import domain.cache.CacheControl;
+import domain.cache.CacheKey;
+import domain.cache.CachedResponse;
+import domain.cache.CachedVariants;
+import domain.cache.HeaderValues;
+import domain.gateway.Headers;
+import domain.gateway.RouteDefinition;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import ports.out.gateway.ResponseCachePort;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow.Subscription;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Shared HTTP cache in front of the downstream for {@code GET} requests on routes with {@code cache.enabled}; see
+ * {@link CachedResponse} for what gets stored.
+ * <p>
+ * A fresh entry is served without contacting the downstream. A stale one is revalidated with {@code If-None-Match}
+ * or {@code If-Modified-Since}, and a {@code 304} refreshes it. Within {@code stale-while-revalidate} the stale entry
+ * is served right away while a single background request per key revalidates it. Requests with
+ * {@code Cache-Control: no-store} bypass the cache, {@code no-cache} or {@code max-age} force a revalidation, and a
+ * client's own {@code If-None-Match} is answered with {@code 304} when it matches the entry. Every response carries
+ * {@code X-Cache} ({@code HIT}, {@code STALE}, {@code REVALIDATED} or {@code MISS}), and {@code Age} when it was
+ * served from the cache. Successful unsafe requests invalidate the entries of their URL. A response whose body the
+ * downstream call left streamed, too large or of unknown length to buffer, is relayed as a {@code MISS} and not stored.
+ */
+@ApplicationScoped
+@Slf4j
+public class HttpResponseCache {
+
+    static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private static final Set<String> UNSAFE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    private static final Set<String> CONDITIONAL_HEADERS = Set.of("if-none-match", "if-modified-since", "if-match",
+            "if-unmodified-since", "if-range");
+
+    private final ResponseCachePort store;
+    private final LongSupplier clock;
+    private final Set<CacheKey> revalidating = ConcurrentHashMap.newKeySet();
+
+    @Inject
+    public HttpResponseCache(ResponseCachePort store) {
+        this(store, System::currentTimeMillis);
+    }
+
+    HttpResponseCache(ResponseCachePort store, LongSupplier clock) {
+        this.store = store;
+        this.clock = clock;
+    }
+
+    public boolean isCacheable(RouteDefinition route, String method) {
+        return route.responseCache() && "GET".equalsIgnoreCase(method);
+    }
+
+    public boolean isInvalidatedBy(RouteDefinition route, String method) {
+        return route.responseCache() && UNSAFE_METHODS.contains(method.toUpperCase(Locale.ROOT));
+    }
+
+    public void invalidate(CacheKey key) {
+        store.invalidate(key);
+    }
+
+    /**
+     * @param requestHeaders headers as they would be sent downstream
+     * @param downstream     sends the request downstream with the given headers; it may add conditional headers
+     */
+    public Uni<DownstreamResponse> fetch(CacheKey key, Map<String, List<String>> requestHeaders,
+                                         Function<Map<String, List<String>>, Uni<DownstreamResponse>> downstream) {
+        CacheControl requestCacheControl = CacheControl.parse(HeaderValues.all(requestHeaders, "Cache-Control"));
+        if (requestCacheControl.noStore()) {
+            return downstream.apply(requestHeaders);
+        }
+
+        long now = clock.getAsLong();
+        CachedResponse cached = store.get(key).flatMap(variants -> variants.match(requestHeaders)).orElse(null);
+        if (cached != null && acceptableAge(requestCacheControl, cached, now)) {
+            if (cached.isFresh(now)) {
+                return Uni.createFrom().item(serve(cached, requestHeaders, now, "HIT"));
+            }
+            if (cached.isServableWhileRevalidating(now)) {
+                revalidateInBackground(key, cached, requestHeaders, downstream);
+                return Uni.createFrom().item(serve(cached, requestHeaders, now, "STALE"));
+            }
+        }
+
+        CachedResponse validated = cached != null && cached.hasValidator() ? cached : null;
+        return downstream.apply(validated == null ? requestHeaders : conditional(requestHeaders, validated))
+                .map(response -> onResponse(key, validated, requestHeaders, response, now));
+    }
+
+    private static boolean acceptableAge(CacheControl requestCacheControl, CachedResponse cached, long now) {
+        if (requestCacheControl.noCache()) {
+            return false;
+        }
+        return requestCacheControl.maxAge() < 0 || cached.age(now) <= requestCacheControl.maxAge() * 1000;
+    }
+
+    private void revalidateInBackground(CacheKey key, CachedResponse cached, Map<String, List<String>> requestHeaders,
+                                        Function<Map<String, List<String>>, Uni<DownstreamResponse>> downstream) {
+        if (!revalidating.add(key)) {
+            return;
+        }
+        long requestTime = clock.getAsLong();
+        CachedResponse validated = cached.hasValidator() ? cached : null;
+        Uni.createFrom().deferred(() -> downstream.apply(
+                        validated == null ? requestHeaders : conditional(requestHeaders, validated)))
+                // The downstream call may block (worker and virtual-thread modes); never on the caller's thread.
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                .map(response -> onResponse(key, validated, requestHeaders, response, requestTime))
+                .invoke(HttpResponseCache::discardStreamedBody)
+                .onTermination().invoke(() -> revalidating.remove(key))
+                .subscribe().with(
+                        response -> log.debug("Revalidated cached response key={} status={}", key, response.status()),
+                        failure -> log.warn("Background revalidation failed key={}: {}", key, failure.toString())
+                );
+    }
+
+    private DownstreamResponse onResponse(CacheKey key, CachedResponse validated,
+                                          Map<String, List<String>> requestHeaders, DownstreamResponse response,
+                                          long requestTime) {
+        long responseTime = clock.getAsLong();
+        if (validated != null && response.status() == 304) {
+            Optional<CachedResponse> refreshed = validated.revalidated(response.headers(), requestHeaders, requestTime,
+                    responseTime);
+            if (refreshed.isPresent()) {
+                put(key, refreshed.get());
+            } else {
+                store.invalidate(key);
+            }
+            return serve(refreshed.orElse(validated), requestHeaders, responseTime, "REVALIDATED");
+        }
+        if (response.bodyStream() != null || response.bodyChunks() != null) {
+            return new DownstreamResponse(response.status(), withHeader(response.headers(), CACHE_STATUS_HEADER, "MISS"),
+                    null, response.bodyStream(), response.bodyChunks());
+        }
+
+        CachedResponse.of(response.status(), response.headers(), response.body(), requestHeaders, requestTime,
+                responseTime).ifPresent(entry -> put(key, entry));
+        return new DownstreamResponse(response.status(), withHeader(response.headers(), CACHE_STATUS_HEADER, "MISS"),
+                response.body());
+    }
+
+    /**
+     * Nobody reads the body a background revalidation left streamed; closing it releases the connection.
+     */
+    private static void discardStreamedBody(DownstreamResponse response) {
+        if (response.bodyStream() != null) {
+            try {
+                response.bodyStream().close();
+            } catch (IOException e) {
+                log.debug("Could not close an unread response body: {}", e.toString());
+            }
+        }
+        if (response.bodyChunks() != null) {
+            response.bodyChunks().subscribe().with(Subscription::cancel, chunk -> {
+            }, failure -> {
+            }, () -> {
+            });
+        }
+    }
+
+    private void put(CacheKey key, CachedResponse entry) {
+        store.put(key, store.get(key)
+                .map(variants -> variants.with(entry))
+                .orElseGet(() -> new CachedVariants(List.of(entry))));
+    }
+
+    private static DownstreamResponse serve(CachedResponse cached, Map<String, List<String>> requestHeaders, long now,
+                                            String cacheStatus) {
+        Map<String, List<String>> headers = withHeader(
+                withHeader(cached.headers(), "Age", String.valueOf(cached.age(now) / 1000)),
+                CACHE_STATUS_HEADER, cacheStatus);
+        if (notModified(cached, requestHeaders)) {
+            return new DownstreamResponse(304, headers, null);
+        }
+        return new DownstreamResponse(cached.status(), headers, cached.body());
+    }
+
+    /**
+     * Weak comparison, as required for {@code If-None-Match}.
+     */
+    private static boolean notModified(CachedResponse cached, Map<String, List<String>> requestHeaders) {
+        String etag = cached.etag();
+        if (cached.status() != 200 || etag == null) {
+            return false;
+        }
+        for (String candidate : HeaderValues.elements(HeaderValues.all(requestHeaders, "If-None-Match"))) {
+            if (candidate.equals("*") || opaqueTag(candidate).equals(opaqueTag(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String etag) {
+        String trimmed = etag.trim();
+        return trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed;
+    }
+
+    /**
+     * The request with the client's own preconditions replaced by the validators of the stored response.
+     */
+    private static Map<String, List<String>> conditional(Map<String, List<String>> requestHeaders,
+                                                         CachedResponse validated) {
+        Headers headers = Headers.of(requestHeaders).without(HttpResponseCache::isConditional);
+        return validated.etag() != null
+                ? headers.with("If-None-Match", validated.etag())
+                : headers.with("If-Modified-Since", validated.lastModified());
+    }
+
+    private static boolean isConditional(String name) {
+        return name.regionMatches(true, 0, "If-", 0, 3) && CONDITIONAL_HEADERS.contains(name.toLowerCase(Locale.ROOT));
+    }
+
+    private static Map<String, List<String>> withHeader(Map<String, List<String>> headers, String name, String value) {
+        return Headers.of(headers).with(name, value);
+    }
+}
@@ -0,0 +1,182 @@
+package application.services.gateway;
+
+import domain.stream.MultipartFrame;
+import domain.stream.MultipartFrameParser;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.Cancellable;
+import io.vertx.core.buffer.Buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * One upstream MJPEG stream relayed to any number of viewers.
+ * <p>
+ * The upstream body is read as fast as it arrives, split into whole frames, and each frame is offered to every
+ * viewer. A viewer still writing an earlier frame skips to the newest, so a slow client neither holds the upstream
+ * back nor makes the gateway buffer more than a frame for it. The channel closes when the upstream ends, ending every
+ * viewer, or when its last viewer leaves, closing the upstream. A closed channel accepts no viewers. The newest frame
+ * is also kept for snapshots.
+ */
+final class MjpegChannel {
+
+    private final int status;
+    private final Map<String, List<String>> headers;
+    private final MultipartFrameParser parser;
+    private final Consumer<MjpegChannel> onClosed;
+    private final Runnable onSkipped;
+    private final List<MjpegViewer> viewers = new CopyOnWriteArrayList<>();
+
+    private volatile MultipartFrame latest;
+
+    // Guarded by this.
+    private boolean closed;
+    private Runnable closeSource;
+
+    /**
+     * @param onClosed  run once, when the channel stops accepting viewers
+     * @param onSkipped run each time a viewer skips a frame it could not write in time
+     */
+    MjpegChannel(int status, Map<String, List<String>> headers, MultipartFrameParser parser,
+                 Consumer<MjpegChannel> onClosed, Runnable onSkipped) {
+        this.status = status;
+        this.headers = headers;
+        this.parser = parser;
+        this.onClosed = onClosed;
+        this.onSkipped = onSkipped;
+    }
+
+    int status() {
+        return status;
+    }
+
+    Map<String, List<String>> headers() {
+        return headers;
+    }
+
+    synchronized boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * The newest frame relayed, or {@code null} before the first one.
+     */
+    MultipartFrame latestFrame() {
+        return latest;
+    }
+
+    /**
+     * A new viewer reading frames as an {@link InputStream}, or {@code null} if the channel is closed.
+     */
+    InputStream joinBlocking() {
+        BlockingMjpegViewer viewer = new BlockingMjpegViewer(this);
+        return add(viewer) ? viewer : null;
+    }
+
+    /**
+     * A new viewer receiving frames as buffers, or {@code null} if the channel is closed.
+     */
+    Multi<Buffer> joinReactive() {
+        ReactiveMjpegViewer viewer = new ReactiveMjpegViewer(this);
+        return add(viewer) ? Multi.createFrom().publisher(viewer) : null;
+    }
+
+    private synchronized boolean add(MjpegViewer viewer) {
+        if (closed) {
+            return false;
+        }
+        viewers.add(viewer);
+        return true;
+    }
+
+    void leave(MjpegViewer viewer) {
+        Runnable close;
+        synchronized (this) {
+            if (!viewers.remove(viewer) || !viewers.isEmpty() || closed) {
+                return;
+            }
+            closed = true;
+            close = closeSource;
+        }
+        onClosed.accept(this);
+        if (close != null) {
+            close.run();
+        }
+    }
+
+    /**
+     * Relays a blocking upstream body, read on a virtual thread of its own until it ends or the channel closes.
+     */
+    void relay(InputStream source) {
+        onClose(() -> {
+            try {
+                source.close();
+            } catch (IOException ignored) {
+            }
+        });
+        Thread.ofVirtual().name("mjpeg-relay").start(() -> {
+            byte[] chunk = new byte[16 * 1024];
+            try (source) {
+                int read;
+                while ((read = source.read(chunk)) >= 0) {
+                    parser.feed(chunk, 0, read, this::broadcast);
+                }
+                end(null);
+            } catch (IOException | RuntimeException e) {
+                end(e);
+            }
+        });
+    }
+
+    /**
+     * Relays a non-blocking upstream body, requesting it as fast as it comes: slow viewers never hold it back.
+     */
+    void relay(Multi<Buffer> source) {
+        Cancellable subscription = source.subscribe().with(
+                chunk -> {
+                    byte[] bytes = chunk.getBytes();
+                    parser.feed(bytes, 0, bytes.length, this::broadcast);
+                },
+                this::end,
+                () -> end(null));
+        onClose(subscription::cancel);
+    }
+
+    private void onClose(Runnable close) {
+        synchronized (this) {
+            if (!closed) {
+                closeSource = close;
+                return;
+            }
+        }
+        close.run();
+    }
+
+    private void broadcast(MultipartFrame frame) {
+        latest = frame;
+        for (MjpegViewer viewer : viewers) {
+            if (viewer.offer(frame)) {
+                onSkipped.run();
+            }
+        }
+    }
+
+    private void end(Throwable failure) {
+        List<MjpegViewer> ended;
+        synchronized (this) {
+            boolean wasOpen = !closed;
+            closed = true;
+            ended = List.copyOf(viewers);
+            viewers.clear();
+            if (!wasOpen && ended.isEmpty()) {
+                return;
+            }
+        }
+        onClosed.accept(this);
+        ended.forEach(viewer -> viewer.end(failure));
+    }
+}
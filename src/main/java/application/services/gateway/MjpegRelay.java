@@ -0,0 +1,368 @@
+package application.services.gateway;
+
+import application.dtos.gateway.DownstreamResponse;
+import application.dtos.gateway.GatewayReactiveStreamResponse;
+import application.dtos.gateway.GatewayRequest;
+import application.dtos.gateway.GatewayStreamResponse;
+import application.exceptions.DownstreamRequestFailedException;
+import domain.cache.CacheKey;
+import domain.cache.HeaderValues;
+import domain.gateway.Headers;
+import domain.gateway.RouteDefinition;
+import domain.stream.MultipartFrame;
+import domain.stream.MultipartFrameParser;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Relays live MJPEG streams ({@code multipart/x-mixed-replace}) frame by frame, so that each client gets the newest
+ * whole frame it has time for and skips the rest.
+ * <p>
+ * On routes with {@code streaming.mjpeg-relay}, viewers of the same downstream URL and tenant that send the same
+ * credentials also share one {@link MjpegChannel}. The first viewer's request opens the upstream stream, which is
+ * split into whole frames and broadcast. Later viewers join without an upstream request and start at the next whole
+ * frame. When the last viewer leaves, the upstream connection is closed. Responses that turn out not to be
+ * {@code multipart/x-mixed-replace} are returned as they are.
+ * <p>
+ * On routes with {@code streaming.snapshots}, a {@code GET} with a {@code snapshot} query parameter gets the newest
+ * frame of the stream at the same URL (without that parameter) as a plain response. While the gateway relays that
+ * stream the frame comes from memory; otherwise the stream is opened, read up to its first frame and closed.
+ */
+@ApplicationScoped
+@Slf4j
+public class MjpegRelay {
+
+    private static final List<String> CREDENTIALS = List.of("Authorization", "Cookie");
+    private static final String SNAPSHOT_PARAMETER = "snapshot";
+    private static final Set<String> FRAME_HEADERS = Set.of("content-type", "content-length");
+
+    private final Map<Key, MjpegChannel> channels = new ConcurrentHashMap<>();
+    private final LongAdder skippedFrames = new LongAdder();
+
+    /**
+     * Frames skipped so far by clients that could not keep up.
+     */
+    public long skippedFrames() {
+        return skippedFrames.sum();
+    }
+
+    public boolean isRelayed(RouteDefinition route, GatewayRequest request) {
+        return route.streaming().mjpegRelay()
+                && "GET".equalsIgnoreCase(request.method())
+                && request.body() == null
+                && request.streamingBody() == null;
+    }
+
+    public boolean isSnapshot(RouteDefinition route, GatewayRequest request) {
+        return route.streaming().snapshots()
+                && "GET".equalsIgnoreCase(request.method())
+                && request.body() == null
+                && request.streamingBody() == null
+                && queryParameters(request.rawQuery()).anyMatch(MjpegRelay::isSnapshotParameter);
+    }
+
+    /**
+     * The request for the stream a snapshot request is taken from: the same one without its {@code snapshot}
+     * parameter.
+     */
+    public GatewayRequest streamRequest(GatewayRequest snapshot) {
+        String query = queryParameters(snapshot.rawQuery())
+                .filter(parameter -> !isSnapshotParameter(parameter))
+                .collect(Collectors.joining("&"));
+        return new GatewayRequest(snapshot.method(), snapshot.path(), query.isEmpty() ? null : query,
+                snapshot.headers(), null);
+    }
+
+    /**
+     * The newest frame of the stream at {@code target}, from memory when it is relayed, else fetched with
+     * {@code downstream}. Responses that turn out not to be {@code multipart/x-mixed-replace} are read whole and
+     * returned as they are, up to {@code streaming.max-frame-bytes}; a larger one fails the snapshot.
+     */
+    public DownstreamResponse snapshot(RouteDefinition route, CacheKey target, Map<String, List<String>> headers,
+                                       Supplier<GatewayStreamResponse> downstream) {
+        DownstreamResponse live = liveSnapshot(target, headers);
+        if (live != null) {
+            return live;
+        }
+
+        GatewayStreamResponse response = downstream.get();
+        try (InputStream body = response.body()) {
+            String boundary = boundary(response.status(), response.headers(), body != null);
+            if (boundary == null) {
+                return new DownstreamResponse(response.status(), response.headers(),
+                        body == null ? null : readWhole(route, body));
+            }
+            MultipartFrameParser parser = parser(route, boundary);
+            List<MultipartFrame> frames = new ArrayList<>(1);
+            byte[] chunk = new byte[16 * 1024];
+            int read;
+            while (frames.isEmpty() && (read = body.read(chunk)) >= 0) {
+                parser.feed(chunk, 0, read, frames::add);
+            }
+            return fetchedSnapshot(response.headers(), frames.isEmpty() ? null : frames.getFirst());
+        } catch (IOException e) {
+            throw new DownstreamRequestFailedException("MJPEG snapshot failed", e);
+        }
+    }
+
+    public Uni<DownstreamResponse> snapshotAsync(RouteDefinition route, CacheKey target,
+                                                 Map<String, List<String>> headers,
+                                                 Supplier<Uni<GatewayReactiveStreamResponse>> downstream) {
+        return Uni.createFrom().deferred(() -> {
+            DownstreamResponse live = liveSnapshot(target, headers);
+            if (live != null) {
+                return Uni.createFrom().item(live);
+            }
+
+            return downstream.get().flatMap(response -> {
+                String boundary = boundary(response.status(), response.headers(), response.body() != null);
+                if (boundary == null) {
+                    if (response.body() == null) {
+                        return Uni.createFrom().item(new DownstreamResponse(response.status(), response.headers(), null));
+                    }
+                    int maxBytes = route.streaming().maxFrameBytes();
+                    // Failing the collection cancels the upstream body, closing the connection.
+                    return response.body()
+                            .collect().in(Buffer::buffer, (body, chunk) -> {
+                                if (body.length() + chunk.length() > maxBytes) {
+                                    throw tooLarge(maxBytes);
+                                }
+                                body.appendBuffer(chunk);
+                            })
+                            .map(body -> new DownstreamResponse(response.status(), response.headers(), body.getBytes()));
+                }
+                MultipartFrameParser parser = parser(route, boundary);
+                // Taking the first frame cancels the upstream body, closing the connection.
+                return response.body()
+                        .onItem().transformToIterable(chunk -> {
+                            List<MultipartFrame> frames = new ArrayList<>(1);
+                            byte[] bytes = chunk.getBytes();
+                            parser.feed(bytes, 0, bytes.length, frames::add);
+                            return frames;
+                        })
+                        .toUni()
+                        .map(frame -> fetchedSnapshot(response.headers(), frame));
+            });
+        });
+    }
+
+    public GatewayStreamResponse stream(RouteDefinition route, CacheKey target, Map<String, List<String>> headers,
+                                        Supplier<GatewayStreamResponse> downstream) {
+        Key key = key(target, headers);
+        MjpegChannel live = channels.get(key);
+        InputStream joined = live == null ? null : live.joinBlocking();
+        if (joined != null) {
+            return new GatewayStreamResponse(live.status(), live.headers(), joined);
+        }
+
+        GatewayStreamResponse response = downstream.get();
+        String boundary = boundary(response.status(), response.headers(), response.body() != null);
+        if (boundary == null) {
+            return response;
+        }
+
+        MjpegChannel channel = open(key, route, response.status(), response.headers(), boundary);
+        InputStream own = channel.joinBlocking();
+        MjpegChannel winner = register(key, route, channel);
+        channel.relay(response.body());
+        if (winner != channel) {
+            // Another viewer opened the stream meanwhile: use theirs, which closes the one just opened.
+            InputStream shared = winner.joinBlocking();
+            if (shared != null) {
+                closeQuietly(own);
+                return new GatewayStreamResponse(winner.status(), winner.headers(), shared);
+            }
+        }
+        return new GatewayStreamResponse(response.status(), response.headers(), own);
+    }
+
+    public Uni<GatewayReactiveStreamResponse> streamAsync(RouteDefinition route, CacheKey target,
+                                                          Map<String, List<String>> headers,
+                                                          Supplier<Uni<GatewayReactiveStreamResponse>> downstream) {
+        return Uni.createFrom().deferred(() -> {
+            Key key = key(target, headers);
+            MjpegChannel live = channels.get(key);
+            Multi<Buffer> joined = live == null ? null : live.joinReactive();
+            if (joined != null) {
+                return Uni.createFrom().item(new GatewayReactiveStreamResponse(live.status(), live.headers(), joined));
+            }
+
+            return downstream.get().map(response -> {
+                String boundary = boundary(response.status(), response.headers(), response.body() != null);
+                if (boundary == null) {
+                    return response;
+                }
+
+                MjpegChannel channel = open(key, route, response.status(), response.headers(), boundary);
+                Multi<Buffer> own = channel.joinReactive();
+                MjpegChannel winner = register(key, route, channel);
+                channel.relay(response.body());
+                if (winner != channel) {
+                    Multi<Buffer> shared = winner.joinReactive();
+                    if (shared != null) {
+                        // Subscribing and cancelling at once leaves the channel just opened, which closes it.
+                        own.subscribe().with(ignored -> { }).cancel();
+                        return new GatewayReactiveStreamResponse(winner.status(), winner.headers(), shared);
+                    }
+                }
+                return new GatewayReactiveStreamResponse(response.status(), response.headers(), own);
+            });
+        });
+    }
+
+    /**
+     * Relays an MJPEG response to its single client frame by frame; any other response is returned as it is.
+     */
+    public GatewayStreamResponse dropStaleFrames(RouteDefinition route, CacheKey target, Map<String, List<String>> headers,
+                                          GatewayStreamResponse response) {
+        String boundary = boundary(response.status(), response.headers(), response.body() != null);
+        if (boundary == null) {
+            return response;
+        }
+        MjpegChannel channel = unshared(key(target, headers), route, response.status(), response.headers(), boundary);
+        InputStream viewer = channel.joinBlocking();
+        channel.relay(response.body());
+        return new GatewayStreamResponse(response.status(), response.headers(), viewer);
+    }
+
+    /**
+     * Relays an MJPEG response to its single client frame by frame; any other response is returned as it is.
+     */
+    public GatewayReactiveStreamResponse dropStaleFrames(RouteDefinition route, CacheKey target, Map<String, List<String>> headers,
+                                          GatewayReactiveStreamResponse response) {
+        String boundary = boundary(response.status(), response.headers(), response.body() != null);
+        if (boundary == null) {
+            return response;
+        }
+        MjpegChannel channel = unshared(key(target, headers), route, response.status(), response.headers(), boundary);
+        Multi<Buffer> viewer = channel.joinReactive();
+        channel.relay(response.body());
+        return new GatewayReactiveStreamResponse(response.status(), response.headers(), viewer);
+    }
+
+    private DownstreamResponse liveSnapshot(CacheKey target, Map<String, List<String>> headers) {
+        MjpegChannel live = channels.get(key(target, headers));
+        MultipartFrame frame = live == null ? null : live.latestFrame();
+        return frame == null ? null : snapshot(live.headers(), frame);
+    }
+
+    private static DownstreamResponse fetchedSnapshot(Map<String, List<String>> headers, MultipartFrame frame) {
+        if (frame == null) {
+            throw new DownstreamRequestFailedException("MJPEG stream ended before its first frame", null);
+        }
+        return snapshot(headers, frame);
+    }
+
+    /**
+     * The frame as a response of its own, with the stream's headers except those describing the multipart body.
+     */
+    private static DownstreamResponse snapshot(Map<String, List<String>> streamHeaders, MultipartFrame frame) {
+        Headers headers = Headers.of(streamHeaders)
+                .without(name -> FRAME_HEADERS.contains(name.toLowerCase(Locale.ROOT)))
+                .with("Content-Type", frame.contentType() == null ? "image/jpeg" : frame.contentType())
+                .with("Cache-Control", "no-store");
+        byte[] body = new byte[frame.bodyLength()];
+        frame.body().get(body);
+        return new DownstreamResponse(200, headers, body);
+    }
+
+    private static Stream<String> queryParameters(String rawQuery) {
+        return rawQuery == null || rawQuery.isEmpty()
+                ? Stream.empty()
+                : Arrays.stream(rawQuery.split("&")).filter(parameter -> !parameter.isEmpty());
+    }
+
+    private static boolean isSnapshotParameter(String parameter) {
+        int eq = parameter.indexOf('=');
+        return (eq < 0 ? parameter : parameter.substring(0, eq)).equals(SNAPSHOT_PARAMETER);
+    }
+
+    private MjpegChannel open(Key key, RouteDefinition route, int status, Map<String, List<String>> headers,
+                              String boundary) {
+        return new MjpegChannel(status, headers, parser(route, boundary),
+                closed -> {
+                    if (channels.remove(key, closed)) {
+                        log.info("Closed MJPEG relay route={} target={}", route.id(), key.target().pathAndQuery());
+                    }
+                },
+                skippedFrames::increment);
+    }
+
+    /**
+     * A channel for a single client, published only for snapshots unless another stream of the URL already is.
+     */
+    private MjpegChannel unshared(Key key, RouteDefinition route, int status, Map<String, List<String>> headers,
+                                  String boundary) {
+        MjpegChannel channel = new MjpegChannel(status, headers, parser(route, boundary),
+                closed -> channels.remove(key, closed), skippedFrames::increment);
+        channels.compute(key, (k, current) -> current != null && current.isOpen() ? current : channel);
+        return channel;
+    }
+
+    private static byte[] readWhole(RouteDefinition route, InputStream body) throws IOException {
+        int maxBytes = route.streaming().maxFrameBytes();
+        byte[] bytes = body.readNBytes(maxBytes);
+        if (bytes.length == maxBytes && body.read() >= 0) {
+            throw tooLarge(maxBytes);
+        }
+        return bytes;
+    }
+
+    private static DownstreamRequestFailedException tooLarge(int maxBytes) {
+        return new DownstreamRequestFailedException(
+                "MJPEG snapshot response is not multipart and exceeds " + maxBytes + " bytes", null);
+    }
+
+    private static MultipartFrameParser parser(RouteDefinition route, String boundary) {
+        return new MultipartFrameParser(boundary, route.streaming().maxFrameBytes());
+    }
+
+    /**
+     * Publishes a newly opened channel unless another live one got there first, which is returned instead.
+     */
+    private MjpegChannel register(Key key, RouteDefinition route, MjpegChannel channel) {
+        MjpegChannel winner = channels.compute(key, (k, current) -> current != null && current.isOpen() ? current : channel);
+        if (winner == channel) {
+            log.info("Opened MJPEG relay route={} target={}", route.id(), key.target().pathAndQuery());
+        }
+        return winner;
+    }
+
+    private static void closeQuietly(InputStream viewer) {
+        try {
+            viewer.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static String boundary(int status, Map<String, List<String>> headers, boolean hasBody) {
+        if (status != 200 || !hasBody) {
+            return null;
+        }
+        return MultipartFrameParser.boundary(HeaderValues.first(headers, "Content-Type"));
+    }
+
+    private static Key key(CacheKey target, Map<String, List<String>> headers) {
+        return new Key(target, CREDENTIALS.stream().map(name -> HeaderValues.all(headers, name)).toList());
+    }
+
+    private record Key(CacheKey target, List<List<String>> credentials) {
+    }
+}
@@ -0,0 +1,24 @@
+package application.services.gateway;
+
+import domain.stream.MultipartFrame;
+
+/**
+ * One client of an {@link MjpegChannel}, fed whole frames by the channel's relay.
+ * <p>
+ * A viewer holds at most one frame besides the one it is writing: the newest. A client that cannot keep up skips the
+ * frames it had no time for instead of falling further behind.
+ */
+interface MjpegViewer {
+
+    /**
+     * Makes {@code frame} the next one to write, without blocking.
+     *
+     * @return {@code true} if it replaced a frame that was never written, i.e. the viewer skipped one
+     */
+    boolean offer(MultipartFrame frame);
+
+    /**
+     * Ends the viewer's stream once its pending frame is written, normally or with {@code failure}.
+     */
+    void end(Throwable failure);
+}
@@ -3,55 +3,66 @@ package application.services.gateway;
 import application.dtos.gateway.DownstreamRequest;
 import application.dtos.gateway.DownstreamResponse;
 import application.dtos.gateway.DownstreamStreamResponse;
+import application.dtos.gateway.GatewayReactiveStreamResponse;
 import application.dtos.gateway.GatewayRequest;
 import application.dtos.gateway.GatewayResponse;
 import application.dtos.gateway.GatewayStreamResponse;
 import application.exceptions.DownstreamRequestFailedException;
+import application.exceptions.DownstreamTimeoutException;
+import application.exceptions.DownstreamUnavailableException;
 import application.exceptions.RouteNotFoundException;
 import configurations.tenancy.TenantIdProvider;
-import domain.gateway.RouteDefinition;
+import domain.cache.CacheKey;
+import domain.cache.HeaderValues;
+import domain.gateway.Headers;
+import domain.gateway.RouteMatch;
+import domain.gateway.Upstream;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.WebApplicationException;
-import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ports.in.gateway.ProxyRequestUseCase;
+import ports.in.gateway.ReactiveProxyRequestUseCase;
 import ports.out.gateway.DownstreamHttpPort;
 import ports.out.gateway.RouteDefinitionsPort;
+import ports.out.gateway.RouteResiliencePort;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @ApplicationScoped
 @RequiredArgsConstructor
 @Slf4j
-public class ProxyRequestService implements ProxyRequestUseCase {
+public class ProxyRequestService implements ProxyRequestUseCase, ReactiveProxyRequestUseCase {
 
     private static final String TENANT_ID_HEADER = "X-Tenant-Id";
 
-    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
-            "connection",
-            "keep-alive",
-            "proxy-authenticate",
-            "proxy-authorization",
-            "te",
-            "trailers",
-            "transfer-encoding",
-            "upgrade",
-            "host",
-            "content-length"
-    );
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE", "TRACE");
 
     private final RouteDefinitionsPort routeDefinitionsPort;
     private final DownstreamHttpPort downstreamHttpPort;
     private final TenantIdProvider tenantIdProvider;
+    private final RouteResiliencePort routeResiliencePort;
+    private final HttpResponseCache httpResponseCache;
+    private final HlsSegmentCache hlsSegmentCache;
+    private final RequestCoalescer requestCoalescer;
+    private final MjpegRelay mjpegRelay;
+    private final ActiveStreams activeStreams;
+    private final StreamFlushing streamFlushing;
 
     @Override
     public GatewayResponse proxy(GatewayRequest request) {
@@ -65,97 +76,423 @@ public class ProxyRequestService implements ProxyRequestUseCase {
         return doProxyStream(request);
     }
 
-    private GatewayResponse doProxy(GatewayRequest request) {
-        List<RouteDefinition> routes = routeDefinitionsPort.listRoutes();
-
-        RouteMatch match = findBestMatch(routes, request.path())
-                .orElseThrow(() -> new RouteNotFoundException("No route found for path: " + request.path()));
+    @Override
+    public Uni<GatewayResponse> proxyAsync(GatewayRequest request) {
+        log.info("ProxyRequestService.proxyAsync start method={} path={} query={}", request.method(), request.path(), request.rawQuery());
+
+        // Resolved eagerly: the tenant lookup needs the caller's request context.
+        RouteMatch match = resolveRoute(request.path());
+        Map<String, List<String>> headers = downstreamHeaders(request);
+
+        Uni<DownstreamResponse> response;
+        if (request.streamingBody() != null) {
+            // Streamed uploads bypass the buffered policy: a retry would replay an already consumed body.
+            response = routeResiliencePort.executeStreamAsync(match.route(),
+                            () -> sendAsync(request, match, headers, downstreamHttpPort::executeUploadAsync))
+                    .invoke(downstreamResponse -> invalidateCachedResponses(request, match, headers, downstreamResponse));
+        } else if (mjpegRelay.isSnapshot(match.route(), request)) {
+            response = snapshotAsync(request, match, headers);
+        } else if (httpResponseCache.isCacheable(match.route(), request.method())) {
+            response = httpResponseCache.fetch(cacheKey(request, match, headers), headers,
+                    cacheHeaders -> sendAsync(request, match, cacheHeaders));
+        } else {
+            response = sendAsync(request, match, headers)
+                    .invoke(downstreamResponse -> invalidateCachedResponses(request, match, headers, downstreamResponse));
+        }
+        // A body left streamed is relayed like any other stream, under the route's idle timeout.
+        return response
+                .map(downstreamResponse -> activeStreams.track(match.route(), toGatewayResponse(downstreamResponse)))
+                .onFailure().recoverWithItem(this::forwardEmbeddedResponseOrFail);
+    }
 
-        String downstreamPath = match.route.rewritePath(request.path(), match.matchedPrefix);
+    /**
+     * Non-blocking {@link #execute}: buffers the response only when it declares a body within the route's buffer
+     * threshold, and leaves any other body to be relayed as it arrives.
+     */
+    private Uni<DownstreamResponse> sendAsync(GatewayRequest request, RouteMatch match, Map<String, List<String>> headers) {
+        long bufferThreshold = match.route().streaming().bufferThreshold();
+        Supplier<Uni<DownstreamResponse>> send = () -> routeResiliencePort.executeAsync(match.route(), isIdempotent(request),
+                () -> sendAsync(request, match, headers, downstreamRequest ->
+                        downstreamHttpPort.executeBoundedAsync(downstreamRequest, bufferThreshold)));
+        return requestCoalescer.isCoalesced(match.route(), request)
+                ? requestCoalescer.executeAsync(match.route(), cacheKey(request, match, headers), headers, send)
+                : send.get();
+    }
 
-        log.info("Matched route id={} matchedPrefix={} stripPrefix={} baseUrl={} downstreamPath={}",
-                match.route.id(), match.matchedPrefix, match.route.stripPrefix(), match.route.target().baseUrl(), downstreamPath);
+    /**
+     * One attempt, without holding the caller's thread: picks an instance and tracks the call on it.
+     */
+    private Uni<DownstreamResponse> sendAsync(GatewayRequest request, RouteMatch match, Map<String, List<String>> headers,
+                                              Function<DownstreamRequest, Uni<DownstreamResponse>> call) {
+        Upstream upstream = match.route().target().select();
+        DownstreamRequest downstreamRequest = toDownstreamRequest(request, match, upstream, headers, false);
+        log.info("Executing downstream request (async) url={}", downstreamRequest.url());
+
+        Upstream.Lease lease = upstream.acquire();
+        return call.apply(downstreamRequest)
+                .invoke(response -> onResponse(match, lease, response.status()))
+                .onFailure().invoke(e -> {
+                    onFailure(match, lease);
+                    lease.release();
+                })
+                .onCancellation().invoke(() -> {
+                    onCancellation(match, lease);
+                    lease.release();
+                })
+                .map(response -> {
+                    if (response.bodyChunks() == null) {
+                        lease.release();
+                        return response;
+                    }
+                    log.info("Downstream response body of {} streamed: too large or of unknown length", downstreamRequest.url());
+                    // The body stays outstanding until it is fully relayed or cancelled.
+                    return new DownstreamResponse(response.status(), response.headers(), null, null,
+                            response.bodyChunks().onTermination().invoke(lease::release));
+                });
+    }
 
-        String url = match.route.target().baseUrl() + downstreamPath;
-        if (request.rawQuery() != null && !request.rawQuery().isBlank()) {
-            url = url + "?" + request.rawQuery();
+    @Override
+    public Uni<GatewayReactiveStreamResponse> proxyStreamAsync(GatewayRequest request) {
+        log.info("ProxyRequestService.proxyStreamAsync start method={} path={} query={}", request.method(), request.path(), request.rawQuery());
+
+        RouteMatch match = resolveRoute(request.path());
+        Map<String, List<String>> headers = downstreamHeaders(request);
+
+        Supplier<Uni<GatewayReactiveStreamResponse>> send = () -> sendStreamAsync(request, match, headers);
+
+        Uni<GatewayReactiveStreamResponse> response;
+        if (mjpegRelay.isSnapshot(match.route(), request)) {
+            response = snapshotAsync(request, match, headers).map(snapshot -> new GatewayReactiveStreamResponse(
+                    snapshot.status(), filterHeaders(snapshot.headers()),
+                    snapshot.body() == null ? Multi.createFrom().empty() : Multi.createFrom().item(Buffer.buffer(snapshot.body()))));
+        } else if (hlsSegmentCache.isCacheable(match.route(), request)) {
+            response = hlsSegmentCache.fetchAsync(match.route(), cacheKey(request, match, headers), send);
+        } else if (mjpegRelay.isRelayed(match.route(), request)) {
+            response = mjpegRelay.streamAsync(match.route(), cacheKey(request, match, headers), headers, send);
+        } else {
+            Supplier<Uni<GatewayReactiveStreamResponse>> frameAware =
+                    () -> send.get().map(streamed -> mjpegRelay.dropStaleFrames(match.route(),
+                            cacheKey(request, match, headers), headers, streamed));
+            response = requestCoalescer.isCoalesced(match.route(), request)
+                    ? requestCoalescer.executeStreamAsync(match.route(), cacheKey(request, match, headers), headers, frameAware)
+                    : frameAware.get();
         }
+        return response
+                .map(streamed -> activeStreams.track(match.route(), streamFlushing.apply(match.route(), streamed)))
+                .onFailure(e -> !isRejection(e))
+                .transform(e -> new DownstreamRequestFailedException("Downstream stream request failed", e));
+    }
 
-        Map<String, List<String>> downstreamHeaders = withTenantHeader(filterHeaders(request.headers()));
+    private Uni<GatewayReactiveStreamResponse> sendStreamAsync(GatewayRequest request, RouteMatch match,
+                                                               Map<String, List<String>> headers) {
+        return routeResiliencePort.executeStreamAsync(match.route(), () -> {
+            Upstream upstream = match.route().target().select();
+            DownstreamRequest downstreamRequest = toDownstreamRequest(request, match, upstream, headers, true);
+            log.info("Executing downstream stream request (async) url={}", downstreamRequest.url());
+
+            Upstream.Lease lease = upstream.acquire();
+            return downstreamHttpPort.executeStreamAsync(downstreamRequest)
+                    .onFailure().invoke(e -> {
+                        onFailure(match, lease);
+                        lease.release();
+                    })
+                    .map(downstreamResponse -> {
+                        onResponse(match, lease, downstreamResponse.status());
+                        log.info("Downstream stream response status={}", downstreamResponse.status());
+                        return new GatewayReactiveStreamResponse(
+                                downstreamResponse.status(),
+                                filterHeaders(downstreamResponse.headers()),
+                                // The stream stays outstanding until it is fully relayed or cancelled.
+                                downstreamResponse.body().onTermination().invoke(lease::release)
+                        );
+                    });
+        });
+    }
 
-        DownstreamRequest downstreamRequest = new DownstreamRequest(
-                request.method(),
-                url,
-                downstreamHeaders,
-                request.body()
-        );
+    /**
+     * The newest frame of the MJPEG stream a snapshot request names, fetched with a stream request when the gateway
+     * does not relay that stream.
+     */
+    private DownstreamResponse snapshot(GatewayRequest request, RouteMatch match, Map<String, List<String>> headers) {
+        GatewayRequest streamRequest = mjpegRelay.streamRequest(request);
+        return mjpegRelay.snapshot(match.route(), cacheKey(streamRequest, match, headers), headers,
+                () -> routeResiliencePort.executeStream(match.route(), () -> sendStream(streamRequest, match, headers)));
+    }
 
-        log.info("Executing downstream request url={}", url);
+    private Uni<DownstreamResponse> snapshotAsync(GatewayRequest request, RouteMatch match,
+                                                  Map<String, List<String>> headers) {
+        GatewayRequest streamRequest = mjpegRelay.streamRequest(request);
+        return mjpegRelay.snapshotAsync(match.route(), cacheKey(streamRequest, match, headers), headers,
+                () -> sendStreamAsync(streamRequest, match, headers));
+    }
+
+    private GatewayResponse doProxy(GatewayRequest request) {
+        RouteMatch match = resolveRoute(request.path());
+        Map<String, List<String>> headers = downstreamHeaders(request);
 
         DownstreamResponse downstreamResponse;
         try {
-            downstreamResponse = downstreamHttpPort.execute(downstreamRequest);
+            if (request.streamingBody() != null) {
+                // Streamed uploads bypass the buffered policy: a retry would replay an already consumed body.
+                downstreamResponse = routeResiliencePort.executeStream(match.route(),
+                        () -> send(request, match, headers, downstreamHttpPort::executeUpload));
+            } else if (mjpegRelay.isSnapshot(match.route(), request)) {
+                downstreamResponse = snapshot(request, match, headers);
+            } else if (httpResponseCache.isCacheable(match.route(), request.method())) {
+                downstreamResponse = httpResponseCache.fetch(cacheKey(request, match, headers), headers,
+                                cacheHeaders -> Uni.createFrom().item(() -> execute(request, match, cacheHeaders)))
+                        .await().indefinitely();
+            } else {
+                downstreamResponse = execute(request, match, headers);
+            }
+            invalidateCachedResponses(request, match, headers, downstreamResponse);
         } catch (Exception e) {
-            GatewayResponse forwarded = tryForwardEmbeddedHttpResponse(e);
-            if (forwarded != null) {
-                return forwarded;
+            return forwardEmbeddedResponseOrFail(e);
+        }
+
+        // A body left streamed is relayed like any other stream, under the route's idle timeout.
+        return activeStreams.track(match.route(), toGatewayResponse(downstreamResponse));
+    }
+
+    /**
+     * Buffers the response only when it declares a body within the route's buffer threshold; a larger or open-ended
+     * body is left to the caller as a stream, so the heap is not bounded by guessing from the path. Such a body is
+     * neither cached nor shared with coalesced requests.
+     */
+    private DownstreamResponse execute(GatewayRequest request, RouteMatch match, Map<String, List<String>> headers) {
+        long bufferThreshold = match.route().streaming().bufferThreshold();
+        Supplier<DownstreamResponse> send = () -> routeResiliencePort.execute(match.route(), isIdempotent(request),
+                () -> send(request, match, headers, downstreamRequest ->
+                        downstreamHttpPort.executeBounded(downstreamRequest, bufferThreshold)));
+        return requestCoalescer.isCoalesced(match.route(), request)
+                ? requestCoalescer.execute(match.route(), cacheKey(request, match, headers), headers, send)
+                : send.get();
+    }
+
+    /**
+     * One attempt: picks an instance (a retry may get another one) and tracks the call on it.
+     */
+    private DownstreamResponse send(GatewayRequest request, RouteMatch match, Map<String, List<String>> headers,
+                                    Function<DownstreamRequest, DownstreamResponse> call) {
+        Upstream upstream = match.route().target().select();
+        DownstreamRequest downstreamRequest = toDownstreamRequest(request, match, upstream, headers, false);
+
+        log.info("Executing downstream request url={}", downstreamRequest.url());
+
+        Upstream.Lease lease = upstream.acquire();
+        DownstreamResponse downstreamResponse;
+        try {
+            downstreamResponse = call.apply(downstreamRequest);
+            onResponse(match, lease, downstreamResponse.status());
+        } catch (RuntimeException e) {
+            onFailure(match, lease);
+            lease.release();
+            throw e;
+        }
+        if (downstreamResponse.bodyStream() == null) {
+            lease.release();
+            return downstreamResponse;
+        }
+        log.info("Downstream response body of {} streamed: too large or of unknown length", downstreamRequest.url());
+        return new DownstreamResponse(downstreamResponse.status(), downstreamResponse.headers(), null,
+                releaseOnClose(downstreamResponse.bodyStream(), lease));
+    }
+
+    private GatewayStreamResponse doProxyStream(GatewayRequest request) {
+        RouteMatch match = resolveRoute(request.path());
+        Map<String, List<String>> headers = downstreamHeaders(request);
+        return activeStreams.track(match.route(), streamFlushing.apply(match.route(), openStream(request, match, headers)));
+    }
+
+    private GatewayStreamResponse openStream(GatewayRequest request, RouteMatch match, Map<String, List<String>> headers) {
+        Supplier<GatewayStreamResponse> send =
+                () -> routeResiliencePort.executeStream(match.route(), () -> sendStream(request, match, headers));
+        try {
+            if (mjpegRelay.isSnapshot(match.route(), request)) {
+                DownstreamResponse snapshot = snapshot(request, match, headers);
+                return new GatewayStreamResponse(snapshot.status(), filterHeaders(snapshot.headers()),
+                        new ByteArrayInputStream(snapshot.body() == null ? new byte[0] : snapshot.body()));
+            }
+            if (hlsSegmentCache.isCacheable(match.route(), request)) {
+                return hlsSegmentCache.fetch(match.route(), cacheKey(request, match, headers), send);
             }
-            throw new DownstreamRequestFailedException("Downstream request failed", e);
+            if (mjpegRelay.isRelayed(match.route(), request)) {
+                return mjpegRelay.stream(match.route(), cacheKey(request, match, headers), headers, send);
+            }
+            Supplier<GatewayStreamResponse> frameAware = () -> mjpegRelay.dropStaleFrames(match.route(),
+                    cacheKey(request, match, headers), headers, send.get());
+            if (requestCoalescer.isCoalesced(match.route(), request)) {
+                return requestCoalescer.executeStream(match.route(), cacheKey(request, match, headers), headers, frameAware);
+            }
+            return frameAware.get();
+        } catch (DownstreamUnavailableException | DownstreamTimeoutException e) {
+            throw e;
+        } catch (Exception e) {
+            // For streaming, we do not attempt to read/forward embedded HTTP response bodies here.
+            throw new DownstreamRequestFailedException("Downstream stream request failed", e);
         }
+    }
 
-        log.info("Downstream response status={}", downstreamResponse.status());
+    private GatewayStreamResponse sendStream(GatewayRequest request, RouteMatch match, Map<String, List<String>> headers) {
+        Upstream upstream = match.route().target().select();
+        DownstreamRequest downstreamRequest = toDownstreamRequest(request, match, upstream, headers, true);
 
-        return new GatewayResponse(
+        log.info("Executing downstream stream request url={}", downstreamRequest.url());
+
+        DownstreamStreamResponse downstreamResponse;
+        Upstream.Lease lease = upstream.acquire();
+        try {
+            downstreamResponse = downstreamHttpPort.executeStream(downstreamRequest);
+            onResponse(match, lease, downstreamResponse.status());
+        } catch (RuntimeException e) {
+            onFailure(match, lease);
+            lease.release();
+            throw e;
+        }
+
+        log.info("Downstream stream response status={}", downstreamResponse.status());
+
+        return new GatewayStreamResponse(
                 downstreamResponse.status(),
                 filterHeaders(downstreamResponse.headers()),
-                downstreamResponse.body()
+                releaseOnClose(downstreamResponse.body(), lease)
         );
     }
 
-    private GatewayStreamResponse doProxyStream(GatewayRequest request) {
-        List<RouteDefinition> routes = routeDefinitionsPort.listRoutes();
+    /**
+     * Cached and coalesced responses are shared by all instances of a route and partitioned by the tenant sent
+     * downstream.
+     */
+    private static CacheKey cacheKey(GatewayRequest request, RouteMatch match, Map<String, List<String>> headers) {
+        String pathAndQuery = match.downstreamPath(request.path());
+        if (request.rawQuery() != null && !request.rawQuery().isBlank()) {
+            pathAndQuery = pathAndQuery + "?" + request.rawQuery();
+        }
+        return new CacheKey(match.route().id(), String.join(",", HeaderValues.all(headers, TENANT_ID_HEADER)), pathAndQuery);
+    }
+
+    private void invalidateCachedResponses(GatewayRequest request, RouteMatch match, Map<String, List<String>> headers,
+                                           DownstreamResponse response) {
+        if (response.status() < 400 && httpResponseCache.isInvalidatedBy(match.route(), request.method())) {
+            httpResponseCache.invalidate(cacheKey(request, match, headers));
+        }
+    }
+
+    private static boolean isIdempotent(GatewayRequest request) {
+        return IDEMPOTENT_METHODS.contains(request.method().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Rejected by the route's own policy rather than failed downstream; these keep their own status codes.
+     */
+    private static boolean isRejection(Throwable throwable) {
+        return throwable instanceof DownstreamUnavailableException || throwable instanceof DownstreamTimeoutException;
+    }
+
+    /**
+     * Feeds the upstream's latency and outlier detection; 5xx responses count as failures.
+     */
+    private static void onResponse(RouteMatch match, Upstream.Lease lease, int status) {
+        if (lease.onResponse(status)) {
+            logEjection(match, lease.upstream(), "status " + status);
+        }
+    }
 
-        RouteMatch match = findBestMatch(routes, request.path())
-                .orElseThrow(() -> new RouteNotFoundException("No route found for path: " + request.path()));
+    /**
+     * Feeds the upstream's outlier detection, and its latency with a sample of at least the route timeout.
+     */
+    private static void onFailure(RouteMatch match, Upstream.Lease lease) {
+        if (lease.onFailure(match.route().resilience().timeout())) {
+            logEjection(match, lease.upstream(), "request failure");
+        }
+    }
 
-        String downstreamPath = match.route.rewritePath(request.path(), match.matchedPrefix);
+    /**
+     * An attempt cancelled by the route timeout counts as a failure; one the client walked away from does not.
+     */
+    private static void onCancellation(RouteMatch match, Upstream.Lease lease) {
+        if (lease.onCancellation(match.route().resilience().timeout())) {
+            logEjection(match, lease.upstream(), "timeout");
+        }
+    }
 
-        log.info("Matched route (stream) id={} matchedPrefix={} stripPrefix={} baseUrl={} downstreamPath={}",
-                match.route.id(), match.matchedPrefix, match.route.stripPrefix(), match.route.target().baseUrl(), downstreamPath);
+    private static void logEjection(RouteMatch match, Upstream upstream, String cause) {
+        log.warn("Ejected upstream {} of route {} after {} consecutive failures (last: {}); ejection #{}",
+                upstream.baseUrl(), match.route().id(), upstream.health().policy().consecutiveFailures(), cause,
+                upstream.health().ejections());
+    }
 
-        String url = match.route.target().baseUrl() + downstreamPath;
+    /**
+     * Keeps a streamed response outstanding on its upstream until the gateway closes the body.
+     */
+    private static InputStream releaseOnClose(InputStream body, Upstream.Lease lease) {
+        if (body == null) {
+            lease.release();
+            return null;
+        }
+        return new FilterInputStream(body) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    lease.release();
+                }
+            }
+        };
+    }
+
+    private DownstreamRequest toDownstreamRequest(GatewayRequest request, RouteMatch match, Upstream upstream,
+                                                  Map<String, List<String>> headers, boolean stream) {
+        String downstreamPath = match.downstreamPath(request.path());
+
+        log.info("Matched route{} id={} matchedPrefix={} stripPrefix={} baseUrl={} downstreamPath={}",
+                stream ? " (stream)" : "", match.route().id(), match.matchedPrefix(), match.route().stripPrefix(),
+                upstream.baseUrl(), downstreamPath);
+
+        String url = upstream.baseUrl() + downstreamPath;
         if (request.rawQuery() != null && !request.rawQuery().isBlank()) {
             url = url + "?" + request.rawQuery();
         }
 
-        Map<String, List<String>> downstreamHeaders = withTenantHeader(filterHeaders(request.headers()));
-
-        DownstreamRequest downstreamRequest = new DownstreamRequest(
+        return new DownstreamRequest(
                 request.method(),
                 url,
-                downstreamHeaders,
-                request.body()
+                headers,
+                request.body(),
+                request.streamingBody(),
+                // The route's guard owns the timeout of buffered calls; the client must not give up before it does.
+                stream ? null : match.route().resilience().timeout()
         );
+    }
 
-        log.info("Executing downstream stream request url={}", url);
-
-        DownstreamStreamResponse downstreamResponse;
-        try {
-            downstreamResponse = downstreamHttpPort.executeStream(downstreamRequest);
-        } catch (Exception e) {
-            // For streaming, we do not attempt to read/forward embedded HTTP response bodies here.
-            throw new DownstreamRequestFailedException("Downstream stream request failed", e);
-        }
+    private Headers downstreamHeaders(GatewayRequest request) {
+        return withTenantHeader(filterHeaders(request.headers()));
+    }
 
-        log.info("Downstream stream response status={}", downstreamResponse.status());
+    private GatewayResponse toGatewayResponse(DownstreamResponse downstreamResponse) {
+        log.info("Downstream response status={}", downstreamResponse.status());
 
-        return new GatewayStreamResponse(
+        return new GatewayResponse(
                 downstreamResponse.status(),
                 filterHeaders(downstreamResponse.headers()),
-                downstreamResponse.body()
+                downstreamResponse.body(),
+                downstreamResponse.bodyStream(),
+                downstreamResponse.bodyChunks()
         );
     }
 
+    private GatewayResponse forwardEmbeddedResponseOrFail(Throwable throwable) {
+        if (isRejection(throwable)) {
+            throw (RuntimeException) throwable;
+        }
+        GatewayResponse forwarded = tryForwardEmbeddedHttpResponse(throwable);
+        if (forwarded != null) {
+            return forwarded;
+        }
+        throw new DownstreamRequestFailedException("Downstream request failed", throwable);
+    }
+
     private GatewayResponse tryForwardEmbeddedHttpResponse(Throwable throwable) {
         Throwable current = throwable;
         while (current != null) {
@@ -165,7 +502,7 @@ public class ProxyRequestService implements ProxyRequestUseCase {
                     return null;
                 }
 
-                Map<String, List<String>> headers = multivaluedToMap(response.getStringHeaders());
+                Map<String, List<String>> headers = response.getStringHeaders();
                 byte[] body = readEntityAsBytes(response);
 
                 return new GatewayResponse(
@@ -179,20 +516,6 @@ public class ProxyRequestService implements ProxyRequestUseCase {
         return null;
     }
 
-    private static Map<String, List<String>> multivaluedToMap(MultivaluedMap<String, String> headers) {
-        if (headers == null || headers.isEmpty()) {
-            return Map.of();
-        }
-        Map<String, List<String>> map = new HashMap<>();
-        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
-            if (entry.getKey() == null || entry.getValue() == null) {
-                continue;
-            }
-            map.put(entry.getKey(), List.copyOf(entry.getValue()));
-        }
-        return map;
-    }
-
     private static byte[] readEntityAsBytes(Response response) {
         if (response == null || !response.hasEntity()) {
             return null;
@@ -215,61 +538,21 @@ public class ProxyRequestService implements ProxyRequestUseCase {
         }
     }
 
-    private static Optional<RouteMatch> findBestMatch(List<RouteDefinition> routes, String path) {
-        RouteMatch best = null;
-        for (RouteDefinition route : routes) {
-            Optional<String> matched = route.bestMatchingPrefix(path);
-            if (matched.isEmpty()) {
-                continue;
-            }
-            if (best == null || matched.get().length() > best.matchedPrefix.length()) {
-                best = new RouteMatch(route, matched.get());
-            }
+    private RouteMatch resolveRoute(String path) {
+        RouteMatch match = routeDefinitionsPort.routeIndex().match(path);
+        if (match == null) {
+            throw new RouteNotFoundException("No route found for path: " + path);
         }
-        return Optional.ofNullable(best);
+        return match;
     }
 
-    private static Map<String, List<String>> filterHeaders(Map<String, List<String>> headers) {
-        if (headers == null || headers.isEmpty()) {
-            return Map.of();
-        }
-
-        Map<String, List<String>> filtered = new HashMap<>();
-
-        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
-            if (entry.getKey() == null) {
-                continue;
-            }
-
-            // HTTP/2 pseudo-headers (e.g. ":status") must never be forwarded as HTTP headers.
-            if (entry.getKey().startsWith(":")) {
-                continue;
-            }
-
-            String normalized = entry.getKey().toLowerCase(Locale.ROOT);
-            if (HOP_BY_HOP_HEADERS.contains(normalized)) {
-                continue;
-            }
-            if (entry.getValue() == null || entry.getValue().isEmpty()) {
-                continue;
-            }
-            filtered.put(entry.getKey(), entry.getValue());
-        }
-
-        return filtered;
+    private static Headers filterHeaders(Map<String, List<String>> headers) {
+        return Headers.of(headers).forwardable();
     }
 
-    private Map<String, List<String>> withTenantHeader(Map<String, List<String>> headers) {
+    private Headers withTenantHeader(Headers headers) {
         UUID tenantId = tenantIdProvider.getTenantId();
-        if (tenantId == null) {
-            return headers;
-        }
-
-        Map<String, List<String>> enriched = new HashMap<>(headers == null ? Map.of() : headers);
-        enriched.put(TENANT_ID_HEADER, List.of(tenantId.toString()));
-        return enriched;
-    }
-
-    private record RouteMatch(RouteDefinition route, String matchedPrefix) {
+        // Replaces whatever the client sent under any spelling.
+        return tenantId == null ? headers : headers.with(TENANT_ID_HEADER, tenantId.toString());
     }
 }
@@ -0,0 +1,124 @@
+package application.services.gateway;
+
+import domain.stream.MultipartFrame;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.buffer.impl.BufferImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A viewer written by a non-blocking response: the newest frame, one buffer each, emitted whenever the subscriber
+ * requests one. The buffers wrap the frames' shared bytes rather than copying them. Cancelling leaves the channel.
+ */
+final class ReactiveMjpegViewer implements MjpegViewer, Flow.Publisher<Buffer>, Flow.Subscription {
+
+    private final MjpegChannel channel;
+    private final AtomicInteger wip = new AtomicInteger();
+
+    // Guarded by this.
+    private MultipartFrame pending;
+    private Flow.Subscriber<? super Buffer> subscriber;
+    private long demand;
+    private boolean ended;
+    private Throwable failure;
+    private boolean done;
+
+    ReactiveMjpegViewer(MjpegChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public boolean offer(MultipartFrame frame) {
+        boolean skipped;
+        synchronized (this) {
+            if (ended || done) {
+                return false;
+            }
+            skipped = pending != null;
+            pending = frame;
+        }
+        drain();
+        return skipped;
+    }
+
+    @Override
+    public void end(Throwable failure) {
+        synchronized (this) {
+            if (ended) {
+                return;
+            }
+            ended = true;
+            this.failure = failure;
+        }
+        drain();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Buffer> subscriber) {
+        synchronized (this) {
+            if (this.subscriber != null) {
+                subscriber.onSubscribe(this);
+                subscriber.onError(new IllegalStateException("An MJPEG viewer can be subscribed only once"));
+                return;
+            }
+            this.subscriber = subscriber;
+        }
+        subscriber.onSubscribe(this);
+        drain();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            cancel();
+            subscriber.onError(new IllegalArgumentException("Requests must be positive, got " + n));
+            return;
+        }
+        synchronized (this) {
+            demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        }
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+            pending = null;
+        }
+        channel.leave(this);
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            List<Runnable> signals = new ArrayList<>();
+            synchronized (this) {
+                Flow.Subscriber<? super Buffer> target = subscriber;
+                if (target != null && !done) {
+                    if (demand > 0 && pending != null) {
+                        Buffer buffer = BufferImpl.buffer(Unpooled.wrappedBuffer(pending.encoded()));
+                        pending = null;
+                        demand--;
+                        signals.add(() -> target.onNext(buffer));
+                    }
+                    if (pending == null && ended) {
+                        done = true;
+                        Throwable error = failure;
+                        signals.add(error == null ? target::onComplete : () -> target.onError(error));
+                    }
+                }
+            }
+            signals.forEach(Runnable::run);
+        } while (wip.decrementAndGet() != 0);
+    }
+}
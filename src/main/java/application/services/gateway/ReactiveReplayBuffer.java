@@ -0,0 +1,275 @@
+package application.services.gateway;
+
+import io.smallrye.mutiny.Multi;
+import io.vertx.core.buffer.Buffer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The non-blocking counterpart of {@link ReplayBuffer}: one downstream body relayed to several subscribers, each from
+ * the first chunk.
+ * <p>
+ * The source is subscribed once, when the first subscriber requests, and asked for one chunk at a time whenever a
+ * subscriber has caught up and wants more, so it flows at the pace of the fastest subscriber. Retention, sealing and
+ * dropping of lagging subscribers follow {@link ReplayBuffer}; the source is cancelled when the last subscriber
+ * cancels. All signals are emitted from a single drain loop, so each subscriber sees them serialized.
+ */
+final class ReactiveReplayBuffer {
+
+    private final Multi<Buffer> source;
+    private final long maxBytes;
+    private final Runnable onSealed;
+    private final AtomicInteger wip = new AtomicInteger();
+
+    // Guarded by this; offsets count bytes, indexes count chunks, both from the start of the body.
+    private final List<Buffer> chunks = new ArrayList<>();
+    private final Set<Cursor> cursors = new LinkedHashSet<>();
+    private long firstIndex;
+    private long endOffset;
+    private boolean sealed;
+    private boolean subscribed;
+    private boolean requested;
+    private boolean finished;
+    private Throwable failure;
+    private Flow.Subscription upstream;
+
+    /**
+     * @param onSealed run once, when the buffer stops accepting subscribers
+     */
+    ReactiveReplayBuffer(Multi<Buffer> source, long maxBytes, Runnable onSealed) {
+        this.source = source;
+        this.maxBytes = maxBytes;
+        this.onSealed = onSealed;
+    }
+
+    /**
+     * The body from its first chunk for one more subscriber, or {@code null} once the buffer is sealed.
+     */
+    Multi<Buffer> join() {
+        Cursor cursor;
+        synchronized (this) {
+            if (sealed) {
+                return null;
+            }
+            cursor = new Cursor();
+            cursors.add(cursor);
+        }
+        return Multi.createFrom().publisher(cursor);
+    }
+
+    private long endIndex() {
+        return firstIndex + chunks.size();
+    }
+
+    private void seal() {
+        if (!sealed) {
+            sealed = true;
+            onSealed.run();
+        }
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            List<Runnable> signals = new ArrayList<>();
+            boolean subscribe = false;
+            boolean request = false;
+            synchronized (this) {
+                dropLaggingCursors(signals);
+                for (Cursor cursor : List.copyOf(cursors)) {
+                    if (cursor.subscriber == null) {
+                        continue;
+                    }
+                    while (cursor.demand > 0 && cursor.index < endIndex()) {
+                        Buffer chunk = chunkAt(cursor.index);
+                        cursor.index++;
+                        cursor.offset += chunk.length();
+                        cursor.demand--;
+                        signals.add(() -> cursor.subscriber.onNext(chunk));
+                    }
+                    if (cursor.index == endIndex() && (finished || failure != null)) {
+                        cursors.remove(cursor);
+                        Throwable error = failure;
+                        signals.add(error == null ? cursor.subscriber::onComplete : () -> cursor.subscriber.onError(error));
+                    }
+                }
+                release();
+
+                boolean wanted = cursors.stream()
+                        .anyMatch(cursor -> cursor.subscriber != null && cursor.demand > 0 && cursor.index == endIndex());
+                if (wanted && !subscribed) {
+                    subscribed = true;
+                    subscribe = true;
+                } else if (wanted && upstream != null && !requested && !finished && failure == null) {
+                    requested = true;
+                    request = true;
+                }
+            }
+            signals.forEach(Runnable::run);
+            if (subscribe) {
+                source.subscribe().withSubscriber(new SourceSubscriber());
+            } else if (request) {
+                upstream.request(1);
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private Buffer chunkAt(long index) {
+        return chunks.get((int) (index - firstIndex));
+    }
+
+    private void dropLaggingCursors(List<Runnable> signals) {
+        if (!sealed) {
+            return;
+        }
+        cursors.removeIf(cursor -> {
+            if (endOffset - cursor.offset <= maxBytes) {
+                return false;
+            }
+            if (cursor.subscriber != null) {
+                IOException error = new IOException("Fell more than " + maxBytes + " bytes behind the other readers of the stream");
+                signals.add(() -> cursor.subscriber.onError(error));
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Forgets the chunks every cursor has passed; before sealing, all of them are kept for subscribers still to come.
+     */
+    private void release() {
+        if (!sealed) {
+            return;
+        }
+        long lowest = endIndex();
+        for (Cursor cursor : cursors) {
+            lowest = Math.min(lowest, cursor.index);
+        }
+        if (lowest > firstIndex) {
+            chunks.subList(0, (int) (lowest - firstIndex)).clear();
+            firstIndex = lowest;
+        }
+    }
+
+    private void cancel(Cursor cursor) {
+        Flow.Subscription toCancel = null;
+        synchronized (this) {
+            if (!cursors.remove(cursor)) {
+                return;
+            }
+            if (cursors.isEmpty()) {
+                seal();
+                firstIndex = endIndex();
+                chunks.clear();
+                if (!finished && failure == null) {
+                    // Nobody left to relay to; a source subscribed later is cancelled as soon as it arrives.
+                    finished = true;
+                    toCancel = upstream;
+                }
+            }
+        }
+        if (toCancel != null) {
+            toCancel.cancel();
+        }
+        drain();
+    }
+
+    private final class Cursor implements Flow.Publisher<Buffer>, Flow.Subscription {
+
+        private Flow.Subscriber<? super Buffer> subscriber;
+        private long index;
+        private long offset;
+        private long demand;
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Buffer> subscriber) {
+            synchronized (ReactiveReplayBuffer.this) {
+                if (this.subscriber != null || !cursors.contains(this)) {
+                    subscriber.onSubscribe(this);
+                    subscriber.onError(new IllegalStateException("A shared stream can be subscribed only once"));
+                    return;
+                }
+                this.subscriber = subscriber;
+            }
+            subscriber.onSubscribe(this);
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Requests must be positive, got " + n));
+                return;
+            }
+            synchronized (ReactiveReplayBuffer.this) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            ReactiveReplayBuffer.this.cancel(this);
+        }
+    }
+
+    private final class SourceSubscriber implements Flow.Subscriber<Buffer> {
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            boolean cancelled;
+            synchronized (ReactiveReplayBuffer.this) {
+                cancelled = finished;
+                upstream = subscription;
+            }
+            if (cancelled) {
+                subscription.cancel();
+                return;
+            }
+            drain();
+        }
+
+        @Override
+        public void onNext(Buffer chunk) {
+            synchronized (ReactiveReplayBuffer.this) {
+                requested = false;
+                if (finished) {
+                    return;
+                }
+                chunks.addLast(chunk);
+                endOffset += chunk.length();
+                if (endOffset > maxBytes) {
+                    seal();
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            synchronized (ReactiveReplayBuffer.this) {
+                failure = throwable;
+                seal();
+            }
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (ReactiveReplayBuffer.this) {
+                finished = true;
+                seal();
+            }
+            drain();
+        }
+    }
+}
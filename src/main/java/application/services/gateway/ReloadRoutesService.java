@@ -0,0 +1,32 @@
+package application.services.gateway;
+
+import domain.gateway.RouteTable;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ports.in.gateway.ReloadRoutesUseCase;
+import ports.out.gateway.RouteDefinitionsPort;
+import ports.out.gateway.RouteResiliencePort;
+
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+public class ReloadRoutesService implements ReloadRoutesUseCase {
+
+    private final RouteDefinitionsPort routeDefinitionsPort;
+    private final RouteResiliencePort routeResiliencePort;
+
+    @Override
+    public RouteTable currentRoutes() {
+        return routeDefinitionsPort.routeTable();
+    }
+
+    @Override
+    public RouteTable reloadRoutes() {
+        RouteTable previous = routeDefinitionsPort.routeTable();
+        RouteTable reloaded = routeDefinitionsPort.reload();
+        routeResiliencePort.retainRoutes(reloaded);
+        log.info("Route table reloaded version {} -> {} routes={}", previous.version(), reloaded.version(), reloaded.routes().size());
+        return reloaded;
+    }
+}
@@ -0,0 +1,257 @@
+package application.services.gateway;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One downstream body read by several clients, each through its own {@link InputStream} starting at the first byte.
+ * <p>
+ * Whichever reader is ahead pulls the next chunk from the source while the others wait for it or read what is already
+ * buffered, so the source is read once at the pace of the fastest client. Everything is kept until the body grows past
+ * {@code maxBytes}; from then on the buffer is sealed against new readers, only keeps what some reader still has to
+ * read, and drops readers falling more than {@code maxBytes} behind the fastest one. The source is closed with the
+ * last reader.
+ */
+final class ReplayBuffer {
+
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    private final InputStream source;
+    private final long maxBytes;
+    private final Runnable onSealed;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition advanced = lock.newCondition();
+    private final ArrayDeque<byte[]> chunks = new ArrayDeque<>();
+    private final Set<Reader> readers = new HashSet<>();
+
+    // Guarded by lock; offsets count bytes from the start of the body.
+    private long start;
+    private long end;
+    private boolean sealed;
+    private boolean filling;
+    private boolean finished;
+    private IOException failure;
+
+    /**
+     * @param onSealed run once, when the buffer stops accepting readers
+     */
+    ReplayBuffer(InputStream source, long maxBytes, Runnable onSealed) {
+        this.source = source;
+        this.maxBytes = maxBytes;
+        this.onSealed = onSealed;
+    }
+
+    /**
+     * A new reader from the first byte, or {@code null} once the buffer is sealed.
+     */
+    InputStream join() {
+        lock.lock();
+        try {
+            if (sealed) {
+                return null;
+            }
+            Reader reader = new Reader();
+            readers.add(reader);
+            return reader;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the next chunk from the source into the buffer; called with the lock held, which it releases meanwhile.
+     */
+    private void fill() {
+        filling = true;
+        lock.unlock();
+        byte[] chunk = new byte[CHUNK_SIZE];
+        int read;
+        IOException error = null;
+        try {
+            read = source.read(chunk);
+        } catch (IOException e) {
+            read = -1;
+            error = e;
+        } finally {
+            lock.lock();
+        }
+
+        filling = false;
+        if (error != null) {
+            failure = error;
+            seal();
+        } else if (read < 0) {
+            finished = true;
+            seal();
+        } else if (read > 0) {
+            chunks.addLast(read == chunk.length ? chunk : Arrays.copyOf(chunk, read));
+            end += read;
+            if (end > maxBytes) {
+                seal();
+            }
+            dropLaggingReaders();
+        }
+        advanced.signalAll();
+    }
+
+    private void seal() {
+        if (!sealed) {
+            sealed = true;
+            onSealed.run();
+        }
+    }
+
+    private void dropLaggingReaders() {
+        if (!sealed) {
+            return;
+        }
+        readers.removeIf(reader -> {
+            if (end - reader.position > maxBytes) {
+                reader.dropped = true;
+                return true;
+            }
+            return false;
+        });
+        release();
+    }
+
+    /**
+     * Forgets the chunks every reader has passed; before sealing, all of them are kept for readers still to come.
+     */
+    private void release() {
+        if (!sealed) {
+            return;
+        }
+        long lowest = end;
+        for (Reader reader : readers) {
+            lowest = Math.min(lowest, reader.position);
+        }
+        while (!chunks.isEmpty() && start + chunks.peekFirst().length <= lowest) {
+            start += chunks.removeFirst().length;
+        }
+    }
+
+    private int copy(long position, byte[] target, int offset, int length) {
+        long chunkStart = start;
+        for (byte[] chunk : chunks) {
+            if (position < chunkStart + chunk.length) {
+                int from = (int) (position - chunkStart);
+                int count = Math.min(length, chunk.length - from);
+                System.arraycopy(chunk, from, target, offset, count);
+                return count;
+            }
+            chunkStart += chunk.length;
+        }
+        throw new IllegalStateException("position " + position + " is no longer buffered");
+    }
+
+    private void leave(Reader reader) {
+        boolean last;
+        lock.lock();
+        try {
+            if (!readers.remove(reader)) {
+                return;
+            }
+            last = readers.isEmpty();
+            if (last) {
+                seal();
+                chunks.clear();
+                start = end;
+            } else {
+                release();
+            }
+            advanced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (last) {
+            try {
+                source.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private final class Reader extends InputStream {
+
+        private long position;
+        private boolean dropped;
+        private boolean closed;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) {
+                        throw new IOException("Stream closed");
+                    }
+                    if (dropped) {
+                        throw new IOException("Fell more than " + maxBytes + " bytes behind the other readers of the stream");
+                    }
+                    if (position < end) {
+                        int read = copy(position, target, offset, length);
+                        position += read;
+                        release();
+                        return read;
+                    }
+                    if (failure != null) {
+                        throw new IOException("Shared downstream stream failed", failure);
+                    }
+                    if (finished) {
+                        return -1;
+                    }
+                    if (filling) {
+                        advanced.awaitUninterruptibly();
+                    } else {
+                        fill();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int available() {
+            lock.lock();
+            try {
+                return (int) Math.min(Integer.MAX_VALUE, Math.max(0, end - position));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                // a read parked on another thread waiting for the filler rechecks closed and gives up
+                advanced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            leave(this);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package application.services.gateway;
+
+import application.dtos.gateway.DownstreamResponse;
+import application.dtos.gateway.GatewayReactiveStreamResponse;
+import application.dtos.gateway.GatewayRequest;
+import application.dtos.gateway.GatewayStreamResponse;
+import domain.cache.CacheKey;
+import domain.cache.HeaderValues;
+import domain.gateway.RouteDefinition;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses identical concurrent {@code GET}s on routes with {@code coalescing.enabled} into one downstream call.
+ * <p>
+ * Requests are identical when they share the method, downstream URL, tenant, the route's {@code vary-headers} and the
+ * credentials, cookies, conditional headers and {@code Last-Event-ID} they send. The first one goes downstream and the others wait for its
+ * response, which they get too unless it sets a cookie or its {@code Vary} names a header they sent differently; those
+ * make their own call. A failure of the first call is shared like a response. Buffered bodies are shared as they are,
+ * streamed bodies through a {@link ReplayBuffer} so that requests joining while the stream is relayed still get it
+ * from its first byte. A buffered call whose body was left streamed, too large or of unknown length to buffer, is
+ * not shared: the others make their own call.
+ */
+@ApplicationScoped
+public class RequestCoalescer {
+
+    private static final List<String> ALWAYS_COMPARED = List.of(
+            "Authorization", "Cookie", "If-None-Match", "If-Modified-Since", "Range", "Last-Event-ID");
+
+    private final Map<Key, Flight<DownstreamResponse>> responses = new ConcurrentHashMap<>();
+    private final Map<Key, Flight<SharedStream>> streams = new ConcurrentHashMap<>();
+    private final Map<Key, Flight<SharedReactiveStream>> reactiveStreams = new ConcurrentHashMap<>();
+
+    public boolean isCoalesced(RouteDefinition route, GatewayRequest request) {
+        return route.coalescing().enabled()
+                && "GET".equalsIgnoreCase(request.method())
+                && request.body() == null
+                && request.streamingBody() == null;
+    }
+
+    public DownstreamResponse execute(RouteDefinition route, CacheKey target, Map<String, List<String>> headers,
+                                      Supplier<DownstreamResponse> downstream) {
+        Key key = key(route, target, headers);
+        Flight<DownstreamResponse> flight = new Flight<>(headers);
+        Flight<DownstreamResponse> leader = responses.putIfAbsent(key, flight);
+        if (leader != null) {
+            DownstreamResponse shared = leader.await();
+            return isBuffered(shared) && leader.isShareableWith(shared.headers(), headers) ? shared : downstream.get();
+        }
+
+        try {
+            DownstreamResponse response = downstream.get();
+            flight.result.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            responses.remove(key, flight);
+        }
+    }
+
+    public Uni<DownstreamResponse> executeAsync(RouteDefinition route, CacheKey target, Map<String, List<String>> headers,
+                                                Supplier<Uni<DownstreamResponse>> downstream) {
+        return Uni.createFrom().deferred(() -> {
+            Key key = key(route, target, headers);
+            Flight<DownstreamResponse> flight = new Flight<>(headers);
+            Flight<DownstreamResponse> leader = responses.putIfAbsent(key, flight);
+            if (leader != null) {
+                return leader.awaitAsync()
+                        .chain(shared -> shared != null && isBuffered(shared) && leader.isShareableWith(shared.headers(), headers)
+                                ? Uni.createFrom().item(shared)
+                                : downstream.get());
+            }
+
+            return downstream.get()
+                    .invoke(flight.result::complete)
+                    .onFailure().invoke(flight.result::completeExceptionally)
+                    .onCancellation().invoke(() -> flight.result.cancel(false))
+                    .onTermination().invoke(() -> responses.remove(key, flight));
+        });
+    }
+
+    public GatewayStreamResponse executeStream(RouteDefinition route, CacheKey target, Map<String, List<String>> headers,
+                                               Supplier<GatewayStreamResponse> downstream) {
+        Key key = key(route, target, headers);
+        Flight<SharedStream> flight = new Flight<>(headers);
+        Flight<SharedStream> leader = streams.putIfAbsent(key, flight);
+        if (leader != null) {
+            SharedStream shared = leader.await();
+            if (leader.isShareableWith(shared.headers(), headers)) {
+                InputStream body = shared.body() == null ? null : shared.body().join();
+                if (shared.body() == null || body != null) {
+                    return new GatewayStreamResponse(shared.status(), shared.headers(), body);
+                }
+            }
+            // Too late to replay the stream, or not the same response.
+            return downstream.get();
+        }
+
+        GatewayStreamResponse response;
+        try {
+            response = downstream.get();
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            streams.remove(key, flight);
+            throw e;
+        }
+        if (response.body() == null) {
+            flight.result.complete(new SharedStream(response.status(), response.headers(), null));
+            streams.remove(key, flight);
+            return response;
+        }
+
+        ReplayBuffer body = new ReplayBuffer(response.body(), route.coalescing().maxReplayBytes(),
+                () -> streams.remove(key, flight));
+        InputStream own = body.join();
+        flight.result.complete(new SharedStream(response.status(), response.headers(), body));
+        return new GatewayStreamResponse(response.status(), response.headers(), own);
+    }
+
+    public Uni<GatewayReactiveStreamResponse> executeStreamAsync(RouteDefinition route, CacheKey target,
+                                                                 Map<String, List<String>> headers,
+                                                                 Supplier<Uni<GatewayReactiveStreamResponse>> downstream) {
+        return Uni.createFrom().deferred(() -> {
+            Key key = key(route, target, headers);
+            Flight<SharedReactiveStream> flight = new Flight<>(headers);
+            Flight<SharedReactiveStream> leader = reactiveStreams.putIfAbsent(key, flight);
+            if (leader != null) {
+                return leader.awaitAsync().chain(shared -> {
+                    if (shared != null && leader.isShareableWith(shared.headers(), headers)) {
+                        Multi<Buffer> body = shared.body() == null ? null : shared.body().join();
+                        if (shared.body() == null || body != null) {
+                            return Uni.createFrom().item(new GatewayReactiveStreamResponse(shared.status(), shared.headers(), body));
+                        }
+                    }
+                    return downstream.get();
+                });
+            }
+
+            return downstream.get()
+                    .map(response -> {
+                        if (response.body() == null) {
+                            flight.result.complete(new SharedReactiveStream(response.status(), response.headers(), null));
+                            reactiveStreams.remove(key, flight);
+                            return response;
+                        }
+                        ReactiveReplayBuffer body = new ReactiveReplayBuffer(response.body(),
+                                route.coalescing().maxReplayBytes(), () -> reactiveStreams.remove(key, flight));
+                        Multi<Buffer> own = body.join();
+                        flight.result.complete(new SharedReactiveStream(response.status(), response.headers(), body));
+                        return new GatewayReactiveStreamResponse(response.status(), response.headers(), own);
+                    })
+                    .onFailure().invoke(e -> {
+                        flight.result.completeExceptionally(e);
+                        reactiveStreams.remove(key, flight);
+                    })
+                    .onCancellation().invoke(() -> {
+                        flight.result.cancel(false);
+                        reactiveStreams.remove(key, flight);
+                    });
+        });
+    }
+
+    private static boolean isBuffered(DownstreamResponse response) {
+        return response.bodyStream() == null && response.bodyChunks() == null;
+    }
+
+    private static Key key(RouteDefinition route, CacheKey target, Map<String, List<String>> headers) {
+        List<List<String>> values = new ArrayList<>();
+        for (String name : route.coalescing().varyHeaders()) {
+            values.add(HeaderValues.all(headers, name));
+        }
+        for (String name : ALWAYS_COMPARED) {
+            values.add(HeaderValues.all(headers, name));
+        }
+        return new Key("GET", target, values);
+    }
+
+    /**
+     * @param headerValues values of the compared request headers, in a fixed order
+     */
+    private record Key(String method, CacheKey target, List<List<String>> headerValues) {
+    }
+
+    private record SharedStream(int status, Map<String, List<String>> headers, ReplayBuffer body) {
+    }
+
+    private record SharedReactiveStream(int status, Map<String, List<String>> headers, ReactiveReplayBuffer body) {
+    }
+
+    /**
+     * The first request's call, awaited by the others; it completes with its response or failure.
+     */
+    private static final class Flight<T> {
+
+        private final Map<String, List<String>> headers;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Flight(Map<String, List<String>> headers) {
+            this.headers = headers;
+        }
+
+        T await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * The shared response, or {@code null} when the first request was cancelled before it had one.
+         */
+        Uni<T> awaitAsync() {
+            // A copy, so that a cancelled waiter does not cancel the flight for everyone else.
+            return Uni.createFrom().completionStage(result.copy())
+                    .onFailure(CompletionException.class).transform(Throwable::getCause)
+                    .onFailure(CancellationException.class).recoverWithNull();
+        }
+
+        /**
+         * Whether the response the first request got also answers a request sent with {@code requestHeaders}.
+         */
+        boolean isShareableWith(Map<String, List<String>> responseHeaders, Map<String, List<String>> requestHeaders) {
+            if (!HeaderValues.all(responseHeaders, "Set-Cookie").isEmpty()) {
+                return false;
+            }
+            for (String name : HeaderValues.elements(HeaderValues.all(responseHeaders, "Vary"))) {
+                if ("*".equals(name)
+                        || !HeaderValues.all(headers, name).equals(HeaderValues.all(requestHeaders, name))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
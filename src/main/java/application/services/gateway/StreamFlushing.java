@@ -0,0 +1,430 @@
+package application.services.gateway;
+
+import application.dtos.gateway.GatewayReactiveStreamResponse;
+import application.dtos.gateway.GatewayStreamResponse;
+import domain.cache.HeaderValues;
+import domain.gateway.FlushPolicy;
+import domain.gateway.RouteDefinition;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.core.buffer.Buffer;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies the route's {@link FlushPolicy} to streamed bodies, and counts per route the buffers received from the
+ * downstream ({@code writes}) and the buffers handed to the client ({@code flushes}), each of which the client
+ * connection writes and flushes on its own.
+ * <p>
+ * A reactive body gathers buffers until {@code coalesce-bytes} are pending or the oldest one waited
+ * {@code coalesce-delay}. A reactive server-sent event stream ({@code text/event-stream}) is written as soon as an
+ * event completes, the events completed so far in one write, so that no write ends inside an event. A blocking body
+ * is read on the relaying thread, which cannot wait on a timer: each read returns as soon as the downstream has
+ * nothing more buffered, so it merges what already arrived but never holds bytes back.
+ */
+@ApplicationScoped
+@Slf4j
+public class StreamFlushing {
+
+    private static final String EVENT_STREAM = "text/event-stream";
+
+    // An event growing past this without its blank line is written in pieces rather than held.
+    private static final int MAX_EVENT_BYTES = 64 * 1024;
+
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public GatewayStreamResponse apply(RouteDefinition route, GatewayStreamResponse response) {
+        if (response.body() == null) {
+            return response;
+        }
+        return new GatewayStreamResponse(response.status(), response.headers(),
+                new CoalescingStream(route.id(), coalesceBytes(route, response.headers()), response.body()));
+    }
+
+    public GatewayReactiveStreamResponse apply(RouteDefinition route, GatewayReactiveStreamResponse response) {
+        if (response.body() == null) {
+            return response;
+        }
+        boolean events = isEventStream(HeaderValues.first(response.headers(), "Content-Type"));
+        return new GatewayReactiveStreamResponse(response.status(), response.headers(), Multi.createFrom().publisher(
+                new CoalescedBody(route.id(), events, events ? 0 : coalesceBytes(route, response.headers()),
+                        route.streaming().flush().coalesceDelay().toNanos(), response.body())));
+    }
+
+    /**
+     * Buffers received from the downstream on streams of {@code routeId}.
+     */
+    public long writes(String routeId) {
+        Counters count = counters.get(routeId);
+        return count == null ? 0 : count.writes.sum();
+    }
+
+    /**
+     * Buffers handed to the clients of streams of {@code routeId}.
+     */
+    public long flushes(String routeId) {
+        Counters count = counters.get(routeId);
+        return count == null ? 0 : count.flushes.sum();
+    }
+
+    /**
+     * Routes that relayed a stream since startup.
+     */
+    public Set<String> routeIds() {
+        return Set.copyOf(counters.keySet());
+    }
+
+    private int coalesceBytes(RouteDefinition route, Map<String, List<String>> headers) {
+        FlushPolicy policy = route.streaming().flush();
+        return policy.coalesces(HeaderValues.first(headers, "Content-Type")) ? policy.coalesceBytes() : 0;
+    }
+
+    private Counters counters(String routeId) {
+        return counters.computeIfAbsent(routeId, id -> new Counters());
+    }
+
+    private static boolean isEventStream(String contentType) {
+        return contentType != null && contentType.trim().toLowerCase(Locale.ROOT).startsWith(EVENT_STREAM);
+    }
+
+    /**
+     * Length of the leading part of {@code buffer} that ends with a blank line ({@code \n\n}, {@code \r\r} or
+     * {@code \r\n\r\n}), which completes a server-sent event; {@code 0} if none does.
+     */
+    static int completeEvents(Buffer buffer) {
+        for (int i = buffer.length() - 1; i > 0; i--) {
+            byte last = buffer.getByte(i);
+            byte previous = buffer.getByte(i - 1);
+            if ((last == '\n' && previous == '\n') || (last == '\r' && previous == '\r')) {
+                return i + 1;
+            }
+            if (last == '\n' && previous == '\r' && i >= 3 && buffer.getByte(i - 2) == '\n' && buffer.getByte(i - 3) == '\r') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static final class Counters {
+        private final LongAdder writes = new LongAdder();
+        private final LongAdder flushes = new LongAdder();
+    }
+
+    /**
+     * Tallies one stream and adds it to its route's counters.
+     */
+    private final class StreamCount {
+
+        private final String routeId;
+        private final Counters route;
+        private final AtomicBoolean logged = new AtomicBoolean();
+        private long writes;
+        private long flushes;
+
+        StreamCount(String routeId) {
+            this.routeId = routeId;
+            this.route = counters(routeId);
+        }
+
+        void write() {
+            writes++;
+            route.writes.increment();
+        }
+
+        void flush() {
+            flushes++;
+            route.flushes.increment();
+        }
+
+        void end() {
+            if (logged.compareAndSet(false, true)) {
+                log.debug("Stream on route {} ended: {} writes in {} flushes", routeId, writes, flushes);
+            }
+        }
+    }
+
+    private final class CoalescingStream extends FilterInputStream {
+
+        private final int coalesceBytes;
+        private final StreamCount count;
+
+        CoalescingStream(String routeId, int coalesceBytes, InputStream body) {
+            super(body);
+            this.coalesceBytes = coalesceBytes;
+            this.count = new StreamCount(routeId);
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            int read = super.read(target, offset, length);
+            if (read <= 0) {
+                return read;
+            }
+            count.write();
+            int limit = Math.min(length, coalesceBytes);
+            int available;
+            while (read < limit && (available = in.available()) > 0) {
+                int more = in.read(target, offset + read, Math.min(limit - read, available));
+                if (more <= 0) {
+                    break;
+                }
+                count.write();
+                read += more;
+            }
+            count.flush();
+            return read;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read >= 0) {
+                count.write();
+                count.flush();
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            count.end();
+            super.close();
+        }
+    }
+
+    /**
+     * Gathers the buffers of a reactive body into writes of up to {@code coalesceBytes}, or into whole server-sent
+     * events, or passes each buffer on when it is {@code 0}. At most one buffer is asked of the downstream at a time,
+     * and none while a ready write waits for the client, so the client's demand still paces the downstream.
+     */
+    private final class CoalescedBody implements Flow.Publisher<Buffer>, Flow.Subscriber<Buffer>, Flow.Subscription {
+
+        private final boolean events;
+        private final int coalesceBytes;
+        private final long coalesceDelayNanos;
+        private final Multi<Buffer> body;
+        private final StreamCount count;
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private Flow.Subscriber<? super Buffer> subscriber;
+        private volatile Flow.Subscription upstream;
+
+        // Guarded by this.
+        private Buffer pending;
+        private boolean pendingCopied;
+        private boolean due;
+        private boolean requested;
+        private boolean done;
+        private Throwable failure;
+        private boolean finished;
+        private long demand;
+        private ScheduledFuture<?> timer;
+
+        CoalescedBody(String routeId, boolean events, int coalesceBytes, long coalesceDelayNanos, Multi<Buffer> body) {
+            this.events = events;
+            this.coalesceBytes = coalesceBytes;
+            this.coalesceDelayNanos = coalesceDelayNanos;
+            this.body = body;
+            this.count = new StreamCount(routeId);
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Buffer> subscriber) {
+            if (!subscribed.compareAndSet(false, true)) {
+                Multi.createFrom().<Buffer>failure(new IllegalStateException("A stream body can only be subscribed once"))
+                        .subscribe().withSubscriber(subscriber);
+                return;
+            }
+            this.subscriber = subscriber;
+            body.subscribe().withSubscriber(this);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            upstream = subscription;
+            subscriber.onSubscribe(this);
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                synchronized (this) {
+                    failure = new IllegalArgumentException("Non-positive request " + n);
+                }
+                upstream.cancel();
+            } else {
+                synchronized (this) {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                pending = null;
+                cancelTimer();
+            }
+            count.end();
+            upstream.cancel();
+        }
+
+        @Override
+        public void onNext(Buffer buffer) {
+            synchronized (this) {
+                requested = false;
+                if (finished) {
+                    return;
+                }
+                count.write();
+                if (pending == null) {
+                    // The first buffer is passed on as is; only merging several needs a copy.
+                    pending = buffer;
+                    pendingCopied = false;
+                    if (coalesceBytes > 0) {
+                        timer = Infrastructure.getDefaultWorkerPool()
+                                .schedule(this::onDelay, coalesceDelayNanos, TimeUnit.NANOSECONDS);
+                    }
+                } else {
+                    if (!pendingCopied) {
+                        pending = Buffer.buffer(coalesceBytes + buffer.length()).appendBuffer(pending);
+                        pendingCopied = true;
+                    }
+                    pending.appendBuffer(buffer);
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            synchronized (this) {
+                failure = error;
+                done = true;
+            }
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                done = true;
+            }
+            drain();
+        }
+
+        private void onDelay() {
+            synchronized (this) {
+                due = pending != null;
+            }
+            drain();
+        }
+
+        private void drain() {
+            if (upstream == null || wip.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                while (true) {
+                    Buffer write = null;
+                    Throwable error = null;
+                    boolean complete = false;
+                    boolean pull = false;
+                    synchronized (this) {
+                        if (finished) {
+                            break;
+                        }
+                        if (failure != null) {
+                            finished = true;
+                            error = failure;
+                            pending = null;
+                            cancelTimer();
+                        } else if (demand > 0 && ready() > 0) {
+                            int ready = ready();
+                            if (ready == pending.length()) {
+                                write = pending;
+                                pending = null;
+                                due = false;
+                                cancelTimer();
+                            } else {
+                                // The start of the next event stays pending.
+                                write = pending.getBuffer(0, ready);
+                                pending = pending.getBuffer(ready, pending.length());
+                                pendingCopied = true;
+                            }
+                            demand--;
+                        } else if (pending == null && done) {
+                            finished = true;
+                            complete = true;
+                        } else if (!done && !requested && ready() == 0) {
+                            requested = true;
+                            pull = true;
+                        }
+                    }
+                    if (write != null) {
+                        count.flush();
+                        subscriber.onNext(write);
+                    } else if (error != null) {
+                        count.end();
+                        subscriber.onError(error);
+                    } else if (complete) {
+                        count.end();
+                        subscriber.onComplete();
+                    } else if (pull) {
+                        upstream.request(1);
+                    } else {
+                        break;
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Bytes of the pending buffers that may be written now.
+         */
+        private int ready() {
+            if (pending == null) {
+                return 0;
+            }
+            if (done || due) {
+                return pending.length();
+            }
+            if (events) {
+                int complete = completeEvents(pending);
+                return complete > 0 ? complete : pending.length() >= MAX_EVENT_BYTES ? pending.length() : 0;
+            }
+            return pending.length() >= coalesceBytes ? pending.length() : 0;
+        }
+
+        private void cancelTimer() {
+            if (timer != null) {
+                timer.cancel(false);
+                timer = null;
+            }
+        }
+    }
+}
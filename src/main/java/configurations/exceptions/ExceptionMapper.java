@@ -1,6 +1,8 @@
 package configurations.exceptions;
 
 import application.exceptions.DownstreamRequestFailedException;
+import application.exceptions.DownstreamTimeoutException;
+import application.exceptions.DownstreamUnavailableException;
 import application.exceptions.RouteNotFoundException;
 import configurations.exceptions.dtos.WSExceptionDTO;
 import configurations.exceptions.exceptions.WSCredentialsException;
@@ -58,6 +60,24 @@ public class ExceptionMapper {
         );
     }
 
+    @ServerExceptionMapper
+    public RestResponse<WSExceptionDTO> mapException(DownstreamUnavailableException exception) {
+        log.warn("Downstream unavailable: {}", exception.getMessage());
+        return RestResponse.status(
+                Response.Status.SERVICE_UNAVAILABLE,
+                new WSExceptionDTO("GATEWAY.DOWNSTREAM_UNAVAILABLE", exception.getMessage())
+        );
+    }
+
+    @ServerExceptionMapper
+    public RestResponse<WSExceptionDTO> mapException(DownstreamTimeoutException exception) {
+        log.warn("Downstream timed out: {}", exception.getMessage());
+        return RestResponse.status(
+                Response.Status.GATEWAY_TIMEOUT,
+                new WSExceptionDTO("GATEWAY.DOWNSTREAM_TIMEOUT", exception.getMessage())
+        );
+    }
+
     @ServerExceptionMapper
     public RestResponse<WSExceptionDTO> mapException(IllegalArgumentException exception) {
         return RestResponse.status(
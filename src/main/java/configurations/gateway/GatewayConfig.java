@@ -3,6 +3,7 @@ package configurations.gateway;
 import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithDefault;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -12,6 +13,34 @@ public interface GatewayConfig {
 
     Map<String, RouteConfig> routes();
 
+    /**
+     * How the proxy resource executes requests: {@code worker} (blocking, on the worker pool),
+     * {@code virtual-threads} (blocking, one virtual thread per request) or {@code reactive} (non-blocking, on the
+     * event loop). Read at build time to select the JAX-RS resource.
+     */
+    @WithDefault("worker")
+    String executionMode();
+
+    RouteFileConfig routeFile();
+
+    DownstreamConfig downstream();
+
+    VirtualThreadsConfig virtualThreads();
+
+    RequestBodyConfig requestBody();
+
+    ResponseCacheConfig responseCache();
+
+    SegmentCacheConfig segmentCache();
+
+    StreamLaneConfig streamLane();
+
+    StreamPipeConfig streamPipe();
+
+    SseConfig sse();
+
+    WebSocketConfig webSocket();
+
     interface RouteConfig {
         List<String> pathPrefixes();
 
@@ -19,6 +48,168 @@ public interface GatewayConfig {
         boolean stripPrefix();
 
         TargetConfig target();
+
+        ResilienceConfig resilience();
+
+        RouteCacheConfig cache();
+
+        CoalescingConfig coalescing();
+
+        StreamingConfig streaming();
+    }
+
+    /**
+     * Caching of the route's {@code GET} responses, following their {@code Cache-Control}, {@code Expires} and
+     * {@code Vary} headers; entries are partitioned by tenant and shared by all instances of the route.
+     */
+    interface RouteCacheConfig {
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Keep the route's HLS media segments ({@code .ts}, {@code .m4s}) on local disk, see {@link SegmentCacheConfig}.
+         */
+        @WithDefault("false")
+        boolean segments();
+    }
+
+    /**
+     * Collapsing of identical concurrent {@code GET}s (method, downstream URL, tenant and the listed request headers)
+     * into one downstream call whose response is shared with every waiter.
+     */
+    interface CoalescingConfig {
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Request headers the downstream varies its responses on; credentials, cookies and conditional headers are
+         * always compared.
+         */
+        @WithDefault("Accept,Accept-Encoding,Accept-Language")
+        List<String> varyHeaders();
+
+        /**
+         * Bytes of a streamed body kept for requests joining it late; larger streams stop accepting joiners.
+         */
+        @WithDefault("1048576")
+        long maxReplayBytes();
+    }
+
+    /**
+     * Long-lived streamed responses of one route.
+     */
+    interface StreamingConfig {
+        /**
+         * Relay each live MJPEG stream ({@code multipart/x-mixed-replace}) to all its viewers over one upstream
+         * connection per downstream URL, tenant and credentials.
+         */
+        @WithDefault("false")
+        boolean mjpegRelay();
+
+        /**
+         * Answer {@code GET}s carrying a {@code snapshot} query parameter with the newest frame of the MJPEG stream at
+         * the same URL: from memory while the gateway relays that stream, else from a one-frame upstream fetch.
+         */
+        @WithDefault("false")
+        boolean snapshots();
+
+        /**
+         * Largest MJPEG frame relayed; larger ones are skipped.
+         */
+        @WithDefault("4194304")
+        int maxFrameBytes();
+
+        /**
+         * A streamed response whose downstream sent nothing for this long while the gateway waited for data is closed,
+         * releasing its connection and its {@link StreamLaneConfig stream lane} slot.
+         */
+        @WithDefault("PT60S")
+        Duration idleTimeout();
+
+        FlushConfig flush();
+
+        /**
+         * Response bodies declaring a Content-Length up to this many bytes are buffered (and may be cached or
+         * retried); larger ones, and bodies of unknown length, are streamed whatever the path or method.
+         */
+        @WithDefault("1048576")
+        long bufferThreshold();
+
+        /**
+         * Share one downstream WebSocket among the clients subscribing to the same downstream path (and query) for
+         * the same tenant: its messages are broadcast to all of them, and what they send is not forwarded.
+         */
+        @WithDefault("false")
+        boolean webSocketFanOut();
+    }
+
+    /**
+     * How streamed buffers are written to the client: latency-sensitive types as they arrive, bulk media such as HLS
+     * segments coalesced into fewer, larger writes.
+     */
+    interface FlushConfig {
+        /**
+         * Media types written buffer by buffer, such as server-sent events and MJPEG.
+         */
+        @WithDefault("text/event-stream,multipart/x-mixed-replace")
+        List<String> immediateContentTypes();
+
+        /**
+         * Bytes gathered into one write for the other types; {@code 0} writes every buffer as it arrives.
+         */
+        @WithDefault("32768")
+        int coalesceBytes();
+
+        /**
+         * Longest a gathered byte waits for its write.
+         */
+        @WithDefault("PT0.02S")
+        Duration coalesceDelay();
+    }
+
+    /**
+     * Timeout, retries, circuit breaker and bulkhead of one route, each with state isolated from the other routes.
+     */
+    interface ResilienceConfig {
+        /**
+         * Limit for each attempt of a buffered request; streams and streamed uploads are not bounded by it.
+         */
+        @WithDefault("PT8S")
+        Duration timeout();
+
+        /**
+         * Extra attempts for idempotent buffered requests that failed without a response.
+         */
+        @WithDefault("2")
+        int maxRetries();
+
+        @WithDefault("PT0.2S")
+        Duration retryDelay();
+
+        CircuitBreakerConfig circuitBreaker();
+
+        @WithDefault("128")
+        int maxConcurrentCalls();
+
+        /**
+         * Asynchronous (reactive mode) calls waiting for a free slot; blocking calls are rejected right away.
+         */
+        @WithDefault("256")
+        int maxQueuedCalls();
+    }
+
+    interface CircuitBreakerConfig {
+        @WithDefault("8")
+        int requestVolumeThreshold();
+
+        @WithDefault("0.5")
+        double failureRatio();
+
+        @WithDefault("PT5S")
+        Duration delay();
+
+        @WithDefault("1")
+        int successThreshold();
     }
 
     interface TargetConfig {
@@ -30,5 +221,334 @@ public interface GatewayConfig {
         String scheme();
 
         Optional<Integer> port();
+
+        /**
+         * Several weighted instances behind the route; when set, {@code base-url} and {@code service-name} are ignored.
+         */
+        Optional<List<InstanceConfig>> instances();
+
+        /**
+         * How requests are spread over {@code instances}: {@code round-robin}, {@code least-outstanding} or
+         * {@code p2c-ewma}.
+         */
+        @WithDefault("round-robin")
+        String loadBalancing();
+
+        HealthCheckConfig healthCheck();
+
+        OutlierDetectionConfig outlierDetection();
+    }
+
+    /**
+     * Active probing of every instance; disabled unless {@code path} is set.
+     */
+    interface HealthCheckConfig {
+        Optional<String> path();
+
+        @WithDefault("PT10S")
+        Duration interval();
+
+        @WithDefault("PT2S")
+        Duration timeout();
+
+        @WithDefault("2")
+        int unhealthyThreshold();
+
+        @WithDefault("2")
+        int healthyThreshold();
+    }
+
+    /**
+     * Passive checks on real traffic: consecutive 5xx responses or connection failures eject an instance for
+     * {@code base-ejection-time} times the number of ejections so far (at most {@code max-ejection-time}); it then
+     * ramps back up to its full share of traffic over {@code readmission-window}.
+     */
+    interface OutlierDetectionConfig {
+        /**
+         * {@code 0} disables passive ejection.
+         */
+        @WithDefault("5")
+        int consecutiveFailures();
+
+        @WithDefault("PT30S")
+        Duration baseEjectionTime();
+
+        @WithDefault("PT5M")
+        Duration maxEjectionTime();
+
+        @WithDefault("PT30S")
+        Duration readmissionWindow();
+    }
+
+    interface InstanceConfig {
+        String baseUrl();
+
+        @WithDefault("1")
+        int weight();
+    }
+
+    /**
+     * Optional external route file (YAML or properties, same {@code gateway.routes} layout).
+     * When the file exists it replaces the routes above and is re-read whenever it changes.
+     */
+    interface RouteFileConfig {
+        Optional<String> path();
+
+        @WithDefault("PT5S")
+        Duration pollInterval();
+    }
+
+    interface DownstreamConfig {
+        /**
+         * Downstream HTTP client implementation: {@code jdk} or {@code vertx}.
+         * Read at build time to select the {@code DownstreamHttpPort} bean.
+         */
+        @WithDefault("jdk")
+        String client();
+
+        @WithDefault("PT5S")
+        Duration connectTimeout();
+
+        @WithDefault("PT8S")
+        Duration requestTimeout();
+
+        VertxClientConfig vertx();
+    }
+
+    /**
+     * Connection pool settings applied to each downstream target (one pool per scheme/host/port).
+     */
+    interface VertxClientConfig {
+        @WithDefault("64")
+        int maxPoolSize();
+
+        @WithDefault("256")
+        int maxWaitQueueSize();
+
+        @WithDefault("true")
+        boolean keepAlive();
+
+        @WithDefault("PT60S")
+        Duration keepAliveTimeout();
+
+        @WithDefault("false")
+        boolean pipelining();
+
+        @WithDefault("10")
+        int pipeliningLimit();
+
+        /**
+         * Use HTTP/2 (ALPN for TLS targets, prior knowledge for cleartext) and multiplex requests per connection.
+         */
+        @WithDefault("false")
+        boolean http2();
+
+        @WithDefault("8")
+        int http2MaxPoolSize();
+
+        @WithDefault("100")
+        int http2MultiplexingLimit();
+    }
+
+    /**
+     * Carrier-thread pinning detection, active when {@code execution-mode=virtual-threads}.
+     */
+    interface VirtualThreadsConfig {
+        @WithDefault("true")
+        boolean pinningDetection();
+
+        /**
+         * Pinned intervals shorter than this are ignored.
+         */
+        @WithDefault("PT0.02S")
+        Duration pinningThreshold();
+    }
+
+    interface RequestBodyConfig {
+        /**
+         * Request bodies with a declared Content-Length up to this many bytes are buffered (and may be retried);
+         * larger or chunked bodies are streamed to the downstream with a bounded buffer.
+         */
+        @WithDefault("1048576")
+        long bufferThreshold();
+
+        /**
+         * Share one downstream WebSocket among the clients subscribing to the same downstream path (and query) for
+         * the same tenant: its messages are broadcast to all of them, and what they send is not forwarded.
+         */
+        @WithDefault("false")
+        boolean webSocketFanOut();
+    }
+
+    /**
+     * Storage shared by every route with {@code cache.enabled}.
+     */
+    interface ResponseCacheConfig {
+        /**
+         * Total budget for bodies and headers; less frequently used entries are evicted beyond it.
+         */
+        @WithDefault("67108864")
+        long maxBytes();
+
+        /**
+         * Responses (all their variants together) above this size are not cached.
+         */
+        @WithDefault("1048576")
+        long maxEntryBytes();
+    }
+
+    /**
+     * On-disk cache of HLS media segments, shared by every route with {@code cache.segments}.
+     */
+    interface SegmentCacheConfig {
+        /**
+         * Emptied of previous segments on startup; defaults to a new directory under the system temp directory.
+         */
+        Optional<String> directory();
+
+        /**
+         * Total size of the stored segments; least recently used ones are evicted beyond it.
+         */
+        @WithDefault("1073741824")
+        long maxBytes();
+
+        @WithDefault("16777216")
+        long maxSegmentBytes();
+
+        /**
+         * How long a segment is served from disk before it is fetched again.
+         */
+        @WithDefault("PT10M")
+        Duration ttl();
+    }
+
+    /**
+     * Threads relaying streamed response bodies in the {@code worker} and {@code virtual-threads} modes, apart from the
+     * request threads so that long-lived streams never starve short requests.
+     */
+    interface StreamLaneConfig {
+        /**
+         * Streamed responses relayed at once; further stream requests are answered with {@code 503}.
+         */
+        @WithDefault("256")
+        int maxStreams();
+    }
+
+    /**
+     * Streamed {@code GET} responses piped from the downstream connection into the client connection on the event
+     * loop, in every execution mode: no thread is held and no copy is made by the gateway, and the downstream is paused
+     * while the client's write queue is full. Server-sent event streams always take this path, see {@link SseConfig}.
+     */
+    interface StreamPipeConfig {
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Bytes queued for a slow client before its downstream is paused.
+         */
+        @WithDefault("32768")
+        int writeQueueBytes();
+    }
+
+    /**
+     * Server-sent event subscriptions ({@code GET}s accepting {@code text/event-stream}) are piped like
+     * {@link StreamPipeConfig streamed responses} whether or not the pipe is enabled, so an idle subscriber holds no
+     * thread. Events are written whole, and the client's {@code Last-Event-ID} is forwarded when it reconnects.
+     */
+    interface SseConfig {
+        /**
+         * A comment line is sent on a subscription that was quiet this long, between two events, so that proxies and
+         * load balancers do not drop it as idle; {@code 0} disables it.
+         */
+        @WithDefault("PT15S")
+        Duration heartbeatInterval();
+    }
+
+    /**
+     * Proxied WebSockets share one long-lived client per downstream target (scheme, host and port), and with it its
+     * TLS context and session cache, so reconnecting clients resume TLS sessions rather than negotiate new ones.
+     */
+    interface WebSocketConfig {
+        /**
+         * WebSockets open at once to each downstream target; further upgrades wait for one to close.
+         */
+        @WithDefault("4096")
+        int maxConnections();
+
+        /**
+         * Bytes queued for either peer of a proxied WebSocket before the other peer is paused.
+         */
+        @WithDefault("262144")
+        int writeQueueBytes();
+
+        /**
+         * What happens to a peer whose queue stayed full for {@code slow-peer-timeout}: {@code pause} keeps the other
+         * peer paused, {@code drop} resumes it and drops the frames for the slow peer until its queue drains, and
+         * {@code disconnect} closes the slow peer's socket.
+         */
+        @WithDefault("pause")
+        String slowPeerPolicy();
+
+        @WithDefault("PT30S")
+        Duration slowPeerTimeout();
+
+        /**
+         * Offer {@code permessage-deflate} to clients, such as browsers on metered links.
+         */
+        @WithDefault("true")
+        boolean clientDeflate();
+
+        /**
+         * Ask downstream targets for {@code permessage-deflate}; usually not worth the CPU inside the data center.
+         */
+        @WithDefault("false")
+        boolean downstreamDeflate();
+
+        /**
+         * zlib level of both legs, {@code 1} (fastest) to {@code 9} (smallest).
+         */
+        @WithDefault("6")
+        int deflateLevel();
+
+        /**
+         * Each leg of a proxied WebSocket whose peer sent nothing for this long is pinged, so that load balancers see
+         * traffic and dead peers are noticed; {@code 0} disables it.
+         */
+        @WithDefault("PT30S")
+        Duration pingInterval();
+
+        /**
+         * A leg whose peer sent nothing, not even a pong, for this long is closed, and the other leg with it;
+         * {@code 0} disables it.
+         */
+        @WithDefault("PT75S")
+        Duration idleTimeout();
+
+        TlsConfig tls();
+    }
+
+    /**
+     * Trust settings for {@code wss} targets. Without a trust store the JVM's default trust store is used.
+     */
+    interface TlsConfig {
+        /**
+         * Trust store as a PEM certificate file ({@code .pem}, {@code .crt}), a PKCS#12 file ({@code .p12},
+         * {@code .pfx}) or a JKS file.
+         */
+        Optional<String> trustStore();
+
+        Optional<String> trustStorePassword();
+
+        @WithDefault("true")
+        boolean verifyHost();
+
+        /**
+         * Accepts any certificate. Only for development against self-signed targets.
+         */
+        @WithDefault("false")
+        boolean trustAll();
+
+        @WithDefault("PT10S")
+        Duration handshakeTimeout();
     }
 }
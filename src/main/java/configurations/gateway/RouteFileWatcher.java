@@ -0,0 +1,87 @@
+package configurations.gateway;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.vertx.core.Vertx;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ports.in.gateway.ReloadRoutesUseCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+
+/**
+ * Polls {@code gateway.route-file.path} and reloads the route table when the file changes.
+ * <p>
+ * Polling (instead of a {@code WatchService}) also catches Kubernetes ConfigMap updates, which swap a symlink
+ * rather than modifying the file in place.
+ */
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+public class RouteFileWatcher {
+
+    private final GatewayConfig gatewayConfig;
+    private final ReloadRoutesUseCase reloadRoutesUseCase;
+    private final Vertx vertx;
+
+    private volatile FileStamp lastSeen;
+    private long timerId = -1;
+
+    void onStart(@Observes StartupEvent ev) {
+        if (gatewayConfig.routeFile().path().isEmpty()) {
+            return;
+        }
+
+        Path file = Path.of(gatewayConfig.routeFile().path().get());
+        lastSeen = FileStamp.of(file);
+        long intervalMillis = Math.max(100, gatewayConfig.routeFile().pollInterval().toMillis());
+
+        log.info("Watching gateway route file {} every {} ms", file, intervalMillis);
+        timerId = vertx.setPeriodic(intervalMillis, id -> vertx.executeBlocking(() -> {
+            checkForChanges(file);
+            return null;
+        }, false));
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        if (timerId >= 0) {
+            vertx.cancelTimer(timerId);
+        }
+    }
+
+    private void checkForChanges(Path file) {
+        FileStamp current = FileStamp.of(file);
+        if (Objects.equals(current, lastSeen)) {
+            return;
+        }
+        lastSeen = current;
+
+        if (current == null) {
+            log.warn("Gateway route file {} disappeared; keeping the current route table", file);
+            return;
+        }
+
+        try {
+            reloadRoutesUseCase.reloadRoutes();
+        } catch (Exception e) {
+            log.error("Failed to reload gateway route file {}; keeping the current route table", file, e);
+        }
+    }
+
+    private record FileStamp(FileTime lastModified, long size) {
+        private static FileStamp of(Path file) {
+            try {
+                Path real = file.toRealPath();
+                return new FileStamp(Files.getLastModifiedTime(real), Files.size(real));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package configurations.gateway;
+
+import application.services.gateway.ActiveStreams;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.vertx.core.Vertx;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Closes blocking streamed responses whose downstream stopped sending data, see
+ * {@link GatewayConfig.StreamingConfig#idleTimeout()}. Idle streams are detected within one tick of their timeout.
+ */
+@ApplicationScoped
+@RequiredArgsConstructor
+public class StreamWatchdog {
+
+    private static final long TICK_MILLIS = 250;
+
+    private final ActiveStreams activeStreams;
+    private final Vertx vertx;
+
+    private long timerId = -1;
+
+    void onStart(@Observes StartupEvent ev) {
+        // Closing a downstream connection may block briefly, so it stays off the event loop.
+        timerId = vertx.setPeriodic(TICK_MILLIS, id -> vertx.executeBlocking(() -> {
+            activeStreams.closeIdle();
+            return null;
+        }, false));
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        if (timerId >= 0) {
+            vertx.cancelTimer(timerId);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package configurations.gateway;
+
+import application.services.gateway.ActiveStreams;
+import application.services.gateway.MjpegRelay;
+import application.services.gateway.StreamFlushing;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.vertx.core.Vertx;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes the gateway's live-streaming meters, such as {@code gateway.mjpeg.frames_skipped}, once at startup, and
+ * a {@code gateway.streams.active} gauge and the {@code gateway.streams.writes} and {@code gateway.streams.flushes}
+ * counters for every route as soon as it relays its first stream, and the {@code gateway.websocket.messages} and
+ * {@code gateway.websocket.bytes} counters, per direction, as soon as it relays its first WebSocket message.
+ */
+@ApplicationScoped
+@RequiredArgsConstructor
+public class StreamingMetrics {
+
+    private static final long ROUTE_SCAN_MILLIS = 1000;
+
+    private final MjpegRelay mjpegRelay;
+    private final ActiveStreams activeStreams;
+    private final StreamFlushing streamFlushing;
+    private final WebSocketFanOut webSocketFanOut;
+    private final WebSocketTraffic webSocketTraffic;
+    private final MeterRegistry meterRegistry;
+    private final Vertx vertx;
+
+    private final Set<String> gaugedRoutes = ConcurrentHashMap.newKeySet();
+    private final Set<String> countedRoutes = ConcurrentHashMap.newKeySet();
+    private final Set<String> webSocketRoutes = ConcurrentHashMap.newKeySet();
+    private long timerId = -1;
+
+    void onStart(@Observes StartupEvent ev) {
+        FunctionCounter.builder("gateway.mjpeg.frames_skipped", mjpegRelay, MjpegRelay::skippedFrames)
+                .description("MJPEG frames skipped for clients that could not write them before a newer one arrived")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.streams.idle_closed", activeStreams, ActiveStreams::idleClosed)
+                .description("Streamed responses closed because their downstream sent nothing for the idle timeout")
+                .register(meterRegistry);
+        Gauge.builder("gateway.websocket.fanout.upstreams", webSocketFanOut, WebSocketFanOut::upstreams)
+                .description("Downstream WebSockets shared by fan-out subscribers")
+                .register(meterRegistry);
+        Gauge.builder("gateway.websocket.fanout.subscribers", webSocketFanOut, WebSocketFanOut::subscribers)
+                .description("Clients subscribed to a shared downstream WebSocket")
+                .register(meterRegistry);
+        timerId = vertx.setPeriodic(ROUTE_SCAN_MILLIS, id -> registerRouteMeters());
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        if (timerId >= 0) {
+            vertx.cancelTimer(timerId);
+        }
+    }
+
+    private void registerRouteMeters() {
+        for (String routeId : activeStreams.routeIds()) {
+            if (gaugedRoutes.add(routeId)) {
+                Gauge.builder("gateway.streams.active", activeStreams, streams -> streams.active(routeId))
+                        .tag("route", routeId)
+                        .description("Streamed responses being relayed")
+                        .register(meterRegistry);
+            }
+        }
+        for (String routeId : streamFlushing.routeIds()) {
+            if (countedRoutes.add(routeId)) {
+                FunctionCounter.builder("gateway.streams.writes", streamFlushing, flushing -> flushing.writes(routeId))
+                        .tag("route", routeId)
+                        .description("Buffers received from the downstream for streamed responses")
+                        .register(meterRegistry);
+                FunctionCounter.builder("gateway.streams.flushes", streamFlushing, flushing -> flushing.flushes(routeId))
+                        .tag("route", routeId)
+                        .description("Writes of streamed responses to the client connection, each flushed on its own")
+                        .register(meterRegistry);
+            }
+        }
+        for (String routeId : webSocketTraffic.routeIds()) {
+            if (webSocketRoutes.add(routeId)) {
+                for (WebSocketTraffic.Direction direction : WebSocketTraffic.Direction.values()) {
+                    FunctionCounter.builder("gateway.websocket.messages", webSocketTraffic,
+                                    traffic -> traffic.messages(routeId, direction))
+                            .tags("route", routeId, "direction", direction.tag())
+                            .description("WebSocket messages relayed")
+                            .register(meterRegistry);
+                    FunctionCounter.builder("gateway.websocket.bytes", webSocketTraffic,
+                                    traffic -> traffic.bytes(routeId, direction))
+                            .tags("route", routeId, "direction", direction.tag())
+                            .baseUnit("bytes")
+                            .description("Payload bytes of the WebSocket messages relayed")
+                            .register(meterRegistry);
+                }
+            }
+        }
+    }
+}
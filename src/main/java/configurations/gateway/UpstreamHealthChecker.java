@@ -0,0 +1,132 @@
+package configurations.gateway;
+
+import domain.gateway.HealthCheckDefinition;
+import domain.gateway.RouteDefinition;
+import domain.gateway.Upstream;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ports.out.gateway.RouteDefinitionsPort;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Probes the upstreams of every route with a {@code target.health-check.path} and feeds the results into their
+ * {@link domain.gateway.UpstreamHealth}.
+ * <p>
+ * A single timer walks the current route table, so reloaded routes are picked up without rescheduling; each upstream
+ * is probed at most once per interval and never twice concurrently. Any 2xx or 3xx answer within the timeout counts as
+ * healthy.
+ */
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+public class UpstreamHealthChecker {
+
+    private static final long TICK_MILLIS = 100;
+
+    private final RouteDefinitionsPort routeDefinitionsPort;
+    private final Vertx vertx;
+
+    private final Map<Upstream, Long> nextProbeAt = new ConcurrentHashMap<>();
+    private final Set<Upstream> probing = ConcurrentHashMap.newKeySet();
+    private HttpClient client;
+    private long timerId = -1;
+
+    void onStart(@Observes StartupEvent ev) {
+        client = vertx.createHttpClient(new HttpClientOptions().setKeepAlive(true));
+        timerId = vertx.setPeriodic(TICK_MILLIS, id -> tick());
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        if (timerId >= 0) {
+            vertx.cancelTimer(timerId);
+        }
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        Set<Upstream> live = new HashSet<>();
+        for (RouteDefinition route : routeDefinitionsPort.listRoutes()) {
+            HealthCheckDefinition healthCheck = route.target().healthCheck();
+            if (healthCheck == null) {
+                continue;
+            }
+            for (Upstream upstream : route.target().upstreams()) {
+                live.add(upstream);
+                Long due = nextProbeAt.get(upstream);
+                if ((due == null || now - due >= 0) && probing.add(upstream)) {
+                    nextProbeAt.put(upstream, now + healthCheck.interval().toNanos());
+                    probe(route, upstream, healthCheck);
+                }
+            }
+        }
+        // Forget upstreams dropped by a route reload.
+        nextProbeAt.keySet().retainAll(live);
+    }
+
+    private void probe(RouteDefinition route, Upstream upstream, HealthCheckDefinition healthCheck) {
+        RequestOptions options = new RequestOptions()
+                .setAbsoluteURI(upstream.baseUrl() + healthCheck.path())
+                .setMethod(HttpMethod.GET)
+                .setFollowRedirects(false)
+                .setConnectTimeout(healthCheck.timeout().toMillis())
+                .setIdleTimeout(healthCheck.timeout().toMillis());
+
+        Future<Integer> status;
+        try {
+            status = client.request(options)
+                    .compose(request -> request.send())
+                    .compose(response -> response.body().map(body -> response.statusCode()));
+        } catch (RuntimeException e) {
+            status = Future.failedFuture(e);
+        }
+
+        // Whichever comes first, the answer or the timeout, settles the probe.
+        AtomicBoolean settled = new AtomicBoolean();
+        long timer = vertx.setTimer(healthCheck.timeout().toMillis(),
+                id -> record(settled, route, upstream, healthCheck, false, "timeout"));
+        status.onComplete(result -> {
+            vertx.cancelTimer(timer);
+            if (result.succeeded()) {
+                int code = result.result();
+                record(settled, route, upstream, healthCheck, code >= 200 && code < 400, "status " + code);
+            } else {
+                record(settled, route, upstream, healthCheck, false, String.valueOf(result.cause().getMessage()));
+            }
+        });
+    }
+
+    private void record(AtomicBoolean settled, RouteDefinition route, Upstream upstream, HealthCheckDefinition healthCheck,
+                        boolean healthy, String detail) {
+        if (!settled.compareAndSet(false, true)) {
+            return;
+        }
+        probing.remove(upstream);
+        if (upstream.health().recordProbe(healthy, healthCheck.unhealthyThreshold(), healthCheck.healthyThreshold())) {
+            if (healthy) {
+                log.info("Upstream {} of route {} passed {} health checks; readmitting it", upstream.baseUrl(), route.id(),
+                        healthCheck.healthyThreshold());
+            } else {
+                log.warn("Upstream {} of route {} failed {} health checks ({}); taking it out of rotation",
+                        upstream.baseUrl(), route.id(), healthCheck.unhealthyThreshold(), detail);
+            }
+        }
+    }
+}
@@ -1,12 +1,11 @@
 package configurations.gateway;
 
 import configurations.tenancy.TenantIdProvider;
-import domain.gateway.RouteDefinition;
-import io.vertx.core.Vertx;
-import io.vertx.core.http.HttpClient;
-import io.vertx.core.http.HttpClientOptions;
+import domain.gateway.RouteMatch;
+import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.ServerWebSocket;
 import io.vertx.core.http.WebSocket;
+import io.vertx.core.http.WebSocketClient;
 import io.vertx.core.http.WebSocketConnectOptions;
 import io.vertx.ext.web.Router;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -16,13 +15,13 @@ import lombok.extern.slf4j.Slf4j;
 import ports.out.gateway.RouteDefinitionsPort;
 
 import java.net.URI;
-import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Registers a Vert.x route that intercepts WebSocket upgrade requests and
- * proxies them to the matching downstream service.
+ * proxies them to the matching downstream service, over the target's shared {@link WebSocketClients client} and
+ * through a flow-controlled {@link WebSocketBridge}, or shared with other subscribers through the
+ * {@link WebSocketFanOut} on routes with {@code streaming.web-socket-fan-out}.
  * <p>
  * HTTP (non-upgrade) traffic continues to be handled by the JAX-RS
  * {@link adapters.in.communication.rest.gateway.ApiGatewayResource}.
@@ -36,7 +35,9 @@ public class VertxGatewayProxyRoutes {
 
     private final RouteDefinitionsPort routeDefinitionsPort;
     private final TenantIdProvider tenantIdProvider;
-    private final Vertx vertx;
+    private final WebSocketClients webSocketClients;
+    private final WebSocketBridge webSocketBridge;
+    private final WebSocketFanOut webSocketFanOut;
 
     public void registerRoutes(@Observes Router router) {
         router.route().order(Integer.MIN_VALUE).handler(ctx -> {
@@ -49,36 +50,32 @@ public class VertxGatewayProxyRoutes {
             String requestPath = ctx.request().path();
             log.info("WebSocket upgrade request received for path={}", requestPath);
 
-            List<RouteDefinition> routes = routeDefinitionsPort.listRoutes();
-            Optional<RouteMatch> matchOpt = findBestMatch(routes, requestPath);
+            RouteMatch match = routeDefinitionsPort.routeIndex().match(requestPath);
 
-            if (matchOpt.isEmpty()) {
+            if (match == null) {
                 log.warn("No gateway route found for WebSocket path={}", requestPath);
                 ctx.response().setStatusCode(404).end("No route found for WebSocket path: " + requestPath);
                 return;
             }
 
-            RouteMatch match = matchOpt.get();
-            String downstreamPath = match.route.rewritePath(requestPath, match.matchedPrefix);
+            String query = ctx.request().query();
+            String downstreamPath = match.downstreamPath(requestPath);
+            String downstreamUri = query == null ? downstreamPath : downstreamPath + "?" + query;
 
-            URI targetUri = URI.create(match.route.target().baseUrl());
+            URI targetUri = URI.create(match.route().target().select().baseUrl());
             String targetHost = targetUri.getHost();
-            boolean ssl = "https".equalsIgnoreCase(targetUri.getScheme()) || "wss".equalsIgnoreCase(targetUri.getScheme());
-            int targetPort = targetUri.getPort() > 0 ? targetUri.getPort() : (ssl ? 443 : 80);
+            boolean ssl = WebSocketClients.isSsl(targetUri);
+            int targetPort = WebSocketClients.port(targetUri);
 
-            log.info("Proxying WebSocket upgrade to {}:{}{} (ssl={})", targetHost, targetPort, downstreamPath, ssl);
+            log.info("Proxying WebSocket upgrade to {}:{}{} (ssl={})", targetHost, targetPort, downstreamUri, ssl);
 
-            HttpClient httpClient = vertx.createHttpClient(new HttpClientOptions()
-                    .setDefaultHost(targetHost)
-                    .setDefaultPort(targetPort)
-                    .setSsl(ssl)
-                    .setTrustAll(true));
+            WebSocketClient webSocketClient = webSocketClients.clientFor(targetUri);
 
             WebSocketConnectOptions wsOptions = new WebSocketConnectOptions()
                     .setHost(targetHost)
                     .setPort(targetPort)
                     .setSsl(ssl)
-                    .setURI(downstreamPath);
+                    .setURI(downstreamUri);
 
             // Forward relevant headers
             ctx.request().headers().forEach(entry -> {
@@ -93,91 +90,66 @@ public class VertxGatewayProxyRoutes {
             });
 
             // Add tenant header
+            UUID tenantId = null;
             try {
-                UUID tenantId = tenantIdProvider.getTenantId();
+                tenantId = tenantIdProvider.getTenantId();
                 if (tenantId != null) {
                     wsOptions.addHeader(TENANT_ID_HEADER, tenantId.toString());
                 }
             } catch (Exception e) {
                 log.debug("Could not resolve tenant id for WebSocket proxy: {}", e.getMessage());
             }
+            WebSocketFanOut.Key fanOutKey = fanOutKey(match, downstreamUri, tenantId, ctx.request());
 
             // Upgrade the server-side connection and connect to downstream
             ctx.request().toWebSocket()
                     .onSuccess(serverWs -> {
                         log.info("Server WebSocket connection established for path={}", requestPath);
-
-                        httpClient.webSocket(wsOptions)
+                        if (fanOutKey != null) {
+                            webSocketFanOut.join(serverWs, fanOutKey, () -> webSocketClient.connect(wsOptions));
+                            return;
+                        }
+                        // Hold the client's first frames until they can be forwarded.
+                        serverWs.pause();
+
+                        webSocketClient.connect(wsOptions)
                                 .onSuccess(downstreamWs -> {
                                     log.info("Downstream WebSocket connection established to {}:{}{}", targetHost, targetPort, downstreamPath);
-                                    bridgeWebSockets(serverWs, downstreamWs, httpClient);
+                                    if (serverWs.isClosed()) {
+                                        log.info("Client WebSocket closed while connecting, closing downstream");
+                                        downstreamWs.close();
+                                        return;
+                                    }
+                                    webSocketBridge.bridge(serverWs, downstreamWs, match.route().id());
+                                    serverWs.resume();
                                 })
                                 .onFailure(err -> {
                                     log.error("Failed to connect downstream WebSocket to {}:{}{}: {}", targetHost, targetPort, downstreamPath, err.getMessage());
                                     serverWs.close((short) 1011, "Downstream connection failed");
-                                    httpClient.close();
                                 });
                     })
                     .onFailure(err -> {
                         log.error("Failed to upgrade server WebSocket for path={}: {}", requestPath, err.getMessage());
                         ctx.response().setStatusCode(500).end("WebSocket upgrade failed");
-                        httpClient.close();
                     });
         });
     }
 
-    private void bridgeWebSockets(ServerWebSocket client, WebSocket downstream, HttpClient httpClient) {
-        // Client -> Downstream
-        client.textMessageHandler(downstream::writeTextMessage);
-        client.binaryMessageHandler(downstream::writeBinaryMessage);
-        client.pongHandler(downstream::writePong);
-
-        // Downstream -> Client
-        downstream.textMessageHandler(client::writeTextMessage);
-        downstream.binaryMessageHandler(client::writeBinaryMessage);
-        downstream.pongHandler(client::writePong);
-
-        // Close propagation
-        client.closeHandler(v -> {
-            log.info("Client WebSocket closed, closing downstream");
-            downstream.close();
-            httpClient.close();
-        });
-
-        downstream.closeHandler(v -> {
-            log.info("Downstream WebSocket closed, closing client");
-            client.close();
-            httpClient.close();
-        });
-
-        // Error handling
-        client.exceptionHandler(err -> {
-            log.error("Client WebSocket error: {}", err.getMessage());
-            downstream.close();
-            httpClient.close();
-        });
-
-        downstream.exceptionHandler(err -> {
-            log.error("Downstream WebSocket error: {}", err.getMessage());
-            client.close();
-            httpClient.close();
-        });
-    }
-
-    private static Optional<RouteMatch> findBestMatch(List<RouteDefinition> routes, String path) {
-        RouteMatch best = null;
-        for (RouteDefinition route : routes) {
-            Optional<String> matched = route.bestMatchingPrefix(path);
-            if (matched.isEmpty()) {
-                continue;
-            }
-            if (best == null || matched.get().length() > best.matchedPrefix.length()) {
-                best = new RouteMatch(route, matched.get());
-            }
+    /**
+     * The channel {@code request} may join, or {@code null} if it gets a socket of its own: on routes without
+     * fan-out, and when no tenant was resolved, since then nothing vouches that the clients sharing it are entitled
+     * to each other's stream.
+     */
+    private static WebSocketFanOut.Key fanOutKey(RouteMatch match, String downstreamUri, UUID tenantId,
+                                                 HttpServerRequest request) {
+        if (!match.route().streaming().webSocketFanOut()) {
+            return null;
         }
-        return Optional.ofNullable(best);
-    }
-
-    private record RouteMatch(RouteDefinition route, String matchedPrefix) {
+        if (tenantId == null) {
+            log.debug("No tenant for WebSocket path={}, not fanning it out", request.path());
+            return null;
+        }
+        return new WebSocketFanOut.Key(match.route().id(), downstreamUri, tenantId.toString(),
+                WebSocketFanOut.CREDENTIALS.stream().map(name -> request.headers().getAll(name)).toList());
     }
 }
@@ -0,0 +1,111 @@
+package configurations.gateway;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.arc.properties.IfBuildProperty;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that pin their carrier thread (e.g. blocking inside {@code synchronized} or native code),
+ * which silently turns the virtual-thread execution mode back into a bounded pool.
+ * <p>
+ * Listens to the JFR {@code jdk.VirtualThreadPinned} event in-process; each occurrence is logged with the top of its
+ * stack and counted in {@code gateway.virtual_threads.pinned}.
+ */
+@ApplicationScoped
+@IfBuildProperty(name = "gateway.execution-mode", stringValue = "virtual-threads")
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int REPORTED_FRAMES = 8;
+
+    private final GatewayConfig.VirtualThreadsConfig config;
+    private final Counter pinnedCounter;
+    private final AtomicLong pinned = new AtomicLong();
+
+    private RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(GatewayConfig gatewayConfig, MeterRegistry meterRegistry) {
+        this.config = gatewayConfig.virtualThreads();
+        this.pinnedCounter = Counter.builder("gateway.virtual_threads.pinned")
+                .description("Virtual threads that pinned their carrier thread longer than the configured threshold")
+                .register(meterRegistry);
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        start();
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        stop();
+    }
+
+    synchronized void start() {
+        if (!config.pinningDetection() || recording != null) {
+            return;
+        }
+
+        try {
+            RecordingStream stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(config.pinningThreshold()).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+            recording = stream;
+            log.info("Virtual thread pinning detection enabled (threshold={} ms)", config.pinningThreshold().toMillis());
+        } catch (RuntimeException | Error e) {
+            // JFR may be unavailable (e.g. native images built without it); the gateway keeps working without reports.
+            log.warn("Virtual thread pinning detection unavailable: {}", e.toString());
+        }
+    }
+
+    synchronized void stop() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * Number of pinned intervals observed since startup.
+     */
+    public long pinnedCount() {
+        return pinned.get();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.incrementAndGet();
+        pinnedCounter.increment();
+
+        Duration duration = event.getDuration();
+        log.warn("Virtual thread {} pinned its carrier for {} ms at:{}",
+                event.getThread() == null ? "?" : event.getThread().getJavaName(),
+                duration.toMillis(),
+                topFrames(event.getStackTrace()));
+    }
+
+    private static String topFrames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return " <no stack trace>";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        return frames.stream()
+                .limit(REPORTED_FRAMES)
+                .map(frame -> "\n\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + "(line " + frame.getLineNumber() + ")")
+                .collect(Collectors.joining());
+    }
+}
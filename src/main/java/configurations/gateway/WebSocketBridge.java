@@ -0,0 +1,245 @@
+package configurations.gateway;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.core.http.WebSocket;
+import io.vertx.core.http.WebSocketBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Locale;
+
+/**
+ * Relays the messages of a proxied WebSocket in both directions with flow control, tuned through
+ * {@code gateway.web-socket.*}.
+ * <p>
+ * Once {@code write-queue-bytes} are queued for a peer, the other peer is paused until the queue drains, so a slow
+ * browser on a fast feed slows the feed down rather than filling the gateway's heap. A peer that stays that slow for
+ * {@code slow-peer-timeout} is handled by the {@link SlowPeerPolicy}. Both legs are kept alive by the
+ * {@link WebSocketKeepalive}, and their traffic is counted by {@link WebSocketTraffic}.
+ */
+@ApplicationScoped
+@Slf4j
+public class WebSocketBridge {
+
+    /**
+     * Close code for a peer disconnected for being too slow: "Try Again Later".
+     */
+    static final short TOO_SLOW = 1013;
+
+    private final Vertx vertx;
+    private final WebSocketTraffic traffic;
+    private final WebSocketKeepalive keepalive;
+    private final int writeQueueBytes;
+    private final SlowPeerPolicy slowPeerPolicy;
+    private final long slowPeerTimeoutMillis;
+
+    public WebSocketBridge(Vertx vertx, GatewayConfig gatewayConfig, WebSocketTraffic traffic,
+                           WebSocketKeepalive keepalive) {
+        GatewayConfig.WebSocketConfig config = gatewayConfig.webSocket();
+        if (config.writeQueueBytes() < 1) {
+            throw new IllegalArgumentException("gateway.web-socket.write-queue-bytes must be >= 1");
+        }
+        this.vertx = vertx;
+        this.traffic = traffic;
+        this.keepalive = keepalive;
+        this.writeQueueBytes = config.writeQueueBytes();
+        this.slowPeerPolicy = SlowPeerPolicy.fromConfig(config.slowPeerPolicy());
+        this.slowPeerTimeoutMillis = Math.max(1, config.slowPeerTimeout().toMillis());
+    }
+
+    /**
+     * Relays {@code client} and {@code downstream} to each other until either closes or fails, which closes the other.
+     */
+    public void bridge(ServerWebSocket client, WebSocket downstream, String routeId) {
+        WebSocketTraffic.Route counters = traffic.route(routeId);
+        Direction up = new Direction(client, "client", downstream, "downstream", counters, WebSocketTraffic.Direction.UPSTREAM);
+        Direction down = new Direction(downstream, "downstream", client, "client", counters, WebSocketTraffic.Direction.DOWNSTREAM);
+
+        client.closeHandler(v -> {
+            log.info("Client WebSocket closed, closing downstream");
+            up.stop();
+            down.stop();
+            downstream.close();
+        });
+
+        downstream.closeHandler(v -> {
+            log.info("Downstream WebSocket closed, closing client");
+            up.stop();
+            down.stop();
+            client.close();
+        });
+
+        client.exceptionHandler(err -> {
+            log.error("Client WebSocket error: {}", err.getMessage());
+            downstream.close();
+        });
+
+        downstream.exceptionHandler(err -> {
+            log.error("Downstream WebSocket error: {}", err.getMessage());
+            client.close();
+        });
+    }
+
+    /**
+     * What happens to a peer that stays too slow for {@code slow-peer-timeout}.
+     */
+    public enum SlowPeerPolicy {
+        /**
+         * The other peer stays paused until the slow peer catches up.
+         */
+        PAUSE("pause"),
+        /**
+         * The other peer is resumed, and whole messages for the slow peer are dropped until its queue drains.
+         */
+        DROP("drop"),
+        /**
+         * The slow peer is closed with {@code 1013}, which closes the other peer too.
+         */
+        DISCONNECT("disconnect");
+
+        private final String configValue;
+
+        SlowPeerPolicy(String configValue) {
+            this.configValue = configValue;
+        }
+
+        public String configValue() {
+            return configValue;
+        }
+
+        public static SlowPeerPolicy fromConfig(String value) {
+            String normalized = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+            for (SlowPeerPolicy policy : values()) {
+                if (policy.configValue.equals(normalized)) {
+                    return policy;
+                }
+            }
+            throw new IllegalArgumentException("Unknown slow-peer policy '" + value + "', expected one of pause, drop, disconnect");
+        }
+    }
+
+    /**
+     * Messages from {@code source} to {@code sink}, and the keepalive of {@code source}, which is suspended while
+     * {@code source} is paused. Its state is guarded by itself: the source's handlers and the sink's drain handler may
+     * run on different event loops.
+     */
+    private final class Direction {
+
+        private final WebSocketBase source;
+        private final WebSocketBase sink;
+        private final String sinkName;
+        private final WebSocketTraffic.Route counters;
+        private final WebSocketTraffic.Direction direction;
+        private final WebSocketKeepalive.Watch sourceKeepalive;
+
+        private boolean paused;
+        private boolean dropping;
+        private long dropped;
+        private long timer = -1;
+        private boolean stopped;
+
+        Direction(WebSocketBase source, String sourceName, WebSocketBase sink, String sinkName,
+                  WebSocketTraffic.Route counters, WebSocketTraffic.Direction direction) {
+            this.source = source;
+            this.sink = sink;
+            this.sinkName = sinkName;
+            this.counters = counters;
+            this.direction = direction;
+            this.sourceKeepalive = keepalive.watch(source, sourceName);
+            sink.setWriteQueueMaxSize(writeQueueBytes);
+            sink.drainHandler(v -> onDrain());
+            source.textMessageHandler(this::forward);
+            source.binaryMessageHandler(this::forward);
+        }
+
+        private synchronized void forward(String message) {
+            if (accept()) {
+                counters.relayed(direction, WebSocketTraffic.utf8Length(message));
+                sink.writeTextMessage(message);
+                afterWrite();
+            }
+        }
+
+        private synchronized void forward(Buffer message) {
+            if (accept()) {
+                counters.relayed(direction, message.length());
+                sink.writeBinaryMessage(message);
+                afterWrite();
+            }
+        }
+
+        private boolean accept() {
+            sourceKeepalive.received();
+            if (stopped) {
+                return false;
+            }
+            if (dropping) {
+                dropped++;
+                return false;
+            }
+            return true;
+        }
+
+        private void afterWrite() {
+            if (paused || !sink.writeQueueFull()) {
+                return;
+            }
+            paused = true;
+            source.pause();
+            sourceKeepalive.suspend();
+            if (slowPeerPolicy != SlowPeerPolicy.PAUSE) {
+                timer = vertx.setTimer(slowPeerTimeoutMillis, id -> onSlow());
+            }
+        }
+
+        private synchronized void onSlow() {
+            timer = -1;
+            if (stopped || !paused) {
+                return;
+            }
+            if (slowPeerPolicy == SlowPeerPolicy.DROP) {
+                log.warn("WebSocket {} too slow for {} ms, dropping its messages until it catches up", sinkName, slowPeerTimeoutMillis);
+                dropping = true;
+                paused = false;
+                sourceKeepalive.resume();
+                source.resume();
+            } else {
+                log.warn("WebSocket {} too slow for {} ms, disconnecting it", sinkName, slowPeerTimeoutMillis);
+                stopped = true;
+                sink.close(TOO_SLOW, "Too slow");
+                // Resumed to read the reply to its close frame; its messages are no longer forwarded.
+                source.resume();
+                source.close();
+            }
+        }
+
+        private synchronized void onDrain() {
+            cancelTimer();
+            if (dropping) {
+                log.info("WebSocket {} caught up, {} messages were dropped", sinkName, dropped);
+                dropping = false;
+                dropped = 0;
+            }
+            if (paused && !stopped) {
+                paused = false;
+                sourceKeepalive.resume();
+                source.resume();
+            }
+        }
+
+        synchronized void stop() {
+            stopped = true;
+            cancelTimer();
+            sourceKeepalive.stop();
+        }
+
+        private void cancelTimer() {
+            if (timer >= 0) {
+                vertx.cancelTimer(timer);
+                timer = -1;
+            }
+        }
+    }
+}
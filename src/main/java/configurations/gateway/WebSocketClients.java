@@ -0,0 +1,99 @@
+package configurations.gateway;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.WebSocketClient;
+import io.vertx.core.http.WebSocketClientOptions;
+import io.vertx.core.net.JksOptions;
+import io.vertx.core.net.PemTrustOptions;
+import io.vertx.core.net.PfxOptions;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One long-lived {@link WebSocketClient} per downstream target (scheme, host and port), shared by every WebSocket
+ * proxied to it and closed at shutdown, tuned through {@code gateway.web-socket.*}.
+ */
+@ApplicationScoped
+@Slf4j
+public class WebSocketClients {
+
+    private final Vertx vertx;
+    private final GatewayConfig.WebSocketConfig config;
+    private final int connectTimeoutMillis;
+    private final Map<String, WebSocketClient> clients = new ConcurrentHashMap<>();
+
+    public WebSocketClients(Vertx vertx, GatewayConfig gatewayConfig) {
+        this.vertx = vertx;
+        this.config = gatewayConfig.webSocket();
+        this.connectTimeoutMillis = (int) gatewayConfig.downstream().connectTimeout().toMillis();
+    }
+
+    /**
+     * The client for the target of {@code target}, a {@code ws}, {@code wss}, {@code http} or {@code https} URI.
+     */
+    public WebSocketClient clientFor(URI target) {
+        boolean ssl = isSsl(target);
+        int port = port(target);
+        String origin = (ssl ? "wss://" : "ws://") + target.getHost() + ":" + port;
+        return clients.computeIfAbsent(origin, key -> createClient(target.getHost(), port, ssl));
+    }
+
+    public static boolean isSsl(URI target) {
+        return "https".equalsIgnoreCase(target.getScheme()) || "wss".equalsIgnoreCase(target.getScheme());
+    }
+
+    public static int port(URI target) {
+        return target.getPort() > 0 ? target.getPort() : (isSsl(target) ? 443 : 80);
+    }
+
+    @PreDestroy
+    void close() {
+        clients.values().forEach(WebSocketClient::close);
+        clients.clear();
+    }
+
+    private WebSocketClient createClient(String host, int port, boolean ssl) {
+        WebSocketClientOptions options = new WebSocketClientOptions()
+                .setDefaultHost(host)
+                .setDefaultPort(port)
+                .setSsl(ssl)
+                .setConnectTimeout(connectTimeoutMillis)
+                .setMaxConnections(config.maxConnections())
+                .setTryUsePerMessageCompression(config.downstreamDeflate())
+                .setCompressionLevel(config.deflateLevel());
+
+        if (ssl) {
+            GatewayConfig.TlsConfig tls = config.tls();
+            options.setVerifyHost(tls.verifyHost())
+                    .setTrustAll(tls.trustAll())
+                    .setSslHandshakeTimeout(tls.handshakeTimeout().toMillis())
+                    .setSslHandshakeTimeoutUnit(TimeUnit.MILLISECONDS);
+            tls.trustStore().ifPresent(path -> trustStore(options, path, tls.trustStorePassword().orElse(null)));
+            if (tls.trustAll()) {
+                log.warn("WebSocket client for {}:{} trusts any certificate (gateway.web-socket.tls.trust-all)", host, port);
+            }
+        }
+
+        log.info("Creating downstream WebSocket client for {}:{} (ssl={}, maxConnections={}, deflate={})",
+                host, port, ssl, config.maxConnections(), config.downstreamDeflate());
+        return vertx.createWebSocketClient(options);
+    }
+
+    private static void trustStore(WebSocketClientOptions options, String path, String password) {
+        String name = path.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".pem") || name.endsWith(".crt")) {
+            options.setTrustOptions(new PemTrustOptions().addCertPath(path));
+        } else if (name.endsWith(".p12") || name.endsWith(".pfx")) {
+            options.setTrustOptions(new PfxOptions().setPath(path).setPassword(password));
+        } else {
+            options.setTrustOptions(new JksOptions().setPath(path).setPassword(password));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package configurations.gateway;
+
+import io.quarkus.vertx.http.HttpServerOptionsCustomizer;
+import io.vertx.core.http.HttpServerOptions;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Offers {@code permessage-deflate} to WebSocket clients as set by {@code gateway.web-socket.client-deflate} and
+ * {@code deflate-level}. The older per-frame extension is never offered. The downstream leg is set up by
+ * {@link WebSocketClients}.
+ */
+@ApplicationScoped
+public class WebSocketCompression implements HttpServerOptionsCustomizer {
+
+    private final boolean clientDeflate;
+    private final int deflateLevel;
+
+    public WebSocketCompression(GatewayConfig gatewayConfig) {
+        GatewayConfig.WebSocketConfig config = gatewayConfig.webSocket();
+        if (config.deflateLevel() < 1 || config.deflateLevel() > 9) {
+            throw new IllegalArgumentException("gateway.web-socket.deflate-level must be between 1 and 9");
+        }
+        this.clientDeflate = config.clientDeflate();
+        this.deflateLevel = config.deflateLevel();
+    }
+
+    @Override
+    public void customizeHttpServer(HttpServerOptions options) {
+        customize(options);
+    }
+
+    @Override
+    public void customizeHttpsServer(HttpServerOptions options) {
+        customize(options);
+    }
+
+    private void customize(HttpServerOptions options) {
+        options.setPerMessageWebSocketCompressionSupported(clientDeflate)
+                .setPerFrameWebSocketCompressionSupported(false)
+                .setWebSocketCompressionLevel(deflateLevel);
+    }
+}
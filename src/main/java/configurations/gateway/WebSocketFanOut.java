@@ -0,0 +1,290 @@
+package configurations.gateway;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.core.http.WebSocket;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Shares one downstream WebSocket among the clients of a route with {@code streaming.web-socket-fan-out} that
+ * subscribe to the same downstream path and query for the same tenant, with the same credentials.
+ * <p>
+ * The first subscriber's upgrade opens the downstream socket, with that subscriber's headers; later subscribers join
+ * without a downstream upgrade and get the messages that arrive from then on. Every downstream message is written,
+ * as the same buffer, to every subscriber; what subscribers send is not forwarded. When the last subscriber leaves,
+ * the downstream socket is closed, and when the downstream socket closes, so do its subscribers.
+ * <p>
+ * A slow subscriber never holds up the others: while its write queue is full
+ * ({@code gateway.web-socket.write-queue-bytes}) the messages for it are dropped, and with
+ * {@code slow-peer-policy: disconnect} it is closed once it stayed full for {@code slow-peer-timeout}. Subscribers
+ * and the shared socket are each kept alive by the {@link WebSocketKeepalive}.
+ */
+@ApplicationScoped
+@Slf4j
+public class WebSocketFanOut {
+
+    private final Vertx vertx;
+    private final WebSocketTraffic traffic;
+    private final WebSocketKeepalive keepalive;
+    private final int writeQueueBytes;
+    private final boolean disconnectSlowSubscribers;
+    private final long slowPeerTimeoutMillis;
+    private final Map<Key, Channel> channels = new ConcurrentHashMap<>();
+
+    public WebSocketFanOut(Vertx vertx, GatewayConfig gatewayConfig, WebSocketTraffic traffic,
+                           WebSocketKeepalive keepalive) {
+        GatewayConfig.WebSocketConfig config = gatewayConfig.webSocket();
+        this.vertx = vertx;
+        this.traffic = traffic;
+        this.keepalive = keepalive;
+        this.writeQueueBytes = config.writeQueueBytes();
+        this.disconnectSlowSubscribers = WebSocketBridge.SlowPeerPolicy.fromConfig(config.slowPeerPolicy())
+                == WebSocketBridge.SlowPeerPolicy.DISCONNECT;
+        this.slowPeerTimeoutMillis = Math.max(1, config.slowPeerTimeout().toMillis());
+    }
+
+    /**
+     * Headers that must match for a client to join a socket opened with another client's headers.
+     */
+    public static final List<String> CREDENTIALS = List.of("Authorization", "Cookie");
+
+    /**
+     * What subscribers share a downstream socket: only clients of the same tenant that send the same credentials.
+     *
+     * @param downstreamUri downstream path and query
+     * @param credentials   the values of each of {@link #CREDENTIALS}
+     */
+    public record Key(String routeId, String downstreamUri, String tenantId, List<List<String>> credentials) {
+
+        public Key {
+            Objects.requireNonNull(tenantId, "tenantId must not be null");
+            credentials = List.copyOf(credentials);
+        }
+    }
+
+    /**
+     * Subscribes {@code client} to the channel of {@code key}, opening the downstream socket with {@code connect} if
+     * it has none yet.
+     */
+    public void join(ServerWebSocket client, Key key, Supplier<Future<WebSocket>> connect) {
+        Subscriber subscriber = new Subscriber(client, traffic.route(key.routeId()));
+        while (true) {
+            Channel channel = channels.computeIfAbsent(key, Channel::new);
+            Boolean first = channel.add(subscriber);
+            if (first == null) {
+                // Closed meanwhile by its last subscriber or its downstream: start over with a new one.
+                channels.remove(key, channel);
+                continue;
+            }
+            client.closeHandler(v -> channel.leave(subscriber));
+            client.exceptionHandler(err -> {
+                log.debug("Fan-out subscriber error: {}", err.getMessage());
+                client.close();
+            });
+            if (first) {
+                log.info("Opening fan-out WebSocket {} for route {}", key.downstreamUri(), key.routeId());
+                channel.open(connect.get());
+            } else {
+                log.info("WebSocket subscriber joined fan-out {} of route {}", key.downstreamUri(), key.routeId());
+            }
+            return;
+        }
+    }
+
+    /**
+     * Downstream sockets shared at the moment.
+     */
+    public int upstreams() {
+        return channels.size();
+    }
+
+    /**
+     * Clients subscribed to a shared downstream socket at the moment.
+     */
+    public int subscribers() {
+        return channels.values().stream().mapToInt(channel -> channel.subscribers.size()).sum();
+    }
+
+    private final class Channel {
+
+        private final Key key;
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+        // Guarded by this.
+        private boolean opened;
+        private boolean closed;
+        private WebSocket downstream;
+
+        Channel(Key key) {
+            this.key = key;
+        }
+
+        /**
+         * Whether {@code subscriber} is the first one, which opens the downstream socket; {@code null} if the channel
+         * is closed.
+         */
+        synchronized Boolean add(Subscriber subscriber) {
+            if (closed) {
+                return null;
+            }
+            subscribers.add(subscriber);
+            boolean first = !opened;
+            opened = true;
+            return first;
+        }
+
+        void open(Future<WebSocket> connecting) {
+            connecting
+                    .onSuccess(socket -> {
+                        synchronized (this) {
+                            if (closed) {
+                                socket.close();
+                                return;
+                            }
+                            downstream = socket;
+                        }
+                        WebSocketKeepalive.Watch watch = keepalive.watch(socket, "fan-out downstream");
+                        socket.textMessageHandler(message -> {
+                            watch.received();
+                            long bytes = WebSocketTraffic.utf8Length(message);
+                            subscribers.forEach(subscriber -> subscriber.send(message, bytes));
+                        });
+                        socket.binaryMessageHandler(message -> {
+                            watch.received();
+                            subscribers.forEach(subscriber -> subscriber.send(message));
+                        });
+                        socket.closeHandler(v -> {
+                            watch.stop();
+                            close((short) 1001, "Downstream closed");
+                        });
+                        socket.exceptionHandler(err -> {
+                            log.error("Fan-out downstream WebSocket error: {}", err.getMessage());
+                            socket.close();
+                        });
+                    })
+                    .onFailure(err -> {
+                        log.error("Failed to connect fan-out WebSocket {}: {}", key.downstreamUri(), err.getMessage());
+                        close((short) 1011, "Downstream connection failed");
+                    });
+        }
+
+        void leave(Subscriber subscriber) {
+            subscriber.stop();
+            WebSocket socket;
+            synchronized (this) {
+                subscribers.remove(subscriber);
+                if (closed || !subscribers.isEmpty()) {
+                    return;
+                }
+                closed = true;
+                socket = downstream;
+            }
+            channels.remove(key, this);
+            log.info("Last subscriber left, closing fan-out WebSocket {} of route {}", key.downstreamUri(), key.routeId());
+            if (socket != null) {
+                socket.close();
+            }
+        }
+
+        private void close(short statusCode, String reason) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+            channels.remove(key, this);
+            subscribers.forEach(subscriber -> subscriber.client.close(statusCode, reason));
+        }
+    }
+
+    private final class Subscriber {
+
+        private final ServerWebSocket client;
+        private final WebSocketTraffic.Route counters;
+        private final WebSocketKeepalive.Watch watch;
+
+        // Guarded by this: messages arrive on the downstream's event loop, drains on the client's.
+        private long dropped;
+        private long timer = -1;
+        private boolean stopped;
+
+        Subscriber(ServerWebSocket client, WebSocketTraffic.Route counters) {
+            this.client = client;
+            this.counters = counters;
+            this.watch = keepalive.watch(client, "fan-out client");
+            client.setWriteQueueMaxSize(writeQueueBytes);
+            client.drainHandler(v -> onDrain());
+            // Not forwarded, but a sign of life.
+            client.textMessageHandler(message -> watch.received());
+            client.binaryMessageHandler(message -> watch.received());
+        }
+
+        synchronized void send(String message, long bytes) {
+            if (writable()) {
+                counters.relayed(WebSocketTraffic.Direction.DOWNSTREAM, bytes);
+                client.writeTextMessage(message);
+            }
+        }
+
+        synchronized void send(Buffer message) {
+            if (writable()) {
+                counters.relayed(WebSocketTraffic.Direction.DOWNSTREAM, message.length());
+                client.writeBinaryMessage(message);
+            }
+        }
+
+        private boolean writable() {
+            if (stopped) {
+                return false;
+            }
+            if (!client.writeQueueFull()) {
+                return true;
+            }
+            if (dropped++ == 0 && disconnectSlowSubscribers) {
+                timer = vertx.setTimer(slowPeerTimeoutMillis, id -> onSlow());
+            }
+            return false;
+        }
+
+        private synchronized void onSlow() {
+            timer = -1;
+            if (!stopped) {
+                log.warn("Fan-out subscriber too slow for {} ms, disconnecting it", slowPeerTimeoutMillis);
+                stopped = true;
+                client.close(WebSocketBridge.TOO_SLOW, "Too slow");
+            }
+        }
+
+        private synchronized void onDrain() {
+            cancelTimer();
+            if (dropped > 0) {
+                log.debug("Fan-out subscriber caught up, {} messages were dropped", dropped);
+                dropped = 0;
+            }
+        }
+
+        synchronized void stop() {
+            stopped = true;
+            cancelTimer();
+            watch.stop();
+        }
+
+        private void cancelTimer() {
+            if (timer >= 0) {
+                vertx.cancelTimer(timer);
+                timer = -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package configurations.gateway;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.WebSocketBase;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pings the legs of proxied WebSockets whose peer went quiet, and closes those whose peer stopped answering, as set
+ * by {@code gateway.web-socket.ping-interval} and {@code idle-timeout}. Pings and pongs are hop-by-hop: each leg's
+ * peer answers the gateway's pings, and the gateway answers theirs, so none is relayed.
+ */
+@ApplicationScoped
+@Slf4j
+public class WebSocketKeepalive {
+
+    /**
+     * Close code for a leg closed for idleness: "Going Away".
+     */
+    static final short IDLE = 1001;
+
+    private static final Buffer PING = Buffer.buffer("keepalive");
+
+    private final Vertx vertx;
+    private final long pingNanos;
+    private final long idleNanos;
+    private final long checkMillis;
+
+    public WebSocketKeepalive(Vertx vertx, GatewayConfig gatewayConfig) {
+        GatewayConfig.WebSocketConfig config = gatewayConfig.webSocket();
+        this.vertx = vertx;
+        this.pingNanos = Math.max(0, config.pingInterval().toNanos());
+        this.idleNanos = Math.max(0, config.idleTimeout().toNanos());
+        // Checked twice per ping interval, or per idle timeout when pings are off, so that a ping goes out at most
+        // half an interval late.
+        long period = (pingNanos > 0 ? config.pingInterval() : config.idleTimeout()).toMillis();
+        this.checkMillis = period > 0 ? Math.max(1, period / 2) : 0;
+    }
+
+    /**
+     * Watches {@code socket} until {@link Watch#stop() stopped}; closing it for idleness fires its close handler.
+     *
+     * @param name the leg, for logging
+     */
+    public Watch watch(WebSocketBase socket, String name) {
+        return new Watch(socket, name);
+    }
+
+    public final class Watch {
+
+        private final WebSocketBase socket;
+        private final String name;
+        private final long timer;
+        private volatile long lastReceived = System.nanoTime();
+        private volatile boolean suspended;
+
+        Watch(WebSocketBase socket, String name) {
+            this.socket = socket;
+            this.name = name;
+            socket.pongHandler(pong -> received());
+            this.timer = checkMillis > 0 ? vertx.setPeriodic(checkMillis, id -> check()) : -1;
+        }
+
+        /**
+         * Notes that the peer sent something.
+         */
+        public void received() {
+            lastReceived = System.nanoTime();
+        }
+
+        /**
+         * Stops judging the peer while the gateway itself does not read it, for instance while it is paused for
+         * backpressure: not even a pong would be seen then.
+         */
+        public void suspend() {
+            suspended = true;
+        }
+
+        /**
+         * Judges the peer again, from now on: the time its socket was not read does not count as quiet.
+         */
+        public void resume() {
+            lastReceived = System.nanoTime();
+            suspended = false;
+        }
+
+        public void stop() {
+            if (timer >= 0) {
+                vertx.cancelTimer(timer);
+            }
+        }
+
+        private void check() {
+            if (suspended) {
+                return;
+            }
+            long quiet = System.nanoTime() - lastReceived;
+            if (idleNanos > 0 && quiet >= idleNanos) {
+                log.info("WebSocket {} idle for {} ms, closing it", name, quiet / 1_000_000);
+                stop();
+                socket.close(IDLE, "Idle timeout");
+            } else if (pingNanos > 0 && quiet >= pingNanos) {
+                socket.writePing(PING);
+            }
+        }
+    }
+}
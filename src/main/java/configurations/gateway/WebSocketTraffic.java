@@ -0,0 +1,95 @@
+package configurations.gateway;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts per route and direction the WebSocket messages the gateway relays, and their payload bytes. Messages are
+ * relayed whole, so a message sent in several frames counts once.
+ */
+@ApplicationScoped
+public class WebSocketTraffic {
+
+    public enum Direction {
+        /**
+         * From clients to downstream targets.
+         */
+        UPSTREAM("upstream"),
+        /**
+         * From downstream targets to clients, once per client a fanned-out message is written to.
+         */
+        DOWNSTREAM("downstream");
+
+        private final String tag;
+
+        Direction(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    /**
+     * The counters of {@code routeId}.
+     */
+    public Route route(String routeId) {
+        return routes.computeIfAbsent(routeId, id -> new Route());
+    }
+
+    public long messages(String routeId, Direction direction) {
+        Route route = routes.get(routeId);
+        return route == null ? 0 : route.messages[direction.ordinal()].sum();
+    }
+
+    public long bytes(String routeId, Direction direction) {
+        Route route = routes.get(routeId);
+        return route == null ? 0 : route.bytes[direction.ordinal()].sum();
+    }
+
+    /**
+     * Routes that relayed a WebSocket since startup.
+     */
+    public Set<String> routeIds() {
+        return Set.copyOf(routes.keySet());
+    }
+
+    /**
+     * Bytes of {@code text} in UTF-8, as sent in a text message.
+     */
+    public static long utf8Length(CharSequence text) {
+        long bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    public static final class Route {
+
+        private final LongAdder[] messages = {new LongAdder(), new LongAdder()};
+        private final LongAdder[] bytes = {new LongAdder(), new LongAdder()};
+
+        public void relayed(Direction direction, long payloadBytes) {
+            messages[direction.ordinal()].increment();
+            bytes[direction.ordinal()].add(payloadBytes);
+        }
+    }
+}
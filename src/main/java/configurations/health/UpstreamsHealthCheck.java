@@ -0,0 +1,56 @@
+package configurations.health;
+
+import domain.gateway.RouteDefinition;
+import domain.gateway.Upstream;
+import domain.gateway.UpstreamHealth;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.RequiredArgsConstructor;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.eclipse.microprofile.health.Readiness;
+import ports.out.gateway.RouteDefinitionsPort;
+
+import java.util.List;
+
+/**
+ * Reports the state of every upstream by its route and position among the route's instances (e.g.
+ * {@code "bifrost[0]": "EJECTED"}) and how many instances of each route are in rotation.
+ * <p>
+ * The readiness endpoint is unauthenticated, so upstream addresses are left out of it; the index points at the
+ * instance in the route's configuration.
+ * <p>
+ * One unhealthy backend must not take the whole gateway out of its load balancer, so the check only goes DOWN when no
+ * route has a single instance left in rotation.
+ */
+@Readiness
+@ApplicationScoped
+@RequiredArgsConstructor
+public class UpstreamsHealthCheck implements HealthCheck {
+
+    private final RouteDefinitionsPort routeDefinitionsPort;
+
+    @Override
+    public HealthCheckResponse call() {
+        HealthCheckResponseBuilder builder = HealthCheckResponse.named("Gateway upstreams");
+        boolean anyRouteAvailable = false;
+        boolean anyRoute = false;
+
+        for (RouteDefinition route : routeDefinitionsPort.listRoutes()) {
+            anyRoute = true;
+            int available = 0;
+            List<Upstream> upstreams = route.target().upstreams();
+            for (int i = 0; i < upstreams.size(); i++) {
+                UpstreamHealth.State state = upstreams.get(i).health().state();
+                if (state == UpstreamHealth.State.HEALTHY || state == UpstreamHealth.State.RECOVERING) {
+                    available++;
+                }
+                builder.withData(route.id() + "[" + i + "]", state.name());
+            }
+            builder.withData(route.id(), available + "/" + upstreams.size() + " available");
+            anyRouteAvailable |= available > 0;
+        }
+
+        return builder.status(anyRouteAvailable || !anyRoute).build();
+    }
+}
@@ -0,0 +1,95 @@
+package domain.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The {@code Cache-Control} directives a shared cache acts on (RFC 9111 section 5.2). Durations are in seconds and
+ * {@code -1} when absent; a malformed duration counts as {@code 0}. Field-qualified forms such as
+ * {@code no-cache="Set-Cookie"} are treated like their unqualified directive.
+ *
+ * @param mustRevalidate {@code must-revalidate} or {@code proxy-revalidate}
+ */
+public record CacheControl(boolean noStore, boolean noCache, boolean isPrivate, boolean isPublic, boolean mustRevalidate,
+                           long maxAge, long sMaxAge, long staleWhileRevalidate) {
+
+    public static final CacheControl NONE = new CacheControl(false, false, false, false, false, -1, -1, -1);
+
+    public static CacheControl parse(List<String> headerValues) {
+        boolean noStore = false;
+        boolean noCache = false;
+        boolean isPrivate = false;
+        boolean isPublic = false;
+        boolean mustRevalidate = false;
+        long maxAge = -1;
+        long sMaxAge = -1;
+        long staleWhileRevalidate = -1;
+
+        for (String directive : directives(headerValues)) {
+            int eq = directive.indexOf('=');
+            String name = (eq < 0 ? directive : directive.substring(0, eq)).trim().toLowerCase(Locale.ROOT);
+            String argument = eq < 0 ? null : unquote(directive.substring(eq + 1).trim());
+            switch (name) {
+                case "no-store" -> noStore = true;
+                case "no-cache" -> noCache = true;
+                case "private" -> isPrivate = true;
+                case "public" -> isPublic = true;
+                case "must-revalidate", "proxy-revalidate" -> mustRevalidate = true;
+                case "max-age" -> maxAge = seconds(argument);
+                case "s-maxage" -> sMaxAge = seconds(argument);
+                case "stale-while-revalidate" -> staleWhileRevalidate = seconds(argument);
+                default -> {
+                }
+            }
+        }
+        return new CacheControl(noStore, noCache, isPrivate, isPublic, mustRevalidate, maxAge, sMaxAge,
+                staleWhileRevalidate);
+    }
+
+    /**
+     * Splits on commas outside quoted strings.
+     */
+    private static List<String> directives(List<String> headerValues) {
+        List<String> directives = new ArrayList<>();
+        for (String value : headerValues) {
+            if (value == null) {
+                continue;
+            }
+            boolean quoted = false;
+            int start = 0;
+            for (int i = 0; i <= value.length(); i++) {
+                char c = i < value.length() ? value.charAt(i) : ',';
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == ',' && !quoted) {
+                    String directive = value.substring(start, i).trim();
+                    if (!directive.isEmpty()) {
+                        directives.add(directive);
+                    }
+                    start = i + 1;
+                }
+            }
+        }
+        return directives;
+    }
+
+    private static String unquote(String argument) {
+        if (argument.length() >= 2 && argument.startsWith("\"") && argument.endsWith("\"")) {
+            return argument.substring(1, argument.length() - 1);
+        }
+        return argument;
+    }
+
+    private static long seconds(String argument) {
+        if (argument == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(argument));
+        } catch (NumberFormatException e) {
+            // Overflowing values mean "practically forever"; anything else is invalid and makes the response stale.
+            return argument.chars().allMatch(Character::isDigit) && !argument.isEmpty() ? Integer.MAX_VALUE : 0;
+        }
+    }
+}
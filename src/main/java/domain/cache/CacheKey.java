@@ -0,0 +1,18 @@
+package domain.cache;
+
+import java.util.Objects;
+
+/**
+ * Identifies cached responses: the route, the tenant the request was made for and the downstream path with its query.
+ * The upstream instance is deliberately not part of it, so all instances of a route share their entries.
+ *
+ * @param tenant value of the {@code X-Tenant-Id} header sent downstream, empty without one
+ */
+public record CacheKey(String routeId, String tenant, String pathAndQuery) {
+
+    public CacheKey {
+        Objects.requireNonNull(routeId, "routeId must not be null");
+        Objects.requireNonNull(tenant, "tenant must not be null");
+        Objects.requireNonNull(pathAndQuery, "pathAndQuery must not be null");
+    }
+}
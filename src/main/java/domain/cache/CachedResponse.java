@@ -0,0 +1,247 @@
+package domain.cache;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A stored response with the freshness information of a shared cache (RFC 9111).
+ * <p>
+ * Only responses with a status that is cacheable by default and either an explicit lifetime ({@code s-maxage},
+ * {@code max-age} or {@code Expires}) or a validator ({@code ETag}, {@code Last-Modified}) are stored; no heuristic
+ * freshness is applied. {@code no-store}, {@code private}, {@code Vary: *} and {@code Set-Cookie} responses are never
+ * stored, and neither are answers to requests with {@code Authorization} unless the response explicitly allows it.
+ * Times are epoch milliseconds.
+ */
+public final class CachedResponse {
+
+    private static final Set<Integer> CACHEABLE_BY_DEFAULT = Set.of(200, 203, 204, 300, 301, 308, 404, 405, 410, 414, 501);
+
+    /**
+     * Headers a {@code 304 Not Modified} must not overwrite on the stored response.
+     */
+    private static final Set<String> NOT_UPDATED_BY_REVALIDATION = Set.of("content-length", "content-encoding",
+            "transfer-encoding", "content-range");
+
+    /**
+     * Rough per-entry bookkeeping cost added to the body and headers.
+     */
+    private static final long ENTRY_OVERHEAD = 256;
+
+    private final int status;
+    private final Map<String, List<String>> headers;
+    private final byte[] body;
+    private final Map<String, String> varyValues;
+    private final long storedAt;
+    private final long initialAge;
+    private final long freshnessLifetime;
+    private final long staleWhileRevalidate;
+    private final boolean noCache;
+    private final boolean mustRevalidate;
+
+    private CachedResponse(int status, Map<String, List<String>> headers, byte[] body, Map<String, String> varyValues,
+                           long storedAt, long initialAge, long freshnessLifetime, long staleWhileRevalidate,
+                           boolean noCache, boolean mustRevalidate) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+        this.varyValues = varyValues;
+        this.storedAt = storedAt;
+        this.initialAge = initialAge;
+        this.freshnessLifetime = freshnessLifetime;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.noCache = noCache;
+        this.mustRevalidate = mustRevalidate;
+    }
+
+    /**
+     * @param requestTime  when the request was sent downstream
+     * @param responseTime when its response arrived
+     * @return the entry to store, or empty if the response must not be stored
+     */
+    public static Optional<CachedResponse> of(int status, Map<String, List<String>> headers, byte[] body,
+                                              Map<String, List<String>> requestHeaders, long requestTime,
+                                              long responseTime) {
+        if (!CACHEABLE_BY_DEFAULT.contains(status)) {
+            return Optional.empty();
+        }
+        CacheControl cacheControl = CacheControl.parse(HeaderValues.all(headers, "Cache-Control"));
+        if (cacheControl.noStore() || cacheControl.isPrivate()
+                || !HeaderValues.all(headers, "Set-Cookie").isEmpty()) {
+            return Optional.empty();
+        }
+        if (!HeaderValues.all(requestHeaders, "Authorization").isEmpty()
+                && !(cacheControl.isPublic() || cacheControl.sMaxAge() >= 0 || cacheControl.mustRevalidate())) {
+            return Optional.empty();
+        }
+
+        List<String> vary = HeaderValues.elements(HeaderValues.all(headers, "Vary"));
+        if (vary.contains("*")) {
+            return Optional.empty();
+        }
+
+        long date = parseDate(HeaderValues.first(headers, "Date"));
+        long freshnessLifetime = freshnessLifetime(cacheControl, headers, date, responseTime);
+        boolean hasValidator = HeaderValues.first(headers, "ETag") != null
+                || HeaderValues.first(headers, "Last-Modified") != null;
+        if (freshnessLifetime <= 0 && !hasValidator) {
+            return Optional.empty();
+        }
+
+        Map<String, String> varyValues = new HashMap<>();
+        for (String name : vary) {
+            varyValues.put(name.toLowerCase(Locale.ROOT), String.join(",", HeaderValues.all(requestHeaders, name)));
+        }
+
+        long apparentAge = date < 0 ? 0 : Math.max(0, responseTime - date);
+        long ageValue = Math.max(0, seconds(HeaderValues.first(headers, "Age"))) * 1000;
+        long initialAge = Math.max(apparentAge, ageValue + Math.max(0, responseTime - requestTime));
+
+        return Optional.of(new CachedResponse(
+                status,
+                Map.copyOf(headers),
+                body,
+                Map.copyOf(varyValues),
+                responseTime,
+                initialAge,
+                freshnessLifetime,
+                Math.max(0, cacheControl.staleWhileRevalidate()) * 1000,
+                cacheControl.noCache(),
+                cacheControl.mustRevalidate()
+        ));
+    }
+
+    /**
+     * This response refreshed by a {@code 304 Not Modified}: the 304's headers replace the stored ones, and the
+     * freshness is recomputed from the result.
+     */
+    public Optional<CachedResponse> revalidated(Map<String, List<String>> notModifiedHeaders,
+                                                Map<String, List<String>> requestHeaders, long requestTime,
+                                                long responseTime) {
+        Map<String, List<String>> merged = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        merged.putAll(headers);
+        for (Map.Entry<String, List<String>> entry : notModifiedHeaders.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null
+                    && !NOT_UPDATED_BY_REVALIDATION.contains(entry.getKey().toLowerCase(Locale.ROOT))) {
+                merged.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return of(status, merged, body, requestHeaders, requestTime, responseTime);
+    }
+
+    /**
+     * Whether this variant was selected by the same values of the {@code Vary} request headers.
+     */
+    public boolean matches(Map<String, List<String>> requestHeaders) {
+        for (Map.Entry<String, String> vary : varyValues.entrySet()) {
+            if (!vary.getValue().equals(String.join(",", HeaderValues.all(requestHeaders, vary.getKey())))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean sameVariantAs(CachedResponse other) {
+        return varyValues.equals(other.varyValues);
+    }
+
+    public long age(long now) {
+        return initialAge + Math.max(0, now - storedAt);
+    }
+
+    public boolean isFresh(long now) {
+        return !noCache && age(now) < freshnessLifetime;
+    }
+
+    /**
+     * Stale, but still within its {@code stale-while-revalidate} window: it may be served while a revalidation runs
+     * in the background.
+     */
+    public boolean isServableWhileRevalidating(long now) {
+        return !noCache && !mustRevalidate && age(now) < freshnessLifetime + staleWhileRevalidate;
+    }
+
+    public String etag() {
+        return HeaderValues.first(headers, "ETag");
+    }
+
+    public String lastModified() {
+        return HeaderValues.first(headers, "Last-Modified");
+    }
+
+    public boolean hasValidator() {
+        return etag() != null || lastModified() != null;
+    }
+
+    /**
+     * Approximate memory held by this entry, in bytes.
+     */
+    public long weight() {
+        long weight = ENTRY_OVERHEAD + (body == null ? 0 : body.length);
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            weight += 2L * entry.getKey().length();
+            for (String value : entry.getValue()) {
+                weight += value == null ? 0 : 2L * value.length();
+            }
+        }
+        return weight;
+    }
+
+    public int status() {
+        return status;
+    }
+
+    public Map<String, List<String>> headers() {
+        return headers;
+    }
+
+    public byte[] body() {
+        return body;
+    }
+
+    private static long freshnessLifetime(CacheControl cacheControl, Map<String, List<String>> headers, long date,
+                                          long responseTime) {
+        if (cacheControl.sMaxAge() >= 0) {
+            return cacheControl.sMaxAge() * 1000;
+        }
+        if (cacheControl.maxAge() >= 0) {
+            return cacheControl.maxAge() * 1000;
+        }
+        String expires = HeaderValues.first(headers, "Expires");
+        if (expires == null) {
+            return 0;
+        }
+        // An invalid Expires (typically "0") means already expired.
+        long expiresAt = parseDate(expires);
+        return expiresAt < 0 ? 0 : Math.max(0, expiresAt - (date < 0 ? responseTime : date));
+    }
+
+    private static long parseDate(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private static long seconds(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
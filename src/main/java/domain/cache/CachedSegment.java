@@ -0,0 +1,18 @@
+package domain.cache;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A media segment stored on local disk, with the response headers it was fetched with. The file stays readable for
+ * a while after the segment is evicted, so requests that already got it can finish.
+ */
+public record CachedSegment(Path file, long size, Map<String, List<String>> headers) {
+
+    public CachedSegment {
+        Objects.requireNonNull(file, "file must not be null");
+        headers = headers == null ? Map.of() : Map.copyOf(headers);
+    }
+}
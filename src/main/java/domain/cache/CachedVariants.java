@@ -0,0 +1,50 @@
+package domain.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The stored variants of one {@link CacheKey}, newest first: one per combination of {@code Vary} request header
+ * values. Stored and evicted as a unit.
+ */
+public record CachedVariants(List<CachedResponse> variants) {
+
+    static final int MAX_VARIANTS = 8;
+
+    public CachedVariants {
+        variants = List.copyOf(variants);
+    }
+
+    public Optional<CachedResponse> match(Map<String, List<String>> requestHeaders) {
+        for (CachedResponse variant : variants) {
+            if (variant.matches(requestHeaders)) {
+                return Optional.of(variant);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * These variants with {@code response} replacing the one for the same {@code Vary} values.
+     */
+    public CachedVariants with(CachedResponse response) {
+        List<CachedResponse> updated = new ArrayList<>(variants.size() + 1);
+        updated.add(response);
+        for (CachedResponse variant : variants) {
+            if (updated.size() < MAX_VARIANTS && !variant.sameVariantAs(response)) {
+                updated.add(variant);
+            }
+        }
+        return new CachedVariants(updated);
+    }
+
+    public long weight() {
+        long weight = 0;
+        for (CachedResponse variant : variants) {
+            weight += variant.weight();
+        }
+        return weight;
+    }
+}
@@ -0,0 +1,67 @@
+package domain.cache;
+
+import domain.gateway.Headers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Case-insensitive reads from the plain header maps the gateway passes around.
+ */
+public final class HeaderValues {
+
+    private HeaderValues() {
+    }
+
+    /**
+     * All values of {@code name}, in map order across differently cased keys.
+     */
+    public static List<String> all(Map<String, List<String>> headers, String name) {
+        if (headers instanceof Headers flat) {
+            return flat.all(name);
+        }
+        if (headers == null || headers.isEmpty()) {
+            return List.of();
+        }
+        List<String> values = null;
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null || !entry.getKey().equalsIgnoreCase(name)) {
+                continue;
+            }
+            if (values == null) {
+                values = new ArrayList<>(entry.getValue());
+            } else {
+                values.addAll(entry.getValue());
+            }
+        }
+        return values == null ? List.of() : values;
+    }
+
+    public static String first(Map<String, List<String>> headers, String name) {
+        if (headers instanceof Headers flat) {
+            return flat.first(name);
+        }
+        List<String> values = all(headers, name);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * Splits comma-separated list values ({@code Vary: Accept, Accept-Encoding}) into trimmed, non-empty elements.
+     */
+    public static List<String> elements(List<String> values) {
+        List<String> elements = new ArrayList<>();
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            for (String element : value.split(",")) {
+                String trimmed = element.trim();
+                if (!trimmed.isEmpty()) {
+                    elements.add(trimmed);
+                }
+            }
+        }
+        return elements;
+    }
+}
@@ -0,0 +1,157 @@
+package domain.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache bounded by the total weight (e.g. bytes) of its values, with W-TinyLFU eviction.
+ * <p>
+ * New entries land in a small LRU window (1% of the budget). Entries pushed out of the window only enter the main LRU
+ * region if they have been requested more often recently than the main region's eviction victim, as estimated by a
+ * {@link FrequencySketch}. One-hit wonders therefore cannot flush popular entries. All operations take a single lock;
+ * they do constant work apart from evictions.
+ */
+public final class TinyLfuCache<K, V> {
+
+    private static final double WINDOW_SHARE = 0.01;
+
+    private final long maxWeight;
+    private final long windowMaxWeight;
+    private final ToLongFunction<V> weigher;
+    private final FrequencySketch sketch;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, V> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> main = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long windowWeight;
+    private long mainWeight;
+    private long evictions;
+
+    /**
+     * @param expectedEntries sizes the frequency sketch; a rough estimate is enough
+     */
+    public TinyLfuCache(long maxWeight, int expectedEntries, ToLongFunction<V> weigher) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("maxWeight must be >= 1");
+        }
+        this.maxWeight = maxWeight;
+        this.windowMaxWeight = Math.max(1, (long) (maxWeight * WINDOW_SHARE));
+        this.weigher = Objects.requireNonNull(weigher, "weigher must not be null");
+        this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    public V get(K key) {
+        lock.lock();
+        try {
+            sketch.increment(key);
+            V value = window.get(key);
+            return value != null ? value : main.get(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores {@code value}, replacing any previous one. Values heavier than the whole budget are not stored, and a
+     * new value may be dropped right away by the admission policy.
+     */
+    public void put(K key, V value) {
+        long weight = weigher.applyAsLong(value);
+        lock.lock();
+        try {
+            sketch.increment(key);
+            removeLocked(key);
+            if (weight > maxWeight) {
+                return;
+            }
+            window.put(key, value);
+            windowWeight += weight;
+            while (windowWeight > windowMaxWeight && !window.isEmpty()) {
+                Iterator<Map.Entry<K, V>> oldest = window.entrySet().iterator();
+                Map.Entry<K, V> candidate = oldest.next();
+                oldest.remove();
+                long candidateWeight = weigher.applyAsLong(candidate.getValue());
+                windowWeight -= candidateWeight;
+                admit(candidate.getKey(), candidate.getValue(), candidateWeight);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(K key) {
+        lock.lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long weight() {
+        lock.lock();
+        try {
+            return windowWeight + mainWeight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return window.size() + main.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long evictions() {
+        lock.lock();
+        try {
+            return evictions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void admit(K key, V value, long weight) {
+        long mainMaxWeight = maxWeight - windowMaxWeight;
+        if (mainWeight + weight > mainMaxWeight) {
+            if (weight > mainMaxWeight || main.isEmpty()) {
+                evictions++;
+                return;
+            }
+            K victim = main.keySet().iterator().next();
+            if (sketch.frequency(key) <= sketch.frequency(victim)) {
+                evictions++;
+                return;
+            }
+            Iterator<Map.Entry<K, V>> oldest = main.entrySet().iterator();
+            while (mainWeight + weight > mainMaxWeight) {
+                Map.Entry<K, V> evicted = oldest.next();
+                oldest.remove();
+                mainWeight -= weigher.applyAsLong(evicted.getValue());
+                evictions++;
+            }
+        }
+        main.put(key, value);
+        mainWeight += weight;
+    }
+
+    private void removeLocked(K key) {
+        V removed = window.remove(key);
+        if (removed != null) {
+            windowWeight -= weigher.applyAsLong(removed);
+            return;
+        }
+        removed = main.remove(key);
+        if (removed != null) {
+            mainWeight -= weigher.applyAsLong(removed);
+        }
+    }
+}
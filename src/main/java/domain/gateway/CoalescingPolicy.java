@@ -0,0 +1,25 @@
+package domain.gateway;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Collapsing of identical concurrent {@code GET}s on a route into a single downstream call.
+ *
+ * @param varyHeaders    request headers that take part in the identity of a request besides method, downstream URL and
+ *                       tenant; the credentials, cookies and conditional headers are always part of it
+ * @param maxReplayBytes bytes of a streamed body kept for late joiners; once a stream grows past it, new requests get
+ *                       their own call, and a reader that falls that far behind the fastest one is dropped
+ */
+public record CoalescingPolicy(boolean enabled, List<String> varyHeaders, long maxReplayBytes) {
+
+    public static final CoalescingPolicy DISABLED = new CoalescingPolicy(false, List.of(), 1024 * 1024);
+
+    public CoalescingPolicy {
+        Objects.requireNonNull(varyHeaders, "varyHeaders must not be null");
+        varyHeaders = List.copyOf(varyHeaders);
+        if (maxReplayBytes < 0) {
+            throw new IllegalArgumentException("maxReplayBytes must not be negative");
+        }
+    }
+}
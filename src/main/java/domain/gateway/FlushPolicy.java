@@ -0,0 +1,49 @@
+package domain.gateway;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * When the buffers of a streamed response are handed to the client connection: each one as soon as it arrives for
+ * latency-sensitive content types, else several coalesced into one write.
+ *
+ * @param immediateContentTypes media types, such as {@code text/event-stream}, whose buffers are written as they arrive
+ * @param coalesceBytes         bytes gathered into one write for the other types; {@code 0} writes every buffer
+ * @param coalesceDelay         longest a gathered byte waits for the write
+ */
+public record FlushPolicy(List<String> immediateContentTypes, int coalesceBytes, Duration coalesceDelay) {
+
+    public static final FlushPolicy DEFAULT = new FlushPolicy(
+            List.of("text/event-stream", "multipart/x-mixed-replace"), 32 * 1024, Duration.ofMillis(20));
+
+    public FlushPolicy {
+        Objects.requireNonNull(immediateContentTypes, "immediateContentTypes must not be null");
+        immediateContentTypes = immediateContentTypes.stream()
+                .map(type -> type.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        if (coalesceBytes < 0) {
+            throw new IllegalArgumentException("coalesceBytes must not be negative");
+        }
+        if (coalesceDelay == null || coalesceDelay.isNegative()) {
+            throw new IllegalArgumentException("coalesceDelay must not be negative");
+        }
+    }
+
+    /**
+     * Whether buffers of a response with this {@code Content-Type} (parameters allowed, may be {@code null}) are
+     * coalesced.
+     */
+    public boolean coalesces(String contentType) {
+        if (coalesceBytes == 0 || coalesceDelay.isZero()) {
+            return false;
+        }
+        if (contentType == null) {
+            return true;
+        }
+        int parameters = contentType.indexOf(';');
+        String mediaType = (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+        return !immediateContentTypes.contains(mediaType);
+    }
+}
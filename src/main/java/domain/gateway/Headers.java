@@ -0,0 +1,347 @@
+package domain.gateway;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Immutable HTTP headers as one flat array of name-value pairs in arrival order, read case-insensitively.
+ * <p>
+ * A request's headers are copied once, where an inbound adapter receives them, and travel as they are to the outbound
+ * adapter: {@link #forwardable()} and {@link #without(Predicate)} hide entries of the same arrays rather than copying
+ * them, and {@link #with(String, String)} adds one entry on top. Lookups compare names in place, without lower-casing
+ * them. As a {@link Map} it has one entry per name, spelled as it first arrived, with the values of every spelling.
+ */
+public final class Headers extends AbstractMap<String, List<String>> {
+
+    public static final Headers EMPTY = new Headers(new String[0], new String[0], 0, null, null, null);
+
+    private final String[] names;
+    private final String[] values;
+    private final int count;
+    // Bit i hides entry i; null when none is hidden.
+    private final long[] hidden;
+    // One entry added on top of the shared arrays by with(); null when none.
+    private final String extraName;
+    private final String extraValue;
+
+    private int size = -1;
+    private Set<Entry<String, List<String>>> entrySet;
+
+    private Headers(String[] names, String[] values, int count, long[] hidden, String extraName, String extraValue) {
+        this.names = names;
+        this.values = values;
+        this.count = count;
+        this.hidden = hidden;
+        this.extraName = extraName;
+        this.extraValue = extraValue;
+    }
+
+    /**
+     * {@code headers} itself if it already is a {@code Headers}, otherwise a copy; {@code null} names and values are
+     * left out.
+     */
+    public static Headers of(Map<String, List<String>> headers) {
+        if (headers instanceof Headers flat) {
+            return flat;
+        }
+        if (headers == null || headers.isEmpty()) {
+            return EMPTY;
+        }
+        Builder builder = new Builder(headers.size() + 4);
+        headers.forEach(builder::addAll);
+        return builder.build();
+    }
+
+    public static Builder builder(int expectedValues) {
+        return new Builder(expectedValues);
+    }
+
+    /**
+     * Whether {@code name} must not be forwarded as it is: a hop-by-hop header, {@code Host} and
+     * {@code Content-Length}, which the client sets for its own connection, or an HTTP/2 pseudo-header such as
+     * {@code :status}.
+     */
+    public static boolean isHopByHop(String name) {
+        return switch (name.length()) {
+            case 2 -> name.equalsIgnoreCase("te");
+            case 4 -> name.equalsIgnoreCase("host");
+            case 7 -> name.equalsIgnoreCase("upgrade");
+            case 8 -> name.equalsIgnoreCase("trailers");
+            case 10 -> name.equalsIgnoreCase("connection") || name.equalsIgnoreCase("keep-alive");
+            case 14 -> name.equalsIgnoreCase("content-length");
+            case 17 -> name.equalsIgnoreCase("transfer-encoding");
+            case 18 -> name.equalsIgnoreCase("proxy-authenticate");
+            case 19 -> name.equalsIgnoreCase("proxy-authorization");
+            default -> false;
+        } || name.startsWith(":");
+    }
+
+    /**
+     * The first value of {@code name}, or {@code null}.
+     */
+    public String first(String name) {
+        for (int i = 0; i < entries(); i++) {
+            if (visible(i) && name(i).equalsIgnoreCase(name)) {
+                return value(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * All values of {@code name}, in arrival order across spellings.
+     */
+    public List<String> all(String name) {
+        String single = null;
+        List<String> several = null;
+        for (int i = 0; i < entries(); i++) {
+            if (!visible(i) || !name(i).equalsIgnoreCase(name)) {
+                continue;
+            }
+            if (single == null) {
+                single = value(i);
+            } else {
+                if (several == null) {
+                    several = new ArrayList<>(4);
+                    several.add(single);
+                }
+                several.add(value(i));
+            }
+        }
+        return single == null ? List.of() : several == null ? List.of(single) : List.copyOf(several);
+    }
+
+    /**
+     * Calls {@code action} with every name and value, in arrival order.
+     */
+    public void forEachValue(BiConsumer<String, String> action) {
+        for (int i = 0; i < entries(); i++) {
+            if (visible(i)) {
+                action.accept(name(i), value(i));
+            }
+        }
+    }
+
+    /**
+     * These headers without those a proxy must not forward, see {@link #isHopByHop(String)}.
+     */
+    public Headers forwardable() {
+        return without(Headers::isHopByHop);
+    }
+
+    /**
+     * These headers without the values of the names {@code excluded} accepts.
+     */
+    public Headers without(Predicate<String> excluded) {
+        long[] hiding = hide(excluded);
+        boolean dropExtra = extraName != null && excluded.test(extraName);
+        if (hiding == null && !dropExtra) {
+            return this;
+        }
+        return new Headers(names, values, count, hiding == null ? hidden : hiding,
+                dropExtra ? null : extraName, dropExtra ? null : extraValue);
+    }
+
+    /**
+     * These headers with {@code value} as the only value of {@code name}, whatever its spelling so far.
+     */
+    public Headers with(String name, String value) {
+        if (extraName != null && !extraName.equalsIgnoreCase(name)) {
+            return compact().with(name, value);
+        }
+        long[] hiding = hide(candidate -> candidate.equalsIgnoreCase(name));
+        return new Headers(names, values, count, hiding == null ? hidden : hiding, name, value);
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        List<String> all = all(name);
+        return all.isEmpty() ? null : all;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String name && first(name) != null;
+    }
+
+    @Override
+    public int size() {
+        if (size < 0) {
+            int distinct = 0;
+            for (int i = 0; i < entries(); i++) {
+                if (firstSpelling(i)) {
+                    distinct++;
+                }
+            }
+            size = distinct;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (int i = 0; i < entries(); i++) {
+            if (visible(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, List<String>>> iterator() {
+                    return new NameIterator();
+                }
+
+                @Override
+                public int size() {
+                    return Headers.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private int entries() {
+        return extraName == null ? count : count + 1;
+    }
+
+    private String name(int i) {
+        return i < count ? names[i] : extraName;
+    }
+
+    private String value(int i) {
+        return i < count ? values[i] : extraValue;
+    }
+
+    private boolean visible(int i) {
+        return i >= count || hidden == null || (hidden[i >>> 6] & (1L << i)) == 0;
+    }
+
+    /**
+     * Whether entry {@code i} is visible and no visible entry before it has the same name.
+     */
+    private boolean firstSpelling(int i) {
+        if (!visible(i)) {
+            return false;
+        }
+        for (int j = 0; j < i; j++) {
+            if (visible(j) && name(j).equalsIgnoreCase(name(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The hidden entries once those {@code excluded} accepts are hidden too, or {@code null} if none is newly hidden.
+     */
+    private long[] hide(Predicate<String> excluded) {
+        long[] hiding = null;
+        for (int i = 0; i < count; i++) {
+            if (visible(i) && excluded.test(names[i])) {
+                if (hiding == null) {
+                    hiding = hidden == null ? new long[(count + 63) >>> 6] : hidden.clone();
+                }
+                hiding[i >>> 6] |= 1L << i;
+            }
+        }
+        return hiding;
+    }
+
+    /**
+     * The visible entries in arrays of their own.
+     */
+    private Headers compact() {
+        Builder builder = new Builder(entries());
+        forEachValue(builder::add);
+        return builder.build();
+    }
+
+    private final class NameIterator implements Iterator<Entry<String, List<String>>> {
+
+        private int next = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return next < entries();
+        }
+
+        @Override
+        public Entry<String, List<String>> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String name = name(next);
+            next = advance(next + 1);
+            return new SimpleImmutableEntry<>(name, all(name));
+        }
+
+        private int advance(int from) {
+            int i = from;
+            while (i < entries() && !firstSpelling(i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    public static final class Builder {
+
+        private String[] names;
+        private String[] values;
+        private int count;
+
+        private Builder(int expectedValues) {
+            int capacity = Math.max(expectedValues, 4);
+            this.names = new String[capacity];
+            this.values = new String[capacity];
+        }
+
+        /**
+         * Adds {@code value} to {@code name}; either being {@code null} is ignored.
+         */
+        public Builder add(String name, String value) {
+            if (name == null || value == null) {
+                return this;
+            }
+            if (count == names.length) {
+                names = Arrays.copyOf(names, count * 2);
+                values = Arrays.copyOf(values, count * 2);
+            }
+            names[count] = name;
+            values[count] = value;
+            count++;
+            return this;
+        }
+
+        public Builder addAll(String name, List<String> values) {
+            if (values != null) {
+                for (String value : values) {
+                    add(name, value);
+                }
+            }
+            return this;
+        }
+
+        public Headers build() {
+            return count == 0 ? EMPTY : new Headers(names, values, count, null, null, null);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package domain.gateway;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Active probing of every upstream of a target: a {@code GET} on {@code path} every {@code interval}.
+ *
+ * @param unhealthyThreshold failed probes in a row that take an instance out of rotation
+ * @param healthyThreshold   successful probes in a row that bring it back
+ */
+public record HealthCheckDefinition(String path, Duration interval, Duration timeout, int unhealthyThreshold,
+                                    int healthyThreshold) {
+
+    public HealthCheckDefinition {
+        Objects.requireNonNull(path, "path must not be null");
+        Objects.requireNonNull(interval, "interval must not be null");
+        Objects.requireNonNull(timeout, "timeout must not be null");
+        if (!path.startsWith("/")) {
+            throw new IllegalArgumentException("health check path must start with '/'");
+        }
+        if (interval.isZero() || interval.isNegative() || timeout.isZero() || timeout.isNegative()) {
+            throw new IllegalArgumentException("health check interval and timeout must be positive");
+        }
+        if (unhealthyThreshold < 1 || healthyThreshold < 1) {
+            throw new IllegalArgumentException("health check thresholds must be >= 1");
+        }
+    }
+}
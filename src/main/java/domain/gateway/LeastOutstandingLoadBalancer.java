@@ -0,0 +1,43 @@
+package domain.gateway;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks the instance with the lowest {@code (outstanding + 1) / (weight * admissionShare)}, i.e. the fewest in-flight
+ * requests per unit of effective weight counting the one being placed. The scan starts at a random offset so ties do
+ * not all land on the first instance.
+ */
+final class LeastOutstandingLoadBalancer extends LoadBalancer {
+
+    LeastOutstandingLoadBalancer(List<Upstream> upstreams) {
+        super(upstreams);
+    }
+
+    @Override
+    public LoadBalancingStrategy strategy() {
+        return LoadBalancingStrategy.LEAST_OUTSTANDING;
+    }
+
+    @Override
+    public Upstream select() {
+        int size = upstreams.size();
+        int offset = size == 1 ? 0 : ThreadLocalRandom.current().nextInt(size);
+
+        Upstream best = null;
+        double bestLoad = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            Upstream candidate = upstreams.get((offset + i) % size);
+            double share = candidate.health().admissionShare();
+            if (share <= 0) {
+                continue;
+            }
+            double load = (candidate.outstanding() + 1) / (candidate.weight() * share);
+            if (load < bestLoad) {
+                best = candidate;
+                bestLoad = load;
+            }
+        }
+        return best != null ? best : upstreams.get(offset);
+    }
+}
@@ -0,0 +1,40 @@
+package domain.gateway;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Picks the {@link Upstream} for the next request. Implementations are lock-free and safe for concurrent use.
+ * <p>
+ * Instances out of rotation are skipped and recovering ones get a reduced share of traffic (see
+ * {@link UpstreamHealth#admissionShare()}). When no instance is available the balancer picks as if all were healthy:
+ * a request to a possibly dead instance beats failing it outright.
+ */
+public abstract class LoadBalancer {
+
+    protected final List<Upstream> upstreams;
+
+    protected LoadBalancer(List<Upstream> upstreams) {
+        Objects.requireNonNull(upstreams, "upstreams must not be null");
+        if (upstreams.isEmpty()) {
+            throw new IllegalArgumentException("upstreams must not be empty");
+        }
+        this.upstreams = List.copyOf(upstreams);
+    }
+
+    public static LoadBalancer of(LoadBalancingStrategy strategy, List<Upstream> upstreams) {
+        return switch (strategy) {
+            case ROUND_ROBIN -> new RoundRobinLoadBalancer(upstreams);
+            case LEAST_OUTSTANDING -> new LeastOutstandingLoadBalancer(upstreams);
+            case P2C_EWMA -> new PowerOfTwoChoicesLoadBalancer(upstreams);
+        };
+    }
+
+    public abstract LoadBalancingStrategy strategy();
+
+    public abstract Upstream select();
+
+    public List<Upstream> upstreams() {
+        return upstreams;
+    }
+}
@@ -0,0 +1,38 @@
+package domain.gateway;
+
+import java.util.Locale;
+
+public enum LoadBalancingStrategy {
+    /**
+     * Smooth weighted round-robin.
+     */
+    ROUND_ROBIN("round-robin"),
+    /**
+     * Fewest in-flight requests relative to weight.
+     */
+    LEAST_OUTSTANDING("least-outstanding"),
+    /**
+     * Best of two weighted random picks, scored by EWMA latency times in-flight requests.
+     */
+    P2C_EWMA("p2c-ewma");
+
+    private final String configValue;
+
+    LoadBalancingStrategy(String configValue) {
+        this.configValue = configValue;
+    }
+
+    public String configValue() {
+        return configValue;
+    }
+
+    public static LoadBalancingStrategy fromConfig(String value) {
+        String normalized = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+        for (LoadBalancingStrategy strategy : values()) {
+            if (strategy.configValue.equals(normalized)) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown load-balancing strategy '" + value + "', expected one of round-robin, least-outstanding, p2c-ewma");
+    }
+}
@@ -0,0 +1,39 @@
+package domain.gateway;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * When real traffic takes an {@link Upstream} out of rotation and how it comes back.
+ *
+ * @param consecutiveFailures 5xx responses or connection failures in a row that eject the instance; {@code 0}
+ *                            disables passive ejection
+ * @param baseEjectionTime    how long the first ejection lasts; each further ejection lasts one more multiple of it
+ * @param maxEjectionTime     upper bound for a single ejection
+ * @param readmissionWindow   time over which a readmitted instance ramps back up to its full share of traffic
+ */
+public record OutlierDetectionPolicy(int consecutiveFailures, Duration baseEjectionTime, Duration maxEjectionTime,
+                                     Duration readmissionWindow) {
+
+    public static final OutlierDetectionPolicy DEFAULT = new OutlierDetectionPolicy(
+            5, Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofSeconds(30));
+
+    public OutlierDetectionPolicy {
+        Objects.requireNonNull(baseEjectionTime, "baseEjectionTime must not be null");
+        Objects.requireNonNull(maxEjectionTime, "maxEjectionTime must not be null");
+        Objects.requireNonNull(readmissionWindow, "readmissionWindow must not be null");
+        if (consecutiveFailures < 0) {
+            throw new IllegalArgumentException("consecutiveFailures must be >= 0");
+        }
+        if (baseEjectionTime.isNegative() || maxEjectionTime.compareTo(baseEjectionTime) < 0) {
+            throw new IllegalArgumentException("maxEjectionTime must be >= baseEjectionTime >= 0");
+        }
+        if (readmissionWindow.isNegative()) {
+            throw new IllegalArgumentException("readmissionWindow must not be negative");
+        }
+    }
+
+    public boolean enabled() {
+        return consecutiveFailures > 0;
+    }
+}
@@ -0,0 +1,103 @@
+package domain.gateway;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power of two choices: draws two distinct instances at random (proportionally to weight) and keeps the one with the
+ * lower expected cost, {@code ewmaLatency * (outstanding + 1) / (weight * admissionShare)}. Instances without latency
+ * samples are priced at the mean of their peers' averages, so a new instance gets its share without being flooded
+ * first. If both draws are out of rotation the cheapest available instance is used instead.
+ */
+final class PowerOfTwoChoicesLoadBalancer extends LoadBalancer {
+
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    PowerOfTwoChoicesLoadBalancer(List<Upstream> upstreams) {
+        super(upstreams);
+        this.cumulativeWeights = new int[this.upstreams.size()];
+        int total = 0;
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            total += this.upstreams.get(i).weight();
+            cumulativeWeights[i] = total;
+        }
+        this.totalWeight = total;
+    }
+
+    @Override
+    public LoadBalancingStrategy strategy() {
+        return LoadBalancingStrategy.P2C_EWMA;
+    }
+
+    @Override
+    public Upstream select() {
+        int size = upstreams.size();
+        if (size == 1) {
+            return upstreams.getFirst();
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = weightedIndex(random);
+        int second = weightedIndex(random);
+        if (second == first) {
+            second = (first + 1 + random.nextInt(size - 1)) % size;
+        }
+
+        Upstream a = upstreams.get(first);
+        Upstream b = upstreams.get(second);
+        long seedNanos = meanLatencyNanos();
+        double costA = cost(a, seedNanos);
+        double costB = cost(b, seedNanos);
+        if (costA == Double.POSITIVE_INFINITY && costB == Double.POSITIVE_INFINITY) {
+            Upstream available = cheapestAvailable(seedNanos);
+            return available != null ? available : a;
+        }
+        return costB < costA ? b : a;
+    }
+
+    private Upstream cheapestAvailable(long seedNanos) {
+        Upstream best = null;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (Upstream upstream : upstreams) {
+            double cost = cost(upstream, seedNanos);
+            if (cost < bestCost) {
+                best = upstream;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    private int weightedIndex(ThreadLocalRandom random) {
+        int point = random.nextInt(totalWeight);
+        int index = Arrays.binarySearch(cumulativeWeights, point + 1);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Mean of the instances' moving averages, over those that have one; {@code 0} before any sample.
+     */
+    private long meanLatencyNanos() {
+        long sum = 0;
+        int sampled = 0;
+        for (Upstream upstream : upstreams) {
+            long latency = upstream.ewmaLatencyNanos();
+            if (latency > 0) {
+                sum += latency;
+                sampled++;
+            }
+        }
+        return sampled == 0 ? 0 : sum / sampled;
+    }
+
+    private static double cost(Upstream upstream, long seedNanos) {
+        double share = upstream.health().admissionShare();
+        if (share <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        long latency = upstream.ewmaLatencyNanos();
+        return (double) (latency > 0 ? latency : seedNanos) * (upstream.outstanding() + 1) / (upstream.weight() * share);
+    }
+}
@@ -0,0 +1,67 @@
+package domain.gateway;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * How calls to one route are protected. Every route gets its own breaker and bulkhead, so a slow or failing backend
+ * only trips its own route. A call fails when it gets no response in time, or a response whose status
+ * {@link #isFailure(int) is a failure}.
+ *
+ * @param timeout            limit for each attempt of a buffered request; streams and streamed uploads are not bounded by it
+ * @param maxRetries         extra attempts for idempotent buffered requests that failed without a response; each
+ *                           attempt may go to another instance
+ * @param maxConcurrentCalls calls in flight to the route before new ones are rejected (or queued, when asynchronous)
+ * @param maxQueuedCalls     asynchronous calls waiting for a free slot
+ */
+public record ResiliencePolicy(Duration timeout, int maxRetries, Duration retryDelay, CircuitBreakerPolicy circuitBreaker,
+                               int maxConcurrentCalls, int maxQueuedCalls) {
+
+    public static final ResiliencePolicy DEFAULT = new ResiliencePolicy(
+            Duration.ofSeconds(8), 2, Duration.ofMillis(200), CircuitBreakerPolicy.DEFAULT, 128, 256);
+
+    public ResiliencePolicy {
+        Objects.requireNonNull(timeout, "timeout must not be null");
+        Objects.requireNonNull(retryDelay, "retryDelay must not be null");
+        Objects.requireNonNull(circuitBreaker, "circuitBreaker must not be null");
+        if (timeout.isZero() || timeout.isNegative()) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        if (maxRetries < 0 || retryDelay.isNegative()) {
+            throw new IllegalArgumentException("maxRetries and retryDelay must not be negative");
+        }
+        if (maxConcurrentCalls < 1 || maxQueuedCalls < 1) {
+            throw new IllegalArgumentException("maxConcurrentCalls and maxQueuedCalls must be >= 1");
+        }
+    }
+
+    /**
+     * Whether a response with {@code status} counts against the route's breaker: a server error. Such a response is
+     * still answered to the client, and not retried.
+     */
+    public boolean isFailure(int status) {
+        return status >= 500;
+    }
+
+    /**
+     * Opens after {@code failureRatio} of the last {@code requestVolumeThreshold} calls failed, stays open for
+     * {@code delay}, then closes again after {@code successThreshold} successful trial calls.
+     */
+    public record CircuitBreakerPolicy(int requestVolumeThreshold, double failureRatio, Duration delay, int successThreshold) {
+
+        public static final CircuitBreakerPolicy DEFAULT = new CircuitBreakerPolicy(8, 0.5, Duration.ofSeconds(5), 1);
+
+        public CircuitBreakerPolicy {
+            Objects.requireNonNull(delay, "delay must not be null");
+            if (requestVolumeThreshold < 1 || successThreshold < 1) {
+                throw new IllegalArgumentException("requestVolumeThreshold and successThreshold must be >= 1");
+            }
+            if (failureRatio <= 0 || failureRatio > 1) {
+                throw new IllegalArgumentException("failureRatio must be in (0, 1]");
+            }
+            if (delay.isNegative()) {
+                throw new IllegalArgumentException("delay must not be negative");
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package domain.gateway;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Weighted round-robin over a schedule precomputed with the smooth (nginx) algorithm, so heavier instances are
+ * interleaved rather than picked in bursts. Selection is a single atomic increment; slots of unavailable instances are
+ * skipped and those of recovering instances are taken with a probability equal to their admission share.
+ */
+final class RoundRobinLoadBalancer extends LoadBalancer {
+
+    private final Upstream[] schedule;
+    private final AtomicLong next = new AtomicLong();
+
+    RoundRobinLoadBalancer(List<Upstream> upstreams) {
+        super(upstreams);
+        this.schedule = buildSchedule(this.upstreams);
+    }
+
+    @Override
+    public LoadBalancingStrategy strategy() {
+        return LoadBalancingStrategy.ROUND_ROBIN;
+    }
+
+    @Override
+    public Upstream select() {
+        long start = next.getAndIncrement();
+        Upstream fallback = null;
+        for (int i = 0; i < schedule.length; i++) {
+            Upstream candidate = schedule[slot(start + i)];
+            double share = candidate.health().admissionShare();
+            if (share >= 1) {
+                return candidate;
+            }
+            if (share > 0) {
+                if (ThreadLocalRandom.current().nextDouble() < share) {
+                    return candidate;
+                }
+                if (fallback == null) {
+                    fallback = candidate;
+                }
+            }
+        }
+        return fallback != null ? fallback : schedule[slot(start)];
+    }
+
+    private int slot(long position) {
+        return (int) Math.floorMod(position, (long) schedule.length);
+    }
+
+    private static Upstream[] buildSchedule(List<Upstream> upstreams) {
+        int divisor = 0;
+        for (Upstream upstream : upstreams) {
+            divisor = gcd(divisor, upstream.weight());
+        }
+
+        int[] weights = new int[upstreams.size()];
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = upstreams.get(i).weight() / divisor;
+            total += weights[i];
+        }
+
+        Upstream[] schedule = new Upstream[total];
+        int[] current = new int[weights.length];
+        for (int slot = 0; slot < total; slot++) {
+            int best = 0;
+            for (int i = 0; i < weights.length; i++) {
+                current[i] += weights[i];
+                if (current[i] > current[best]) {
+                    best = i;
+                }
+            }
+            current[best] -= total;
+            schedule[slot] = upstreams.get(best);
+        }
+        return schedule;
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+}
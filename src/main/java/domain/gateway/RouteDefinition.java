@@ -9,13 +9,21 @@ public record RouteDefinition(
         String id,
         List<String> pathPrefixes,
         boolean stripPrefix,
-        TargetDefinition target
+        TargetDefinition target,
+        ResiliencePolicy resilience,
+        boolean responseCache,
+        boolean segmentCache,
+        CoalescingPolicy coalescing,
+        StreamingPolicy streaming
 ) {
 
     public RouteDefinition {
         Objects.requireNonNull(id, "id must not be null");
         Objects.requireNonNull(pathPrefixes, "pathPrefixes must not be null");
         Objects.requireNonNull(target, "target must not be null");
+        Objects.requireNonNull(resilience, "resilience must not be null");
+        Objects.requireNonNull(coalescing, "coalescing must not be null");
+        Objects.requireNonNull(streaming, "streaming must not be null");
 
         if (id.isBlank()) {
             throw new IllegalArgumentException("id must not be blank");
@@ -28,6 +36,11 @@ public record RouteDefinition(
         }
     }
 
+    public RouteDefinition(String id, List<String> pathPrefixes, boolean stripPrefix, TargetDefinition target) {
+        this(id, pathPrefixes, stripPrefix, target, ResiliencePolicy.DEFAULT, false, false, CoalescingPolicy.DISABLED,
+                StreamingPolicy.DEFAULT);
+    }
+
     public Optional<String> bestMatchingPrefix(String requestPath) {
         if (requestPath == null) {
             return Optional.empty();
@@ -0,0 +1,130 @@
+package domain.gateway;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Immutable, precompiled longest-prefix index over a set of {@link RouteDefinition}s.
+ * <p>
+ * Every configured path prefix is stored in a compressed radix tree, so a lookup walks the request path once
+ * (O(path length)) and does not allocate. Matching keeps the historical {@code String#startsWith} semantics:
+ * the longest prefix wins and, when two routes declare the same prefix, the route listed first wins.
+ */
+public final class RouteIndex {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final char[] NO_KEYS = new char[0];
+
+    private final List<RouteDefinition> routes;
+    private final Node root;
+
+    private RouteIndex(List<RouteDefinition> routes, Node root) {
+        this.routes = routes;
+        this.root = root;
+    }
+
+    public static RouteIndex of(List<RouteDefinition> routes) {
+        Objects.requireNonNull(routes, "routes must not be null");
+
+        MutableNode root = new MutableNode();
+        for (RouteDefinition route : routes) {
+            for (String prefix : route.pathPrefixes()) {
+                MutableNode node = root;
+                for (int i = 0; i < prefix.length(); i++) {
+                    node = node.children.computeIfAbsent(prefix.charAt(i), c -> new MutableNode());
+                }
+                // Keep the first declaration of a duplicated prefix, like the former linear scan did.
+                if (node.match == null) {
+                    node.match = new RouteMatch(route, prefix);
+                }
+            }
+        }
+
+        return new RouteIndex(List.copyOf(routes), root.freeze(""));
+    }
+
+    public List<RouteDefinition> routes() {
+        return routes;
+    }
+
+    /**
+     * Finds the route whose prefix is the longest match for {@code path}.
+     *
+     * @return the precomputed match, or {@code null} when no prefix matches
+     */
+    public RouteMatch match(String path) {
+        if (path == null) {
+            return null;
+        }
+
+        RouteMatch best = null;
+        Node node = root;
+        int pos = 0;
+        while (true) {
+            if (node.match != null) {
+                best = node.match;
+            }
+            if (pos >= path.length()) {
+                return best;
+            }
+
+            Node child = node.child(path.charAt(pos));
+            if (child == null || !path.regionMatches(pos, child.label, 0, child.label.length())) {
+                return best;
+            }
+            pos += child.label.length();
+            node = child;
+        }
+    }
+
+    private static final class Node {
+        private final String label;
+        private final char[] keys;
+        private final Node[] children;
+        private final RouteMatch match;
+
+        private Node(String label, char[] keys, Node[] children, RouteMatch match) {
+            this.label = label;
+            this.keys = keys;
+            this.children = children;
+            this.match = match;
+        }
+
+        private Node child(char c) {
+            int idx = Arrays.binarySearch(keys, c);
+            return idx < 0 ? null : children[idx];
+        }
+    }
+
+    private static final class MutableNode {
+        private final TreeMap<Character, MutableNode> children = new TreeMap<>();
+        private RouteMatch match;
+
+        private Node freeze(String label) {
+            if (children.isEmpty()) {
+                return new Node(label, NO_KEYS, NO_CHILDREN, match);
+            }
+
+            char[] keys = new char[children.size()];
+            List<Node> frozen = new ArrayList<>(children.size());
+            int i = 0;
+            for (Map.Entry<Character, MutableNode> entry : children.entrySet()) {
+                StringBuilder edge = new StringBuilder().append(entry.getKey().charValue());
+                MutableNode next = entry.getValue();
+                // Collapse chains of single-child, non-terminal nodes into one edge.
+                while (next.match == null && next.children.size() == 1) {
+                    Map.Entry<Character, MutableNode> only = next.children.firstEntry();
+                    edge.append(only.getKey().charValue());
+                    next = only.getValue();
+                }
+                keys[i++] = entry.getKey();
+                frozen.add(next.freeze(edge.toString()));
+            }
+            return new Node(label, keys, frozen.toArray(NO_CHILDREN), match);
+        }
+    }
+}
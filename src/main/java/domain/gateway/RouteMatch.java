@@ -0,0 +1,18 @@
+package domain.gateway;
+
+import java.util.Objects;
+
+/**
+ * Result of a longest-prefix lookup: the matched route together with the path prefix that selected it.
+ */
+public record RouteMatch(RouteDefinition route, String matchedPrefix) {
+
+    public RouteMatch {
+        Objects.requireNonNull(route, "route must not be null");
+        Objects.requireNonNull(matchedPrefix, "matchedPrefix must not be null");
+    }
+
+    public String downstreamPath(String requestPath) {
+        return route.rewritePath(requestPath, matchedPrefix);
+    }
+}
@@ -0,0 +1,23 @@
+package domain.gateway;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable, versioned snapshot of the gateway route table.
+ * <p>
+ * A new snapshot replaces the previous one as a whole; requests, streams and WebSockets that already resolved a
+ * {@link RouteMatch} keep using it until they finish.
+ */
+public record RouteTable(long version, Instant loadedAt, RouteIndex index) {
+
+    public RouteTable {
+        Objects.requireNonNull(loadedAt, "loadedAt must not be null");
+        Objects.requireNonNull(index, "index must not be null");
+    }
+
+    public List<RouteDefinition> routes() {
+        return index.routes();
+    }
+}
@@ -0,0 +1,38 @@
+package domain.gateway;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * How the responses of a route are streamed, and how long-lived streams are relayed.
+ *
+ * @param mjpegRelay    relay each live MJPEG stream to all its viewers over a single upstream connection
+ * @param snapshots     answer {@code GET}s with a {@code snapshot} query parameter with the newest frame of the MJPEG
+ *                      stream at the same URL
+ * @param maxFrameBytes largest MJPEG frame relayed; larger ones are skipped
+ * @param idleTimeout   a streamed response whose downstream sent nothing for this long while the gateway waited for
+ *                      data is closed
+ * @param flush           how the streamed buffers are written to the client
+ * @param bufferThreshold largest response body buffered; larger bodies, and bodies of unknown length, are streamed
+ * @param webSocketFanOut share one downstream WebSocket among the clients subscribing to the same downstream path and
+ *                        tenant, and broadcast its messages to all of them
+ */
+public record StreamingPolicy(boolean mjpegRelay, boolean snapshots, int maxFrameBytes, Duration idleTimeout,
+                              FlushPolicy flush, long bufferThreshold, boolean webSocketFanOut) {
+
+    public static final StreamingPolicy DEFAULT = new StreamingPolicy(false, false, 4 * 1024 * 1024,
+            Duration.ofSeconds(60), FlushPolicy.DEFAULT, 1024 * 1024, false);
+
+    public StreamingPolicy {
+        if (maxFrameBytes < 1) {
+            throw new IllegalArgumentException("maxFrameBytes must be >= 1");
+        }
+        if (idleTimeout == null || idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("idleTimeout must be > 0");
+        }
+        Objects.requireNonNull(flush, "flush must not be null");
+        if (bufferThreshold < 0) {
+            throw new IllegalArgumentException("bufferThreshold must not be negative");
+        }
+    }
+}
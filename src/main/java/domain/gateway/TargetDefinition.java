@@ -1,13 +1,42 @@
 package domain.gateway;
 
+import java.util.List;
 import java.util.Objects;
 
-public record TargetDefinition(String baseUrl) {
+/**
+ * Where a route forwards to: one or more weighted {@link Upstream upstreams}, the balancer choosing among them and,
+ * optionally, the active health check probing them ({@code null} when only real traffic is watched).
+ */
+public record TargetDefinition(LoadBalancer loadBalancer, HealthCheckDefinition healthCheck) {
 
     public TargetDefinition {
-        Objects.requireNonNull(baseUrl, "baseUrl must not be null");
-        if (baseUrl.isBlank()) {
-            throw new IllegalArgumentException("baseUrl must not be blank");
-        }
+        Objects.requireNonNull(loadBalancer, "loadBalancer must not be null");
+    }
+
+    public TargetDefinition(String baseUrl) {
+        this(LoadBalancingStrategy.ROUND_ROBIN, List.of(new Upstream(baseUrl, 1)));
+    }
+
+    public TargetDefinition(LoadBalancingStrategy strategy, List<Upstream> upstreams) {
+        this(strategy, upstreams, null);
+    }
+
+    public TargetDefinition(LoadBalancingStrategy strategy, List<Upstream> upstreams, HealthCheckDefinition healthCheck) {
+        this(LoadBalancer.of(strategy, upstreams), healthCheck);
+    }
+
+    public List<Upstream> upstreams() {
+        return loadBalancer.upstreams();
+    }
+
+    /**
+     * Base URL of the first upstream; for display and single-instance targets.
+     */
+    public String baseUrl() {
+        return upstreams().getFirst().baseUrl();
+    }
+
+    public Upstream select() {
+        return loadBalancer.select();
     }
 }
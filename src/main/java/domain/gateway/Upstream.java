@@ -0,0 +1,155 @@
+package domain.gateway;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * One weighted instance behind a route target, with the lock-free request statistics and {@link UpstreamHealth health}
+ * used by the load balancers.
+ */
+public final class Upstream {
+
+    /**
+     * Weight of the newest latency sample in the moving average.
+     */
+    private static final double EWMA_ALPHA = 0.3;
+
+    private final String baseUrl;
+    private final int weight;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong ewmaLatencyNanos = new AtomicLong();
+    private final UpstreamHealth health;
+
+    public Upstream(String baseUrl, int weight) {
+        this(baseUrl, weight, OutlierDetectionPolicy.DEFAULT);
+    }
+
+    public Upstream(String baseUrl, int weight, OutlierDetectionPolicy outlierDetection) {
+        this(baseUrl, weight, outlierDetection, System::nanoTime);
+    }
+
+    Upstream(String baseUrl, int weight, OutlierDetectionPolicy outlierDetection, LongSupplier nanoClock) {
+        Objects.requireNonNull(baseUrl, "baseUrl must not be null");
+        if (baseUrl.isBlank()) {
+            throw new IllegalArgumentException("baseUrl must not be blank");
+        }
+        if (weight < 1) {
+            throw new IllegalArgumentException("weight must be >= 1");
+        }
+        this.baseUrl = baseUrl;
+        this.weight = weight;
+        this.health = new UpstreamHealth(Objects.requireNonNull(outlierDetection, "outlierDetection must not be null"), nanoClock);
+    }
+
+    public String baseUrl() {
+        return baseUrl;
+    }
+
+    public int weight() {
+        return weight;
+    }
+
+    public UpstreamHealth health() {
+        return health;
+    }
+
+    /**
+     * Requests sent to this instance that have not completed yet.
+     */
+    public int outstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * Moving average of the time to response headers, {@code 0} until the first response or failure. A failed call
+     * counts as a sample of at least the route timeout.
+     */
+    public long ewmaLatencyNanos() {
+        return ewmaLatencyNanos.get();
+    }
+
+    /**
+     * Counts a request as outstanding until {@link Lease#release()} is called.
+     */
+    public Lease acquire() {
+        outstanding.incrementAndGet();
+        return new Lease(System.nanoTime());
+    }
+
+    void recordLatency(long sampleNanos) {
+        long current;
+        long next;
+        do {
+            current = ewmaLatencyNanos.get();
+            next = current == 0 ? Math.max(1, sampleNanos) : (long) (current + EWMA_ALPHA * (sampleNanos - current));
+        } while (!ewmaLatencyNanos.compareAndSet(current, Math.max(1, next)));
+    }
+
+    @Override
+    public String toString() {
+        return baseUrl + (weight == 1 ? "" : " (weight=" + weight + ")");
+    }
+
+    public final class Lease {
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        public Upstream upstream() {
+            return Upstream.this;
+        }
+
+        /**
+         * Records the time from {@link #acquire()} until the response headers arrived; a 5xx status counts as a
+         * failure for outlier detection.
+         *
+         * @return {@code true} if the response ejected the instance
+         */
+        public boolean onResponse(int status) {
+            recordLatency(System.nanoTime() - startNanos);
+            if (status >= 500) {
+                return health.recordFailure();
+            }
+            health.recordSuccess();
+            return false;
+        }
+
+        /**
+         * Counts a request that got no response at all (connection refused, reset or timed out), with a latency
+         * sample of the time spent on it or {@code penalty}, whichever is larger, so a failing instance stops looking
+         * fast.
+         *
+         * @return {@code true} if the failure ejected the instance
+         */
+        public boolean onFailure(Duration penalty) {
+            recordLatency(Math.max(System.nanoTime() - startNanos, penalty.toNanos()));
+            return health.recordFailure();
+        }
+
+        /**
+         * Counts a request the caller gave up on before any response: a {@link #onFailure(Duration) failure} once
+         * {@code timeout} has elapsed, since the wait was cut by it, and nothing otherwise, since the client left.
+         *
+         * @return {@code true} if the failure ejected the instance
+         */
+        public boolean onCancellation(Duration timeout) {
+            return System.nanoTime() - startNanos >= timeout.toNanos() && onFailure(timeout);
+        }
+
+        /**
+         * Ends the request; further calls have no effect.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                outstanding.decrementAndGet();
+            }
+        }
+    }
+}
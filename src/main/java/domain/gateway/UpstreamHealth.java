@@ -0,0 +1,191 @@
+package domain.gateway;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Health of one {@link Upstream}, fed by real traffic (passive) and by probes (active).
+ * <p>
+ * An instance leaves rotation when it fails {@link OutlierDetectionPolicy#consecutiveFailures()} requests in a row
+ * (ejected for a growing, bounded time) or when probes fail {@link HealthCheckDefinition#unhealthyThreshold()} times in
+ * a row (out until probes succeed again). Either way it is readmitted gradually: its share of traffic ramps from
+ * {@value #MIN_READMISSION_SHARE} to 1 over the readmission window. The state is an immutable snapshot swapped with
+ * CAS, so the selection path costs a single volatile read while the instance is healthy.
+ */
+public final class UpstreamHealth {
+
+    /**
+     * Smallest share of its normal traffic a readmitted instance gets, so it is exercised right away.
+     */
+    static final double MIN_READMISSION_SHARE = 0.1;
+
+    public enum State {
+        HEALTHY,
+        /** Back in rotation, ramping up to its full share of traffic. */
+        RECOVERING,
+        /** Out of rotation after consecutive failures on real traffic. */
+        EJECTED,
+        /** Out of rotation after failed probes. */
+        UNHEALTHY
+    }
+
+    private static final Snapshot HEALTHY = new Snapshot(false, 0, false, false, 0);
+
+    private final OutlierDetectionPolicy policy;
+    private final LongSupplier nanoClock;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(HEALTHY);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicInteger ejections = new AtomicInteger();
+    private final AtomicInteger probeFailures = new AtomicInteger();
+    private final AtomicInteger probeSuccesses = new AtomicInteger();
+
+    UpstreamHealth(OutlierDetectionPolicy policy, LongSupplier nanoClock) {
+        this.policy = policy;
+        this.nanoClock = nanoClock;
+    }
+
+    public OutlierDetectionPolicy policy() {
+        return policy;
+    }
+
+    public State state() {
+        Snapshot current = snapshot.get();
+        if (current == HEALTHY) {
+            return State.HEALTHY;
+        }
+        long now = nanoClock.getAsLong();
+        if (current.probeDown()) {
+            return State.UNHEALTHY;
+        }
+        if (current.ejected(now)) {
+            return State.EJECTED;
+        }
+        return share(current, now) < 1 ? State.RECOVERING : State.HEALTHY;
+    }
+
+    public boolean isAvailable() {
+        return admissionShare() > 0;
+    }
+
+    /**
+     * Fraction of its normal traffic the instance should currently receive: {@code 0} while out of rotation, ramping
+     * up while recovering and {@code 1} once fully healthy.
+     */
+    public double admissionShare() {
+        Snapshot current = snapshot.get();
+        if (current == HEALTHY) {
+            return 1;
+        }
+        long now = nanoClock.getAsLong();
+        double share = share(current, now);
+        if (share >= 1 && snapshot.compareAndSet(current, HEALTHY)) {
+            // Fully recovered: later ejections start again from the base ejection time.
+            ejections.set(0);
+        }
+        return share;
+    }
+
+    public int consecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    /**
+     * Ejections since the instance was last fully healthy.
+     */
+    public int ejections() {
+        return ejections.get();
+    }
+
+    public void recordSuccess() {
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    /**
+     * Counts a 5xx response or connection failure.
+     *
+     * @return {@code true} if this failure ejected the instance
+     */
+    public boolean recordFailure() {
+        if (!policy.enabled() || consecutiveFailures.incrementAndGet() < policy.consecutiveFailures()) {
+            return false;
+        }
+
+        long now = nanoClock.getAsLong();
+        Snapshot current = snapshot.get();
+        if (current.ejected(now)) {
+            return false;
+        }
+
+        // The multiplier is capped only to keep the product from overflowing; maxEjectionTime bounds it long before.
+        int multiplier = Math.min(ejections.get() + 1, 1024);
+        long duration = Math.min(policy.maxEjectionTime().toNanos(), policy.baseEjectionTime().toNanos() * multiplier);
+        long until = now + duration;
+        if (!snapshot.compareAndSet(current, new Snapshot(true, until, current.probeDown(), true, until))) {
+            return false;
+        }
+        ejections.incrementAndGet();
+        consecutiveFailures.set(0);
+        return true;
+    }
+
+    /**
+     * Counts the result of an active probe.
+     *
+     * @return {@code true} if the probe moved the instance out of or back into rotation
+     */
+    public boolean recordProbe(boolean healthy, int unhealthyThreshold, int healthyThreshold) {
+        Snapshot current = snapshot.get();
+        if (healthy) {
+            probeFailures.set(0);
+            if (!current.probeDown() || probeSuccesses.incrementAndGet() < healthyThreshold) {
+                return false;
+            }
+            long now = nanoClock.getAsLong();
+            long readmittedAt = current.ejected(now) ? current.readmittedAt() : now;
+            if (snapshot.compareAndSet(current, new Snapshot(current.ejected(), current.ejectedUntil(), false, true, readmittedAt))) {
+                probeSuccesses.set(0);
+                return true;
+            }
+            return false;
+        }
+
+        probeSuccesses.set(0);
+        if (current.probeDown() || probeFailures.incrementAndGet() < unhealthyThreshold) {
+            return false;
+        }
+        if (snapshot.compareAndSet(current, new Snapshot(current.ejected(), current.ejectedUntil(), true, current.readmitting(), current.readmittedAt()))) {
+            probeFailures.set(0);
+            return true;
+        }
+        return false;
+    }
+
+    private double share(Snapshot current, long now) {
+        if (current.probeDown() || current.ejected(now)) {
+            return 0;
+        }
+        if (!current.readmitting()) {
+            return 1;
+        }
+        long window = policy.readmissionWindow().toNanos();
+        long elapsed = now - current.readmittedAt();
+        if (window <= 0 || elapsed >= window) {
+            return 1;
+        }
+        return Math.max(MIN_READMISSION_SHARE, (double) elapsed / window);
+    }
+
+    /**
+     * Times are {@link System#nanoTime()} values and only ever compared by difference.
+     */
+    private record Snapshot(boolean ejected, long ejectedUntil, boolean probeDown, boolean readmitting,
+                            long readmittedAt) {
+
+        boolean ejected(long now) {
+            return ejected && now - ejectedUntil < 0;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package domain.stream;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One whole part of a {@code multipart/x-mixed-replace} stream, typically a JPEG frame of an MJPEG camera.
+ * <p>
+ * {@link #encoded()} is the part as it goes on the wire: the boundary line, the part's own headers, its body and the
+ * closing line break. It is built once and written unchanged to every viewer, so it must not be modified.
+ */
+public final class MultipartFrame {
+
+    private final long sequence;
+    private final byte[] encoded;
+    private final int bodyOffset;
+    private final int bodyLength;
+    private final String contentType;
+
+    MultipartFrame(long sequence, byte[] encoded, int bodyOffset, int bodyLength, String contentType) {
+        this.sequence = sequence;
+        this.encoded = encoded;
+        this.bodyOffset = bodyOffset;
+        this.bodyLength = bodyLength;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Position of the frame in its stream, starting at 1.
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    public byte[] encoded() {
+        return encoded;
+    }
+
+    /**
+     * The part's body (the image itself) without copying it.
+     */
+    public ByteBuffer body() {
+        return ByteBuffer.wrap(encoded, bodyOffset, bodyLength).slice().asReadOnlyBuffer();
+    }
+
+    public int bodyLength() {
+        return bodyLength;
+    }
+
+    /**
+     * The part's {@code Content-Type}, or {@code null} without one.
+     */
+    public String contentType() {
+        return contentType;
+    }
+}
@@ -0,0 +1,274 @@
+package domain.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Splits a {@code multipart/x-mixed-replace} byte stream into whole {@link MultipartFrame}s, whatever the chunking of
+ * the bytes fed to it.
+ * <p>
+ * A part ends after its {@code Content-Length} when it declares one, so a frame is complete as soon as its last byte
+ * arrived; otherwise it ends at the next boundary. The parser is lenient the way camera firmware needs: it accepts
+ * bare {@code LF} line ends, skips preambles and garbage up to the next boundary, and drops parts with oversized
+ * headers or bodies larger than {@code maxFrameBytes} before resynchronizing on the next boundary. Not thread-safe.
+ */
+public final class MultipartFrameParser {
+
+    private static final int MAX_HEADER_BYTES = 8 * 1024;
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private enum State { BOUNDARY, HEADERS, BODY }
+
+    private final byte[] delimiter;
+    private final byte[] boundaryLine;
+    private final int maxFrameBytes;
+
+    private byte[] buffer = new byte[16 * 1024];
+    private int length;
+    private int position;
+    private int scanFrom;
+    private State state = State.BOUNDARY;
+    private int headerStart;
+    private int bodyStart;
+    private int contentLength = -1;
+    private String contentType;
+    private long sequence;
+
+    public MultipartFrameParser(String boundary, int maxFrameBytes) {
+        if (boundary == null || boundary.isEmpty()) {
+            throw new IllegalArgumentException("boundary must not be empty");
+        }
+        if (maxFrameBytes < 1) {
+            throw new IllegalArgumentException("maxFrameBytes must be >= 1");
+        }
+        this.delimiter = ("--" + boundary).getBytes(StandardCharsets.US_ASCII);
+        this.boundaryLine = ("--" + boundary + "\r\n").getBytes(StandardCharsets.US_ASCII);
+        this.maxFrameBytes = maxFrameBytes;
+    }
+
+    /**
+     * The {@code boundary} parameter of a {@code multipart/x-mixed-replace} content type, or {@code null} for any other
+     * content type.
+     */
+    public static String boundary(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String[] parameters = contentType.split(";");
+        if (!parameters[0].trim().equalsIgnoreCase("multipart/x-mixed-replace")) {
+            return null;
+        }
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            int eq = parameter.indexOf('=');
+            if (eq > 0 && parameter.substring(0, eq).trim().toLowerCase(Locale.ROOT).equals("boundary")) {
+                String value = parameter.substring(eq + 1).trim();
+                if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                // Some cameras declare the boundary with the leading dashes it is written with.
+                if (value.startsWith("--")) {
+                    value = value.substring(2);
+                }
+                return value.isEmpty() ? null : value;
+            }
+        }
+        return null;
+    }
+
+    public void feed(byte[] data, int offset, int count, Consumer<MultipartFrame> frames) {
+        append(data, offset, count);
+        while (step(frames)) {
+            // Parse every part the new bytes completed.
+        }
+        compact();
+    }
+
+    private boolean step(Consumer<MultipartFrame> frames) {
+        return switch (state) {
+            case BOUNDARY -> seekBoundary();
+            case HEADERS -> readHeaders();
+            case BODY -> readBody(frames);
+        };
+    }
+
+    private boolean seekBoundary() {
+        int at = indexOf(delimiter, Math.max(position, scanFrom));
+        if (at < 0) {
+            // Keep a tail that may be the start of a boundary split across reads.
+            position = Math.max(position, length - delimiter.length + 1);
+            scanFrom = position;
+            return false;
+        }
+        position = at;
+        int lineEnd = indexOf(LF, at + delimiter.length);
+        if (lineEnd < 0) {
+            scanFrom = at;
+            return false;
+        }
+        if (startsWithDashes(at + delimiter.length)) {
+            // The closing boundary; anything after it is epilogue.
+            position = lineEnd + 1;
+            scanFrom = position;
+            return true;
+        }
+        headerStart = lineEnd + 1;
+        scanFrom = headerStart;
+        contentLength = -1;
+        contentType = null;
+        state = State.HEADERS;
+        return true;
+    }
+
+    private boolean readHeaders() {
+        while (true) {
+            int lf = indexOf(LF, scanFrom);
+            if (lf < 0) {
+                if (length - headerStart > MAX_HEADER_BYTES) {
+                    resynchronize(headerStart);
+                    return true;
+                }
+                return false;
+            }
+            int lineEnd = lf > scanFrom && buffer[lf - 1] == CR ? lf - 1 : lf;
+            if (lineEnd == scanFrom) {
+                bodyStart = lf + 1;
+                scanFrom = bodyStart;
+                state = State.BODY;
+                return true;
+            }
+            header(scanFrom, lineEnd);
+            scanFrom = lf + 1;
+        }
+    }
+
+    private boolean readBody(Consumer<MultipartFrame> frames) {
+        if (contentLength >= 0) {
+            if (contentLength > maxFrameBytes) {
+                resynchronize(bodyStart);
+                return true;
+            }
+            if (length - bodyStart < contentLength) {
+                return false;
+            }
+            frames.accept(frame(bodyStart, contentLength));
+            resynchronize(bodyStart + contentLength);
+            return true;
+        }
+
+        int at = indexOf(delimiter, scanFrom);
+        if (at < 0) {
+            if (length - bodyStart > maxFrameBytes) {
+                resynchronize(length - delimiter.length + 1);
+                return false;
+            }
+            scanFrom = Math.max(bodyStart, length - delimiter.length + 1);
+            return false;
+        }
+        int bodyEnd = at;
+        if (bodyEnd > bodyStart && buffer[bodyEnd - 1] == LF) {
+            bodyEnd--;
+            if (bodyEnd > bodyStart && buffer[bodyEnd - 1] == CR) {
+                bodyEnd--;
+            }
+        }
+        if (bodyEnd - bodyStart <= maxFrameBytes) {
+            frames.accept(frame(bodyStart, bodyEnd - bodyStart));
+        }
+        resynchronize(at);
+        return true;
+    }
+
+    private void resynchronize(int from) {
+        position = Math.max(position, from);
+        scanFrom = position;
+        state = State.BOUNDARY;
+    }
+
+    private void header(int start, int end) {
+        String line = new String(buffer, start, end - start, StandardCharsets.ISO_8859_1);
+        int colon = line.indexOf(':');
+        if (colon <= 0) {
+            return;
+        }
+        String name = line.substring(0, colon).trim();
+        String value = line.substring(colon + 1).trim();
+        if (name.equalsIgnoreCase("Content-Length")) {
+            try {
+                contentLength = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                contentLength = -1;
+            }
+        } else if (name.equalsIgnoreCase("Content-Type")) {
+            contentType = value;
+        }
+    }
+
+    /**
+     * The part as written to viewers: a normalized boundary line, the original headers and the body.
+     */
+    private MultipartFrame frame(int start, int bodyLength) {
+        int headersLength = start - headerStart;
+        byte[] encoded = new byte[boundaryLine.length + headersLength + bodyLength + 2];
+        System.arraycopy(boundaryLine, 0, encoded, 0, boundaryLine.length);
+        System.arraycopy(buffer, headerStart, encoded, boundaryLine.length, headersLength);
+        int bodyOffset = boundaryLine.length + headersLength;
+        System.arraycopy(buffer, start, encoded, bodyOffset, bodyLength);
+        encoded[encoded.length - 2] = CR;
+        encoded[encoded.length - 1] = LF;
+        return new MultipartFrame(++sequence, encoded, bodyOffset, bodyLength, contentType);
+    }
+
+    private boolean startsWithDashes(int at) {
+        return at + 1 < length && buffer[at] == '-' && buffer[at + 1] == '-';
+    }
+
+    private int indexOf(byte value, int from) {
+        for (int i = from; i < length; i++) {
+            if (buffer[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int indexOf(byte[] pattern, int from) {
+        outer:
+        for (int i = Math.max(from, 0); i <= length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (buffer[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private void append(byte[] data, int offset, int count) {
+        if (length + count > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + count));
+        }
+        System.arraycopy(data, offset, buffer, length, count);
+        length += count;
+    }
+
+    /**
+     * Drops consumed bytes; positions are relative to the buffer, so they move with it.
+     */
+    private void compact() {
+        if (position == 0) {
+            return;
+        }
+        int consumed = Math.min(position, length);
+        System.arraycopy(buffer, consumed, buffer, 0, length - consumed);
+        length -= consumed;
+        position -= consumed;
+        scanFrom = Math.max(0, scanFrom - consumed);
+        headerStart -= consumed;
+        bodyStart -= consumed;
+    }
+}
@@ -0,0 +1,18 @@
+package ports.in.gateway;
+
+import application.dtos.gateway.GatewayReactiveStreamResponse;
+import application.dtos.gateway.GatewayRequest;
+import application.dtos.gateway.GatewayResponse;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Non-blocking variant of {@link ProxyRequestUseCase}: no thread is held while the downstream call is in flight.
+ */
+public interface ReactiveProxyRequestUseCase {
+    Uni<GatewayResponse> proxyAsync(GatewayRequest request);
+
+    /**
+     * Proxies a request in streaming mode; the body is relayed with back-pressure as downstream data arrives.
+     */
+    Uni<GatewayReactiveStreamResponse> proxyStreamAsync(GatewayRequest request);
+}
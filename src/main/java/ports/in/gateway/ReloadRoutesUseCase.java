@@ -0,0 +1,12 @@
+package ports.in.gateway;
+
+import domain.gateway.RouteTable;
+
+public interface ReloadRoutesUseCase {
+    RouteTable currentRoutes();
+
+    /**
+     * Reloads the route table and swaps it in atomically; in-flight requests keep the snapshot they started with.
+     */
+    RouteTable reloadRoutes();
+}
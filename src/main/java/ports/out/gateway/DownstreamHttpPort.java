@@ -1,8 +1,18 @@
 package ports.out.gateway;
 
+import application.dtos.gateway.DownstreamReactiveStreamResponse;
 import application.dtos.gateway.DownstreamRequest;
 import application.dtos.gateway.DownstreamResponse;
 import application.dtos.gateway.DownstreamStreamResponse;
+import application.dtos.gateway.StreamingBody;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.vertx.core.buffer.Buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 
 public interface DownstreamHttpPort {
     DownstreamResponse execute(DownstreamRequest request);
@@ -11,4 +21,105 @@ public interface DownstreamHttpPort {
      * Executes a downstream request and returns a streaming body.
      */
     DownstreamStreamResponse executeStream(DownstreamRequest request);
+
+    /**
+     * Executes a downstream request and only buffers the response body when it is known to fit: no body, or a
+     * declared {@code Content-Length} of at most {@code maxBufferedBytes}. Any other body is returned unread in
+     * {@link DownstreamResponse#bodyStream()}, with the request timeout bounding the wait for the response head.
+     * The default implementation buffers every body with {@link #execute(DownstreamRequest)}.
+     */
+    default DownstreamResponse executeBounded(DownstreamRequest request, long maxBufferedBytes) {
+        return execute(request);
+    }
+
+    /**
+     * Executes a downstream request whose {@link StreamingBody#stream()} is relayed as it is read, so the
+     * payload is never held in memory. Such requests cannot be retried.
+     * The default implementation buffers the body and delegates to {@link #execute(DownstreamRequest)}.
+     */
+    default DownstreamResponse executeUpload(DownstreamRequest request) {
+        StreamingBody body = request.streamingBody();
+        if (body == null) {
+            return execute(request);
+        }
+        try (InputStream in = body.stream()) {
+            return execute(new DownstreamRequest(request.method(), request.url(), request.headers(), in.readAllBytes(),
+                    null, request.timeout()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Executes a downstream request without holding the caller's thread for the round-trip.
+     * The default implementation offloads {@link #execute(DownstreamRequest)} to a worker thread.
+     */
+    default Uni<DownstreamResponse> executeAsync(DownstreamRequest request) {
+        return Uni.createFrom().item(() -> execute(request))
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+    }
+
+    /**
+     * Non-blocking {@link #executeBounded(DownstreamRequest, long)}: a body not known to fit is returned unread in
+     * {@link DownstreamResponse#bodyChunks()}, to be relayed with back-pressure.
+     * The default implementation buffers every body with {@link #executeAsync(DownstreamRequest)}.
+     */
+    default Uni<DownstreamResponse> executeBoundedAsync(DownstreamRequest request, long maxBufferedBytes) {
+        return executeAsync(request);
+    }
+
+    /**
+     * Executes a downstream request whose {@link StreamingBody#chunks()} are sent as the connection accepts them,
+     * without holding the caller's thread. Such requests cannot be retried.
+     * The default implementation collects the chunks and delegates to {@link #executeAsync(DownstreamRequest)}.
+     */
+    default Uni<DownstreamResponse> executeUploadAsync(DownstreamRequest request) {
+        StreamingBody body = request.streamingBody();
+        if (body == null) {
+            return executeAsync(request);
+        }
+        return body.chunks().collect().in(Buffer::buffer, Buffer::appendBuffer)
+                .flatMap(collected -> executeAsync(new DownstreamRequest(request.method(), request.url(),
+                        request.headers(), collected.getBytes(), null, request.timeout())));
+    }
+
+    /**
+     * Executes a downstream request and relays its body with back-pressure.
+     * The default implementation reads {@link #executeStream(DownstreamRequest)} chunk by chunk on worker threads.
+     */
+    default Uni<DownstreamReactiveStreamResponse> executeStreamAsync(DownstreamRequest request) {
+        return Uni.createFrom().item(() -> executeStream(request))
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                .map(response -> new DownstreamReactiveStreamResponse(
+                        response.status(),
+                        response.headers(),
+                        readChunks(response.body())
+                ));
+    }
+
+    private static Multi<Buffer> readChunks(InputStream body) {
+        if (body == null) {
+            return Multi.createFrom().empty();
+        }
+
+        Buffer endOfStream = Buffer.buffer(0);
+        return Multi.createBy().repeating()
+                .uni(() -> Uni.createFrom().item(() -> {
+                    try {
+                        byte[] chunk = new byte[16 * 1024];
+                        int read = body.read(chunk);
+                        return read < 0 ? endOfStream : Buffer.buffer(read).appendBytes(chunk, 0, read);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }).runSubscriptionOn(Infrastructure.getDefaultWorkerPool()))
+                .until(chunk -> chunk == endOfStream)
+                .onTermination().invoke(() -> {
+                    try {
+                        body.close();
+                    } catch (IOException ignored) {
+                        // nothing left to release
+                    }
+                });
+    }
 }
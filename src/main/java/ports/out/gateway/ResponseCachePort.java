@@ -0,0 +1,19 @@
+package ports.out.gateway;
+
+import domain.cache.CacheKey;
+import domain.cache.CachedVariants;
+
+import java.util.Optional;
+
+/**
+ * Storage behind the gateway response cache. Implementations bound their size and may drop any entry at any time,
+ * including right after {@link #put}.
+ */
+public interface ResponseCachePort {
+
+    Optional<CachedVariants> get(CacheKey key);
+
+    void put(CacheKey key, CachedVariants variants);
+
+    void invalidate(CacheKey key);
+}
@@ -1,9 +1,35 @@
 package ports.out.gateway;
 
 import domain.gateway.RouteDefinition;
+import domain.gateway.RouteIndex;
+import domain.gateway.RouteTable;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface RouteDefinitionsPort {
     List<RouteDefinition> listRoutes();
+
+    /**
+     * Returns the longest-prefix index used by every gateway entry point to match request paths.
+     * Implementations backed by static configuration should build it once and hand out the same instance.
+     */
+    default RouteIndex routeIndex() {
+        return RouteIndex.of(listRoutes());
+    }
+
+    /**
+     * Returns the currently published route table snapshot.
+     */
+    default RouteTable routeTable() {
+        return new RouteTable(0, Instant.EPOCH, routeIndex());
+    }
+
+    /**
+     * Re-reads the route source and atomically publishes a new snapshot.
+     * Sources that cannot change at runtime simply return the current table.
+     */
+    default RouteTable reload() {
+        return routeTable();
+    }
 }
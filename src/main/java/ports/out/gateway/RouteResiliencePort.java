@@ -0,0 +1,41 @@
+package ports.out.gateway;
+
+import domain.gateway.RouteDefinition;
+import domain.gateway.RouteTable;
+import io.smallrye.mutiny.Uni;
+
+import java.util.function.Supplier;
+
+/**
+ * Applies the {@link domain.gateway.ResiliencePolicy} of a route around downstream calls. Breaker, bulkhead and retry
+ * state are kept per route id.
+ * <p>
+ * Calls rejected by an open breaker or a full bulkhead fail with
+ * {@link application.exceptions.DownstreamUnavailableException}; calls exceeding the route timeout fail with
+ * {@link application.exceptions.DownstreamTimeoutException}. The {@code call} is invoked once per attempt. A
+ * {@link application.dtos.gateway.StatusResponse} whose status is a {@link domain.gateway.ResiliencePolicy#isFailure(int)
+ * failure} counts as a failed call, but is returned like any other.
+ */
+public interface RouteResiliencePort {
+
+    /**
+     * Buffered request: timeout, retries (only when {@code idempotent}), circuit breaker and bulkhead.
+     */
+    <T> T execute(RouteDefinition route, boolean idempotent, Supplier<T> call);
+
+    /**
+     * Streamed response or upload: circuit breaker and bulkhead while the call runs; no timeout and no retries.
+     */
+    <T> T executeStream(RouteDefinition route, Supplier<T> call);
+
+    <T> Uni<T> executeAsync(RouteDefinition route, boolean idempotent, Supplier<Uni<T>> call);
+
+    <T> Uni<T> executeStreamAsync(RouteDefinition route, Supplier<Uni<T>> call);
+
+    /**
+     * Forgets the state kept for routes that are not in {@code table}, once a reload removed them. Implementations
+     * without per-route state keep this default.
+     */
+    default void retainRoutes(RouteTable table) {
+    }
+}
@@ -0,0 +1,28 @@
+package ports.out.gateway;
+
+import domain.cache.CacheKey;
+import domain.cache.CachedSegment;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Local storage of HLS media segments, bounded in total bytes and evicting the least recently used segments.
+ */
+public interface SegmentCachePort {
+
+    Optional<CachedSegment> get(CacheKey key);
+
+    /**
+     * Copies {@code body} to storage and indexes it under {@code key}, replacing any previous segment. The body is
+     * always closed.
+     *
+     * @return the stored segment, or empty if the body exceeded {@link #maxSegmentBytes()} or could not be written;
+     * the body is then (partly) consumed
+     */
+    Optional<CachedSegment> put(CacheKey key, Map<String, List<String>> headers, InputStream body);
+
+    long maxSegmentBytes();
+}
@@ -0,0 +1,73 @@
+package adapters.in.communication.rest.gateway;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(ApiGatewayCoalescingTest.CoalescingProfile.class)
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class ApiGatewayCoalescingTest {
+
+    public static class CoalescingProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("gateway.routes.downstream.coalescing.enabled", "true");
+        }
+    }
+
+    @Test
+    void shouldSendConcurrentIdenticalRequestsDownstreamOnce() {
+        List<Response> responses = concurrently("/api/v1/coalesced");
+
+        String body = responses.getFirst().asString();
+        assertTrue(body.startsWith("served="), body);
+        for (Response response : responses) {
+            assertEquals(200, response.statusCode());
+            assertEquals(body, response.asString());
+        }
+        assertNotEquals(body, given().when().get("/api/v1/coalesced").asString());
+    }
+
+    @Test
+    void shouldReplayAStreamedPlaylistToConcurrentViewers() {
+        List<Response> responses = concurrently("/api/v1/streaming/hls/cam-1/live.m3u8");
+
+        String body = responses.getFirst().asString();
+        assertTrue(body.startsWith("#EXTM3U\n#EXT-X-MEDIA-SEQUENCE:"), body);
+        for (Response response : responses) {
+            assertEquals(200, response.statusCode());
+            assertEquals(body, response.asString());
+        }
+    }
+
+    private static List<Response> concurrently(String path) {
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            return IntStream.range(0, 8)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> given().when().get(path), clients))
+                    .toList()
+                    .stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+        } finally {
+            clients.shutdown();
+        }
+    }
+}
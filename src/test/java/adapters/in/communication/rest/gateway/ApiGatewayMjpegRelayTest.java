@@ -0,0 +1,98 @@
+package adapters.in.communication.rest.gateway;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(ApiGatewayMjpegRelayTest.MjpegRelayProfile.class)
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class ApiGatewayMjpegRelayTest {
+
+    public static class MjpegRelayProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "gateway.routes.downstream.streaming.mjpeg-relay", "true",
+                    "gateway.routes.downstream.streaming.snapshots", "true");
+        }
+    }
+
+    @Test
+    void shouldRelayOneUpstreamStreamToConcurrentViewers() {
+        List<Response> responses = concurrently("/api/v1/mjpeg");
+
+        String stream = responses.getFirst().header("X-Stream");
+        for (Response response : responses) {
+            assertEquals(200, response.statusCode());
+            assertEquals(stream, response.header("X-Stream"));
+            assertTrue(response.contentType().startsWith("multipart/x-mixed-replace"), response.contentType());
+            assertTrue(response.asString().endsWith("--frame\r\nContent-Type: text/plain\r\nContent-Length: 7\r\n\r\nhello-3\r\n"),
+                    response.asString());
+        }
+        assertNotEquals(stream, view("/api/v1/mjpeg").header("X-Stream"));
+    }
+
+    @Test
+    void shouldServeSnapshotsFromTheLiveStreamOrASingleFrameFetch() throws Exception {
+        Response fetched = given().when().get("/api/v1/mjpeg?snapshot");
+        assertEquals(200, fetched.statusCode());
+        assertEquals("hello-1", fetched.asString());
+        assertTrue(fetched.contentType().startsWith("text/plain"), fetched.contentType());
+
+        URI uri = URI.create("http://localhost:" + RestAssured.port + "/api/v1/mjpeg");
+        HttpResponse<InputStream> live = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(uri).header("Accept", "multipart/x-mixed-replace").GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream stream = live.body()) {
+            // Waits for the first frame, which the gateway has relayed by then.
+            stream.readNBytes("--frame\r\nContent-Type: text/plain\r\nContent-Length: 7\r\n\r\nhello-1\r\n".length());
+
+            Response snapshot = given().when().get("/api/v1/mjpeg?snapshot");
+            assertEquals(200, snapshot.statusCode());
+            assertEquals("hello-1", snapshot.asString());
+            assertEquals(live.headers().firstValue("X-Stream").orElseThrow(), snapshot.header("X-Stream"));
+            assertNotEquals(fetched.header("X-Stream"), snapshot.header("X-Stream"));
+        }
+    }
+
+    private static Response view(String path) {
+        return given().header("Accept", "multipart/x-mixed-replace").when().get(path);
+    }
+
+    private static List<Response> concurrently(String path) {
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            return IntStream.range(0, 4)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> view(path), clients))
+                    .toList()
+                    .stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+        } finally {
+            clients.shutdown();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package adapters.in.communication.rest.gateway;
 
 import io.quarkus.test.common.QuarkusTestResource;
 import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.security.TestSecurity;
 import io.restassured.response.Response;
 import org.junit.jupiter.api.Test;
 import testresources.DownstreamVertxStubTestResource;
@@ -11,6 +12,7 @@ import java.util.List;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @QuarkusTest
@@ -109,4 +111,38 @@ class ApiGatewayResourceTest {
                 .contentType("application/vnd.apple.mpegurl")
                 .body(containsString("#EXTM3U"));
     }
+
+    @Test
+    @TestSecurity(user = "ops", roles = RouteAdminResource.ADMIN_ROLE)
+    void shouldExposeAndReloadRouteTableThroughAdminEndpoint() {
+        int version = given()
+                .when()
+                .get("/_gateway/routes")
+                .then()
+                .statusCode(200)
+                .body("routes.id", hasItem("downstream"))
+                .extract()
+                .path("version");
+
+        given()
+                .when()
+                .post("/_gateway/routes/reload")
+                .then()
+                .statusCode(200)
+                .body("version", equalTo(version + 1))
+                .body("routes.find { it.id == 'downstream' }.pathPrefixes", hasItem("/api/v1"));
+    }
+
+    @Test
+    void shouldKeepTheAdminEndpointFromAnonymousCallers() {
+        given().when().get("/_gateway/routes").then().statusCode(401);
+        given().when().post("/_gateway/routes/reload").then().statusCode(401);
+    }
+
+    @Test
+    @TestSecurity(user = "viewer", roles = "user")
+    void shouldKeepTheAdminEndpointFromCallersWithoutTheAdminRole() {
+        given().when().get("/_gateway/routes").then().statusCode(403);
+        given().when().post("/_gateway/routes/reload").then().statusCode(403);
+    }
 }
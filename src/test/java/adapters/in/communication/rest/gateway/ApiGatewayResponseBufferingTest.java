@@ -0,0 +1,97 @@
+package adapters.in.communication.rest.gateway;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(ApiGatewayResponseBufferingTest.SmallBufferProfile.class)
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class ApiGatewayResponseBufferingTest {
+
+    private static final String FIRST_RECORD = "[{\"id\":1}";
+
+    public static class SmallBufferProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("gateway.routes.downstream.streaming.buffer-threshold", "32");
+        }
+    }
+
+    @Test
+    void shouldStreamABodyOfUnknownLengthOnAnOrdinaryPath() throws Exception {
+        assertFirstRecordArrivesBeforeTheRest(HttpRequest.newBuilder(exportUri()).GET().build());
+    }
+
+    @Test
+    void shouldStreamTheResponseOfAPost() throws Exception {
+        assertFirstRecordArrivesBeforeTheRest(HttpRequest.newBuilder(exportUri())
+                .POST(HttpRequest.BodyPublishers.ofString("{}")).build());
+    }
+
+    @Test
+    void shouldAbortTheResponseWhenTheDownstreamBodyBreaksOff() {
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + RestAssured.port + "/api/v1/export-truncated")).GET().build();
+
+        // The client must not be handed the first record as if it were the whole export.
+        assertThrows(IOException.class,
+                () -> HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString()));
+    }
+
+    @Test
+    void shouldRelayBodiesLargerThanTheThresholdWhole() {
+        given().body("a body that makes the echo longer than the threshold")
+                .when().put("/api/v1/items/1")
+                .then().statusCode(200)
+                .header("X-Echo-Method", "PUT")
+                .body(equalTo("method=PUT path=/api/v1/items/1 query= body=a body that makes the echo longer than the threshold"));
+        given().when().head("/api/v1/items/1").then().statusCode(200).header("X-Echo-Method", "HEAD");
+    }
+
+    @Test
+    void shouldBufferBodiesWithinTheThreshold() {
+        given().when().get("/api/v1/error-400")
+                .then().statusCode(400)
+                .header("X-Downstream-Error", "1")
+                .body(equalTo("{\"error\":\"bad_request\"}"));
+    }
+
+    private static URI exportUri() {
+        return URI.create("http://localhost:" + RestAssured.port + "/api/v1/export");
+    }
+
+    private static void assertFirstRecordArrivesBeforeTheRest(HttpRequest request) throws Exception {
+        // Warm-up, so that first-use costs do not count against the timing below.
+        given().when().get("/api/v1/hello").then().statusCode(200);
+
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            assertEquals(200, response.statusCode());
+            assertEquals(FIRST_RECORD, new String(body.readNBytes(FIRST_RECORD.length()), StandardCharsets.UTF_8));
+            // The rest is sent 1.5 s later: the head and the first record were not held back until then.
+            assertTrue(System.nanoTime() - start < 1_000_000_000L);
+            assertEquals(",{\"id\":2}]", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package adapters.in.communication.rest.gateway;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(ApiGatewayResponseCacheTest.CachedRouteProfile.class)
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class ApiGatewayResponseCacheTest {
+
+    public static class CachedRouteProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("gateway.routes.downstream.cache.enabled", "true");
+        }
+    }
+
+    @Test
+    void shouldServeFreshResponsesFromTheCache() {
+        Response first = get("/api/v1/cached?case=fresh");
+        Response second = get("/api/v1/cached?case=fresh");
+
+        assertEquals("MISS", first.header("X-Cache"));
+        assertEquals("HIT", second.header("X-Cache"));
+        assertEquals(first.asString(), second.asString());
+    }
+
+    @Test
+    void shouldRevalidateWithTheEtagAndReuseTheStoredBody() {
+        Response first = get("/api/v1/cached?case=revalidate");
+        Response second = get("/api/v1/cached?case=revalidate");
+
+        assertEquals("MISS", first.header("X-Cache"));
+        assertEquals("REVALIDATED", second.header("X-Cache"));
+        assertEquals(first.asString(), second.asString());
+    }
+
+    @Test
+    void shouldInvalidateOnUnsafeRequests() {
+        Response cached = get("/api/v1/cached?case=invalidate");
+        given().when().post("/api/v1/cached?case=invalidate").then().statusCode(200);
+        Response refetched = get("/api/v1/cached?case=invalidate");
+
+        assertEquals("MISS", refetched.header("X-Cache"));
+        assertNotEquals(cached.asString(), refetched.asString());
+    }
+
+    @Test
+    void shouldRelayBodiesOfUnknownLengthWithoutStoringThem() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + RestAssured.port + "/api/v1/export")).GET().build();
+
+        // Warm-up, so that first-use costs do not count against the timing below.
+        given().when().get("/api/v1/hello").then().statusCode(200);
+
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            HttpResponse<InputStream> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream body = response.body()) {
+                assertEquals("MISS", response.headers().firstValue("X-Cache").orElse(null));
+                assertEquals("[{\"id\":1}", new String(body.readNBytes(9), StandardCharsets.UTF_8));
+                // The stub ends the export 1.5 s later: the first record was not held back to be stored.
+                assertTrue(System.nanoTime() - start < 1_000_000_000L);
+                assertEquals(",{\"id\":2}]", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static Response get(String path) {
+        return given().when().get(path).then().statusCode(200).extract().response();
+    }
+}
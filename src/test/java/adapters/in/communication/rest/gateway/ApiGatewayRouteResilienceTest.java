@@ -0,0 +1,150 @@
+package adapters.in.communication.rest.gateway;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@TestProfile(ApiGatewayRouteResilienceTest.IsolatedRoutesProfile.class)
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class ApiGatewayRouteResilienceTest {
+
+    /**
+     * Five extra routes next to the stub's {@code /api/v1}: one to a port nobody listens on, one to the stub that trips
+     * its breaker after four calls, one with a short timeout, one with a timeout above the HTTP client's and one that
+     * admits a single call at a time.
+     */
+    public static class IsolatedRoutesProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.ofEntries(
+                    Map.entry("gateway.downstream.request-timeout", "PT1S"),
+                    Map.entry("gateway.routes.broken.path-prefixes[0]", "/broken"),
+                    Map.entry("gateway.routes.broken.target.base-url", "http://localhost:1"),
+                    Map.entry("gateway.routes.broken.resilience.max-retries", "0"),
+                    Map.entry("gateway.routes.broken.resilience.circuit-breaker.request-volume-threshold", "4"),
+                    Map.entry("gateway.routes.broken.resilience.circuit-breaker.delay", "PT1M"),
+                    Map.entry("gateway.routes.erring.path-prefixes[0]", "/erring"),
+                    Map.entry("gateway.routes.erring.strip-prefix", "true"),
+                    Map.entry("gateway.routes.erring.target.base-url", "${gateway.routes.downstream.target.base-url}"),
+                    Map.entry("gateway.routes.erring.resilience.max-retries", "0"),
+                    Map.entry("gateway.routes.erring.resilience.circuit-breaker.request-volume-threshold", "4"),
+                    Map.entry("gateway.routes.erring.resilience.circuit-breaker.delay", "PT1M"),
+                    Map.entry("gateway.routes.impatient.path-prefixes[0]", "/impatient"),
+                    Map.entry("gateway.routes.impatient.strip-prefix", "true"),
+                    Map.entry("gateway.routes.impatient.target.base-url", "${gateway.routes.downstream.target.base-url}"),
+                    Map.entry("gateway.routes.impatient.resilience.timeout", "PT0.3S"),
+                    Map.entry("gateway.routes.impatient.resilience.max-retries", "0"),
+                    Map.entry("gateway.routes.patient.path-prefixes[0]", "/patient"),
+                    Map.entry("gateway.routes.patient.strip-prefix", "true"),
+                    Map.entry("gateway.routes.patient.target.base-url", "${gateway.routes.downstream.target.base-url}"),
+                    Map.entry("gateway.routes.patient.resilience.timeout", "PT3S"),
+                    Map.entry("gateway.routes.patient.resilience.max-retries", "0"),
+                    Map.entry("gateway.routes.narrow.path-prefixes[0]", "/narrow"),
+                    Map.entry("gateway.routes.narrow.strip-prefix", "true"),
+                    Map.entry("gateway.routes.narrow.target.base-url", "${gateway.routes.downstream.target.base-url}"),
+                    Map.entry("gateway.routes.narrow.resilience.max-concurrent-calls", "1")
+            );
+        }
+    }
+
+    @Test
+    void shouldOpenTheBreakerOfTheFailingRouteOnly() {
+        for (int i = 0; i < 4; i++) {
+            given().when().get("/broken/x").then().statusCode(502);
+        }
+
+        given()
+                .when()
+                .get("/broken/x")
+                .then()
+                .statusCode(503)
+                .body(containsString("GATEWAY.DOWNSTREAM_UNAVAILABLE"));
+
+        given()
+                .when()
+                .get("/api/v1/hello")
+                .then()
+                .statusCode(200)
+                .body(containsString("path=/api/v1/hello"));
+    }
+
+    @Test
+    void shouldCountServerErrorsAgainstTheRouteBreaker() {
+        for (int i = 0; i < 4; i++) {
+            given().when().get("/erring/api/v1/error-500").then().statusCode(500);
+        }
+
+        given()
+                .when()
+                .get("/erring/api/v1/hello")
+                .then()
+                .statusCode(503)
+                .body(containsString("GATEWAY.DOWNSTREAM_UNAVAILABLE"));
+
+        given().when().get("/api/v1/error-400").then().statusCode(400);
+        given().when().get("/api/v1/hello").then().statusCode(200);
+    }
+
+    @Test
+    void shouldApplyTheRouteTimeout() {
+        given()
+                .when()
+                .get("/impatient/api/v1/slow?ms=2000")
+                .then()
+                .statusCode(504)
+                .body(containsString("GATEWAY.DOWNSTREAM_TIMEOUT"));
+
+        // The same backend behind the default policy is given the time it needs.
+        given()
+                .when()
+                .get("/api/v1/slow?ms=600")
+                .then()
+                .statusCode(200)
+                .body(containsString("slept=600"));
+    }
+
+    @Test
+    void shouldWaitForTheRouteTimeoutRatherThanTheClientDefault() {
+        given()
+                .when()
+                .get("/patient/api/v1/slow?ms=1500")
+                .then()
+                .statusCode(200)
+                .body(containsString("slept=1500"));
+
+        given()
+                .when()
+                .get("/patient/api/v1/slow?ms=4000")
+                .then()
+                .statusCode(504)
+                .body(containsString("GATEWAY.DOWNSTREAM_TIMEOUT"));
+    }
+
+    @Test
+    void shouldRejectCallsBeyondTheRouteConcurrencyLimit() throws Exception {
+        CompletableFuture<Integer> slow = CompletableFuture.supplyAsync(
+                () -> given().when().get("/narrow/api/v1/slow?ms=1500").statusCode());
+        Thread.sleep(500);
+
+        given()
+                .when()
+                .get("/narrow/api/v1/hello")
+                .then()
+                .statusCode(503)
+                .body(containsString("concurrent calls"));
+        given().when().get("/api/v1/hello").then().statusCode(200);
+
+        assertEquals(200, slow.get());
+    }
+}
@@ -0,0 +1,62 @@
+package adapters.in.communication.rest.gateway;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(ApiGatewaySegmentCacheTest.SegmentCacheProfile.class)
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class ApiGatewaySegmentCacheTest {
+
+    public static class SegmentCacheProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("gateway.routes.downstream.cache.segments", "true");
+        }
+    }
+
+    @Test
+    void shouldFetchASegmentOnceForConcurrentViewers() {
+        String path = "/api/v1/streaming/hls/cam-1/segment7.ts";
+
+        List<Response> responses = IntStream.range(0, 10)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> given().when().get(path)))
+                .toList()
+                .stream()
+                .map(CompletableFuture::join)
+                .toList();
+
+        String body = responses.getFirst().asString();
+        assertTrue(body.startsWith("segment /api/v1/streaming/hls/cam-1/segment7.ts fetch="), body);
+        for (Response response : responses) {
+            assertEquals(200, response.statusCode());
+            assertEquals("video/mp2t", response.contentType());
+            assertEquals(body, response.asString());
+        }
+        assertEquals("HIT", given().when().get(path).header("X-Cache"));
+    }
+
+    @Test
+    void shouldNotCachePlaylists() {
+        given()
+                .when()
+                .get("/api/v1/streaming/hls/cam-1/index.m3u8")
+                .then()
+                .statusCode(200)
+                .header("X-Cache", (String) null);
+    }
+}
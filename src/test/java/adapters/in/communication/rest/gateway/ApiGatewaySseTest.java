@@ -0,0 +1,54 @@
+package adapters.in.communication.rest.gateway;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(ApiGatewaySseTest.FastHeartbeatProfile.class)
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class ApiGatewaySseTest {
+
+    private static final String FIRST_EVENT = "id: 1\ndata: last=41\n\n";
+    private static final String HEARTBEAT = ":\n\n";
+
+    public static class FastHeartbeatProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("gateway.sse.heartbeat-interval", "PT0.3S");
+        }
+    }
+
+    @Test
+    void shouldRelayWholeEventsWithHeartbeatsWhileTheDownstreamIsQuiet() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + RestAssured.port + "/api/v1/events"))
+                .header("Accept", "text/event-stream")
+                .header("Last-Event-ID", "41")
+                .GET().build();
+
+        HttpResponse<InputStream> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            assertEquals(200, response.statusCode());
+            assertEquals("no-cache", response.headers().firstValue("Cache-Control").orElse(null));
+
+            // The first event's halves are 700 ms apart: heartbeats go around the event, never inside it.
+            String events = new String(body.readAllBytes(), StandardCharsets.UTF_8).replace(HEARTBEAT, "|");
+            assertTrue(events.matches("\\|*" + FIRST_EVENT + "\\|+id: 2\ndata: bye\n\n"), events);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package adapters.in.communication.rest.gateway;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(ApiGatewayStreamLaneTest.StreamLaneProfile.class)
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class ApiGatewayStreamLaneTest {
+
+    private static final String FIRST_FRAME = "--frame\r\nContent-Type: text/plain\r\nContent-Length: 7\r\n\r\nhello-1\r\n";
+
+    public static class StreamLaneProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "gateway.stream-lane.max-streams", "1",
+                    "gateway.routes.downstream.streaming.idle-timeout", "PT0.5S");
+        }
+    }
+
+    @Test
+    void shouldBoundConcurrentStreamsAndCloseTheIdleOnes() throws Exception {
+        // Warms up the client: the checks below must fit between the first frame and the idle timeout.
+        given().when().get("/api/v1/hello").then().statusCode(200);
+
+        URI uri = URI.create("http://localhost:" + RestAssured.port + "/api/v1/mjpeg");
+        HttpResponse<InputStream> live = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(uri).header("Accept", "multipart/x-mixed-replace").GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        long start = System.nanoTime();
+        try (InputStream stream = live.body()) {
+            assertEquals(FIRST_FRAME, new String(stream.readNBytes(FIRST_FRAME.length()), StandardCharsets.UTF_8));
+
+            // The lane holds a single stream; buffered requests do not use it.
+            given().header("Accept", "multipart/x-mixed-replace").when().get("/api/v1/mjpeg").then().statusCode(503);
+            given().when().get("/api/v1/hello").then().statusCode(200);
+
+            // The second frame comes 1.2 s after the first: the stream is closed before, once idle for 0.5 s.
+            String rest = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+            assertFalse(rest.contains("hello-2"), rest);
+            assertTrue(System.nanoTime() - start < 1_200_000_000L);
+        }
+
+        // The slot is free again.
+        given().header("Accept", "multipart/x-mixed-replace").when().get("/api/v1/mjpeg").then().statusCode(200);
+
+        String metrics = given().when().get("/q/metrics").asString();
+        assertTrue(metrics.contains("gateway_streams_active{route=\"downstream\"} 0.0"), metrics);
+        assertTrue(metrics.contains("gateway_streams_idle_closed_total"), metrics);
+    }
+}
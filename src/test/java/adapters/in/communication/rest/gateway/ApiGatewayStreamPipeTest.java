@@ -0,0 +1,82 @@
+package adapters.in.communication.rest.gateway;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(ApiGatewayStreamPipeTest.StreamPipeProfile.class)
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class ApiGatewayStreamPipeTest {
+
+    private static final String FIRST_FRAME = "--frame\r\nContent-Type: text/plain\r\nContent-Length: 7\r\n\r\nhello-1\r\n";
+
+    public static class StreamPipeProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "gateway.stream-pipe.enabled", "true",
+                    "gateway.downstream.client", "vertx",
+                    // Piped streams do not take a lane slot.
+                    "gateway.stream-lane.max-streams", "1",
+                    "gateway.routes.downstream.cache.segments", "true");
+        }
+    }
+
+    @Test
+    void shouldPipeEachFrameAsSoonAsTheDownstreamSendsIt() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + RestAssured.port + "/api/v1/mjpeg"))
+                .header("Accept", "multipart/x-mixed-replace").GET().build();
+
+        HttpResponse<InputStream> first = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        HttpResponse<InputStream> second = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream firstBody = first.body(); InputStream secondBody = second.body()) {
+            assertEquals(200, first.statusCode());
+            assertEquals(200, second.statusCode());
+            assertTrue(first.headers().firstValue("Content-Type").orElseThrow().startsWith("multipart/x-mixed-replace"));
+            assertEquals("no-cache", first.headers().firstValue("Cache-Control").orElseThrow());
+
+            long start = System.nanoTime();
+            assertEquals(FIRST_FRAME, new String(firstBody.readNBytes(FIRST_FRAME.length()), StandardCharsets.UTF_8));
+            assertEquals(FIRST_FRAME, new String(secondBody.readNBytes(FIRST_FRAME.length()), StandardCharsets.UTF_8));
+            // The second frame is sent 1.2 s after the first: the first one was not held back.
+            assertTrue(System.nanoTime() - start < 1_000_000_000L);
+
+            assertTrue(new String(firstBody.readAllBytes(), StandardCharsets.UTF_8).endsWith("hello-3\r\n"));
+        }
+    }
+
+    @Test
+    void shouldSendCachedSegmentsFromDisk() {
+        String path = "/api/v1/streaming/hls/pipe/segment-1.ts";
+        String body = given().when().get(path).then().statusCode(200).contentType("video/mp2t").extract().asString();
+
+        given().when().get(path).then().statusCode(200).body(equalTo(body));
+        assertTrue(body.startsWith("segment " + path), body);
+    }
+
+    @Test
+    void shouldLeaveOtherRequestsToTheResources() {
+        given().when().get("/api/v1/hello").then().statusCode(200).body(containsString("path=/api/v1/hello"));
+        given().when().get("/api/v2/unknown/stream").then().statusCode(404).body(containsString("GATEWAY.ROUTE_NOT_FOUND"));
+    }
+}
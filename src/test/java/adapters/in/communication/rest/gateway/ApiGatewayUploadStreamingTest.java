@@ -0,0 +1,152 @@
+package adapters.in.communication.rest.gateway;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class ApiGatewayUploadStreamingTest {
+
+    private static final int UPLOAD_SIZE = 32 * 1024 * 1024;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    void shouldRelayLargeUploadWithContentLength() throws Exception {
+        HttpRequest req = HttpRequest.newBuilder(gatewayUri("/api/v1/upload"))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/octet-stream")
+                .POST(HttpRequest.BodyPublishers.fromPublisher(
+                        HttpRequest.BodyPublishers.ofInputStream(() -> new PatternInputStream(UPLOAD_SIZE, null)), UPLOAD_SIZE))
+                .build();
+
+        HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, resp.statusCode());
+        assertEquals("received=" + UPLOAD_SIZE + " sha256=" + expectedSha256(UPLOAD_SIZE), resp.body());
+        assertEquals("false", resp.headers().firstValue("X-Upload-Chunked").orElse(""));
+    }
+
+    @Test
+    void shouldForwardChunkedUploadBeforeTheClientHasFinishedSending() throws Exception {
+        // The client stops half-way until the downstream reports received bytes: a buffering gateway would never
+        // forward anything and the upload would time out.
+        Runnable awaitDownstreamProgress = () -> {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (System.currentTimeMillis() < deadline) {
+                if (downstreamProgress() > 0) {
+                    return;
+                }
+                sleep(50);
+            }
+            throw new IllegalStateException("Downstream received nothing while the client was still uploading");
+        };
+
+        HttpRequest req = HttpRequest.newBuilder(gatewayUri("/api/v1/upload"))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/octet-stream")
+                .PUT(HttpRequest.BodyPublishers.ofInputStream(() -> new PatternInputStream(UPLOAD_SIZE, awaitDownstreamProgress)))
+                .build();
+
+        HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, resp.statusCode());
+        assertEquals("received=" + UPLOAD_SIZE + " sha256=" + expectedSha256(UPLOAD_SIZE), resp.body());
+        assertEquals("true", resp.headers().firstValue("X-Upload-Chunked").orElse(""));
+    }
+
+    private long downstreamProgress() {
+        try {
+            HttpResponse<String> resp = client.send(HttpRequest.newBuilder(gatewayUri("/api/v1/upload-progress")).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            return Long.parseLong(resp.body().trim());
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static URI gatewayUri(String path) {
+        return URI.create("http://localhost:" + RestAssured.port + path);
+    }
+
+    private static String expectedSha256(int size) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new PatternInputStream(size, null)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Deterministic payload generated on the fly, optionally running {@code halfway} once half of it was read.
+     */
+    private static final class PatternInputStream extends InputStream {
+        private final int size;
+        private Runnable halfway;
+        private int position;
+
+        PatternInputStream(int size, Runnable halfway) {
+            this.size = size;
+            this.halfway = halfway;
+        }
+
+        @Override
+        public int read() {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= size) {
+                return -1;
+            }
+            if (halfway != null && position >= size / 2) {
+                Runnable pending = halfway;
+                halfway = null;
+                pending.run();
+            }
+            int count = Math.min(len, size - position);
+            if (halfway != null) {
+                count = Math.min(count, size / 2 - position);
+            }
+            for (int i = 0; i < count; i++) {
+                b[off + i] = (byte) ((position + i) % 251);
+            }
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            position = size;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package adapters.in.communication.rest.gateway;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.path.json.JsonPath;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@QuarkusTest
+@TestProfile(ApiGatewayUpstreamHealthTest.FlakyRouteProfile.class)
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class ApiGatewayUpstreamHealthTest {
+
+    private static final String DEAD_UPSTREAM = "http://localhost:1";
+
+    /**
+     * A route over the stub and an instance nobody listens on, probed every 100 ms.
+     */
+    public static class FlakyRouteProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "gateway.routes.flaky.path-prefixes[0]", "/flaky",
+                    "gateway.routes.flaky.strip-prefix", "true",
+                    "gateway.routes.flaky.target.instances[0].base-url", "${gateway.routes.downstream.target.base-url}",
+                    "gateway.routes.flaky.target.instances[1].base-url", DEAD_UPSTREAM,
+                    "gateway.routes.flaky.target.health-check.path", "/api/v1/health",
+                    "gateway.routes.flaky.target.health-check.interval", "PT0.1S",
+                    "gateway.routes.flaky.target.health-check.timeout", "PT0.5S",
+                    "gateway.routes.flaky.target.health-check.unhealthy-threshold", "1"
+            );
+        }
+    }
+
+    @Test
+    void shouldTakeTheDeadInstanceOutOfRotationAndReportItInReadiness() throws InterruptedException {
+        awaitUpstreamState("flaky[1]", "UNHEALTHY");
+
+        for (int i = 0; i < 20; i++) {
+            given()
+                    .when()
+                    .get("/flaky/hello")
+                    .then()
+                    .statusCode(200)
+                    .body(containsString("path=/hello"));
+        }
+
+        JsonPath readiness = readiness();
+        assertEquals("UP", readiness.getString("status"));
+        assertEquals("1/2 available", upstreamData(readiness).get("flaky"));
+        assertEquals("HEALTHY", upstreamData(readiness).get("downstream[0]"));
+    }
+
+    @Test
+    void shouldKeepUpstreamAddressesOutOfTheUnauthenticatedReadiness() {
+        String body = given().when().get("/q/health/ready").then().statusCode(200).extract().asString();
+
+        assertFalse(body.contains("localhost"), body);
+    }
+
+    private static void awaitUpstreamState(String key, String state) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (state.equals(upstreamData(readiness()).get(key))) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail(key + " never became " + state + ": " + upstreamData(readiness()));
+    }
+
+    private static JsonPath readiness() {
+        return given().when().get("/q/health/ready").then().extract().jsonPath();
+    }
+
+    private static Map<String, Object> upstreamData(JsonPath readiness) {
+        return readiness.getMap("checks.find { it.name == 'Gateway upstreams' }.data");
+    }
+}
@@ -0,0 +1,243 @@
+package adapters.in.communication.rest.gateway;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(ReactiveApiGatewayResourceTest.ReactiveProfile.class)
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class ReactiveApiGatewayResourceTest {
+
+    public static class ReactiveProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "gateway.execution-mode", "reactive",
+                    "gateway.downstream.client", "vertx",
+                    "gateway.request-body.buffer-threshold", "65536",
+                    "gateway.routes.downstream.cache.segments", "true",
+                    "gateway.routes.downstream.coalescing.enabled", "true"
+            );
+        }
+    }
+
+    @Test
+    void shouldProxyGetRequestsWithoutBlocking() {
+        given()
+                .header("X-Test", "123")
+                .when()
+                .get("/api/v1/hello?x=1")
+                .then()
+                .statusCode(200)
+                .header("X-Echo-Method", equalTo("GET"))
+                .header("X-Received-X-Test", equalTo("123"))
+                .body(containsString("path=/api/v1/hello"))
+                .body(containsString("query=x=1"));
+    }
+
+    @Test
+    void shouldProxyPostRequestsWithBody() {
+        given()
+                .contentType("text/plain")
+                .body("payload")
+                .when()
+                .post("/api/v1/echo")
+                .then()
+                .statusCode(200)
+                .header("X-Echo-Method", equalTo("POST"))
+                .body(containsString("body=payload"));
+    }
+
+    @Test
+    void shouldStreamBodiesAboveTheBufferThresholdToTheDownstream() throws Exception {
+        byte[] body = new byte[4 * 1024 * 1024];
+        Arrays.fill(body, (byte) 'u');
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        HttpResponse<String> declared = client.send(upload(HttpRequest.BodyPublishers.ofByteArray(body)),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, declared.statusCode());
+        assertEquals("received=" + body.length + " sha256=" + sha256(body), declared.body());
+        assertEquals("false", declared.headers().firstValue("X-Upload-Chunked").orElse(""));
+
+        HttpResponse<String> chunked = client.send(upload(HttpRequest.BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(body))),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, chunked.statusCode());
+        assertEquals("received=" + body.length + " sha256=" + sha256(body), chunked.body());
+        assertEquals("true", chunked.headers().firstValue("X-Upload-Chunked").orElse(""));
+    }
+
+    @Test
+    void shouldProxyABodylessPostThatDeclaresNoLength() throws Exception {
+        try (Socket socket = new Socket("localhost", RestAssured.port)) {
+            socket.setSoTimeout(5000);
+            socket.getOutputStream().write("POST /api/v1/echo HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            String response = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+
+            assertTrue(response.startsWith("HTTP/1.1 200"), response);
+            assertTrue(response.contains(" body=\r\n"), response);
+        }
+    }
+
+    private static HttpRequest upload(HttpRequest.BodyPublisher body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + RestAssured.port + "/api/v1/upload"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/octet-stream")
+                .POST(body)
+                .build();
+    }
+
+    private static String sha256(byte[] body) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+    }
+
+    @Test
+    void shouldReturn404WhenNoRouteMatches() {
+        given()
+                .when()
+                .get("/api/v2/unknown")
+                .then()
+                .statusCode(404)
+                .body(containsString("GATEWAY.ROUTE_NOT_FOUND"));
+    }
+
+    @Test
+    void shouldForwardDownstream400Responses() {
+        given()
+                .when()
+                .get("/api/v1/error-400")
+                .then()
+                .statusCode(400)
+                .header("X-Downstream-Error", equalTo("1"))
+                .contentType("application/json")
+                .body(equalTo("{\"error\":\"bad_request\"}"));
+    }
+
+    @Test
+    void shouldNotDuplicateCorsAllowOriginHeader() {
+        Response response = given()
+                .header("Origin", "http://localhost:3000")
+                .when()
+                .get("/api/v1/cors-header");
+
+        response.then().statusCode(200);
+
+        List<String> allowOriginValues = response.getHeaders().getValues("Access-Control-Allow-Origin");
+        assertEquals(1, allowOriginValues.size());
+    }
+
+    @Test
+    void shouldProxyHlsPlaylistAsStream() {
+        given()
+                .when()
+                .get("/api/v1/streaming/hls/123/index.m3u8")
+                .then()
+                .statusCode(200)
+                .header("X-Accel-Buffering", equalTo("no"))
+                .header("Cache-Control", equalTo("no-cache"))
+                .contentType("application/vnd.apple.mpegurl")
+                .body(containsString("#EXTM3U"));
+    }
+
+    @Test
+    void shouldRelayMultipartFramesAsTheyArrive() throws Exception {
+        HttpRequest req = HttpRequest.newBuilder(URI.create("http://localhost:" + RestAssured.port + "/api/v1/mjpeg"))
+                .timeout(Duration.ofSeconds(10))
+                .header("Accept", "multipart/x-mixed-replace")
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        HttpResponse<InputStream> resp = HttpClient.newHttpClient().send(req, HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, resp.statusCode());
+        assertTrue(resp.headers().firstValue("Content-Type").orElse("").contains("multipart/x-mixed-replace"));
+
+        try (InputStream in = resp.body()) {
+            byte[] chunk = new byte[64];
+            int read = in.readNBytes(chunk, 0, "--frame".length());
+            assertEquals("--frame", new String(chunk, 0, read, StandardCharsets.US_ASCII));
+            // The stub sends its second frame after 1.2 s; a buffering gateway would not deliver the first one earlier.
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1000, "Expected first multipart boundary quickly");
+        }
+    }
+
+    @Test
+    void shouldRelayCoalescedBodiesOfUnknownLengthAsTheyArrive() throws Exception {
+        HttpRequest req = HttpRequest.newBuilder(URI.create("http://localhost:" + RestAssured.port + "/api/v1/export"))
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        HttpResponse<InputStream> resp = HttpClient.newHttpClient().send(req, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream in = resp.body()) {
+            assertEquals(200, resp.statusCode());
+            assertEquals("[{\"id\":1}", new String(in.readNBytes(9), StandardCharsets.UTF_8));
+            // The stub ends the export 1.5 s later; a buffering gateway would hold the first record until then.
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1000, "Expected the first record quickly");
+            assertEquals(",{\"id\":2}]", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void shouldServeCachedHlsSegmentsFromTheirMemoryMap() {
+        String path = "/api/v1/streaming/hls/cam-2/segment3.ts";
+
+        Response miss = given().when().get(path);
+        Response hit = given().when().get(path);
+
+        assertEquals(200, hit.statusCode());
+        assertEquals("MISS", miss.header("X-Cache"));
+        assertEquals("HIT", hit.header("X-Cache"));
+        assertEquals(miss.asString(), hit.asString());
+        assertTrue(hit.asString().startsWith("segment " + path), hit.asString());
+    }
+
+    @Test
+    void shouldReplayAPlaylistToConcurrentViewers() {
+        String path = "/api/v1/streaming/hls/cam-2/live.m3u8";
+
+        List<Response> responses = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> given().when().get(path)))
+                .toList()
+                .stream()
+                .map(CompletableFuture::join)
+                .toList();
+
+        String body = responses.getFirst().asString();
+        assertTrue(body.startsWith("#EXTM3U\n#EXT-X-MEDIA-SEQUENCE:"), body);
+        for (Response response : responses) {
+            assertEquals(body, response.asString());
+        }
+    }
+}
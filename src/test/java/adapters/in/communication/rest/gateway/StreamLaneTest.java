@@ -0,0 +1,124 @@
+package adapters.in.communication.rest.gateway;
+
+import application.exceptions.DownstreamUnavailableException;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamLaneTest {
+
+    private final StreamLane lane = new StreamLane(1, false);
+
+    @AfterEach
+    void shutdown() {
+        lane.shutdown();
+    }
+
+    @Test
+    void shouldRelayTheBodyOnLaneThreadsAsItIsRequested() {
+        AtomicReference<String> readBy = new AtomicReference<>();
+        InputStream body = new ByteArrayInputStream("hello".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] target, int offset, int length) {
+                readBy.set(Thread.currentThread().getName());
+                return super.read(target, offset, Math.min(length, 2));
+            }
+        };
+
+        AssertSubscriber<Buffer> subscriber = lane.admit().relay(body).subscribe().withSubscriber(AssertSubscriber.create(1));
+        subscriber.awaitItems(1);
+        assertEquals("he", subscriber.getItems().getFirst().toString());
+
+        subscriber.request(Long.MAX_VALUE).awaitCompletion();
+        assertEquals(3, subscriber.getItems().size());
+        assertTrue(readBy.get().startsWith("gateway-stream-"), readBy.get());
+        assertEquals(0, lane.active());
+    }
+
+    @Test
+    void shouldRejectStreamsBeyondTheLimitUntilOneEnds() throws IOException {
+        PipedOutputStream downstream = new PipedOutputStream();
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream body = new PipedInputStream(downstream) {
+            @Override
+            public void close() throws IOException {
+                closed.set(true);
+                super.close();
+            }
+        };
+
+        AssertSubscriber<Buffer> subscriber = lane.admit().relay(body).subscribe()
+                .withSubscriber(AssertSubscriber.create(Long.MAX_VALUE));
+        downstream.write("frame".getBytes(StandardCharsets.UTF_8));
+        downstream.flush();
+        subscriber.awaitItems(1);
+
+        assertEquals(1, lane.active());
+        assertThrows(DownstreamUnavailableException.class, lane::admit);
+
+        subscriber.cancel();
+        assertTrue(closed.get());
+        assertEquals(0, lane.active());
+        lane.admit().release();
+    }
+
+    @Test
+    void shouldFailTheBuffersWhenTheBodyBreaksOff() {
+        AssertSubscriber<Buffer> subscriber = lane.admit().relay(breakingOff()).subscribe()
+                .withSubscriber(AssertSubscriber.create(Long.MAX_VALUE));
+
+        subscriber.awaitFailure(Duration.ofSeconds(5)).assertFailedWith(IOException.class, "bytes received: 1");
+        assertEquals("x", subscriber.getItems().getFirst().toString());
+        assertEquals(0, lane.active());
+    }
+
+    @Test
+    void shouldEndALiveStreamWhoseBodyBreaksOff() {
+        AssertSubscriber<Buffer> subscriber = lane.admit().relayLive(breakingOff()).subscribe()
+                .withSubscriber(AssertSubscriber.create(Long.MAX_VALUE));
+
+        subscriber.awaitCompletion(Duration.ofSeconds(5));
+        assertEquals(1, subscriber.getItems().size());
+        assertEquals(0, lane.active());
+    }
+
+    @Test
+    void shouldGiveBackTheSlotOfAResponseWithoutBody() {
+        lane.admit().release();
+
+        AssertSubscriber<Buffer> subscriber = lane.admit().relay(new ByteArrayInputStream(new byte[0])).subscribe()
+                .withSubscriber(AssertSubscriber.create(1));
+        subscriber.awaitCompletion(Duration.ofSeconds(5));
+        assertEquals(0, lane.active());
+    }
+
+    private static InputStream breakingOff() {
+        return new InputStream() {
+            private boolean sent;
+
+            @Override
+            public int read() throws IOException {
+                if (sent) {
+                    throw new IOException("fixed content-length: 10, bytes received: 1");
+                }
+                sent = true;
+                return 'x';
+            }
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package adapters.in.communication.rest.gateway;
+
+import configurations.gateway.VirtualThreadPinningMonitor;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+@TestProfile(VirtualThreadApiGatewayResourceTest.VirtualThreadsProfile.class)
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class VirtualThreadApiGatewayResourceTest {
+
+    public static class VirtualThreadsProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("gateway.execution-mode", "virtual-threads");
+        }
+    }
+
+    @Inject
+    VirtualThreadPinningMonitor pinningMonitor;
+
+    @Test
+    void shouldProxyRequestsOnVirtualThreadsWithoutPinning() {
+        given()
+                .header("X-Test", "123")
+                .when()
+                .get("/api/v1/hello?x=1")
+                .then()
+                .statusCode(200)
+                .header("X-Echo-Method", equalTo("GET"))
+                .header("X-Received-X-Test", equalTo("123"))
+                .body(containsString("query=x=1"));
+
+        given()
+                .contentType("text/plain")
+                .body("payload")
+                .when()
+                .post("/api/v1/echo")
+                .then()
+                .statusCode(200)
+                .body(containsString("body=payload"));
+
+        given()
+                .when()
+                .get("/api/v1/streaming/hls/123/index.m3u8")
+                .then()
+                .statusCode(200)
+                .header("X-Accel-Buffering", equalTo("no"))
+                .body(containsString("#EXTM3U"));
+
+        assertEquals(0, pinningMonitor.pinnedCount());
+    }
+
+    @Test
+    void shouldForwardDownstreamErrors() {
+        given()
+                .when()
+                .get("/api/v1/error-400")
+                .then()
+                .statusCode(400)
+                .header("X-Downstream-Error", equalTo("1"))
+                .body(equalTo("{\"error\":\"bad_request\"}"));
+    }
+}
@@ -0,0 +1,110 @@
+package adapters.out.cache;
+
+import domain.cache.CacheKey;
+import domain.cache.CachedSegment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import testresources.GatewayConfigs;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiskSegmentCacheAdapterTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void shouldStoreSegmentsOnDiskWithTheirHeaders() throws IOException {
+        DiskSegmentCacheAdapter cache = cache(1_000, 500);
+        byte[] bytes = {1, 2, 3};
+
+        CachedSegment stored = cache.put(key("a.ts"), Map.of("Content-Type", List.of("video/mp2t")),
+                new ByteArrayInputStream(bytes)).orElseThrow();
+
+        assertEquals(directory, stored.file().getParent());
+        assertArrayEquals(bytes, Files.readAllBytes(stored.file()));
+        assertEquals(stored, cache.get(key("a.ts")).orElseThrow());
+        assertEquals(List.of("video/mp2t"), stored.headers().get("Content-Type"));
+    }
+
+    @Test
+    void shouldEvictTheLeastRecentlyUsedSegmentsBeyondTheBudget() {
+        DiskSegmentCacheAdapter cache = cache(1_000, 500);
+        cache.put(key("1.ts"), Map.of(), body(400));
+        cache.put(key("2.ts"), Map.of(), body(400));
+        cache.get(key("1.ts"));
+
+        cache.put(key("3.ts"), Map.of(), body(400));
+
+        assertTrue(cache.get(key("1.ts")).isPresent());
+        assertFalse(cache.get(key("2.ts")).isPresent());
+        assertTrue(cache.get(key("3.ts")).isPresent());
+        assertEquals(800, cache.totalBytes());
+    }
+
+    @Test
+    void shouldRefuseSegmentsAboveTheLimit() throws IOException {
+        DiskSegmentCacheAdapter cache = cache(1_000, 500);
+
+        assertTrue(cache.put(key("big.ts"), Map.of(), body(501)).isEmpty());
+        assertEquals(0, cache.totalBytes());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void shouldExpireSegmentsAndDeleteTheirFilesAfterAGracePeriod() {
+        DiskSegmentCacheAdapter cache = cache(1_000, 500);
+        Path expired = cache.put(key("old.ts"), Map.of(), body(10)).orElseThrow().file();
+
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertTrue(cache.get(key("old.ts")).isEmpty());
+        assertTrue(Files.exists(expired), "still readable by responses in flight");
+
+        clock.addAndGet(DiskSegmentCacheAdapter.DELETE_GRACE_NANOS);
+        cache.put(key("new.ts"), Map.of(), body(10));
+        assertFalse(Files.exists(expired));
+    }
+
+    @Test
+    void shouldClearLeftoversOfAPreviousRun() throws IOException {
+        Path leftover = Files.writeString(directory.resolve("7" + DiskSegmentCacheAdapter.SEGMENT_SUFFIX), "old");
+
+        cache(1_000, 500);
+
+        assertFalse(Files.exists(leftover));
+    }
+
+    private DiskSegmentCacheAdapter cache(long maxBytes, long maxSegmentBytes) {
+        return new DiskSegmentCacheAdapter(GatewayConfigs.of(Map.of(
+                "gateway.segment-cache.directory", directory.toString(),
+                "gateway.segment-cache.max-bytes", String.valueOf(maxBytes),
+                "gateway.segment-cache.max-segment-bytes", String.valueOf(maxSegmentBytes),
+                "gateway.segment-cache.ttl", "PT30S"
+        )).segmentCache(), new SimpleMeterRegistry(), clock::get);
+    }
+
+    private static CacheKey key(String segment) {
+        return new CacheKey("cameras", "tenant", "/hls/" + segment);
+    }
+
+    private static ByteArrayInputStream body(int size) {
+        return new ByteArrayInputStream(new byte[size]);
+    }
+}
@@ -0,0 +1,194 @@
+package adapters.out.configuration;
+
+import configurations.gateway.GatewayConfig;
+import domain.gateway.HealthCheckDefinition;
+import domain.gateway.LoadBalancingStrategy;
+import domain.gateway.RouteDefinition;
+import domain.gateway.RouteMatch;
+import domain.gateway.RouteTable;
+import domain.gateway.TargetDefinition;
+import domain.gateway.Upstream;
+import domain.gateway.UpstreamHealth;
+import io.quarkus.runtime.configuration.DurationConverter;
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GatewayRouteDefinitionsAdapterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldUseApplicationRoutesWhenNoRouteFileIsConfigured() {
+        GatewayRouteDefinitionsAdapter adapter = new GatewayRouteDefinitionsAdapter(config(null));
+
+        RouteTable table = adapter.routeTable();
+        assertEquals(1, table.version());
+        assertEquals("http://boot:8080", adapter.routeIndex().match("/boot/x").route().target().baseUrl());
+    }
+
+    @Test
+    void shouldPublishNewSnapshotWhenRouteFileChanges() throws IOException {
+        Path file = tempDir.resolve("routes.yaml");
+        writeRoutes(file, "/alpha", "http://alpha:1/");
+
+        GatewayRouteDefinitionsAdapter adapter = new GatewayRouteDefinitionsAdapter(config(file));
+        RouteTable initial = adapter.routeTable();
+        RouteMatch inFlight = adapter.routeIndex().match("/alpha/stream");
+
+        assertEquals("http://alpha:1", inFlight.route().target().baseUrl());
+        assertNull(adapter.routeIndex().match("/boot/x"), "route file must replace application routes");
+
+        writeRoutes(file, "/beta", "http://beta:2");
+        RouteTable reloaded = adapter.reload();
+
+        assertEquals(initial.version() + 1, reloaded.version());
+        assertSame(reloaded, adapter.routeTable());
+        assertNotSame(initial.index(), reloaded.index());
+        assertNull(adapter.routeIndex().match("/alpha/stream"));
+        assertEquals("http://beta:2", adapter.routeIndex().match("/beta").route().target().baseUrl());
+
+        // Matches resolved before the swap stay usable for the lifetime of their stream.
+        assertEquals("/alpha/stream", inFlight.downstreamPath("/alpha/stream"));
+        assertSame(inFlight, initial.index().match("/alpha/stream"));
+    }
+
+    @Test
+    void shouldKeepCurrentSnapshotWhenRouteFileIsInvalid() throws IOException {
+        Path file = tempDir.resolve("routes.yaml");
+        writeRoutes(file, "/alpha", "http://alpha:1");
+        GatewayRouteDefinitionsAdapter adapter = new GatewayRouteDefinitionsAdapter(config(file));
+        RouteTable before = adapter.routeTable();
+
+        Files.writeString(file, """
+                gateway:
+                  routes:
+                    broken:
+                      path-prefixes: [ "/broken" ]
+                      target:
+                        scheme: http
+                """);
+
+        assertThrows(IllegalArgumentException.class, adapter::reload);
+        assertSame(before, adapter.routeTable());
+    }
+
+    @Test
+    void shouldBuildWeightedInstancesWithTheConfiguredStrategy() throws IOException {
+        Path file = tempDir.resolve("routes.yaml");
+        Files.writeString(file, """
+                gateway:
+                  routes:
+                    cameras:
+                      path-prefixes: [ "/cameras" ]
+                      target:
+                        load-balancing: least-outstanding
+                        instances:
+                          - base-url: http://camera-1:8080/
+                            weight: 3
+                          - base-url: http://camera-2:8080
+                """);
+
+        TargetDefinition target = new GatewayRouteDefinitionsAdapter(config(file)).routeIndex().match("/cameras/1").route().target();
+
+        assertEquals(LoadBalancingStrategy.LEAST_OUTSTANDING, target.loadBalancer().strategy());
+        assertEquals(List.of("http://camera-1:8080", "http://camera-2:8080"),
+                target.upstreams().stream().map(Upstream::baseUrl).toList());
+        assertEquals(List.of(3, 1), target.upstreams().stream().map(Upstream::weight).toList());
+    }
+
+    @Test
+    void shouldKeepUpstreamHealthAcrossReloadsUnlessTheInstanceChanged() throws IOException {
+        Path file = tempDir.resolve("routes.yaml");
+        String routes = """
+                gateway:
+                  routes:
+                    cameras:
+                      path-prefixes: [ "/cameras" ]
+                      target:
+                        health-check:
+                          path: health
+                          interval: 5S
+                        outlier-detection:
+                          consecutive-failures: 1
+                        instances:
+                          - base-url: http://camera-1:8080
+                          - base-url: %s
+                """;
+        Files.writeString(file, routes.formatted("http://camera-2:8080"));
+        GatewayRouteDefinitionsAdapter adapter = new GatewayRouteDefinitionsAdapter(config(file));
+        TargetDefinition before = adapter.routeIndex().match("/cameras").route().target();
+        before.upstreams().getFirst().health().recordFailure();
+
+        Files.writeString(file, routes.formatted("http://camera-3:8080"));
+        TargetDefinition after = adapter.reload().index().match("/cameras").route().target();
+
+        assertEquals(new HealthCheckDefinition("/health", Duration.ofSeconds(5), Duration.ofSeconds(2), 2, 2), after.healthCheck());
+        assertSame(before.upstreams().getFirst(), after.upstreams().getFirst());
+        assertEquals(UpstreamHealth.State.EJECTED, after.upstreams().getFirst().health().state());
+        assertEquals("http://camera-3:8080", after.upstreams().get(1).baseUrl());
+        assertNull(new GatewayRouteDefinitionsAdapter(config(null)).routeIndex().match("/boot").route().target().healthCheck());
+    }
+
+    @Test
+    void shouldReadNothingButTheRouteFile() throws IOException {
+        Path file = tempDir.resolve("routes.yaml");
+        writeRoutes(file, "/alpha", "http://alpha:1");
+        System.setProperty("gateway.routes.smuggled.path-prefixes[0]", "/smuggled");
+        System.setProperty("gateway.routes.smuggled.target.base-url", "http://smuggled:1");
+        try {
+            GatewayRouteDefinitionsAdapter adapter = new GatewayRouteDefinitionsAdapter(config(file));
+
+            assertEquals(List.of("dynamic"), adapter.listRoutes().stream().map(RouteDefinition::id).toList());
+            assertNull(adapter.routeIndex().match("/smuggled"));
+        } finally {
+            System.clearProperty("gateway.routes.smuggled.path-prefixes[0]");
+            System.clearProperty("gateway.routes.smuggled.target.base-url");
+        }
+    }
+
+    private static void writeRoutes(Path file, String prefix, String baseUrl) throws IOException {
+        Files.writeString(file, """
+                gateway:
+                  routes:
+                    dynamic:
+                      path-prefixes: [ "%s" ]
+                      strip-prefix: false
+                      target:
+                        base-url: %s
+                """.formatted(prefix, baseUrl));
+    }
+
+    private static GatewayConfig config(Path routeFile) {
+        Map<String, String> properties = new HashMap<>(Map.of(
+                "gateway.routes.boot.path-prefixes[0]", "/boot",
+                "gateway.routes.boot.target.base-url", "http://boot:8080"
+        ));
+        if (routeFile != null) {
+            properties.put("gateway.route-file.path", routeFile.toString());
+        }
+
+        return new SmallRyeConfigBuilder()
+                .withSources(new PropertiesConfigSource(properties, "test", 100))
+                .withConverter(Duration.class, 100, new DurationConverter())
+                .withMapping(GatewayConfig.class)
+                .build()
+                .getConfigMapping(GatewayConfig.class);
+    }
+}
@@ -0,0 +1,124 @@
+package adapters.out.http;
+
+import application.dtos.gateway.DownstreamRequest;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.Http2Settings;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import testresources.GatewayConfigs;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput/latency comparison of the downstream adapters against a local stub with 5 ms of simulated latency.
+ * <p>
+ * Not part of the regular build; run with {@code ./mvnw test -Dodin.benchmark=true -Dtest=DownstreamHttpAdapterBenchmarkTest}.
+ * The "worker pool" scenario mirrors production, where blocking calls are bounded by {@code quarkus.thread-pool.core-threads}.
+ */
+@EnabledIfSystemProperty(named = "odin.benchmark", matches = "true")
+class DownstreamHttpAdapterBenchmarkTest {
+
+    private static final int REQUESTS = Integer.getInteger("odin.benchmark.requests", 5_000);
+    private static final int CONCURRENCY = Integer.getInteger("odin.benchmark.concurrency", 200);
+    private static final int WORKER_THREADS = 10;
+
+    private static Vertx vertx;
+    private static HttpServer server;
+    private static JdkDownstreamHttpAdapter jdkAdapter;
+    private static VertxDownstreamHttpAdapter vertxAdapter;
+
+    @BeforeAll
+    static void startServer() {
+        vertx = Vertx.vertx();
+        String payload = "x".repeat(1024);
+        // The JDK client negotiates h2c by default, so allow as many streams as the benchmark keeps in flight.
+        server = vertx.createHttpServer(new HttpServerOptions()
+                        .setInitialSettings(new Http2Settings().setMaxConcurrentStreams(CONCURRENCY * 2L)))
+                .requestHandler(req -> vertx.setTimer(5, id -> req.response().end(payload)));
+        server.listen(0).toCompletionStage().toCompletableFuture().join();
+
+        var config = GatewayConfigs.of(Map.of(
+                "gateway.downstream.vertx.max-pool-size", String.valueOf(CONCURRENCY),
+                "gateway.downstream.vertx.max-wait-queue-size", "-1"
+        ));
+        jdkAdapter = new JdkDownstreamHttpAdapter(config);
+        vertxAdapter = new VertxDownstreamHttpAdapter(vertx, config);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        vertxAdapter.close();
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    @Test
+    void compareAdapters() throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(WORKER_THREADS);
+        try {
+            // Warm-up both clients and the JIT before measuring.
+            run("warm-up", request -> vertxAdapter.executeAsync(request));
+            run("warm-up", request -> Uni.createFrom().item(() -> jdkAdapter.execute(request)).runSubscriptionOn(workers));
+
+            run("jdk blocking on " + WORKER_THREADS + " workers",
+                    request -> Uni.createFrom().item(() -> jdkAdapter.execute(request)).runSubscriptionOn(workers));
+            run("jdk sendAsync", request -> jdkAdapter.executeAsync(request));
+            run("vertx blocking on " + WORKER_THREADS + " workers",
+                    request -> Uni.createFrom().item(() -> vertxAdapter.execute(request)).runSubscriptionOn(workers));
+            run("vertx async", request -> vertxAdapter.executeAsync(request));
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static void run(String scenario, Function<DownstreamRequest, Uni<?>> call) throws Exception {
+        DownstreamRequest request = new DownstreamRequest("GET", "http://localhost:" + server.actualPort() + "/bench", Map.of(), null);
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger failures = new AtomicInteger();
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[REQUESTS];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            inFlight.acquire();
+            int index = i;
+            long sent = System.nanoTime();
+            futures[i] = call.apply(request).subscribeAsCompletionStage()
+                    .whenComplete((ignored, error) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (error != null) {
+                            failures.incrementAndGet();
+                            firstFailure.compareAndSet(null, error);
+                        }
+                        inFlight.release();
+                    });
+        }
+        CompletableFuture.allOf(futures).handle((v, e) -> null).get(5, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("[DEBUG_LOG] %-32s requests=%d concurrency=%d throughput=%.0f req/s p50=%.2f ms p99=%.2f ms failures=%d%n",
+                scenario, REQUESTS, CONCURRENCY,
+                REQUESTS / (elapsed / 1_000_000_000.0),
+                latencies[REQUESTS / 2] / 1_000_000.0,
+                latencies[(int) (REQUESTS * 0.99)] / 1_000_000.0,
+                failures.get());
+        assertEquals(0, failures.get(), scenario + " had failures, first: " + firstFailure.get());
+    }
+}
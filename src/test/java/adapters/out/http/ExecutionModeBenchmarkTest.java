@@ -0,0 +1,117 @@
+package adapters.out.http;
+
+import application.dtos.gateway.DownstreamRequest;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.Http2Settings;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import testresources.GatewayConfigs;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the {@code worker} and {@code virtual-threads} execution modes: the same blocking
+ * {@link JdkDownstreamHttpAdapter#execute} call dispatched on a bounded worker pool or on one virtual thread per
+ * request, against a local stub with 5 ms of simulated latency.
+ * <p>
+ * Not part of the regular build; run with {@code ./mvnw test -Dodin.benchmark=true -Dtest=ExecutionModeBenchmarkTest}.
+ * Latencies include the time a request waits for a thread, as a client connection would observe it.
+ */
+@EnabledIfSystemProperty(named = "odin.benchmark", matches = "true")
+class ExecutionModeBenchmarkTest {
+
+    private static final int REQUESTS_PER_CONNECTION = Integer.getInteger("odin.benchmark.requests-per-connection", 5);
+    private static final int WORKER_THREADS = Integer.getInteger("odin.benchmark.worker-threads", 10);
+
+    private static Vertx vertx;
+    private static HttpServer server;
+    private static JdkDownstreamHttpAdapter adapter;
+
+    @BeforeAll
+    static void startServer() {
+        vertx = Vertx.vertx();
+        String payload = "x".repeat(1024);
+        server = vertx.createHttpServer(new HttpServerOptions()
+                        .setInitialSettings(new Http2Settings().setMaxConcurrentStreams(20_000)))
+                .requestHandler(req -> vertx.setTimer(5, id -> req.response().end(payload)));
+        server.listen(0).toCompletionStage().toCompletableFuture().join();
+
+        adapter = new JdkDownstreamHttpAdapter(GatewayConfigs.of(Map.of("gateway.downstream.request-timeout", "PT60S")));
+    }
+
+    @AfterAll
+    static void stopServer() {
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {100, 1_000, 10_000})
+    void compareExecutionModes(int connections) throws Exception {
+        try (ExecutorService warmUp = Executors.newVirtualThreadPerTaskExecutor()) {
+            run("warm-up", warmUp, 100);
+        }
+
+        try (ExecutorService workers = Executors.newFixedThreadPool(WORKER_THREADS)) {
+            run("worker pool (" + WORKER_THREADS + " threads)", workers, connections);
+        }
+        try (ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            run("virtual threads", virtualThreads, connections);
+        }
+    }
+
+    private static void run(String scenario, ExecutorService executor, int connections) throws Exception {
+        DownstreamRequest request = new DownstreamRequest("GET", "http://localhost:" + server.actualPort() + "/bench", Map.of(), null);
+        int requests = connections * REQUESTS_PER_CONNECTION;
+        long[] latencies = new long[requests];
+        AtomicInteger failures = new AtomicInteger();
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        Semaphore inFlight = new Semaphore(connections);
+        CountDownLatch done = new CountDownLatch(requests);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int index = i;
+            long sent = System.nanoTime();
+            executor.execute(() -> {
+                try {
+                    adapter.execute(request);
+                } catch (Throwable e) {
+                    failures.incrementAndGet();
+                    firstFailure.compareAndSet(null, e);
+                } finally {
+                    latencies[index] = System.nanoTime() - sent;
+                    inFlight.release();
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.MINUTES), scenario + " did not complete");
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("[DEBUG_LOG] %-28s connections=%-6d requests=%-6d throughput=%.0f req/s p50=%.2f ms p99=%.2f ms failures=%d%n",
+                scenario, connections, requests,
+                requests / (elapsed / 1_000_000_000.0),
+                latencies[requests / 2] / 1_000_000.0,
+                latencies[(int) (requests * 0.99)] / 1_000_000.0,
+                failures.get());
+        assertEquals(0, failures.get(), scenario + " had failures, first: " + firstFailure.get());
+    }
+}
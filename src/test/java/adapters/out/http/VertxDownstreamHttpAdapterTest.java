@@ -0,0 +1,193 @@
+package adapters.out.http;
+
+import application.dtos.gateway.DownstreamRequest;
+import application.dtos.gateway.DownstreamResponse;
+import application.dtos.gateway.DownstreamStreamResponse;
+import application.dtos.gateway.StreamingBody;
+import application.exceptions.DownstreamTimeoutException;
+import io.smallrye.mutiny.Multi;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import testresources.GatewayConfigs;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VertxDownstreamHttpAdapterTest {
+
+    private static Vertx vertx;
+    private static HttpServer server;
+    private static VertxDownstreamHttpAdapter adapter;
+
+    @BeforeAll
+    static void startServer() {
+        vertx = Vertx.vertx();
+        server = vertx.createHttpServer().requestHandler(req -> {
+            if ("/upload".equals(req.path())) {
+                // Slow consumer: nothing is read for a while, so the client has to wait for the connection to drain.
+                req.pause();
+                long[] received = {0};
+                req.handler(chunk -> received[0] += chunk.length());
+                req.endHandler(v -> req.response().end(received[0] + " " + req.getHeader("Content-Length")));
+                vertx.setTimer(300, id -> req.resume());
+                return;
+            }
+            req.body().onSuccess(body -> {
+                if ("/slow".equals(req.path())) {
+                    vertx.setTimer(2000, id -> req.response().end("late"));
+                    return;
+                }
+                if ("/large".equals(req.path())) {
+                    req.response().setChunked(true);
+                    for (int i = 0; i < 64; i++) {
+                        req.response().write("x".repeat(16 * 1024));
+                    }
+                    req.response().end();
+                    return;
+                }
+                req.response()
+                        .putHeader("X-Echo-Method", req.method().name())
+                        .putHeader("X-Received-X-Test", String.valueOf(req.getHeader("X-Test")))
+                        .setStatusCode("/missing".equals(req.path()) ? 404 : 200)
+                        .end(req.method() + " " + req.uri() + " " + body);
+            });
+        });
+        server.listen(0).toCompletionStage().toCompletableFuture().join();
+
+        adapter = new VertxDownstreamHttpAdapter(vertx, GatewayConfigs.of(Map.of(
+                "gateway.downstream.request-timeout", "500ms",
+                "gateway.downstream.vertx.max-pool-size", "4"
+        )));
+    }
+
+    @AfterAll
+    static void stopServer() {
+        adapter.close();
+        vertx.close().toCompletionStage().toCompletableFuture().join();
+    }
+
+    @Test
+    void shouldExecuteBufferedRequestsAsynchronously() {
+        DownstreamResponse response = adapter.executeAsync(request("POST", "/echo?x=1", "payload"))
+                .await().atMost(Duration.ofSeconds(5));
+
+        assertEquals(200, response.status());
+        assertEquals(List.of("POST"), response.headers().get("X-Echo-Method"));
+        assertEquals(List.of("abc"), response.headers().get("X-Received-X-Test"));
+        assertEquals("POST /echo?x=1 payload", new String(response.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldForwardDownstreamErrorStatus() {
+        assertEquals(404, adapter.execute(request("GET", "/missing", null)).status());
+    }
+
+    @Test
+    void shouldFailWhenDownstreamIsIdleLongerThanRequestTimeout() {
+        assertThrows(DownstreamTimeoutException.class, () -> adapter.executeAsync(request("GET", "/slow", null))
+                .await().atMost(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void shouldWaitAsLongAsTheRequestAsks() {
+        DownstreamRequest patient = new DownstreamRequest("GET", "http://localhost:" + server.actualPort() + "/slow",
+                Map.of(), null, null, Duration.ofSeconds(4));
+
+        DownstreamResponse response = adapter.executeBounded(patient, 1024);
+
+        assertEquals(200, response.status());
+        assertEquals("late", new String(response.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldStreamLargeBodiesWithBoundedBuffering() throws Exception {
+        DownstreamStreamResponse response = adapter.executeStream(request("GET", "/large", null));
+        assertEquals(200, response.status());
+
+        long total = 0;
+        byte[] buffer = new byte[8192];
+        try (InputStream in = response.body()) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                total += read;
+            }
+        }
+        assertEquals(64L * 16 * 1024, total);
+    }
+
+    @Test
+    void shouldStreamUploadBodiesWithoutBufferingThem() {
+        int size = 8 * 1024 * 1024;
+
+        DownstreamResponse withLength = adapter.executeUpload(upload(size, size));
+        assertEquals(200, withLength.status());
+        assertEquals(size + " " + size, new String(withLength.body(), StandardCharsets.UTF_8));
+
+        DownstreamResponse chunked = adapter.executeUpload(upload(size, -1));
+        assertEquals(size + " null", new String(chunked.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldPipeUploadChunksAsTheConnectionTakesThem() {
+        int chunks = 128;
+        int size = chunks * 64 * 1024;
+
+        DownstreamResponse withLength = adapter.executeUploadAsync(uploadOf(chunks, size)).await().atMost(Duration.ofSeconds(10));
+        assertEquals(200, withLength.status());
+        assertEquals(size + " " + size, new String(withLength.body(), StandardCharsets.UTF_8));
+
+        DownstreamResponse chunked = adapter.executeUploadAsync(uploadOf(chunks, -1)).await().atMost(Duration.ofSeconds(10));
+        assertEquals(size + " null", new String(chunked.body(), StandardCharsets.UTF_8));
+    }
+
+    private static DownstreamRequest uploadOf(int chunks, long contentLength) {
+        Multi<Buffer> body = Multi.createFrom().range(0, chunks)
+                .map(i -> Buffer.buffer(new byte[64 * 1024]));
+        return new DownstreamRequest("PUT", "http://localhost:" + server.actualPort() + "/upload", Map.of(), null,
+                new StreamingBody(body, contentLength));
+    }
+
+    private static DownstreamRequest upload(int size, long contentLength) {
+        InputStream body = new InputStream() {
+            private int remaining = size;
+
+            @Override
+            public int read() {
+                return remaining-- > 0 ? 'u' : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int count = Math.min(len, remaining);
+                Arrays.fill(b, off, off + count, (byte) 'u');
+                remaining -= count;
+                return count;
+            }
+        };
+        return new DownstreamRequest("PUT", "http://localhost:" + server.actualPort() + "/upload", Map.of(), null,
+                new StreamingBody(body, contentLength));
+    }
+
+    private static DownstreamRequest request(String method, String pathAndQuery, String body) {
+        return new DownstreamRequest(
+                method,
+                "http://localhost:" + server.actualPort() + pathAndQuery,
+                Map.of("X-Test", List.of("abc")),
+                body == null ? null : body.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+}
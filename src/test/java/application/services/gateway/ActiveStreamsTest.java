@@ -0,0 +1,142 @@
+package application.services.gateway;
+
+import application.dtos.gateway.GatewayReactiveStreamResponse;
+import application.dtos.gateway.GatewayResponse;
+import application.dtos.gateway.GatewayStreamResponse;
+import application.exceptions.DownstreamTimeoutException;
+import domain.gateway.CoalescingPolicy;
+import domain.gateway.FlushPolicy;
+import domain.gateway.ResiliencePolicy;
+import domain.gateway.RouteDefinition;
+import domain.gateway.StreamingPolicy;
+import domain.gateway.TargetDefinition;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ActiveStreamsTest {
+
+    private static final RouteDefinition ROUTE = new RouteDefinition("cameras", List.of("/cameras"), true,
+            new TargetDefinition("http://cameras"), ResiliencePolicy.DEFAULT, false, false, CoalescingPolicy.DISABLED,
+            new StreamingPolicy(false, false, 1024, Duration.ofMillis(100), FlushPolicy.DEFAULT, 1024 * 1024, false));
+
+    private final ActiveStreams activeStreams = new ActiveStreams();
+
+    @Test
+    void shouldCountStreamsPerRouteUntilTheyAreClosed() throws IOException {
+        GatewayStreamResponse first = activeStreams.track(ROUTE, stream(new ByteArrayInputStream(new byte[]{1})));
+        GatewayStreamResponse second = activeStreams.track(ROUTE, stream(new ByteArrayInputStream(new byte[]{2})));
+        assertEquals(2, activeStreams.active("cameras"));
+        assertEquals(Set.of("cameras"), activeStreams.routeIds());
+
+        first.body().close();
+        first.body().close();
+        assertEquals(1, activeStreams.active("cameras"));
+        second.body().close();
+        assertEquals(0, activeStreams.active("cameras"));
+    }
+
+    @Test
+    void shouldTrackTheStreamedBodyOfAnOrdinaryResponseOnly() throws IOException {
+        GatewayResponse buffered = new GatewayResponse(200, Map.of(), new byte[]{1});
+        assertSame(buffered, activeStreams.track(ROUTE, buffered));
+
+        GatewayResponse streamed = activeStreams.track(ROUTE,
+                new GatewayResponse(200, Map.of(), null, new ByteArrayInputStream(new byte[]{2})));
+        assertEquals(1, activeStreams.active("cameras"));
+        assertEquals(2, streamed.bodyStream().read());
+
+        streamed.bodyStream().close();
+        assertEquals(0, activeStreams.active("cameras"));
+    }
+
+    @Test
+    void shouldCloseABlockingStreamWhoseReadWaitedLongerThanTheIdleTimeout() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        InputStream silent = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                reading.countDown();
+                try {
+                    closed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Stream closed");
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        };
+        GatewayStreamResponse response = activeStreams.track(ROUTE, stream(silent));
+        CompletableFuture<Throwable> failure = CompletableFuture.supplyAsync(() -> {
+            try (InputStream body = response.body()) {
+                body.read();
+                return null;
+            } catch (IOException e) {
+                return e;
+            }
+        });
+
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        activeStreams.closeIdle();
+        assertEquals(0, activeStreams.idleClosed());
+
+        Thread.sleep(150);
+        activeStreams.closeIdle();
+
+        assertInstanceOf(InterruptedIOException.class, failure.get(5, TimeUnit.SECONDS));
+        assertEquals(1, activeStreams.idleClosed());
+        assertEquals(0, activeStreams.active("cameras"));
+    }
+
+    @Test
+    void shouldNotCountTimeWhileNoReadIsPending() throws Exception {
+        GatewayStreamResponse response = activeStreams.track(ROUTE, stream(new ByteArrayInputStream(new byte[]{1, 2})));
+        assertEquals(1, response.body().read());
+
+        Thread.sleep(150);
+        activeStreams.closeIdle();
+
+        assertEquals(2, response.body().read());
+        assertEquals(0, activeStreams.idleClosed());
+    }
+
+    @Test
+    void shouldFailAReactiveStreamWithoutItemsForTheIdleTimeout() {
+        GatewayReactiveStreamResponse response = activeStreams.track(ROUTE,
+                new GatewayReactiveStreamResponse(200, Map.of(), Multi.createFrom().<Buffer>nothing()));
+
+        AssertSubscriber<Buffer> subscriber = response.body().subscribe().withSubscriber(AssertSubscriber.create(1));
+        assertEquals(1, activeStreams.active("cameras"));
+
+        subscriber.awaitFailure(Duration.ofSeconds(5)).assertFailedWith(DownstreamTimeoutException.class);
+        assertEquals(1, activeStreams.idleClosed());
+        assertEquals(0, activeStreams.active("cameras"));
+    }
+
+    private static GatewayStreamResponse stream(InputStream body) {
+        return new GatewayStreamResponse(200, Map.of(), body);
+    }
+}
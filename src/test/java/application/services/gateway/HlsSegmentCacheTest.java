@@ -0,0 +1,216 @@
+package application.services.gateway;
+
+import application.dtos.gateway.GatewayReactiveStreamResponse;
+import application.dtos.gateway.GatewayRequest;
+import application.dtos.gateway.GatewayStreamResponse;
+import domain.cache.CacheKey;
+import domain.gateway.CoalescingPolicy;
+import domain.gateway.ResiliencePolicy;
+import domain.gateway.RouteDefinition;
+import domain.gateway.StreamingPolicy;
+import domain.gateway.TargetDefinition;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.Cancellable;
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.Test;
+import testresources.TempFileSegmentCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HlsSegmentCacheTest {
+
+    private static final CacheKey KEY = new CacheKey("cameras", "tenant", "/hls/cam-1/segment42.ts");
+    private static final RouteDefinition ROUTE = new RouteDefinition("cameras", List.of("/hls"), false,
+            new TargetDefinition("http://cameras"), new ResiliencePolicy(Duration.ofMillis(200), 0, Duration.ZERO,
+            ResiliencePolicy.CircuitBreakerPolicy.DEFAULT, 8, 8), false, true, CoalescingPolicy.DISABLED,
+            StreamingPolicy.DEFAULT);
+
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    @Test
+    void shouldOnlyCacheMediaSegmentsOnEnabledRoutes() {
+        HlsSegmentCache cache = new HlsSegmentCache(new TempFileSegmentCache());
+        RouteDefinition enabled = new RouteDefinition("a", List.of("/a"), false, new TargetDefinition("http://a"),
+                ResiliencePolicy.DEFAULT, false, true, CoalescingPolicy.DISABLED,
+                StreamingPolicy.DEFAULT);
+        RouteDefinition disabled = new RouteDefinition("b", List.of("/b"), false, new TargetDefinition("http://b"));
+
+        assertTrue(cache.isCacheable(enabled, get("/a/cam/segment1.TS")));
+        assertTrue(cache.isCacheable(enabled, get("/a/cam/init-0001.m4s")));
+        assertFalse(cache.isCacheable(enabled, get("/a/cam/index.m3u8")));
+        assertFalse(cache.isCacheable(disabled, get("/b/cam/segment1.ts")));
+    }
+
+    @Test
+    void shouldFetchEachSegmentOnceForConcurrentViewers() throws Exception {
+        HlsSegmentCache cache = new HlsSegmentCache(new TempFileSegmentCache());
+        CountDownLatch originStarted = new CountDownLatch(1);
+        CountDownLatch releaseOrigin = new CountDownLatch(1);
+        Supplier<GatewayStreamResponse> origin = () -> {
+            originStarted.countDown();
+            await(releaseOrigin);
+            return segment(200, Map.of("Content-Type", List.of("video/mp2t")), "frames");
+        };
+
+        ExecutorService viewers = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<GatewayStreamResponse>> responses = new ArrayList<>();
+            responses.add(viewers.submit(() -> cache.fetch(ROUTE, KEY, origin)));
+            assertTrue(originStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < 20; i++) {
+                responses.add(viewers.submit(() -> cache.fetch(ROUTE, KEY, origin)));
+            }
+            Thread.sleep(100);
+            releaseOrigin.countDown();
+
+            // The first viewer gets the segment as it is fetched; the others once it is stored.
+            GatewayStreamResponse first = responses.getFirst().get(5, TimeUnit.SECONDS);
+            assertEquals(List.of("MISS"), first.headers().get("X-Cache"));
+            assertEquals("frames", new String(first.body().readAllBytes(), StandardCharsets.UTF_8));
+            for (Future<GatewayStreamResponse> response : responses.subList(1, responses.size())) {
+                GatewayStreamResponse served = response.get(5, TimeUnit.SECONDS);
+                assertEquals(200, served.status());
+                assertNull(served.body());
+                assertEquals("frames", Files.readString(served.bodyFile()));
+                assertEquals(List.of("video/mp2t"), served.headers().get("Content-Type"));
+            }
+        } finally {
+            viewers.shutdownNow();
+        }
+
+        assertEquals(1, fetches.get());
+        assertEquals(List.of("HIT"), cache.fetch(ROUTE, KEY, origin).headers().get("X-Cache"));
+    }
+
+    @Test
+    void shouldPassThroughWhatMustNotBeStored() {
+        HlsSegmentCache cache = new HlsSegmentCache(new TempFileSegmentCache());
+
+        GatewayStreamResponse notFound = cache.fetch(ROUTE, KEY, () -> segment(404, Map.of(), "missing"));
+        GatewayStreamResponse noStore = cache.fetch(ROUTE, KEY,
+                () -> segment(200, Map.of("Cache-Control", List.of("no-store")), "secret"));
+
+        assertEquals(404, notFound.status());
+        assertNotNull(noStore.body());
+        assertNull(noStore.bodyFile());
+    }
+
+    @Test
+    void shouldRelaySegmentsTooLargeToKeepWithoutFetchingThemAgain() throws IOException {
+        HlsSegmentCache cache = new HlsSegmentCache(new TempFileSegmentCache(4));
+
+        GatewayStreamResponse response = cache.fetch(ROUTE, KEY, () -> segment(200, Map.of(), "too large"));
+
+        assertEquals("too large", new String(response.body().readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals(1, fetches.get());
+        cache.fetch(ROUTE, KEY, () -> segment(200, Map.of(), "too large")).body().close();
+        assertEquals(2, fetches.get(), "nothing was stored");
+    }
+
+    @Test
+    void shouldStopWaitingForASlowFillAfterTheRouteTimeout() throws Exception {
+        HlsSegmentCache cache = new HlsSegmentCache(new TempFileSegmentCache());
+        GatewayStreamResponse unread = cache.fetch(ROUTE, KEY, () -> segment(200, Map.of(), "frames"));
+
+        // The first viewer does not read its segment; the second fetches its own once the route timeout passed.
+        long start = System.nanoTime();
+        GatewayStreamResponse own = cache.fetch(ROUTE, KEY, () -> segment(200, Map.of(), "frames"));
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(200).toNanos());
+        assertEquals(2, fetches.get());
+        assertEquals("frames", new String(own.body().readAllBytes(), StandardCharsets.UTF_8));
+        unread.body().close();
+    }
+
+    @Test
+    void shouldStopWaitingForASlowFillAfterTheRouteTimeoutInReactiveMode() {
+        HlsSegmentCache cache = new HlsSegmentCache(new TempFileSegmentCache());
+        Supplier<Uni<GatewayReactiveStreamResponse>> origin = () -> fetches.incrementAndGet() == 1
+                ? Uni.createFrom().nothing()
+                : Uni.createFrom().item(new GatewayReactiveStreamResponse(200, Map.of(),
+                        Multi.createFrom().item(Buffer.buffer("frames"))));
+
+        Cancellable leader = cache.fetchAsync(ROUTE, KEY, origin).subscribe().with(response -> {
+        });
+        GatewayReactiveStreamResponse response = cache.fetchAsync(ROUTE, KEY, origin).await().atMost(Duration.ofSeconds(5));
+
+        assertEquals(200, response.status());
+        assertEquals(2, fetches.get());
+        leader.cancel();
+    }
+
+    @Test
+    void shouldCacheSegmentsInReactiveMode() throws IOException {
+        HlsSegmentCache cache = new HlsSegmentCache(new TempFileSegmentCache());
+        Supplier<Uni<GatewayReactiveStreamResponse>> origin = () -> Uni.createFrom().item(() -> {
+            fetches.incrementAndGet();
+            return new GatewayReactiveStreamResponse(200, Map.of(),
+                    Multi.createFrom().items(Buffer.buffer("fra"), Buffer.buffer("mes")));
+        });
+
+        GatewayReactiveStreamResponse miss = cache.fetchAsync(ROUTE, KEY, origin).await().indefinitely();
+        assertEquals("frames", miss.body().collect().in(Buffer::buffer, Buffer::appendBuffer).await().indefinitely().toString());
+        GatewayReactiveStreamResponse hit = cache.fetchAsync(ROUTE, KEY, origin).await().indefinitely();
+
+        assertEquals(1, fetches.get());
+        assertEquals(List.of("MISS"), miss.headers().get("X-Cache"));
+        assertEquals(List.of("HIT"), hit.headers().get("X-Cache"));
+        assertEquals("frames", Files.readString(hit.bodyFile()));
+    }
+
+    @Test
+    void shouldReleaseTheWaitersOfACancelledFill() {
+        HlsSegmentCache cache = new HlsSegmentCache(new TempFileSegmentCache());
+        Supplier<Uni<GatewayReactiveStreamResponse>> origin = () -> fetches.incrementAndGet() == 1
+                ? Uni.createFrom().nothing()
+                : Uni.createFrom().item(new GatewayReactiveStreamResponse(200, Map.of(),
+                        Multi.createFrom().item(Buffer.buffer("frames"))));
+
+        Cancellable leader = cache.fetchAsync(ROUTE, KEY, origin).subscribe().with(response -> {
+        });
+        Uni<GatewayReactiveStreamResponse> waiter = cache.fetchAsync(ROUTE, KEY, origin);
+        leader.cancel();
+
+        GatewayReactiveStreamResponse response = waiter.await().atMost(Duration.ofSeconds(5));
+        assertEquals(200, response.status());
+        assertEquals(2, fetches.get());
+    }
+
+    private GatewayStreamResponse segment(int status, Map<String, List<String>> headers, String body) {
+        fetches.incrementAndGet();
+        return new GatewayStreamResponse(status, headers,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static GatewayRequest get(String path) {
+        return new GatewayRequest("GET", path, null, Map.of(), null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package application.services.gateway;
+
+import application.dtos.gateway.DownstreamResponse;
+import domain.cache.CacheKey;
+import domain.gateway.CoalescingPolicy;
+import domain.gateway.ResiliencePolicy;
+import domain.gateway.RouteDefinition;
+import domain.gateway.StreamingPolicy;
+import domain.gateway.TargetDefinition;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Test;
+import testresources.InMemoryResponseCache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpResponseCacheTest {
+
+    private static final CacheKey KEY = new CacheKey("downstream", "tenant-a", "/items");
+
+    private final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+    private final HttpResponseCache cache = new HttpResponseCache(new InMemoryResponseCache(), clock::get);
+    private final List<Map<String, List<String>>> sent = new ArrayList<>();
+
+    @Test
+    void shouldOnlyCacheGetsOnEnabledRoutes() {
+        RouteDefinition enabled = new RouteDefinition("a", List.of("/a"), false, new TargetDefinition("http://a"),
+                ResiliencePolicy.DEFAULT, true, false, CoalescingPolicy.DISABLED,
+                StreamingPolicy.DEFAULT);
+        RouteDefinition disabled = new RouteDefinition("b", List.of("/b"), false, new TargetDefinition("http://b"));
+
+        assertTrue(cache.isCacheable(enabled, "GET"));
+        assertFalse(cache.isCacheable(enabled, "HEAD"));
+        assertFalse(cache.isCacheable(disabled, "GET"));
+        assertTrue(cache.isInvalidatedBy(enabled, "post"));
+        assertFalse(cache.isInvalidatedBy(disabled, "POST"));
+    }
+
+    @Test
+    void shouldServeFreshEntriesWithoutCallingDownstream() {
+        Function<Map<String, List<String>>, Uni<DownstreamResponse>> downstream =
+                respond(200, Map.of("Cache-Control", List.of("max-age=60")), "v1");
+
+        DownstreamResponse miss = fetch(Map.of(), downstream);
+        clock.addAndGet(5_000);
+        DownstreamResponse hit = fetch(Map.of(), downstream);
+
+        assertEquals(1, sent.size());
+        assertEquals(List.of("MISS"), miss.headers().get("X-Cache"));
+        assertEquals(List.of("HIT"), hit.headers().get("X-Cache"));
+        assertEquals(List.of("5"), hit.headers().get("Age"));
+        assertEquals("v1", new String(hit.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldRevalidateStaleEntriesWithTheirEtag() {
+        fetch(Map.of(), respond(200, Map.of("Cache-Control", List.of("max-age=10"), "ETag", List.of("\"v1\"")), "v1"));
+        clock.addAndGet(20_000);
+
+        DownstreamResponse revalidated = fetch(Map.of("If-None-Match", List.of("\"other\"")),
+                respond(304, Map.of("Cache-Control", List.of("max-age=10")), null));
+
+        assertEquals(List.of("\"v1\""), sent.get(1).get("If-None-Match"));
+        assertEquals(200, revalidated.status());
+        assertEquals(List.of("REVALIDATED"), revalidated.headers().get("X-Cache"));
+        assertEquals("v1", new String(revalidated.body(), StandardCharsets.UTF_8));
+
+        clock.addAndGet(5_000);
+        assertEquals(List.of("HIT"), fetch(Map.of(), respond(500, Map.of(), null)).headers().get("X-Cache"));
+    }
+
+    @Test
+    void shouldAnswerMatchingClientPreconditionsWithNotModified() {
+        fetch(Map.of(), respond(200, Map.of("Cache-Control", List.of("max-age=60"), "ETag", List.of("W/\"v1\"")), "v1"));
+
+        DownstreamResponse response = fetch(Map.of("If-None-Match", List.of("\"v0\", \"v1\"")), respond(500, Map.of(), null));
+
+        assertEquals(304, response.status());
+        assertNull(response.body());
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    void shouldServeStaleWhileRevalidatingInTheBackground() throws InterruptedException {
+        fetch(Map.of(), respond(200, Map.of("Cache-Control", List.of("max-age=10, stale-while-revalidate=60")), "v1"));
+        clock.addAndGet(20_000);
+
+        DownstreamResponse stale = fetch(Map.of(),
+                respond(200, Map.of("Cache-Control", List.of("max-age=10, stale-while-revalidate=60")), "v2"));
+        assertEquals(List.of("STALE"), stale.headers().get("X-Cache"));
+        assertEquals("v1", new String(stale.body(), StandardCharsets.UTF_8));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        DownstreamResponse refreshed = stale;
+        while (System.currentTimeMillis() < deadline) {
+            refreshed = fetch(Map.of(), respond(500, Map.of(), null));
+            if ("v2".equals(new String(refreshed.body(), StandardCharsets.UTF_8))) {
+                break;
+            }
+            Thread.sleep(10);
+        }
+        assertEquals("v2", new String(refreshed.body(), StandardCharsets.UTF_8));
+        assertEquals(List.of("HIT"), refreshed.headers().get("X-Cache"));
+    }
+
+    @Test
+    void shouldHonorRequestDirectivesAndVary() {
+        Map<String, List<String>> responseHeaders = Map.of("Cache-Control", List.of("max-age=60"),
+                "Vary", List.of("Accept-Language"));
+        fetch(Map.of("Accept-Language", List.of("en")), respond(200, responseHeaders, "en"));
+
+        assertEquals("en", body(fetch(Map.of("Accept-Language", List.of("en")), respond(200, responseHeaders, "x"))));
+        assertEquals("fr", body(fetch(Map.of("Accept-Language", List.of("fr")), respond(200, responseHeaders, "fr"))));
+        assertEquals("en", body(fetch(Map.of("Accept-Language", List.of("en")), respond(200, responseHeaders, "x"))));
+        assertEquals(2, sent.size());
+
+        fetch(Map.of("Accept-Language", List.of("en"), "Cache-Control", List.of("no-cache")),
+                respond(200, responseHeaders, "en2"));
+        assertEquals(3, sent.size());
+        assertEquals("en2", body(fetch(Map.of("Accept-Language", List.of("en")), respond(200, responseHeaders, "x"))));
+
+        cache.invalidate(KEY);
+        assertEquals("fr2", body(fetch(Map.of("Accept-Language", List.of("fr")), respond(200, responseHeaders, "fr2"))));
+    }
+
+    private DownstreamResponse fetch(Map<String, List<String>> requestHeaders,
+                                     Function<Map<String, List<String>>, Uni<DownstreamResponse>> downstream) {
+        return cache.fetch(KEY, requestHeaders, downstream).await().indefinitely();
+    }
+
+    private Function<Map<String, List<String>>, Uni<DownstreamResponse>> respond(int status,
+                                                                                Map<String, List<String>> headers,
+                                                                                String body) {
+        return requestHeaders -> Uni.createFrom().item(() -> {
+            synchronized (sent) {
+                sent.add(requestHeaders);
+            }
+            return new DownstreamResponse(status, headers, body == null ? null : body.getBytes(StandardCharsets.UTF_8));
+        });
+    }
+
+    private static String body(DownstreamResponse response) {
+        return new String(response.body(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,314 @@
+package application.services.gateway;
+
+import application.dtos.gateway.DownstreamResponse;
+import application.dtos.gateway.GatewayReactiveStreamResponse;
+import application.dtos.gateway.GatewayRequest;
+import application.dtos.gateway.GatewayStreamResponse;
+import application.exceptions.DownstreamRequestFailedException;
+import domain.cache.CacheKey;
+import domain.gateway.CoalescingPolicy;
+import domain.gateway.FlushPolicy;
+import domain.gateway.ResiliencePolicy;
+import domain.gateway.RouteDefinition;
+import domain.gateway.StreamingPolicy;
+import domain.gateway.TargetDefinition;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import io.smallrye.mutiny.operators.multi.processors.UnicastProcessor;
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MjpegRelayTest {
+
+    private static final RouteDefinition ROUTE = new RouteDefinition("cameras", List.of("/cameras"), true,
+            new TargetDefinition("http://cameras"), ResiliencePolicy.DEFAULT, false, false, CoalescingPolicy.DISABLED,
+            new StreamingPolicy(true, true, 1024, Duration.ofSeconds(60), FlushPolicy.DEFAULT, 1024 * 1024, false));
+    private static final CacheKey TARGET = new CacheKey("cameras", "tenant", "/lobby.mjpg");
+    private static final Map<String, List<String>> MJPEG =
+            Map.of("Content-Type", List.of("multipart/x-mixed-replace; boundary=frame"));
+
+    private final MjpegRelay relay = new MjpegRelay();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void shouldOnlyRelayGetsWithoutBodyOnEnabledRoutes() {
+        RouteDefinition disabled = new RouteDefinition("b", List.of("/b"), false, new TargetDefinition("http://b"));
+
+        assertTrue(relay.isRelayed(ROUTE, new GatewayRequest("GET", "/cameras/lobby.mjpg", null, Map.of(), null)));
+        assertFalse(relay.isRelayed(ROUTE, new GatewayRequest("POST", "/cameras/lobby.mjpg", null, Map.of(), null)));
+        assertFalse(relay.isRelayed(disabled, new GatewayRequest("GET", "/b/lobby.mjpg", null, Map.of(), null)));
+    }
+
+    @Test
+    void shouldFanOneUpstreamOutToEveryViewerAndCloseItWithTheLast() throws Exception {
+        Upstream upstream = new Upstream();
+        Supplier<GatewayStreamResponse> downstream = () -> {
+            calls.incrementAndGet();
+            return new GatewayStreamResponse(200, MJPEG, upstream);
+        };
+
+        InputStream first = relay.stream(ROUTE, TARGET, Map.of(), downstream).body();
+        InputStream second = relay.stream(ROUTE, TARGET, Map.of(), downstream).body();
+        assertEquals(1, calls.get());
+
+        upstream.push(frame(1));
+        assertArrayEquals(frame(1), first.readNBytes(frame(1).length));
+        assertArrayEquals(frame(1), second.readNBytes(frame(1).length));
+
+        first.close();
+        upstream.push(frame(2));
+        assertArrayEquals(frame(2), second.readNBytes(frame(2).length));
+        assertFalse(upstream.closed.await(100, TimeUnit.MILLISECONDS));
+
+        second.close();
+        assertTrue(upstream.closed.await(5, TimeUnit.SECONDS));
+
+        relay.stream(ROUTE, TARGET, Map.of(), () -> {
+            calls.incrementAndGet();
+            return new GatewayStreamResponse(200, MJPEG, new Upstream());
+        }).body().close();
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shouldNotShareStreamsBetweenDifferentCredentials() {
+        Supplier<GatewayStreamResponse> downstream = () -> {
+            calls.incrementAndGet();
+            return new GatewayStreamResponse(200, MJPEG, new Upstream());
+        };
+
+        relay.stream(ROUTE, TARGET, Map.of("Authorization", List.of("Bearer a")), downstream);
+        relay.stream(ROUTE, TARGET, Map.of("Authorization", List.of("Bearer b")), downstream);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shouldSkipToTheNewestFrameForAViewerThatFallsBehind() throws Exception {
+        Upstream upstream = new Upstream();
+        Supplier<GatewayStreamResponse> downstream = () -> new GatewayStreamResponse(200, MJPEG, upstream);
+        InputStream stalled = relay.stream(ROUTE, TARGET, Map.of(), downstream).body();
+        InputStream reading = relay.stream(ROUTE, TARGET, Map.of(), downstream).body();
+
+        for (int i = 1; i <= 5; i++) {
+            upstream.push(frame(i));
+            assertArrayEquals(frame(i), reading.readNBytes(frame(i).length));
+        }
+
+        assertArrayEquals(frame(5), stalled.readNBytes(frame(5).length));
+        assertEquals(4, relay.skippedFrames());
+        stalled.close();
+        reading.close();
+    }
+
+    @Test
+    void shouldDropStaleFramesForASingleClient() throws Exception {
+        Upstream upstream = new Upstream();
+        InputStream viewer = relay.dropStaleFrames(ROUTE, TARGET, Map.of(),
+                new GatewayStreamResponse(200, MJPEG, upstream)).body();
+
+        upstream.push(frame(1));
+        assertArrayEquals(frame(1), viewer.readNBytes(frame(1).length));
+        upstream.push(frame(2));
+        upstream.push(frame(3));
+        upstream.close();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (relay.skippedFrames() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, relay.skippedFrames());
+        assertArrayEquals(frame(3), viewer.readAllBytes());
+    }
+
+    @Test
+    void shouldRecognizeSnapshotRequestsAndTheStreamTheyName() {
+        GatewayRequest snapshot = new GatewayRequest("GET", "/cameras/lobby.mjpg", "fps=5&snapshot", Map.of(), null);
+
+        assertTrue(relay.isSnapshot(ROUTE, snapshot));
+        assertTrue(relay.isSnapshot(ROUTE, new GatewayRequest("GET", "/cameras/lobby.mjpg", "snapshot=1", Map.of(), null)));
+        assertFalse(relay.isSnapshot(ROUTE, new GatewayRequest("GET", "/cameras/lobby.mjpg", "snapshots", Map.of(), null)));
+        assertFalse(relay.isSnapshot(new RouteDefinition("b", List.of("/b"), false, new TargetDefinition("http://b")),
+                new GatewayRequest("GET", "/b/lobby.mjpg", "snapshot", Map.of(), null)));
+        assertEquals("fps=5", relay.streamRequest(snapshot).rawQuery());
+    }
+
+    @Test
+    void shouldServeSnapshotsOfALiveStreamFromMemory() throws Exception {
+        Upstream upstream = new Upstream();
+        InputStream viewer = relay.stream(ROUTE, TARGET, Map.of(), () -> new GatewayStreamResponse(200, MJPEG, upstream))
+                .body();
+        upstream.push(frame(1));
+        viewer.readNBytes(frame(1).length);
+
+        DownstreamResponse snapshot = relay.snapshot(ROUTE, TARGET, Map.of(), this::unexpectedCall);
+
+        assertEquals(200, snapshot.status());
+        assertEquals("jpeg-1", snapshotBody(snapshot));
+        assertEquals(List.of("image/jpeg"), snapshot.headers().get("Content-Type"));
+        assertEquals(0, calls.get());
+        viewer.close();
+    }
+
+    @Test
+    void shouldFetchASingleFrameWhenNoStreamIsLive() {
+        Upstream upstream = new Upstream();
+        upstream.push(frame(7));
+        upstream.push(frame(8));
+
+        DownstreamResponse snapshot = relay.snapshot(ROUTE, TARGET, Map.of(), () -> {
+            calls.incrementAndGet();
+            return new GatewayStreamResponse(200, MJPEG, upstream);
+        });
+
+        assertEquals("jpeg-7", snapshotBody(snapshot));
+        assertEquals(1, calls.get());
+        assertEquals(0, upstream.closed.getCount());
+    }
+
+    @Test
+    void shouldFetchASingleFrameFromNonBlockingUpstreams() {
+        DownstreamResponse snapshot = relay.snapshotAsync(ROUTE, TARGET, Map.of(),
+                        () -> Uni.createFrom().item(new GatewayReactiveStreamResponse(200, MJPEG,
+                                Multi.createFrom().items(frame(3), frame(4)).map(Buffer::buffer))))
+                .await().atMost(Duration.ofSeconds(5));
+
+        assertEquals("jpeg-3", snapshotBody(snapshot));
+    }
+
+    @Test
+    void shouldReturnOtherResponsesAsTheyAre() {
+        GatewayStreamResponse notFound = new GatewayStreamResponse(404, Map.of(),
+                new ByteArrayInputStream(new byte[0]));
+        GatewayStreamResponse plain = new GatewayStreamResponse(200, Map.of("Content-Type", List.of("text/plain")),
+                new ByteArrayInputStream(new byte[0]));
+
+        assertEquals(notFound, relay.stream(ROUTE, TARGET, Map.of(), () -> notFound));
+        assertEquals(plain, relay.stream(ROUTE, TARGET, Map.of(), () -> plain));
+        assertEquals(plain, relay.dropStaleFrames(ROUTE, TARGET, Map.of(), plain));
+    }
+
+    @Test
+    void shouldRefuseOtherSnapshotResponsesLargerThanAFrame() {
+        Map<String, List<String>> plain = Map.of("Content-Type", List.of("text/plain"));
+        AtomicInteger cancelled = new AtomicInteger();
+
+        assertEquals(1024, relay.snapshot(ROUTE, TARGET, Map.of(),
+                () -> new GatewayStreamResponse(200, plain, new ByteArrayInputStream(new byte[1024]))).body().length);
+        assertThrows(DownstreamRequestFailedException.class, () -> relay.snapshot(ROUTE, TARGET, Map.of(),
+                () -> new GatewayStreamResponse(200, plain, new ByteArrayInputStream(new byte[1025]))));
+        Uni<DownstreamResponse> snapshot = relay.snapshotAsync(ROUTE, TARGET, Map.of(),
+                () -> Uni.createFrom().item(new GatewayReactiveStreamResponse(200, plain,
+                        Multi.createFrom().items(Buffer.buffer(new byte[1000]), Buffer.buffer(new byte[1000]))
+                                .onCancellation().invoke(cancelled::incrementAndGet))));
+        assertThrows(DownstreamRequestFailedException.class, () -> snapshot.await().atMost(Duration.ofSeconds(5)));
+        assertEquals(1, cancelled.get());
+    }
+
+    @Test
+    void shouldFanOutNonBlockingUpstreams() {
+        UnicastProcessor<Buffer> upstream = UnicastProcessor.create();
+        AtomicInteger cancelled = new AtomicInteger();
+        Supplier<Uni<GatewayReactiveStreamResponse>> downstream = () -> {
+            calls.incrementAndGet();
+            return Uni.createFrom().item(new GatewayReactiveStreamResponse(200, MJPEG,
+                    upstream.onCancellation().invoke(cancelled::incrementAndGet)));
+        };
+
+        AssertSubscriber<Buffer> first = relay.streamAsync(ROUTE, TARGET, Map.of(), downstream)
+                .await().atMost(Duration.ofSeconds(5)).body().subscribe().withSubscriber(AssertSubscriber.create(10));
+        AssertSubscriber<Buffer> second = relay.streamAsync(ROUTE, TARGET, Map.of(), downstream)
+                .await().atMost(Duration.ofSeconds(5)).body().subscribe().withSubscriber(AssertSubscriber.create(10));
+        assertEquals(1, calls.get());
+
+        upstream.onNext(Buffer.buffer(frame(1)));
+        first.awaitItems(1);
+        second.awaitItems(1);
+        assertArrayEquals(frame(1), first.getItems().get(0).getBytes());
+        assertArrayEquals(frame(1), second.getItems().get(0).getBytes());
+
+        first.cancel();
+        second.cancel();
+        assertEquals(1, cancelled.get());
+    }
+
+    private GatewayStreamResponse unexpectedCall() {
+        calls.incrementAndGet();
+        throw new IllegalStateException("No upstream call expected");
+    }
+
+    private static String snapshotBody(DownstreamResponse response) {
+        return new String(response.body(), StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] frame(int n) {
+        String body = "jpeg-" + n;
+        return ("--frame\r\nContent-Type: image/jpeg\r\nContent-Length: " + body.length() + "\r\n\r\n" + body + "\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * A live upstream body: blocks for the chunks pushed to it until it is closed.
+     */
+    private static final class Upstream extends InputStream {
+
+        private static final byte[] CLOSED = new byte[0];
+
+        private final LinkedBlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        void push(byte[] chunk) {
+            chunks.add(chunk);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            byte[] chunk;
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            if (chunk == CLOSED) {
+                chunks.add(CLOSED);
+                return -1;
+            }
+            // Tests push frames smaller than the relay's read buffer.
+            System.arraycopy(chunk, 0, target, offset, chunk.length);
+            return chunk.length;
+        }
+
+        @Override
+        public void close() {
+            chunks.add(CLOSED);
+            closed.countDown();
+        }
+    }
+}
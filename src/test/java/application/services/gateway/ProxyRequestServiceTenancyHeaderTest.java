@@ -4,13 +4,22 @@ import application.dtos.gateway.DownstreamRequest;
 import application.dtos.gateway.DownstreamResponse;
 import application.dtos.gateway.DownstreamStreamResponse;
 import application.dtos.gateway.GatewayRequest;
+import application.dtos.gateway.GatewayResponse;
 import configurations.tenancy.TenantIdProvider;
+import domain.gateway.CoalescingPolicy;
+import domain.gateway.ResiliencePolicy;
 import domain.gateway.RouteDefinition;
+import domain.gateway.StreamingPolicy;
 import domain.gateway.TargetDefinition;
 import org.junit.jupiter.api.Test;
 import ports.out.gateway.DownstreamHttpPort;
 import ports.out.gateway.RouteDefinitionsPort;
+import testresources.InMemoryResponseCache;
+import testresources.PassThroughRouteResilience;
+import testresources.TempFileSegmentCache;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -51,7 +60,9 @@ class ProxyRequestServiceTenancyHeaderTest {
 
         TenantIdProvider tenantIdProvider = () -> tenantId;
 
-        ProxyRequestService service = new ProxyRequestService(routeDefinitionsPort, downstreamHttpPort, tenantIdProvider);
+        ProxyRequestService service = new ProxyRequestService(routeDefinitionsPort, downstreamHttpPort, tenantIdProvider, new PassThroughRouteResilience(),
+                new HttpResponseCache(new InMemoryResponseCache()), new HlsSegmentCache(new TempFileSegmentCache()),
+                new RequestCoalescer(), new MjpegRelay(), new ActiveStreams(), new StreamFlushing());
 
         GatewayRequest gatewayRequest = new GatewayRequest(
                 "GET",
@@ -67,4 +78,55 @@ class ProxyRequestServiceTenancyHeaderTest {
         assertNotNull(downstreamRequest);
         assertEquals(List.of(tenantId.toString()), downstreamRequest.headers().get("X-Tenant-Id"));
     }
+
+    @Test
+    void shouldPartitionCachedResponsesByTenant() {
+        UUID firstTenant = UUID.fromString("11111111-1111-1111-1111-111111111111");
+        UUID secondTenant = UUID.fromString("22222222-2222-2222-2222-222222222222");
+        AtomicReference<UUID> currentTenant = new AtomicReference<>(firstTenant);
+
+        List<RouteDefinition> definitions = List.of(new RouteDefinition(
+                "downstream",
+                List.of("/api/v1"),
+                false,
+                new TargetDefinition("http://downstream"),
+                ResiliencePolicy.DEFAULT,
+                true,
+                false,
+                CoalescingPolicy.DISABLED,
+                StreamingPolicy.DEFAULT
+        ));
+
+        List<String> calls = new ArrayList<>();
+        DownstreamHttpPort downstreamHttpPort = new DownstreamHttpPort() {
+            @Override
+            public DownstreamResponse execute(DownstreamRequest request) {
+                String tenant = request.headers().get("X-Tenant-Id").get(0);
+                calls.add(tenant);
+                return new DownstreamResponse(200, Map.of("Cache-Control", List.of("public, max-age=60")),
+                        tenant.getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public DownstreamStreamResponse executeStream(DownstreamRequest request) {
+                throw new UnsupportedOperationException("Not used in this test");
+            }
+        };
+
+        ProxyRequestService service = new ProxyRequestService(() -> definitions, downstreamHttpPort, currentTenant::get,
+                new PassThroughRouteResilience(), new HttpResponseCache(new InMemoryResponseCache()),
+                new HlsSegmentCache(new TempFileSegmentCache()), new RequestCoalescer(), new MjpegRelay(), new ActiveStreams(), new StreamFlushing());
+        GatewayRequest gatewayRequest = new GatewayRequest("GET", "/api/v1/items", null, Map.of(), null);
+
+        service.proxy(gatewayRequest);
+        currentTenant.set(secondTenant);
+        GatewayResponse second = service.proxy(gatewayRequest);
+        currentTenant.set(firstTenant);
+        GatewayResponse cached = service.proxy(gatewayRequest);
+
+        assertEquals(List.of(firstTenant.toString(), secondTenant.toString()), calls);
+        assertEquals(secondTenant.toString(), new String(second.body(), StandardCharsets.UTF_8));
+        assertEquals(firstTenant.toString(), new String(cached.body(), StandardCharsets.UTF_8));
+        assertEquals(List.of("HIT"), cached.headers().get("X-Cache"));
+    }
 }
@@ -2,20 +2,28 @@ package application.services.gateway;
 
 import application.dtos.gateway.GatewayRequest;
 import application.dtos.gateway.GatewayResponse;
+import application.exceptions.DownstreamRequestFailedException;
 import configurations.tenancy.TenantIdProvider;
+import domain.gateway.LoadBalancingStrategy;
+import domain.gateway.ResiliencePolicy;
 import domain.gateway.RouteDefinition;
 import domain.gateway.TargetDefinition;
+import domain.gateway.Upstream;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
 import org.junit.jupiter.api.Test;
 import ports.out.gateway.DownstreamHttpPort;
 import ports.out.gateway.RouteDefinitionsPort;
+import testresources.InMemoryResponseCache;
+import testresources.PassThroughRouteResilience;
+import testresources.TempFileSegmentCache;
 
 import application.dtos.gateway.DownstreamRequest;
 import application.dtos.gateway.DownstreamResponse;
 import application.dtos.gateway.DownstreamStreamResponse;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -56,7 +64,9 @@ class ProxyRequestServiceTest {
 
         TenantIdProvider tenantIdProvider = () -> null;
 
-        ProxyRequestService service = new ProxyRequestService(routes, downstream, tenantIdProvider);
+        ProxyRequestService service = new ProxyRequestService(routes, downstream, tenantIdProvider, new PassThroughRouteResilience(),
+                new HttpResponseCache(new InMemoryResponseCache()), new HlsSegmentCache(new TempFileSegmentCache()),
+                new RequestCoalescer(), new MjpegRelay(), new ActiveStreams(), new StreamFlushing());
 
         GatewayRequest gatewayRequest = new GatewayRequest(
                 "GET",
@@ -75,4 +85,60 @@ class ProxyRequestServiceTest {
         byte[] expectedBody = "{\"message\":\"bad request\"}".getBytes(StandardCharsets.UTF_8);
         assertArrayEquals(expectedBody, response.body());
     }
+
+    @Test
+    void shouldSpreadRequestsOverUpstreamsAndReleaseThemAfterwards() {
+        Upstream first = new Upstream("http://first:1", 1);
+        Upstream second = new Upstream("http://second:2", 1);
+        List<RouteDefinition> definitions = List.of(new RouteDefinition(
+                "downstream",
+                List.of("/api"),
+                false,
+                new TargetDefinition(LoadBalancingStrategy.ROUND_ROBIN, List.of(first, second))
+        ));
+        RouteDefinitionsPort routes = () -> definitions;
+
+        List<String> urls = new ArrayList<>();
+        DownstreamHttpPort downstream = new DownstreamHttpPort() {
+            @Override
+            public DownstreamResponse execute(DownstreamRequest request) {
+                urls.add(request.url());
+                assertEquals(1, first.outstanding() + second.outstanding());
+                if (request.url().contains("second")) {
+                    throw new IllegalStateException("connection refused");
+                }
+                return new DownstreamResponse(200, Map.of(), null);
+            }
+
+            @Override
+            public DownstreamStreamResponse executeStream(DownstreamRequest request) {
+                throw new UnsupportedOperationException("Not used in this test");
+            }
+        };
+
+        ProxyRequestService service = new ProxyRequestService(routes, downstream, () -> null, new PassThroughRouteResilience(),
+                new HttpResponseCache(new InMemoryResponseCache()), new HlsSegmentCache(new TempFileSegmentCache()),
+                new RequestCoalescer(), new MjpegRelay(), new ActiveStreams(), new StreamFlushing());
+        GatewayRequest gatewayRequest = new GatewayRequest("GET", "/api/test", "x=1", Map.of(), null);
+
+        for (int i = 0; i < 4; i++) {
+            try {
+                service.proxy(gatewayRequest);
+            } catch (DownstreamRequestFailedException ignored) {
+                // second upstream is down
+            }
+        }
+
+        assertEquals(List.of(
+                "http://first:1/api/test?x=1",
+                "http://second:2/api/test?x=1",
+                "http://first:1/api/test?x=1",
+                "http://second:2/api/test?x=1"
+        ), urls);
+        assertEquals(0, first.outstanding());
+        assertEquals(0, second.outstanding());
+        assertTrue(first.ewmaLatencyNanos() > 0);
+        // Refused calls count as taking at least the route timeout.
+        assertTrue(second.ewmaLatencyNanos() >= ResiliencePolicy.DEFAULT.timeout().toNanos());
+    }
 }
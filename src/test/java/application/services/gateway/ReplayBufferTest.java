@@ -0,0 +1,130 @@
+package application.services.gateway;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayBufferTest {
+
+    private final AtomicInteger sealed = new AtomicInteger();
+
+    @Test
+    void shouldSealOncePastTheReplayLimitAndDropReadersFallingThatFarBehind() throws IOException {
+        ReplayBuffer buffer = new ReplayBuffer(trickle("0123456789abcdefghij"), 8, sealed::incrementAndGet);
+        InputStream fast = buffer.join();
+        InputStream slow = buffer.join();
+
+        assertEquals("01234567", read(fast, 8));
+        assertEquals("0123", read(slow, 4));
+        assertEquals(0, sealed.get());
+
+        assertEquals("89ab", read(fast, 4));
+        assertEquals(1, sealed.get());
+        assertNull(buffer.join());
+        assertEquals("4567", read(slow, 4));
+
+        // Twelve bytes behind once the fast reader is done: the slow one is dropped.
+        assertEquals("cdefghij", new String(fast.readAllBytes(), StandardCharsets.UTF_8));
+        assertThrows(IOException.class, slow::read);
+    }
+
+    @Test
+    void shouldCloseTheSourceWithTheLastReader() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream source = new ByteArrayInputStream(new byte[64]) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        ReplayBuffer buffer = new ReplayBuffer(source, 1024, sealed::incrementAndGet);
+        InputStream first = buffer.join();
+        InputStream second = buffer.join();
+
+        assertArrayEquals(new byte[64], first.readAllBytes());
+        first.close();
+        assertFalse(closed.get());
+        second.close();
+
+        assertTrue(closed.get());
+        assertEquals(1, sealed.get());
+        assertThrows(IOException.class, second::read);
+    }
+
+    @Test
+    void shouldReleaseAReaderWaitingForTheFillerWhenItIsClosed() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        InputStream source = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                reading.countDown();
+                try {
+                    released.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return -1;
+            }
+        };
+        ReplayBuffer buffer = new ReplayBuffer(source, 1024, sealed::incrementAndGet);
+        InputStream filler = buffer.join();
+        InputStream waiter = buffer.join();
+        CompletableFuture<Integer> filling = CompletableFuture.supplyAsync(() -> readQuietly(filler));
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Integer> waiting = CompletableFuture.supplyAsync(() -> readQuietly(waiter));
+        Thread.sleep(100);
+        waiter.close();
+
+        // The waiter gives up although the filler is still stuck in the source.
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(UncheckedIOException.class, failure.getCause());
+        assertFalse(filling.isDone());
+
+        released.countDown();
+        assertEquals(-1, filling.get(5, TimeUnit.SECONDS));
+    }
+
+    private static int readQuietly(InputStream in) {
+        try {
+            return in.read();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String read(InputStream in, int length) throws IOException {
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A source handing out at most four bytes per read, like a body arriving in small chunks.
+     */
+    private static InputStream trickle(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] target, int offset, int length) {
+                return super.read(target, offset, Math.min(length, 4));
+            }
+        };
+    }
+}
@@ -0,0 +1,242 @@
+package application.services.gateway;
+
+import application.dtos.gateway.DownstreamResponse;
+import application.dtos.gateway.GatewayReactiveStreamResponse;
+import application.dtos.gateway.GatewayRequest;
+import application.dtos.gateway.GatewayStreamResponse;
+import domain.cache.CacheKey;
+import domain.gateway.CoalescingPolicy;
+import domain.gateway.ResiliencePolicy;
+import domain.gateway.RouteDefinition;
+import domain.gateway.StreamingPolicy;
+import domain.gateway.TargetDefinition;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestCoalescerTest {
+
+    private static final RouteDefinition ROUTE = new RouteDefinition("dashboards", List.of("/dashboards"), true,
+            new TargetDefinition("http://dashboards"), ResiliencePolicy.DEFAULT, false, false,
+            new CoalescingPolicy(true, List.of("Accept"), 8), StreamingPolicy.DEFAULT);
+    private static final CacheKey TARGET = new CacheKey("dashboards", "tenant", "/panels?refresh=1");
+
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void shouldOnlyCoalesceGetsWithoutBodyOnEnabledRoutes() {
+        RouteDefinition disabled = new RouteDefinition("b", List.of("/b"), false, new TargetDefinition("http://b"));
+
+        assertTrue(coalescer.isCoalesced(ROUTE, new GatewayRequest("get", "/dashboards/panels", null, Map.of(), null)));
+        assertFalse(coalescer.isCoalesced(ROUTE, new GatewayRequest("POST", "/dashboards/panels", null, Map.of(), null)));
+        assertFalse(coalescer.isCoalesced(disabled, new GatewayRequest("GET", "/b/panels", null, Map.of(), null)));
+    }
+
+    @Test
+    void shouldShareOneDownstreamCallBetweenConcurrentIdenticalRequests() throws Exception {
+        CountDownLatch downstreamStarted = new CountDownLatch(1);
+        CountDownLatch releaseDownstream = new CountDownLatch(1);
+        Supplier<DownstreamResponse> downstream = () -> {
+            calls.incrementAndGet();
+            downstreamStarted.countDown();
+            await(releaseDownstream);
+            return new DownstreamResponse(200, Map.of("Vary", List.of("Accept")), "panels".getBytes(StandardCharsets.UTF_8));
+        };
+        Map<String, List<String>> json = Map.of("Accept", List.of("application/json"));
+
+        ExecutorService clients = Executors.newFixedThreadPool(10);
+        try {
+            List<Future<DownstreamResponse>> responses = new ArrayList<>();
+            responses.add(clients.submit(() -> coalescer.execute(ROUTE, TARGET, json, downstream)));
+            assertTrue(downstreamStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < 10; i++) {
+                responses.add(clients.submit(() -> coalescer.execute(ROUTE, TARGET, json, downstream)));
+            }
+            Thread.sleep(100);
+            releaseDownstream.countDown();
+
+            DownstreamResponse first = responses.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<DownstreamResponse> response : responses) {
+                assertSame(first, response.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+
+        assertEquals(1, calls.get());
+        coalescer.execute(ROUTE, TARGET, json, downstream);
+        assertEquals(2, calls.get(), "a request after the flight landed makes its own call");
+    }
+
+    @Test
+    void shouldKeepRequestsApartOnVaryHeadersAndCredentials() {
+        List<CompletableFuture<DownstreamResponse>> pending = new ArrayList<>();
+        Supplier<Uni<DownstreamResponse>> downstream = () -> Uni.createFrom().deferred(() -> {
+            calls.incrementAndGet();
+            CompletableFuture<DownstreamResponse> response = new CompletableFuture<>();
+            pending.add(response);
+            return Uni.createFrom().completionStage(response);
+        });
+
+        List<Uni<DownstreamResponse>> requests = List.of(
+                coalescer.executeAsync(ROUTE, TARGET, Map.of("Accept", List.of("text/csv")), downstream),
+                coalescer.executeAsync(ROUTE, TARGET, Map.of("accept", List.of("text/csv")), downstream),
+                coalescer.executeAsync(ROUTE, TARGET, Map.of("Accept", List.of("application/json")), downstream),
+                coalescer.executeAsync(ROUTE, TARGET, Map.of("Accept", List.of("text/csv"),
+                        "Authorization", List.of("Bearer other")), downstream),
+                coalescer.executeAsync(ROUTE, new CacheKey("dashboards", "other-tenant", "/panels?refresh=1"),
+                        Map.of("Accept", List.of("text/csv")), downstream));
+        List<CompletableFuture<DownstreamResponse>> results = requests.stream()
+                .map(Uni::subscribeAsCompletionStage)
+                .toList();
+
+        assertEquals(4, calls.get());
+        pending.forEach(response -> response.complete(new DownstreamResponse(200, Map.of(), null)));
+        assertSame(results.get(0).join(), results.get(1).join());
+    }
+
+    @Test
+    void shouldMakeOwnCallWhenTheSharedResponseVariesOnAnotherHeader() {
+        CompletableFuture<DownstreamResponse> first = new CompletableFuture<>();
+        Supplier<Uni<DownstreamResponse>> downstream = () -> Uni.createFrom().deferred(() -> calls.incrementAndGet() == 1
+                ? Uni.createFrom().completionStage(first)
+                : Uni.createFrom().item(new DownstreamResponse(200, Map.of(), "fr".getBytes(StandardCharsets.UTF_8))));
+
+        CompletableFuture<DownstreamResponse> english = coalescer.executeAsync(ROUTE, TARGET,
+                Map.of("Accept-Language", List.of("en")), downstream).subscribeAsCompletionStage();
+        CompletableFuture<DownstreamResponse> french = coalescer.executeAsync(ROUTE, TARGET,
+                Map.of("Accept-Language", List.of("fr")), downstream).subscribeAsCompletionStage();
+        first.complete(new DownstreamResponse(200, Map.of("Vary", List.of("Accept-Language")),
+                "en".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("en", new String(english.join().body(), StandardCharsets.UTF_8));
+        assertEquals("fr", new String(french.join().body(), StandardCharsets.UTF_8));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shouldMakeOwnCallWhenTheFirstCallLeftItsBodyStreamed() {
+        CompletableFuture<DownstreamResponse> first = new CompletableFuture<>();
+        Supplier<Uni<DownstreamResponse>> downstream = () -> Uni.createFrom().deferred(() -> calls.incrementAndGet() == 1
+                ? Uni.createFrom().completionStage(first)
+                : Uni.createFrom().item(new DownstreamResponse(200, Map.of(), null, null,
+                        Multi.createFrom().item(Buffer.buffer("own")))));
+
+        CompletableFuture<DownstreamResponse> leader = coalescer.executeAsync(ROUTE, TARGET, Map.of(), downstream)
+                .subscribeAsCompletionStage();
+        CompletableFuture<DownstreamResponse> follower = coalescer.executeAsync(ROUTE, TARGET, Map.of(), downstream)
+                .subscribeAsCompletionStage();
+        first.complete(new DownstreamResponse(200, Map.of(), null, null, Multi.createFrom().item(Buffer.buffer("first"))));
+
+        assertEquals("first", leader.join().bodyChunks().collect().first().await().indefinitely().toString());
+        assertEquals("own", follower.join().bodyChunks().collect().first().await().indefinitely().toString());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shouldShareTheFailureOfTheFirstCall() throws Exception {
+        CountDownLatch downstreamStarted = new CountDownLatch(1);
+        CountDownLatch releaseDownstream = new CountDownLatch(1);
+        Supplier<DownstreamResponse> downstream = () -> {
+            calls.incrementAndGet();
+            downstreamStarted.countDown();
+            await(releaseDownstream);
+            throw new IllegalStateException("origin down");
+        };
+
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        try {
+            Future<DownstreamResponse> first = clients.submit(() -> coalescer.execute(ROUTE, TARGET, Map.of(), downstream));
+            assertTrue(downstreamStarted.await(5, TimeUnit.SECONDS));
+            Future<DownstreamResponse> second = clients.submit(() -> coalescer.execute(ROUTE, TARGET, Map.of(), downstream));
+            Thread.sleep(100);
+            releaseDownstream.countDown();
+
+            for (Future<DownstreamResponse> response : List.of(first, second)) {
+                Exception e = assertThrows(Exception.class, () -> response.get(5, TimeUnit.SECONDS));
+                assertEquals("origin down", e.getCause().getMessage());
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void shouldReplayAStreamedBodyToRequestsJoiningWhileItIsRelayed() throws IOException {
+        Supplier<GatewayStreamResponse> downstream = () -> {
+            calls.incrementAndGet();
+            return new GatewayStreamResponse(200, Map.of("Content-Type", List.of("application/vnd.apple.mpegurl")),
+                    new ByteArrayInputStream("#EXTM3U\n".getBytes(StandardCharsets.UTF_8)));
+        };
+
+        GatewayStreamResponse first = coalescer.executeStream(ROUTE, TARGET, Map.of(), downstream);
+        InputStream firstBody = first.body();
+        assertEquals("#EXTM", new String(firstBody.readNBytes(5), StandardCharsets.UTF_8));
+        GatewayStreamResponse second = coalescer.executeStream(ROUTE, TARGET, Map.of(), downstream);
+
+        assertEquals(1, calls.get());
+        assertEquals(List.of("application/vnd.apple.mpegurl"), second.headers().get("Content-Type"));
+        assertEquals("#EXTM3U\n", new String(second.body().readAllBytes(), StandardCharsets.UTF_8));
+        assertEquals("3U\n", new String(firstBody.readAllBytes(), StandardCharsets.UTF_8));
+
+        // Once the body is complete, a new request gets its own call.
+        GatewayStreamResponse third = coalescer.executeStream(ROUTE, TARGET, Map.of(), downstream);
+        assertEquals(2, calls.get());
+        assertEquals("#EXTM3U\n", new String(third.body().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldReplayAStreamedBodyInReactiveMode() {
+        Supplier<Uni<GatewayReactiveStreamResponse>> downstream = () -> Uni.createFrom().item(() -> {
+            calls.incrementAndGet();
+            return new GatewayReactiveStreamResponse(200, Map.of(),
+                    Multi.createFrom().items(Buffer.buffer("#EXT"), Buffer.buffer("M3U\n")));
+        });
+
+        GatewayReactiveStreamResponse first = coalescer.executeStreamAsync(ROUTE, TARGET, Map.of(), downstream)
+                .await().indefinitely();
+        GatewayReactiveStreamResponse second = coalescer.executeStreamAsync(ROUTE, TARGET, Map.of(), downstream)
+                .await().indefinitely();
+
+        assertEquals(1, calls.get());
+        assertEquals("#EXTM3U\n", join(second.body()));
+        assertEquals("#EXTM3U\n", join(first.body()));
+    }
+
+    private static String join(Multi<Buffer> body) {
+        return body.collect().in(Buffer::buffer, Buffer::appendBuffer).await().indefinitely().toString();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package application.services.gateway;
+
+import application.dtos.gateway.GatewayReactiveStreamResponse;
+import application.dtos.gateway.GatewayStreamResponse;
+import domain.gateway.CoalescingPolicy;
+import domain.gateway.FlushPolicy;
+import domain.gateway.ResiliencePolicy;
+import domain.gateway.RouteDefinition;
+import domain.gateway.StreamingPolicy;
+import domain.gateway.TargetDefinition;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.helpers.test.AssertSubscriber;
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamFlushingTest {
+
+    private static final RouteDefinition ROUTE = new RouteDefinition("media", List.of("/media"), true,
+            new TargetDefinition("http://media"), ResiliencePolicy.DEFAULT, false, false, CoalescingPolicy.DISABLED,
+            new StreamingPolicy(false, false, 1024, Duration.ofSeconds(60),
+                    new FlushPolicy(List.of("text/event-stream"), 8, Duration.ofMillis(50)), 1024 * 1024, false));
+
+    private final StreamFlushing streamFlushing = new StreamFlushing();
+
+    @Test
+    void shouldOnlyCoalesceContentTypesThatAreNotLatencySensitive() {
+        FlushPolicy policy = FlushPolicy.DEFAULT;
+        assertTrue(policy.coalesces("video/mp2t"));
+        assertTrue(policy.coalesces(null));
+        assertFalse(policy.coalesces("text/event-stream; charset=utf-8"));
+        assertFalse(policy.coalesces("Multipart/X-Mixed-Replace; boundary=frame"));
+        assertFalse(new FlushPolicy(List.of(), 0, Duration.ofMillis(20)).coalesces("video/mp2t"));
+    }
+
+    @Test
+    void shouldMergeBufferedReadsOfABlockingBodyUpToCoalesceBytes() throws IOException {
+        // Hands out at most 3 bytes per read, like a downstream delivering small packets.
+        InputStream chunks = new ByteArrayInputStream("abcdefghijk".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] target, int offset, int length) {
+                return super.read(target, offset, Math.min(length, 3));
+            }
+        };
+        GatewayStreamResponse response = streamFlushing.apply(ROUTE, new GatewayStreamResponse(200,
+                Map.of("Content-Type", List.of("video/mp2t")), chunks));
+
+        byte[] target = new byte[64];
+        try (InputStream body = response.body()) {
+            assertEquals(8, body.read(target));
+            assertEquals("abcdefgh", new String(target, 0, 8, StandardCharsets.UTF_8));
+            assertEquals(3, body.read(target));
+            assertEquals(-1, body.read(target));
+        }
+        assertEquals(4, streamFlushing.writes("media"));
+        assertEquals(2, streamFlushing.flushes("media"));
+    }
+
+    @Test
+    void shouldCoalesceReactiveBuffersUntilCoalesceBytesArePending() {
+        GatewayReactiveStreamResponse response = streamFlushing.apply(ROUTE, reactive("video/mp2t",
+                Multi.createFrom().items("abc", "def", "ghi", "j").map(Buffer::buffer)));
+
+        AssertSubscriber<Buffer> subscriber = response.body().subscribe().withSubscriber(AssertSubscriber.create(10));
+        subscriber.awaitCompletion();
+
+        assertEquals(List.of("abcdefghi", "j"), subscriber.getItems().stream().map(Buffer::toString).toList());
+        assertEquals(4, streamFlushing.writes("media"));
+        assertEquals(2, streamFlushing.flushes("media"));
+    }
+
+    @Test
+    void shouldWritePendingBuffersOnceTheCoalesceDelayPassed() {
+        GatewayReactiveStreamResponse response = streamFlushing.apply(ROUTE, reactive("video/mp2t",
+                Multi.createFrom().<Buffer>emitter(emitter -> emitter.emit(Buffer.buffer("abc")))));
+
+        AssertSubscriber<Buffer> subscriber = response.body().subscribe().withSubscriber(AssertSubscriber.create(10));
+        subscriber.awaitItems(1, Duration.ofSeconds(2));
+
+        assertEquals("abc", subscriber.getItems().getFirst().toString());
+        subscriber.cancel();
+    }
+
+    @Test
+    void shouldPassEventStreamBuffersOnAsTheyArrive() {
+        GatewayReactiveStreamResponse response = streamFlushing.apply(ROUTE, reactive("text/event-stream",
+                Multi.createFrom().items("data: 1\n\n", "data: 2\n\n").map(Buffer::buffer)));
+
+        AssertSubscriber<Buffer> subscriber = response.body().subscribe().withSubscriber(AssertSubscriber.create(10));
+        subscriber.awaitCompletion();
+
+        assertEquals(List.of("data: 1\n\n", "data: 2\n\n"), subscriber.getItems().stream().map(Buffer::toString).toList());
+        assertEquals(2, streamFlushing.flushes("media"));
+    }
+
+    @Test
+    void shouldWriteEventStreamsOnlyAtEventBoundaries() {
+        GatewayReactiveStreamResponse response = streamFlushing.apply(ROUTE, reactive("text/event-stream; charset=utf-8",
+                Multi.createFrom().items("id: 1\nda", "ta: x\n\nid: 2\n", "data: y\r\n\r\n").map(Buffer::buffer)));
+
+        AssertSubscriber<Buffer> subscriber = response.body().subscribe().withSubscriber(AssertSubscriber.create(10));
+        subscriber.awaitCompletion();
+
+        assertEquals(List.of("id: 1\ndata: x\n\n", "id: 2\ndata: y\r\n\r\n"),
+                subscriber.getItems().stream().map(Buffer::toString).toList());
+        assertEquals(0, StreamFlushing.completeEvents(Buffer.buffer("data: partial\n")));
+    }
+
+    @Test
+    void shouldHoldTheDownstreamWhileAFullWriteWaitsForDemand() {
+        GatewayReactiveStreamResponse response = streamFlushing.apply(ROUTE, reactive("video/mp2t",
+                Multi.createFrom().range(0, 100).map(i -> Buffer.buffer("0123"))));
+
+        AssertSubscriber<Buffer> subscriber = response.body().subscribe().withSubscriber(AssertSubscriber.create(1));
+        subscriber.awaitItems(1);
+
+        // One write handed out, the next one gathered: the downstream is not read further without demand.
+        assertEquals(4, streamFlushing.writes("media"));
+        subscriber.request(Long.MAX_VALUE).awaitCompletion();
+        assertEquals(50, subscriber.getItems().size());
+    }
+
+    private static GatewayReactiveStreamResponse reactive(String contentType, Multi<Buffer> body) {
+        return new GatewayReactiveStreamResponse(200, Map.of("Content-Type", List.of(contentType)), body);
+    }
+}
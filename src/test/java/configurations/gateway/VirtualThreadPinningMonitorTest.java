@@ -0,0 +1,70 @@
+package configurations.gateway;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import testresources.GatewayConfigs;
+
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadPinningMonitorTest {
+
+    @Test
+    void shouldReportVirtualThreadsBlockingInsideMonitors() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(
+                GatewayConfigs.of(Map.of("gateway.virtual-threads.pinning-threshold", "PT0.01S")), registry);
+        monitor.start();
+        try {
+            // Blocking with a j.u.c. lock unmounts the virtual thread: not reported.
+            ReentrantLock lock = new ReentrantLock();
+            Thread.ofVirtual().start(() -> {
+                lock.lock();
+                try {
+                    sleep(50);
+                } finally {
+                    lock.unlock();
+                }
+            }).join();
+
+            // Blocking inside synchronized pins the carrier.
+            Object monitorLock = new Object();
+            Thread.ofVirtual().start(() -> {
+                synchronized (monitorLock) {
+                    sleep(50);
+                }
+            }).join();
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (monitor.pinnedCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+
+            assertEquals(1, monitor.pinnedCount());
+            assertTrue(registry.counter("gateway.virtual_threads.pinned").count() >= 1);
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    @Test
+    void shouldStayIdleWhenDetectionIsDisabled() {
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(
+                GatewayConfigs.of(Map.of("gateway.virtual-threads.pinning-detection", "false")), new SimpleMeterRegistry());
+        monitor.start();
+        monitor.stop();
+
+        assertEquals(0, monitor.pinnedCount());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
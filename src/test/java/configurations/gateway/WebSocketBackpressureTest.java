@@ -0,0 +1,68 @@
+package configurations.gateway;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(WebSocketBackpressureTest.DisconnectSlowPeersProfile.class)
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class WebSocketBackpressureTest {
+
+    public static class DisconnectSlowPeersProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "gateway.web-socket.write-queue-bytes", "65536",
+                    "gateway.web-socket.slow-peer-policy", "disconnect",
+                    "gateway.web-socket.slow-peer-timeout", "PT1S");
+        }
+    }
+
+    @Test
+    void shouldPauseTheDownstreamForASlowClientThenDisconnectIt() throws Exception {
+        // A client that never reads: only socket buffers and one write queue may fill up before the feed is paused.
+        WebSocket socket = HttpClient.newHttpClient().newWebSocketBuilder()
+                .buildAsync(URI.create("ws://localhost:" + RestAssured.port + "/api/v1/ws/firehose"), new WebSocket.Listener() {
+                    @Override
+                    public void onOpen(WebSocket webSocket) {
+                    }
+                })
+                .get(5, TimeUnit.SECONDS);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        String stats;
+        do {
+            Thread.sleep(100);
+            stats = given().get("/api/v1/ws/firehose-stats").then().statusCode(200).extract().asString();
+        } while (!stats.endsWith("closed=true") && System.nanoTime() < deadline);
+
+        assertTrue(stats.endsWith("closed=true"), stats);
+        long sent = Long.parseLong(stats.substring("sent=".length(), stats.indexOf(' ')));
+        assertTrue(sent < 64L * 1024 * 1024, stats);
+        socket.abort();
+    }
+
+    @Test
+    void shouldRejectUnknownSlowPeerPolicies() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> WebSocketBridge.SlowPeerPolicy.fromConfig("buffer"));
+        assertTrue(e.getMessage().contains("pause, drop, disconnect"));
+        assertEquals(WebSocketBridge.SlowPeerPolicy.DROP, WebSocketBridge.SlowPeerPolicy.fromConfig(" Drop "));
+    }
+}
@@ -0,0 +1,140 @@
+package configurations.gateway;
+
+import configurations.tenancy.TenantIdProvider;
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.RestAssured;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@QuarkusTest
+@TestProfile(WebSocketFanOutTest.FanOutProfile.class)
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class WebSocketFanOutTest {
+
+    private static final UUID TENANT = UUID.fromString("9b2f7c1e-3f6a-4d3b-9a57-2c1e0f5d8a41");
+
+    public static class FanOutProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("gateway.routes.downstream.streaming.web-socket-fan-out", "true");
+        }
+
+        @Override
+        public Set<Class<?>> getEnabledAlternatives() {
+            return Set.of(FixedTenant.class);
+        }
+    }
+
+    /**
+     * Fan-out needs a tenant, which the unauthenticated test requests do not carry.
+     */
+    @Alternative
+    @ApplicationScoped
+    public static class FixedTenant implements TenantIdProvider {
+        @Override
+        public UUID getTenantId() {
+            return TENANT;
+        }
+    }
+
+    @Inject
+    WebSocketFanOut webSocketFanOut;
+
+    @Test
+    void shouldShareOneDownstreamSocketPerPathAndTenant() throws Exception {
+        int before = tickerConnections();
+        Subscription first = subscribe("site=1", "Bearer a");
+        Subscription second = subscribe("site=1", "Bearer a");
+        Subscription other = subscribe("site=2", "Bearer a");
+
+        String tick = first.next();
+        assertEquals(tick, second.next());
+        assertEquals("site=2", other.next().split(" ")[0]);
+        assertEquals(before + 2, tickerConnections());
+        assertEquals(3, webSocketFanOut.subscribers());
+
+        first.close();
+        // The shared socket outlives its first subscriber.
+        second.messages.clear();
+        assertEquals(tick, second.next());
+
+        second.close();
+        other.close();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (webSocketFanOut.upstreams() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, webSocketFanOut.upstreams());
+    }
+
+    @Test
+    void shouldNotShareASocketBetweenClientsWithDifferentCredentials() throws Exception {
+        int before = tickerConnections();
+        Subscription alice = subscribe("site=3", "Bearer alice");
+        Subscription mallory = subscribe("site=3", "Bearer mallory");
+
+        String forAlice = alice.next();
+        String forMallory = mallory.next();
+        assertEquals(before + 2, tickerConnections());
+        assertNotEquals(forAlice.split(" from ")[1], forMallory.split(" from ")[1]);
+
+        alice.close();
+        mallory.close();
+    }
+
+    private static int tickerConnections() {
+        return Integer.parseInt(given().get("/api/v1/ws/ticker-connections").then().statusCode(200).extract().asString());
+    }
+
+    private static Subscription subscribe(String query, String authorization) throws Exception {
+        BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        WebSocket socket = HttpClient.newHttpClient().newWebSocketBuilder()
+                .header("Authorization", authorization)
+                .buildAsync(URI.create("ws://localhost:" + RestAssured.port + "/api/v1/ws/ticker?" + query), new WebSocket.Listener() {
+                    @Override
+                    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                        messages.add(data.toString());
+                        webSocket.request(1);
+                        return null;
+                    }
+                })
+                .get(5, TimeUnit.SECONDS);
+        return new Subscription(socket, messages);
+    }
+
+    private record Subscription(WebSocket socket, BlockingQueue<String> messages) {
+
+        String next() throws InterruptedException {
+            String message = messages.poll(5, TimeUnit.SECONDS);
+            if (message == null) {
+                throw new AssertionError("No message within 5 s");
+            }
+            return message;
+        }
+
+        void close() {
+            socket.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+        }
+    }
+}
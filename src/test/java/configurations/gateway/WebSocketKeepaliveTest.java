@@ -0,0 +1,120 @@
+package configurations.gateway;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@TestProfile(WebSocketKeepaliveTest.FastPingProfile.class)
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class WebSocketKeepaliveTest {
+
+    public static class FastPingProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "gateway.web-socket.ping-interval", "PT0.2S",
+                    "gateway.web-socket.idle-timeout", "PT2S");
+        }
+    }
+
+    @Test
+    void shouldPingAQuietClientAndKeepItOpenWhileItAnswers() throws Exception {
+        CompletableFuture<String> ping = new CompletableFuture<>();
+        CompletableFuture<Integer> closed = new CompletableFuture<>();
+        CompletableFuture<String> reply = new CompletableFuture<>();
+        WebSocket socket = HttpClient.newHttpClient().newWebSocketBuilder()
+                .buildAsync(URI.create("ws://localhost:" + RestAssured.port + "/api/v1/ws/echo"), new WebSocket.Listener() {
+                    @Override
+                    public CompletionStage<?> onPing(WebSocket webSocket, ByteBuffer message) {
+                        ping.complete("ping");
+                        // Answered with a pong by the default implementation.
+                        return WebSocket.Listener.super.onPing(webSocket, message);
+                    }
+
+                    @Override
+                    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                        reply.complete(data.toString());
+                        return WebSocket.Listener.super.onText(webSocket, data, last);
+                    }
+
+                    @Override
+                    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+                        closed.complete(statusCode);
+                        return null;
+                    }
+                })
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals("ping", ping.get(5, TimeUnit.SECONDS));
+        // Quiet for longer than the idle timeout, but the pongs keep it open.
+        Thread.sleep(3000);
+        socket.sendText("still here", true);
+        assertEquals("echo:still here", reply.get(5, TimeUnit.SECONDS));
+        assertFalse(closed.isDone());
+        socket.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+    }
+
+    @Test
+    void shouldNotTakeALegPausedForBackpressureForAnIdleOne() throws Exception {
+        AtomicLong received = new AtomicLong();
+        CompletableFuture<Integer> closed = new CompletableFuture<>();
+        WebSocket socket = HttpClient.newHttpClient().newWebSocketBuilder()
+                .buildAsync(URI.create("ws://localhost:" + RestAssured.port + "/api/v1/ws/firehose"), new WebSocket.Listener() {
+                    @Override
+                    public void onOpen(WebSocket webSocket) {
+                        // Reads nothing until asked to, so the gateway pauses the feed.
+                    }
+
+                    @Override
+                    public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+                        received.addAndGet(data.remaining());
+                        webSocket.request(1);
+                        return null;
+                    }
+
+                    @Override
+                    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+                        closed.complete(statusCode);
+                        return null;
+                    }
+                })
+                .get(5, TimeUnit.SECONDS);
+
+        // The client keeps talking, while the feed stays paused for longer than the idle timeout.
+        for (int i = 0; i < 7; i++) {
+            Thread.sleep(500);
+            socket.sendText("still here", true).get(5, TimeUnit.SECONDS);
+        }
+        String stats = given().get("/api/v1/ws/firehose-stats").then().statusCode(200).extract().asString();
+        assertTrue(stats.endsWith("closed=false"), stats);
+
+        socket.request(1);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (received.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(received.get() > 0);
+        assertFalse(closed.isDone());
+        socket.abort();
+    }
+}
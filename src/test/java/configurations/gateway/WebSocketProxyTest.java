@@ -0,0 +1,90 @@
+package configurations.gateway;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.RestAssured;
+import io.vertx.core.http.HttpServerOptions;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import testresources.DownstreamVertxStubTestResource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@QuarkusTest
+@QuarkusTestResource(DownstreamVertxStubTestResource.class)
+class WebSocketProxyTest {
+
+    @Inject
+    WebSocketClients webSocketClients;
+
+    @Inject
+    WebSocketTraffic webSocketTraffic;
+
+    @Inject
+    WebSocketCompression webSocketCompression;
+
+    @Test
+    void shouldProxyMessagesToTheDownstreamWebSocket() throws Exception {
+        long upstream = webSocketTraffic.messages("downstream", WebSocketTraffic.Direction.UPSTREAM);
+        long downstreamBytes = webSocketTraffic.bytes("downstream", WebSocketTraffic.Direction.DOWNSTREAM);
+        for (int i = 0; i < 2; i++) {
+            assertEquals("echo:hello " + i, exchange("hello " + i));
+        }
+        assertEquals(upstream + 2, webSocketTraffic.messages("downstream", WebSocketTraffic.Direction.UPSTREAM));
+        assertEquals(downstreamBytes + 2 * "echo:hello 0".length(),
+                webSocketTraffic.bytes("downstream", WebSocketTraffic.Direction.DOWNSTREAM));
+    }
+
+    @Test
+    void shouldOfferOnlyPerMessageDeflateToClients() {
+        HttpServerOptions options = new HttpServerOptions().setWebSocketCompressionLevel(1);
+        webSocketCompression.customizeHttpServer(options);
+
+        assertTrue(options.getPerMessageWebSocketCompressionSupported());
+        assertFalse(options.getPerFrameWebSocketCompressionSupported());
+        assertEquals(6, options.getWebSocketCompressionLevel());
+    }
+
+    @Test
+    void shouldCountTextPayloadsInUtf8Bytes() {
+        assertEquals(1 + 2 + 3 + 4, WebSocketTraffic.utf8Length("a\u00e9\u20ac\ud83d\ude00"));
+    }
+
+    @Test
+    void shouldShareOneClientPerDownstreamTarget() {
+        assertSame(webSocketClients.clientFor(URI.create("http://localhost:9")),
+                webSocketClients.clientFor(URI.create("ws://localhost:9/other")));
+        assertNotSame(webSocketClients.clientFor(URI.create("http://localhost:9")),
+                webSocketClients.clientFor(URI.create("http://localhost:10")));
+    }
+
+    private static String exchange(String message) throws Exception {
+        CompletableFuture<String> reply = new CompletableFuture<>();
+        WebSocket socket = HttpClient.newHttpClient().newWebSocketBuilder()
+                .buildAsync(URI.create("ws://localhost:" + RestAssured.port + "/api/v1/ws/echo"), new WebSocket.Listener() {
+                    @Override
+                    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                        reply.complete(data.toString());
+                        return null;
+                    }
+                })
+                .get(5, TimeUnit.SECONDS);
+        try {
+            socket.sendText(message, true);
+            return reply.get(5, TimeUnit.SECONDS);
+        } finally {
+            socket.sendClose(WebSocket.NORMAL_CLOSURE, "done");
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package domain.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedResponseTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void shouldParseCacheControlDirectives() {
+        CacheControl cacheControl = CacheControl.parse(List.of(
+                "public, max-age=60", "s-maxage=\"120\", no-cache=\"Set-Cookie, X-Foo\", stale-while-revalidate=abc"));
+
+        assertTrue(cacheControl.isPublic());
+        assertTrue(cacheControl.noCache());
+        assertFalse(cacheControl.noStore());
+        assertEquals(60, cacheControl.maxAge());
+        assertEquals(120, cacheControl.sMaxAge());
+        assertEquals(0, cacheControl.staleWhileRevalidate());
+    }
+
+    @Test
+    void shouldComputeFreshnessFromMaxAgeAndAge() {
+        CachedResponse response = store(Map.of("Cache-Control", List.of("max-age=60, stale-while-revalidate=30"),
+                "Age", List.of("10")), Map.of()).orElseThrow();
+
+        assertTrue(response.isFresh(NOW + 49_000));
+        assertFalse(response.isFresh(NOW + 50_000));
+        assertTrue(response.isServableWhileRevalidating(NOW + 79_000));
+        assertFalse(response.isServableWhileRevalidating(NOW + 80_000));
+    }
+
+    @Test
+    void shouldOnlyStoreWhatASharedCacheMayStore() {
+        assertTrue(store(Map.of("Cache-Control", List.of("private, max-age=60")), Map.of()).isEmpty());
+        assertTrue(store(Map.of("Cache-Control", List.of("no-store")), Map.of()).isEmpty());
+        assertTrue(store(Map.of("Cache-Control", List.of("max-age=60"), "Vary", List.of("*")), Map.of()).isEmpty());
+        assertTrue(store(Map.of("Content-Type", List.of("text/plain")), Map.of()).isEmpty(), "no freshness, no validator");
+        assertTrue(store(Map.of("ETag", List.of("\"v1\"")), Map.of()).isPresent(), "validator only");
+
+        Map<String, List<String>> authorized = Map.of("Authorization", List.of("Bearer token"));
+        assertTrue(store(Map.of("Cache-Control", List.of("max-age=60")), authorized).isEmpty());
+        assertTrue(store(Map.of("Cache-Control", List.of("public, max-age=60")), authorized).isPresent());
+    }
+
+    @Test
+    void shouldTreatInvalidExpiresAsExpired() {
+        CachedResponse response = store(Map.of("Expires", List.of("0"), "ETag", List.of("\"v1\"")), Map.of())
+                .orElseThrow();
+
+        assertFalse(response.isFresh(NOW));
+    }
+
+    @Test
+    void shouldMatchVariantsOnVaryHeaders() {
+        CachedResponse gzip = store(Map.of("Cache-Control", List.of("max-age=60"), "Vary", List.of("Accept-Encoding")),
+                Map.of("accept-encoding", List.of("gzip"))).orElseThrow();
+
+        assertTrue(gzip.matches(Map.of("Accept-Encoding", List.of("gzip"))));
+        assertFalse(gzip.matches(Map.of("Accept-Encoding", List.of("br"))));
+        assertFalse(gzip.matches(Map.of()));
+    }
+
+    @Test
+    void shouldRefreshFreshnessOnRevalidation() {
+        CachedResponse response = store(Map.of("Cache-Control", List.of("max-age=10"), "ETag", List.of("\"v1\"")),
+                Map.of()).orElseThrow();
+        assertFalse(response.isFresh(NOW + 20_000));
+
+        CachedResponse refreshed = response.revalidated(Map.of("cache-control", List.of("max-age=30")), Map.of(),
+                NOW + 20_000, NOW + 20_000).orElseThrow();
+
+        assertTrue(refreshed.isFresh(NOW + 45_000));
+        assertEquals("\"v1\"", refreshed.etag());
+    }
+
+    private static Optional<CachedResponse> store(Map<String, List<String>> headers,
+                                                           Map<String, List<String>> requestHeaders) {
+        return CachedResponse.of(200, headers, new byte[]{1}, requestHeaders, NOW, NOW);
+    }
+}
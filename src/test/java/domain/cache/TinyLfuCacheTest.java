@@ -0,0 +1,64 @@
+package domain.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TinyLfuCacheTest {
+
+    private final TinyLfuCache<String, byte[]> cache = new TinyLfuCache<>(10_000, 100, value -> value.length);
+
+    @Test
+    void shouldStayWithinTheByteBudget() {
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("key-" + i, new byte[100 + i % 400]);
+            assertTrue(cache.weight() <= 10_000, "weight " + cache.weight());
+        }
+        assertTrue(cache.evictions() > 0);
+    }
+
+    @Test
+    void shouldKeepFrequentlyUsedEntriesThroughAScan() {
+        for (int i = 0; i < 20; i++) {
+            cache.put("hot-" + i, new byte[200]);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 20; i++) {
+                cache.get("hot-" + i);
+            }
+        }
+
+        // A burst of one-off entries, twice the size of the cache.
+        for (int i = 0; i < 100; i++) {
+            cache.put("scan-" + i, new byte[200]);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertNotNull(cache.get("hot-" + i), "hot-" + i + " was evicted");
+        }
+    }
+
+    @Test
+    void shouldReplaceAndRemoveEntries() {
+        cache.put("a", new byte[300]);
+        cache.put("a", new byte[500]);
+        assertEquals(500, cache.weight());
+        assertEquals(1, cache.size());
+
+        cache.remove("a");
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.weight());
+    }
+
+    @Test
+    void shouldNotStoreValuesHeavierThanTheBudget() {
+        cache.put("small", new byte[10]);
+        cache.put("huge", new byte[10_001]);
+
+        assertNull(cache.get("huge"));
+        assertNotNull(cache.get("small"));
+    }
+}
@@ -0,0 +1,86 @@
+package domain.gateway;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeadersTest {
+
+    private static final Headers REQUEST = Headers.builder(8)
+            .add("Host", "gateway")
+            .add("Accept", "text/html")
+            .add("x-tenant-id", "spoofed")
+            .add("accept", "application/json")
+            .add("Connection", "keep-alive")
+            .add(":authority", "gateway")
+            .build();
+
+    @Test
+    void shouldReadNamesCaseInsensitivelyAcrossSpellings() {
+        assertEquals("text/html", REQUEST.first("ACCEPT"));
+        assertEquals(List.of("text/html", "application/json"), REQUEST.all("Accept"));
+        assertEquals(List.of("text/html", "application/json"), REQUEST.get("accept"));
+        assertTrue(REQUEST.containsKey("X-Tenant-Id"));
+        assertNull(REQUEST.get("Authorization"));
+        assertEquals(List.of(), REQUEST.all("Authorization"));
+    }
+
+    @Test
+    void shouldViewOneEntryPerNameAsAMap() {
+        assertEquals(5, REQUEST.size());
+        assertEquals(List.of("Host", "Accept", "x-tenant-id", "Connection", ":authority"),
+                new ArrayList<>(REQUEST.keySet()));
+        assertEquals(Map.of("Accept", List.of("text/html", "application/json")),
+                REQUEST.without(name -> !name.equalsIgnoreCase("Accept")));
+    }
+
+    @Test
+    void shouldHideHopByHopAndPseudoHeadersFromForwarding() {
+        Headers forwardable = REQUEST.forwardable();
+
+        assertEquals(List.of("Accept", "x-tenant-id"), new ArrayList<>(forwardable.keySet()));
+        assertNull(forwardable.first("host"));
+        assertSame(forwardable, forwardable.forwardable());
+        assertTrue(Headers.isHopByHop("Transfer-Encoding"));
+        assertTrue(Headers.isHopByHop("PROXY-AUTHORIZATION"));
+        assertFalse(Headers.isHopByHop("Authorization"));
+    }
+
+    @Test
+    void shouldReplaceEverySpellingWithoutTouchingTheOriginal() {
+        Headers enriched = REQUEST.forwardable().with("X-Tenant-Id", "tenant-1");
+
+        assertEquals(List.of("tenant-1"), enriched.all("x-tenant-id"));
+        assertEquals(List.of("Accept", "X-Tenant-Id"), new ArrayList<>(enriched.keySet()));
+        assertEquals(List.of("spoofed"), REQUEST.all("X-Tenant-Id"));
+
+        Headers twice = enriched.with("Cache-Control", "no-store").with("x-tenant-id", "tenant-2");
+        assertEquals("tenant-2", twice.first("X-Tenant-Id"));
+        assertEquals("no-store", twice.first("cache-control"));
+        assertEquals("tenant-1", enriched.first("X-Tenant-Id"));
+    }
+
+    @Test
+    void shouldWrapOtherMapsOnceAndSkipNulls() {
+        Map<String, List<String>> plain = new LinkedHashMap<>();
+        plain.put("Accept", new ArrayList<>(List.of("text/html")));
+        plain.put("X-Empty", null);
+        Headers headers = Headers.of(plain);
+
+        assertSame(headers, Headers.of(headers));
+        assertSame(Headers.EMPTY, Headers.of(null));
+        assertEquals(Map.of("Accept", List.of("text/html")), headers);
+        List<String> flat = new ArrayList<>();
+        headers.with("Via", "gateway").forEachValue((name, value) -> flat.add(name + "=" + value));
+        assertEquals(List.of("Accept=text/html", "Via=gateway"), flat);
+    }
+}
@@ -0,0 +1,207 @@
+package domain.gateway;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadBalancerTest {
+
+    @Test
+    void roundRobinShouldFollowWeightsAndInterleaveInstances() {
+        Upstream a = new Upstream("http://a", 2);
+        Upstream b = new Upstream("http://b", 1);
+        LoadBalancer balancer = LoadBalancer.of(LoadBalancingStrategy.ROUND_ROBIN, List.of(a, b));
+
+        List<Upstream> picks = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            picks.add(balancer.select());
+        }
+
+        assertEquals(List.of(a, b, a, a, b, a), picks);
+    }
+
+    @Test
+    void roundRobinShouldReduceWeightsToTheirSmallestSchedule() {
+        Upstream a = new Upstream("http://a", 200);
+        Upstream b = new Upstream("http://b", 100);
+        LoadBalancer balancer = LoadBalancer.of(LoadBalancingStrategy.ROUND_ROBIN, List.of(a, b));
+
+        Map<Upstream, Integer> counts = count(balancer, 300);
+
+        assertEquals(200, counts.get(a));
+        assertEquals(100, counts.get(b));
+    }
+
+    @Test
+    void leastOutstandingShouldPreferTheLeastLoadedInstancePerWeight() {
+        Upstream a = new Upstream("http://a", 1);
+        Upstream b = new Upstream("http://b", 3);
+        LoadBalancer balancer = LoadBalancer.of(LoadBalancingStrategy.LEAST_OUTSTANDING, List.of(a, b));
+
+        a.acquire();
+        b.acquire();
+        b.acquire();
+
+        // a: 1 in flight / weight 1, b: 2 in flight / weight 3
+        for (int i = 0; i < 20; i++) {
+            assertSame(b, balancer.select());
+        }
+    }
+
+    @Test
+    void p2cEwmaShouldAvoidTheSlowInstance() {
+        Upstream fast = new Upstream("http://fast", 1);
+        Upstream slow = new Upstream("http://slow", 1);
+        fast.recordLatency(1_000_000);
+        slow.recordLatency(50_000_000);
+        LoadBalancer balancer = LoadBalancer.of(LoadBalancingStrategy.P2C_EWMA, List.of(fast, slow));
+
+        for (int i = 0; i < 50; i++) {
+            assertSame(fast, balancer.select());
+        }
+    }
+
+    @Test
+    void p2cEwmaShouldPriceInstancesWithoutSamplesAtTheirPeersMean() {
+        Upstream measured = new Upstream("http://measured", 1);
+        Upstream fresh = new Upstream("http://fresh", 1);
+        measured.recordLatency(1_000_000);
+        LoadBalancer balancer = LoadBalancer.of(LoadBalancingStrategy.P2C_EWMA, List.of(measured, fresh));
+
+        // Priced like its peer, the fresh instance is only preferred while it has fewer calls in flight.
+        Upstream.Lease busy = measured.acquire();
+        assertSame(fresh, balancer.select());
+        Upstream.Lease first = fresh.acquire();
+        Upstream.Lease second = fresh.acquire();
+        assertSame(measured, balancer.select());
+
+        busy.release();
+        first.release();
+        second.release();
+    }
+
+    @Test
+    void failuresShouldCountAsAtLeastThePenalty() {
+        Upstream failing = new Upstream("http://failing", 1);
+        failing.recordLatency(1_000_000);
+
+        failing.acquire().onFailure(Duration.ofSeconds(2));
+        assertTrue(failing.ewmaLatencyNanos() > 600_000_000L);
+
+        // A caller that gave up before the timeout says nothing about the instance.
+        long before = failing.ewmaLatencyNanos();
+        assertFalse(failing.acquire().onCancellation(Duration.ofSeconds(2)));
+        assertEquals(before, failing.ewmaLatencyNanos());
+    }
+
+    @Test
+    void ewmaShouldMoveTowardsNewSamples() {
+        Upstream upstream = new Upstream("http://a", 1);
+        upstream.recordLatency(100);
+        upstream.recordLatency(200);
+
+        assertEquals(130, upstream.ewmaLatencyNanos());
+    }
+
+    @Test
+    void leasesShouldBalanceOutUnderConcurrency() throws Exception {
+        Upstream a = new Upstream("http://a", 1);
+        Upstream b = new Upstream("http://b", 1);
+        LoadBalancer balancer = LoadBalancer.of(LoadBalancingStrategy.LEAST_OUTSTANDING, List.of(a, b));
+
+        int threads = 8;
+        CountDownLatch done = new CountDownLatch(threads);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        Upstream.Lease lease = balancer.select().acquire();
+                        lease.onResponse(200);
+                        lease.release();
+                        lease.release();
+                    }
+                    done.countDown();
+                });
+            }
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+        }
+
+        assertEquals(0, a.outstanding());
+        assertEquals(0, b.outstanding());
+        assertNotEquals(0, a.ewmaLatencyNanos());
+    }
+
+    @Test
+    void everyStrategyShouldSkipInstancesOutOfRotation() {
+        for (LoadBalancingStrategy strategy : LoadBalancingStrategy.values()) {
+            Upstream healthy = new Upstream("http://healthy", 1);
+            Upstream dead = new Upstream("http://dead", 3);
+            dead.health().recordProbe(false, 1, 1);
+            LoadBalancer balancer = LoadBalancer.of(strategy, List.of(healthy, dead));
+
+            Map<Upstream, Integer> counts = count(balancer, 200);
+
+            assertEquals(200, counts.get(healthy), strategy + " picked an unavailable instance");
+        }
+    }
+
+    @Test
+    void everyStrategyShouldFallBackToAllInstancesWhenNoneIsAvailable() {
+        for (LoadBalancingStrategy strategy : LoadBalancingStrategy.values()) {
+            Upstream a = new Upstream("http://a", 1);
+            Upstream b = new Upstream("http://b", 1);
+            a.health().recordProbe(false, 1, 1);
+            b.health().recordProbe(false, 1, 1);
+            LoadBalancer balancer = LoadBalancer.of(strategy, List.of(a, b));
+
+            assertTrue(List.of(a, b).contains(balancer.select()), strategy.configValue());
+        }
+    }
+
+    @Test
+    void roundRobinShouldGiveRecoveringInstancesAReducedShare() {
+        AtomicLong clock = new AtomicLong();
+        OutlierDetectionPolicy policy = new OutlierDetectionPolicy(1, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(10));
+        Upstream steady = new Upstream("http://steady", 1, policy, clock::get);
+        Upstream recovering = new Upstream("http://recovering", 1, policy, clock::get);
+        LoadBalancer balancer = LoadBalancer.of(LoadBalancingStrategy.ROUND_ROBIN, List.of(steady, recovering));
+
+        recovering.health().recordFailure();
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        // 10% of its normal half at the start of the readmission window
+        int picks = count(balancer, 10_000).getOrDefault(recovering, 0);
+        assertTrue(picks > 250 && picks < 750, "recovering instance got " + picks + " of 10000");
+    }
+
+    @Test
+    void shouldRejectUnknownStrategiesAndInvalidWeights() {
+        assertEquals(LoadBalancingStrategy.P2C_EWMA, LoadBalancingStrategy.fromConfig("P2C-EWMA"));
+        assertThrows(IllegalArgumentException.class, () -> LoadBalancingStrategy.fromConfig("random"));
+        assertThrows(IllegalArgumentException.class, () -> new Upstream("http://a", 0));
+    }
+
+    private static Map<Upstream, Integer> count(LoadBalancer balancer, int selections) {
+        Map<Upstream, Integer> counts = new HashMap<>();
+        for (int i = 0; i < selections; i++) {
+            counts.merge(balancer.select(), 1, Integer::sum);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,77 @@
+package domain.gateway;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RouteIndexTest {
+
+    private static final RouteDefinition API = route("api", "/api");
+    private static final RouteDefinition API_V1 = route("api-v1", "/api/v1", "/v1");
+    private static final RouteDefinition API_V1_DUPLICATE = route("api-v1-duplicate", "/api/v1");
+    private static final RouteDefinition ASSETS = route("assets", "/assets", "/assets/img");
+
+    @Test
+    void shouldPickLongestMatchingPrefix() {
+        RouteIndex index = RouteIndex.of(List.of(API, API_V1, ASSETS));
+
+        RouteMatch match = index.match("/api/v1/users");
+        assertSame(API_V1, match.route());
+        assertEquals("/api/v1", match.matchedPrefix());
+
+        assertSame(API, index.match("/api/v2/users").route());
+        assertEquals("/assets/img", index.match("/assets/img/logo.png").matchedPrefix());
+        assertEquals("/v1", index.match("/v1").matchedPrefix());
+    }
+
+    @Test
+    void shouldKeepPlainStringPrefixSemantics() {
+        RouteIndex index = RouteIndex.of(List.of(API, API_V1));
+
+        assertEquals("/api/v1", index.match("/api/v1beta").matchedPrefix());
+        assertEquals("/api", index.match("/apix").matchedPrefix());
+        assertEquals("/api", index.match("/api/v").matchedPrefix());
+    }
+
+    @Test
+    void shouldReturnNullWhenNothingMatches() {
+        RouteIndex index = RouteIndex.of(List.of(API, ASSETS));
+
+        assertNull(index.match("/ap"));
+        assertNull(index.match("/other"));
+        assertNull(index.match(""));
+        assertNull(index.match(null));
+        assertNull(RouteIndex.of(List.of()).match("/api"));
+    }
+
+    @Test
+    void shouldPreferFirstDeclaredRouteForDuplicatedPrefixes() {
+        RouteIndex index = RouteIndex.of(List.of(API_V1, API_V1_DUPLICATE));
+
+        assertSame(API_V1, index.match("/api/v1/x").route());
+    }
+
+    @Test
+    void shouldReturnSamePrecomputedMatchOnEveryLookup() {
+        RouteIndex index = RouteIndex.of(List.of(API, API_V1));
+
+        assertSame(index.match("/api/v1/a"), index.match("/api/v1/b"));
+    }
+
+    @Test
+    void shouldRewritePathUsingMatchedPrefix() {
+        RouteDefinition stripped = new RouteDefinition("svc", List.of("/svc"), true, new TargetDefinition("http://svc"));
+        RouteIndex index = RouteIndex.of(List.of(stripped));
+
+        assertEquals("/orders/1", index.match("/svc/orders/1").downstreamPath("/svc/orders/1"));
+        assertEquals("/", index.match("/svc").downstreamPath("/svc"));
+    }
+
+    private static RouteDefinition route(String id, String... prefixes) {
+        return new RouteDefinition(id, List.of(prefixes), false, new TargetDefinition("http://" + id));
+    }
+}
@@ -0,0 +1,109 @@
+package domain.gateway;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpstreamHealthTest {
+
+    private static final OutlierDetectionPolicy POLICY = new OutlierDetectionPolicy(
+            3, Duration.ofSeconds(10), Duration.ofSeconds(25), Duration.ofSeconds(10));
+
+    private final AtomicLong clock = new AtomicLong(-5_000_000_000L);
+    private final Upstream upstream = new Upstream("http://a", 1, POLICY, clock::get);
+    private final UpstreamHealth health = upstream.health();
+
+    @Test
+    void shouldEjectAfterConsecutiveFailuresAndRampBackUp() {
+        assertFalse(health.recordFailure());
+        assertFalse(upstream.acquire().onResponse(503));
+        assertTrue(upstream.acquire().onFailure(Duration.ofSeconds(1)));
+
+        assertEquals(UpstreamHealth.State.EJECTED, health.state());
+        assertEquals(0, health.admissionShare());
+
+        advance(Duration.ofSeconds(10));
+        assertEquals(UpstreamHealth.State.RECOVERING, health.state());
+        assertEquals(UpstreamHealth.MIN_READMISSION_SHARE, health.admissionShare());
+
+        advance(Duration.ofSeconds(5));
+        assertEquals(0.5, health.admissionShare(), 1e-9);
+
+        advance(Duration.ofSeconds(5));
+        assertEquals(1, health.admissionShare());
+        assertEquals(UpstreamHealth.State.HEALTHY, health.state());
+        assertEquals(0, health.ejections());
+    }
+
+    @Test
+    void shouldOnlyEjectOnConsecutiveFailures() {
+        health.recordFailure();
+        health.recordFailure();
+        upstream.acquire().onResponse(404);
+        health.recordFailure();
+        health.recordFailure();
+
+        assertEquals(UpstreamHealth.State.HEALTHY, health.state());
+        assertEquals(2, health.consecutiveFailures());
+    }
+
+    @Test
+    void shouldLengthenRepeatedEjectionsUpToTheMaximum() {
+        eject();
+        advance(Duration.ofSeconds(10));
+        eject();
+        assertEquals(2, health.ejections());
+
+        advance(Duration.ofSeconds(19));
+        assertEquals(UpstreamHealth.State.EJECTED, health.state());
+        advance(Duration.ofSeconds(1));
+        assertEquals(UpstreamHealth.State.RECOVERING, health.state());
+
+        eject();
+        advance(Duration.ofSeconds(24));
+        assertEquals(UpstreamHealth.State.EJECTED, health.state(), "third ejection is capped at 25s, not 30s");
+        advance(Duration.ofSeconds(1));
+        assertEquals(UpstreamHealth.State.RECOVERING, health.state());
+    }
+
+    @Test
+    void shouldFollowActiveProbesWithThresholds() {
+        assertFalse(health.recordProbe(false, 2, 2));
+        assertTrue(health.recordProbe(false, 2, 2));
+        assertEquals(UpstreamHealth.State.UNHEALTHY, health.state());
+        assertFalse(upstream.health().isAvailable());
+
+        assertFalse(health.recordProbe(true, 2, 2));
+        assertTrue(health.recordProbe(true, 2, 2));
+        assertEquals(UpstreamHealth.State.RECOVERING, health.state());
+
+        advance(Duration.ofSeconds(10));
+        assertEquals(UpstreamHealth.State.HEALTHY, health.state());
+    }
+
+    @Test
+    void shouldNotEjectWhenPassiveChecksAreDisabled() {
+        Upstream passive = new Upstream("http://b", 1,
+                new OutlierDetectionPolicy(0, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ZERO));
+        for (int i = 0; i < 100; i++) {
+            assertFalse(passive.acquire().onFailure(Duration.ofSeconds(1)));
+        }
+        assertTrue(passive.health().isAvailable());
+    }
+
+    private void eject() {
+        for (int i = 0; i < POLICY.consecutiveFailures(); i++) {
+            health.recordFailure();
+        }
+        assertEquals(UpstreamHealth.State.EJECTED, health.state());
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+}
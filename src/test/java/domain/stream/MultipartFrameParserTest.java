@@ -0,0 +1,68 @@
+package domain.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MultipartFrameParserTest {
+
+    @Test
+    void shouldReadTheBoundaryOfMixedReplaceContentTypesOnly() {
+        assertEquals("frame", MultipartFrameParser.boundary("multipart/x-mixed-replace; boundary=frame"));
+        assertEquals("frame", MultipartFrameParser.boundary("Multipart/X-Mixed-Replace;Boundary=\"--frame\""));
+        assertNull(MultipartFrameParser.boundary("multipart/form-data; boundary=frame"));
+        assertNull(MultipartFrameParser.boundary("multipart/x-mixed-replace"));
+        assertNull(MultipartFrameParser.boundary(null));
+    }
+
+    @Test
+    void shouldSplitWholeFramesWhateverTheChunking() {
+        String stream = "preamble\r\n"
+                + "--frame\r\nContent-Type: image/jpeg\r\nContent-Length: 5\r\n\r\nfirst\r\n"
+                + "--frame\nContent-Type: image/jpeg\n\nsecond\n"
+                + "--frame\r\nContent-Length: 5\r\n\r\nthird\r\n"
+                + "--frame--\r\n";
+        byte[] bytes = stream.getBytes(StandardCharsets.US_ASCII);
+
+        for (int chunk = 1; chunk <= bytes.length; chunk++) {
+            MultipartFrameParser parser = new MultipartFrameParser("frame", 1024);
+            List<MultipartFrame> frames = new ArrayList<>();
+            for (int offset = 0; offset < bytes.length; offset += chunk) {
+                parser.feed(bytes, offset, Math.min(chunk, bytes.length - offset), frames::add);
+            }
+
+            assertEquals(List.of("first", "second", "third"), frames.stream().map(MultipartFrameParserTest::body).toList(),
+                    "chunk size " + chunk);
+            assertEquals(List.of(1L, 2L, 3L), frames.stream().map(MultipartFrame::sequence).toList());
+            assertEquals("image/jpeg", frames.get(0).contentType());
+            assertEquals("--frame\r\nContent-Type: image/jpeg\r\nContent-Length: 5\r\n\r\nfirst\r\n",
+                    new String(frames.get(0).encoded(), StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    void shouldDropOversizedFramesAndResynchronize() {
+        String stream = "--frame\r\nContent-Length: 11\r\n\r\nway-too-big\r\n"
+                + "--frame\r\n\r\nalso-too-big\r\n"
+                + "--frame\r\nContent-Length: 2\r\n\r\nok\r\n"
+                + "--frame\r\n";
+        byte[] bytes = stream.getBytes(StandardCharsets.US_ASCII);
+        MultipartFrameParser parser = new MultipartFrameParser("frame", 8);
+        List<MultipartFrame> frames = new ArrayList<>();
+
+        parser.feed(bytes, 0, bytes.length, frames::add);
+
+        assertEquals(List.of("ok"), frames.stream().map(MultipartFrameParserTest::body).toList());
+    }
+
+    private static String body(MultipartFrame frame) {
+        byte[] body = new byte[frame.bodyLength()];
+        frame.body().get(body);
+        return new String(body, StandardCharsets.US_ASCII);
+    }
+}
@@ -5,12 +5,22 @@ import io.vertx.core.Vertx;
 import io.vertx.core.http.HttpServer;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DownstreamVertxStubTestResource implements QuarkusTestResourceLifecycleManager {
 
     private Vertx vertx;
     private HttpServer server;
+    private final AtomicLong uploadReceived = new AtomicLong();
+    private final AtomicInteger cachedServed = new AtomicInteger();
+    private final AtomicInteger segmentsServed = new AtomicInteger();
+    private final AtomicInteger coalescedServed = new AtomicInteger();
+    private final AtomicInteger mjpegServed = new AtomicInteger();
+    private final AtomicLong firehoseSent = new AtomicLong();
+    private final AtomicBoolean firehoseClosed = new AtomicBoolean();
+    private final AtomicInteger tickerConnections = new AtomicInteger();
 
     @Override
     public Map<String, String> start() {
@@ -18,88 +28,206 @@ public class DownstreamVertxStubTestResource implements QuarkusTestResourceLifec
 
         server = vertx.createHttpServer();
 
-        server.requestHandler(req -> req.bodyHandler(body -> {
-            System.out.println("[DEBUG_LOG] Downstream stub received " + req.method() + " " + req.path() + (req.query() == null ? "" : ("?" + req.query())));
-
-            if (req.path() != null && req.path().startsWith("/api/v1/streaming/hls/") && req.path().endsWith("/index.m3u8")) {
-                var resp = req.response();
-                resp.putHeader("Content-Type", "application/vnd.apple.mpegurl");
-                resp.setChunked(true);
-                resp.setStatusCode(200);
-
-                // Send in chunks to ensure the gateway path is truly streaming-friendly.
-                vertx.setTimer(20, id -> resp.write("#EXTM3U\n"));
-                vertx.setTimer(80, id -> {
-                    resp.write("#EXT-X-VERSION:3\n");
-                    resp.write("#EXT-X-TARGETDURATION:2\n");
-                    resp.write("#EXTINF:2.0,\n");
-                    resp.write("segment0.ts\n");
-                    resp.end();
+        server.requestHandler(req -> {
+            if (handleUpload(req)) {
+                return;
+            }
+            if ("/api/v1/ws/echo".equals(req.path())) {
+                req.toWebSocket().onSuccess(ws -> ws.textMessageHandler(message -> ws.writeTextMessage("echo:" + message)));
+                return;
+            }
+            if ("/api/v1/ws/firehose".equals(req.path())) {
+                req.toWebSocket().onSuccess(this::firehose);
+                return;
+            }
+            if ("/api/v1/ws/ticker".equals(req.path())) {
+                // Counts its connections and sends each one a tick every 100 ms, tagged with the query.
+                int connection = tickerConnections.incrementAndGet();
+                String query = req.query();
+                req.toWebSocket().onSuccess(ws -> {
+                    long timer = vertx.setPeriodic(100, id -> ws.writeTextMessage(query + " from " + connection));
+                    ws.closeHandler(v -> vertx.cancelTimer(timer));
                 });
                 return;
             }
+            if ("/api/v1/ws/ticker-connections".equals(req.path())) {
+                req.response().putHeader("Content-Type", "text/plain").end(String.valueOf(tickerConnections.get()));
+                return;
+            }
+            if ("/api/v1/ws/firehose-stats".equals(req.path())) {
+                req.response().putHeader("Content-Type", "text/plain")
+                        .end("sent=" + firehoseSent.get() + " closed=" + firehoseClosed.get());
+                return;
+            }
+            req.bodyHandler(body -> {
+                System.out.println("[DEBUG_LOG] Downstream stub received " + req.method() + " " + req.path() + (req.query() == null ? "" : ("?" + req.query())));
 
-            if ("/api/v1/mjpeg".equals(req.path())) {
-                var resp = req.response();
-                resp.putHeader("Content-Type", "multipart/x-mixed-replace; boundary=frame");
-                resp.setChunked(true);
-                resp.setStatusCode(200);
+                if (req.path() != null && req.path().startsWith("/api/v1/streaming/hls/") && req.path().endsWith("/live.m3u8")) {
+                    // A playlist that takes a while to stream; its last line tells how many were fetched.
+                    int served = coalescedServed.incrementAndGet();
+                    var resp = req.response();
+                    resp.putHeader("Content-Type", "application/vnd.apple.mpegurl");
+                    resp.setChunked(true);
+                    resp.setStatusCode(200);
+                    resp.write("#EXTM3U\n");
+                    vertx.setTimer(300, id -> resp.end("#EXT-X-MEDIA-SEQUENCE:" + served + "\n"));
+                    return;
+                }
 
-                AtomicInteger sent = new AtomicInteger(0);
+                if (req.path() != null && req.path().startsWith("/api/v1/streaming/hls/") && req.path().endsWith("/index.m3u8")) {
+                    var resp = req.response();
+                    resp.putHeader("Content-Type", "application/vnd.apple.mpegurl");
+                    resp.setChunked(true);
+                    resp.setStatusCode(200);
 
-                // First chunk quickly, second chunk later (to detect buffering in the gateway).
-                vertx.setTimer(50, id -> writeFrame(resp, sent));
-                vertx.setTimer(1200, id -> writeFrame(resp, sent));
-                vertx.setTimer(2400, id -> {
-                    writeFrame(resp, sent);
-                    try {
+                    // Send in chunks to ensure the gateway path is truly streaming-friendly.
+                    vertx.setTimer(20, id -> resp.write("#EXTM3U\n"));
+                    vertx.setTimer(80, id -> {
+                        resp.write("#EXT-X-VERSION:3\n");
+                        resp.write("#EXT-X-TARGETDURATION:2\n");
+                        resp.write("#EXTINF:2.0,\n");
+                        resp.write("segment0.ts\n");
                         resp.end();
-                    } catch (Exception ignored) {
+                    });
+                    return;
+                }
+
+                if (req.path() != null && req.path().startsWith("/api/v1/streaming/hls/") && req.path().endsWith(".ts")) {
+                    // Slow enough for concurrent viewers to overlap; the body tells how many segments were fetched.
+                    int served = segmentsServed.incrementAndGet();
+                    vertx.setTimer(200, id -> req.response()
+                            .putHeader("Content-Type", "video/mp2t")
+                            .setStatusCode(200)
+                            .end("segment " + req.path() + " fetch=" + served));
+                    return;
+                }
+
+                if ("/api/v1/slow".equals(req.path())) {
+                    long delay = Long.parseLong(req.getParam("ms", "1000"));
+                    vertx.setTimer(delay, id -> req.response().setStatusCode(200).end("slept=" + delay));
+                    return;
+                }
+
+                if ("/api/v1/coalesced".equals(req.path())) {
+                    int served = coalescedServed.incrementAndGet();
+                    vertx.setTimer(300, id -> req.response().setStatusCode(200).end("served=" + served));
+                    return;
+                }
+
+                if ("/api/v1/cached".equals(req.path())) {
+                    // case=fresh: cacheable for a minute; case=revalidate: must be revalidated on every use.
+                    boolean revalidate = "revalidate".equals(req.getParam("case"));
+                    var resp = req.response()
+                            .putHeader("Cache-Control", revalidate ? "no-cache" : "public, max-age=60")
+                            .putHeader("ETag", "\"stable\"");
+                    if ("\"stable\"".equals(req.getHeader("If-None-Match"))) {
+                        resp.setStatusCode(304).end();
+                        return;
                     }
-                });
-                return;
-            }
+                    resp.putHeader("Content-Type", "text/plain")
+                            .setStatusCode(200)
+                            .end("served=" + cachedServed.incrementAndGet());
+                    return;
+                }
 
-            if ("/api/v1/cors-header".equals(req.path())) {
-                String origin = req.getHeader("Origin");
-                req.response()
-                        .putHeader("Content-Type", "text/plain")
-                        .putHeader("Access-Control-Allow-Origin", origin == null ? "" : origin)
-                        .setStatusCode(200)
-                        .end("ok");
-                return;
-            }
+                if ("/api/v1/mjpeg".equals(req.path())) {
+                    var resp = req.response();
+                    resp.putHeader("Content-Type", "multipart/x-mixed-replace; boundary=frame");
+                    resp.putHeader("X-Stream", String.valueOf(mjpegServed.incrementAndGet()));
+                    resp.setChunked(true);
+                    resp.setStatusCode(200);
 
-            if ("/api/v1/error-400".equals(req.path())) {
-                req.response()
-                        .putHeader("Content-Type", "application/json")
-                        .putHeader("X-Downstream-Error", "1")
-                        .setStatusCode(400)
-                        .end("{\"error\":\"bad_request\"}");
-                return;
-            }
+                    AtomicInteger sent = new AtomicInteger(0);
 
-            if ("/api/v1/error-500".equals(req.path())) {
-                req.response()
-                        .putHeader("Content-Type", "application/json")
-                        .putHeader("X-Downstream-Error", "1")
-                        .setStatusCode(500)
-                        .end("{\"error\":\"internal\"}");
-                return;
-            }
+                    // First chunk quickly, second chunk later (to detect buffering in the gateway).
+                    vertx.setTimer(50, id -> writeFrame(resp, sent));
+                    vertx.setTimer(1200, id -> writeFrame(resp, sent));
+                    vertx.setTimer(2400, id -> {
+                        writeFrame(resp, sent);
+                        try {
+                            resp.end();
+                        } catch (Exception ignored) {
+                        }
+                    });
+                    return;
+                }
+
+                if ("/api/v1/export".equals(req.path())) {
+                    // An export of unknown length on an ordinary path: the first record at once, the rest later.
+                    var resp = req.response();
+                    resp.putHeader("Content-Type", "application/json");
+                    resp.setChunked(true);
+                    resp.setStatusCode(200);
+                    resp.write("[{\"id\":1}");
+                    vertx.setTimer(1500, id -> resp.end(",{\"id\":2}]"));
+                    return;
+                }
 
-            String receivedHeader = req.getHeader("X-Test");
-            String payload = body == null ? "" : body.toString();
-            String responseBody = "method=" + req.method() + " path=" + req.path() + " query=" + (req.query() == null ? "" : req.query()) + " body=" + payload;
+                if ("/api/v1/export-truncated".equals(req.path())) {
+                    // The same export, but the connection drops before its end.
+                    var resp = req.response();
+                    resp.putHeader("Content-Type", "application/json");
+                    resp.setChunked(true);
+                    resp.setStatusCode(200);
+                    resp.write("[{\"id\":1}");
+                    vertx.setTimer(300, id -> req.connection().close());
+                    return;
+                }
 
-            req.response()
-                    .putHeader("Content-Type", "text/plain")
-                    .putHeader("X-Echo-Method", req.method().name())
-                    .putHeader("X-Echo-Path", req.path())
-                    .putHeader("X-Received-X-Test", receivedHeader == null ? "" : receivedHeader)
-                    .setStatusCode(200)
-                    .end(responseBody);
-        }));
+                if ("/api/v1/events".equals(req.path())) {
+                    // Server-sent events: the first one split across two writes, a quiet spell, then a second one.
+                    var resp = req.response();
+                    resp.putHeader("Content-Type", "text/event-stream");
+                    resp.putHeader("Cache-Control", "no-cache");
+                    resp.setChunked(true);
+                    resp.setStatusCode(200);
+                    resp.write("id: 1\nda");
+                    vertx.setTimer(700, id -> resp.write("ta: last=" + req.getHeader("Last-Event-ID") + "\n\n"));
+                    vertx.setTimer(2000, id -> resp.end("id: 2\ndata: bye\n\n"));
+                    return;
+                }
+
+                if ("/api/v1/cors-header".equals(req.path())) {
+                    String origin = req.getHeader("Origin");
+                    req.response()
+                            .putHeader("Content-Type", "text/plain")
+                            .putHeader("Access-Control-Allow-Origin", origin == null ? "" : origin)
+                            .setStatusCode(200)
+                            .end("ok");
+                    return;
+                }
+
+                if ("/api/v1/error-400".equals(req.path())) {
+                    req.response()
+                            .putHeader("Content-Type", "application/json")
+                            .putHeader("X-Downstream-Error", "1")
+                            .setStatusCode(400)
+                            .end("{\"error\":\"bad_request\"}");
+                    return;
+                }
+
+                if ("/api/v1/error-500".equals(req.path())) {
+                    req.response()
+                            .putHeader("Content-Type", "application/json")
+                            .putHeader("X-Downstream-Error", "1")
+                            .setStatusCode(500)
+                            .end("{\"error\":\"internal\"}");
+                    return;
+                }
+
+                String receivedHeader = req.getHeader("X-Test");
+                String payload = body == null ? "" : body.toString();
+                String responseBody = "method=" + req.method() + " path=" + req.path() + " query=" + (req.query() == null ? "" : req.query()) + " body=" + payload;
+
+                req.response()
+                        .putHeader("Content-Type", "text/plain")
+                        .putHeader("X-Echo-Method", req.method().name())
+                        .putHeader("X-Echo-Path", req.path())
+                        .putHeader("X-Received-X-Test", receivedHeader == null ? "" : receivedHeader)
+                        .setStatusCode(200)
+                        .end(responseBody);
+            });
+        });
 
         server.listen(0).toCompletionStage().toCompletableFuture().join();
         int port = server.actualPort();
@@ -129,6 +257,56 @@ public class DownstreamVertxStubTestResource implements QuarkusTestResourceLifec
         }
     }
 
+    /**
+     * Sends binary messages as fast as the gateway takes them, and counts the bytes sent until the socket closes.
+     */
+    private void firehose(io.vertx.core.http.ServerWebSocket ws) {
+        firehoseSent.set(0);
+        firehoseClosed.set(false);
+        io.vertx.core.buffer.Buffer message = io.vertx.core.buffer.Buffer.buffer(new byte[16 * 1024]);
+        Runnable[] send = new Runnable[1];
+        send[0] = () -> {
+            while (!firehoseClosed.get() && !ws.writeQueueFull()) {
+                ws.writeBinaryMessage(message);
+                firehoseSent.addAndGet(message.length());
+            }
+        };
+        ws.drainHandler(v -> send[0].run());
+        ws.closeHandler(v -> firehoseClosed.set(true));
+        send[0].run();
+    }
+
+    /**
+     * {@code /api/v1/upload} consumes the body as it arrives and answers with its size and SHA-256;
+     * {@code /api/v1/upload-progress} reports how many bytes of the current upload were received so far.
+     */
+    private boolean handleUpload(io.vertx.core.http.HttpServerRequest req) {
+        if ("/api/v1/upload-progress".equals(req.path())) {
+            req.response().putHeader("Content-Type", "text/plain").end(String.valueOf(uploadReceived.get()));
+            return true;
+        }
+        if (!"/api/v1/upload".equals(req.path())) {
+            return false;
+        }
+
+        uploadReceived.set(0);
+        java.security.MessageDigest digest;
+        try {
+            digest = java.security.MessageDigest.getInstance("SHA-256");
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        req.handler(chunk -> {
+            digest.update(chunk.getBytes());
+            uploadReceived.addAndGet(chunk.length());
+        });
+        req.endHandler(v -> req.response()
+                .putHeader("Content-Type", "text/plain")
+                .putHeader("X-Upload-Chunked", String.valueOf(req.getHeader("Content-Length") == null))
+                .end("received=" + uploadReceived.get() + " sha256=" + java.util.HexFormat.of().formatHex(digest.digest())));
+        return true;
+    }
+
     private static void writeFrame(io.vertx.core.http.HttpServerResponse resp, AtomicInteger sent) {
         if (resp == null || resp.ended()) {
             return;
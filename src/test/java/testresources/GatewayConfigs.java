@@ -0,0 +1,27 @@
+package testresources;
+
+import configurations.gateway.GatewayConfig;
+import io.quarkus.runtime.configuration.DurationConverter;
+import io.smallrye.config.PropertiesConfigSource;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Builds {@link GatewayConfig} instances for plain unit tests, with the same duration syntax as application.yaml.
+ */
+public final class GatewayConfigs {
+
+    private GatewayConfigs() {
+    }
+
+    public static GatewayConfig of(Map<String, String> properties) {
+        return new SmallRyeConfigBuilder()
+                .withSources(new PropertiesConfigSource(properties, "test", 100))
+                .withConverter(Duration.class, 100, new DurationConverter())
+                .withMapping(GatewayConfig.class)
+                .build()
+                .getConfigMapping(GatewayConfig.class);
+    }
+}
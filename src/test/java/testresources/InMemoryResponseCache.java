@@ -0,0 +1,32 @@
+package testresources;
+
+import domain.cache.CacheKey;
+import domain.cache.CachedVariants;
+import ports.out.gateway.ResponseCachePort;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unbounded {@link ResponseCachePort} for plain unit tests.
+ */
+public final class InMemoryResponseCache implements ResponseCachePort {
+
+    private final Map<CacheKey, CachedVariants> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<CachedVariants> get(CacheKey key) {
+        return Optional.ofNullable(entries.get(key));
+    }
+
+    @Override
+    public void put(CacheKey key, CachedVariants variants) {
+        entries.put(key, variants);
+    }
+
+    @Override
+    public void invalidate(CacheKey key) {
+        entries.remove(key);
+    }
+}
@@ -0,0 +1,33 @@
+package testresources;
+
+import domain.gateway.RouteDefinition;
+import io.smallrye.mutiny.Uni;
+import ports.out.gateway.RouteResiliencePort;
+
+import java.util.function.Supplier;
+
+/**
+ * {@link RouteResiliencePort} for plain unit tests: runs every call once, without any policy.
+ */
+public final class PassThroughRouteResilience implements RouteResiliencePort {
+
+    @Override
+    public <T> T execute(RouteDefinition route, boolean idempotent, Supplier<T> call) {
+        return call.get();
+    }
+
+    @Override
+    public <T> T executeStream(RouteDefinition route, Supplier<T> call) {
+        return call.get();
+    }
+
+    @Override
+    public <T> Uni<T> executeAsync(RouteDefinition route, boolean idempotent, Supplier<Uni<T>> call) {
+        return Uni.createFrom().deferred(call::get);
+    }
+
+    @Override
+    public <T> Uni<T> executeStreamAsync(RouteDefinition route, Supplier<Uni<T>> call) {
+        return Uni.createFrom().deferred(call::get);
+    }
+}
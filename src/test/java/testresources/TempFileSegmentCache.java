@@ -0,0 +1,60 @@
+package testresources;
+
+import domain.cache.CacheKey;
+import domain.cache.CachedSegment;
+import ports.out.gateway.SegmentCachePort;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unbounded {@link SegmentCachePort} for plain unit tests, writing each segment to a temp file deleted on exit.
+ */
+public final class TempFileSegmentCache implements SegmentCachePort {
+
+    private final Map<CacheKey, CachedSegment> segments = new ConcurrentHashMap<>();
+    private final long maxSegmentBytes;
+
+    public TempFileSegmentCache() {
+        this(Long.MAX_VALUE);
+    }
+
+    public TempFileSegmentCache(long maxSegmentBytes) {
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    @Override
+    public Optional<CachedSegment> get(CacheKey key) {
+        return Optional.ofNullable(segments.get(key));
+    }
+
+    @Override
+    public Optional<CachedSegment> put(CacheKey key, Map<String, List<String>> headers, InputStream body) {
+        try (InputStream in = body) {
+            byte[] bytes = in.readNBytes((int) Math.min(Integer.MAX_VALUE - 9, maxSegmentBytes) + 1);
+            if (bytes.length > maxSegmentBytes) {
+                return Optional.empty();
+            }
+            Path file = Files.createTempFile("segment", ".seg");
+            file.toFile().deleteOnExit();
+            Files.write(file, bytes);
+            CachedSegment segment = new CachedSegment(file, bytes.length, headers);
+            segments.put(key, segment);
+            return Optional.of(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long maxSegmentBytes() {
+        return maxSegmentBytes;
+    }
+}